@@ -0,0 +1,72 @@
+package com._bet.benchmark;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com._bet.helpers.ClaimsToken;
+import com._bet.helpers.JwtHelper;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Tokens verificados por segundo en el filtro JWT.
+ *
+ * antes: el camino anterior del filtro, extractUsername + isTokenValid (tres
+ * parseos, cada uno decodificando la llave y construyendo el parser).
+ * despues: JwtHelper.verificar (llave y parser cacheados, un solo parseo).
+ *
+ * Ejecutar con: ./mvnw -Pbenchmark test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtVerificacionBenchmark {
+
+    private static final String SECRET =
+            "bWlfY2xhdmVfc2VjcmV0YV9qd3RfbXV5X2xhcmdhX3BhcmFfMjRiZXRfYXBwbGljYXRpb25fMjAyNA==";
+
+    private JwtHelper jwtHelper;
+    private UserDetails usuario;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtHelper = new JwtHelper(SECRET, 86400000L);
+        usuario = User.withUsername("apostador").password("x").roles("USER").build();
+        token = jwtHelper.generateToken(usuario);
+    }
+
+    @Benchmark
+    public boolean antes() {
+        // Filtro: extractUsername
+        String username = parsear(token).getSubject();
+        // isTokenValid: extractUsername + isTokenExpired
+        return username.equals(usuario.getUsername()) && parsear(token).getSubject().equals(usuario.getUsername())
+                && !parsear(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean despues() {
+        ClaimsToken claims = jwtHelper.verificar(token);
+        return claims.perteneceA(usuario);
+    }
+
+    private static Claims parsear(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
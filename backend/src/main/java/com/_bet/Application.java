@@ -1,6 +1,7 @@
 package com._bet;
 
 import com._bet.config.TheSportsDbV2Properties;
+import com._bet.config.datasource.DataSourceRoutingProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -8,7 +9,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(TheSportsDbV2Properties.class)
+@EnableConfigurationProperties({ TheSportsDbV2Properties.class, DataSourceRoutingProperties.class })
 @EnableScheduling
 @EnableAsync
 public class Application {
@@ -1,9 +1,12 @@
 package com._bet.config;
 
 import com._bet.helpers.JwtHelper;
+import com._bet.security.CachePrincipales;
+import com._bet.security.CalibradorBCrypt;
 import com._bet.security.JwtAuthenticationFilter;
 import com._bet.service.user.UsuarioService;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -32,9 +35,19 @@ import java.util.List;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    /**
+     * BCrypt con costo fijo (seguridad.password.bcrypt.costo) o, si es 0,
+     * calibrado al arrancar según el tiempo objetivo por hash
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(
+            @Value("${seguridad.password.bcrypt.costo:0}") int costo,
+            @Value("${seguridad.password.bcrypt.tiempo-objetivo-ms:250}") long tiempoObjetivoMs,
+            @Value("${seguridad.password.bcrypt.costo-minimo:10}") int costoMinimo,
+            @Value("${seguridad.password.bcrypt.costo-maximo:14}") int costoMaximo) {
+        int costoEfectivo = costo > 0 ? costo
+                : CalibradorBCrypt.costoPara(tiempoObjetivoMs, costoMinimo, costoMaximo);
+        return new BCryptPasswordEncoder(costoEfectivo);
     }
 
     @Bean
@@ -42,6 +55,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(usuarioService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        // Hashes con un costo menor al actual se recalculan en el siguiente login exitoso
+        authProvider.setUserDetailsPasswordService(usuarioService);
         return authProvider;
     }
 
@@ -51,8 +66,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    JwtAuthenticationFilter jwtAuthenticationFilter(JwtHelper jwtHelper, UsuarioService usuarioService) {
-        return new JwtAuthenticationFilter(jwtHelper, usuarioService);
+    JwtAuthenticationFilter jwtAuthenticationFilter(JwtHelper jwtHelper, CachePrincipales cachePrincipales) {
+        return new JwtAuthenticationFilter(jwtHelper, cachePrincipales);
     }
 
     @Bean
@@ -78,8 +93,9 @@ public class SecurityConfig {
                         // Swagger y documentación
                         //.requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
 
-                        // Health check y actuator (si se usa)
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Health check público; el resto de actuator (métricas de negocio) solo para administradores
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Endpoints públicos específicos
                         .requestMatchers(HttpMethod.GET, "/24bet/public/**").permitAll()
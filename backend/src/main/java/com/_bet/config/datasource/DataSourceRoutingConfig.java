@@ -0,0 +1,104 @@
+package com._bet.config.datasource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuración del enrutamiento lectura/escritura.
+ *
+ * La primaria se construye con spring.datasource (y su pool con
+ * spring.datasource.hikari) y las réplicas con app.datasource.routing.replicas. Las transacciones readOnly van a las
+ * réplicas; las escrituras y las lecturas recientes del mismo usuario a la primaria.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@Slf4j
+public class DataSourceRoutingConfig {
+
+    /**
+     * Pool de la primaria. Se declara como bean para que spring.datasource.hikari.*
+     * se aplique igual que sin enrutamiento
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primaria = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primaria.setPoolName(ReadWriteRoutingDataSource.PRIMARIA);
+        return primaria;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaria,
+            DataSourceProperties dataSourceProperties, DataSourceRoutingProperties routingProperties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(ReadWriteRoutingDataSource.PRIMARIA, primaria);
+
+        List<String> nombresReplicas = new ArrayList<>();
+        for (DataSourceRoutingProperties.ReplicaConfig replica : routingProperties.getReplicas()) {
+            if (replica.getUrl() == null || replica.getUrl().isBlank()) {
+                continue;
+            }
+            String nombre = "replica-" + nombresReplicas.size();
+            HikariDataSource dataSourceReplica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.getDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            dataSourceReplica.setPoolName(nombre);
+            dataSourceReplica.setMaximumPoolSize(replica.getMaxPoolSize());
+            dataSourceReplica.setReadOnly(true);
+
+            destinos.put(nombre, dataSourceReplica);
+            nombresReplicas.add(nombre);
+        }
+
+        log.info("Enrutamiento lectura/escritura activo con {} réplica(s)", nombresReplicas.size());
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(nombresReplicas,
+                routingProperties.getVentanaLecturaPropiaMs(), meterRegistry.getIfAvailable());
+        routing.setTargetDataSources(destinos);
+        routing.setDefaultTargetDataSource(primaria);
+        return routing;
+    }
+
+    /**
+     * DataSource que usa JPA. El proxy perezoso retrasa la obtención de la conexión
+     * hasta la primera sentencia, cuando ya se conoce si la transacción es readOnly.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+            DataSourceRoutingProperties routingProperties) {
+        return new ReplicaLagMonitor(readWriteRoutingDataSource, routingProperties);
+    }
+}
@@ -0,0 +1,50 @@
+package com._bet.config.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del enrutamiento lectura/escritura entre la base de datos
+ * primaria (spring.datasource) y una o más réplicas de solo lectura
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /**
+     * Activa el enrutamiento. Si está desactivado se usa solo spring.datasource
+     */
+    private boolean enabled = false;
+
+    /**
+     * Réplicas de solo lectura (cualquier segunda instancia de Postgres sirve)
+     */
+    private List<ReplicaConfig> replicas = new ArrayList<>();
+
+    /**
+     * Ventana en milisegundos durante la cual las lecturas de un usuario que acaba
+     * de escribir se mandan a la primaria (leer sus propias escrituras)
+     */
+    private long ventanaLecturaPropiaMs = 5000;
+
+    /**
+     * Retraso máximo tolerado en una réplica antes de sacarla de rotación
+     */
+    private long retrasoMaximoMs = 10000;
+
+    /**
+     * Intervalo de verificación del retraso de las réplicas
+     */
+    private long intervaloVerificacionMs = 5000;
+
+    @Data
+    public static class ReplicaConfig {
+        private String url;
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+    }
+}
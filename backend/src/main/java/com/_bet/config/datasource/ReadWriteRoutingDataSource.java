@@ -0,0 +1,182 @@
+package com._bet.config.datasource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com._bet.entity.user.Usuario;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DataSource que enruta las transacciones de solo lectura a las réplicas y
+ * todo lo demás a la primaria.
+ *
+ * Debe usarse envuelto en un LazyConnectionDataSourceProxy para que la
+ * decisión se tome cuando la transacción ya tiene marcado el readOnly.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARIA = "primaria";
+
+    private final List<String> replicas;
+    private final long ventanaLecturaPropiaMs;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger siguienteReplica = new AtomicInteger();
+    private final Map<String, Boolean> replicaDisponible = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> retrasoReplicaMs = new ConcurrentHashMap<>();
+    private final Map<Long, Long> ultimaEscrituraPorUsuario = new ConcurrentHashMap<>();
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(List<String> replicas, long ventanaLecturaPropiaMs,
+            MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.ventanaLecturaPropiaMs = ventanaLecturaPropiaMs;
+        this.meterRegistry = meterRegistry;
+        for (String replica : this.replicas) {
+            replicaDisponible.put(replica, true);
+            AtomicLong retraso = new AtomicLong();
+            retrasoReplicaMs.put(replica, retraso);
+            if (meterRegistry != null) {
+                meterRegistry.gauge("datasource.replica.retraso.ms", Tags.of("replica", replica), retraso);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long usuarioId = usuarioActualId();
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return contar(PRIMARIA, "sin_transaccion");
+        }
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (usuarioId != null) {
+                registrarEscritura(usuarioId);
+            }
+            return contar(PRIMARIA, "escritura");
+        }
+
+        if (usuarioId != null && escrituraReciente(usuarioId)) {
+            return contar(PRIMARIA, "lectura_propia");
+        }
+
+        String replica = elegirReplica();
+        if (replica == null) {
+            return contar(PRIMARIA, "sin_replica");
+        }
+        return contar(replica, "lectura");
+    }
+
+    /**
+     * Marca que el usuario escribió, para que sus próximas lecturas vayan a la
+     * primaria mientras las réplicas se ponen al día
+     */
+    public void registrarEscritura(Long usuarioId) {
+        ultimaEscrituraPorUsuario.put(usuarioId, System.currentTimeMillis());
+    }
+
+    /**
+     * Actualiza el estado de una réplica según su retraso medido
+     */
+    public void actualizarEstadoReplica(String replica, boolean disponible, long retrasoMs) {
+        Boolean anterior = replicaDisponible.put(replica, disponible);
+        AtomicLong retraso = retrasoReplicaMs.get(replica);
+        if (retraso != null) {
+            retraso.set(retrasoMs);
+        }
+        if (anterior != null && anterior != disponible) {
+            log.warn("Réplica {} {} (retraso {} ms)", replica,
+                    disponible ? "vuelve a rotación" : "fuera de rotación", retrasoMs);
+        }
+    }
+
+    /**
+     * Elimina las marcas de escritura que ya salieron de la ventana
+     */
+    public void purgarEscriturasExpiradas() {
+        long limite = System.currentTimeMillis() - ventanaEfectivaMs();
+        ultimaEscrituraPorUsuario.values().removeIf(momento -> momento < limite);
+    }
+
+    public List<String> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Cierra los pools de la primaria y las réplicas al apagar la aplicación
+     */
+    public void close() {
+        for (Object destino : getResolvedDataSources().values()) {
+            if (destino instanceof AutoCloseable cerrable) {
+                try {
+                    cerrable.close();
+                } catch (Exception e) {
+                    log.warn("No se pudo cerrar el pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean escrituraReciente(Long usuarioId) {
+        Long momento = ultimaEscrituraPorUsuario.get(usuarioId);
+        return momento != null && System.currentTimeMillis() - momento < ventanaEfectivaMs();
+    }
+
+    /**
+     * La ventana nunca es menor que el peor retraso observado en réplicas disponibles
+     */
+    private long ventanaEfectivaMs() {
+        long peorRetraso = 0;
+        for (String replica : replicas) {
+            if (Boolean.TRUE.equals(replicaDisponible.get(replica))) {
+                peorRetraso = Math.max(peorRetraso, retrasoReplicaMs.get(replica).get());
+            }
+        }
+        return Math.max(ventanaLecturaPropiaMs, peorRetraso);
+    }
+
+    private String elegirReplica() {
+        int total = replicas.size();
+        for (int i = 0; i < total; i++) {
+            String candidata = replicas.get(Math.floorMod(siguienteReplica.getAndIncrement(), total));
+            if (Boolean.TRUE.equals(replicaDisponible.get(candidata))) {
+                return candidata;
+            }
+        }
+        return null;
+    }
+
+    private Long usuarioActualId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof Usuario usuario) {
+            return usuario.getId();
+        }
+        return null;
+    }
+
+    private String contar(String destino, String motivo) {
+        if (meterRegistry != null) {
+            contadores.computeIfAbsent(destino + "|" + motivo, k -> Counter.builder("datasource.routing.decisiones")
+                    .description("Conexiones enrutadas por destino y motivo")
+                    .tag("destino", destino)
+                    .tag("motivo", motivo)
+                    .register(meterRegistry))
+                    .increment();
+        }
+        return destino;
+    }
+}
@@ -0,0 +1,47 @@
+package com._bet.config.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mide periódicamente el retraso de replicación de cada réplica y la saca de
+ * rotación si supera el máximo configurado o no responde.
+ *
+ * Una instancia que no está en recuperación (una segunda Postgres local usada
+ * como réplica de prueba) reporta retraso 0.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private static final String SQL_RETRASO = "SELECT CASE WHEN pg_is_in_recovery() "
+            + "THEN COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) "
+            + "ELSE 0 END";
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final DataSourceRoutingProperties routingProperties;
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.intervalo-verificacion-ms:5000}")
+    public void verificarReplicas() {
+        for (String replica : routingDataSource.getReplicas()) {
+            DataSource dataSource = routingDataSource.getResolvedDataSources().get(replica);
+            try {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+                jdbcTemplate.setQueryTimeout(2);
+                Double retraso = jdbcTemplate.queryForObject(SQL_RETRASO, Double.class);
+                long retrasoMs = retraso == null ? 0 : retraso.longValue();
+                routingDataSource.actualizarEstadoReplica(replica,
+                        retrasoMs <= routingProperties.getRetrasoMaximoMs(), retrasoMs);
+            } catch (Exception e) {
+                log.debug("Réplica {} sin respuesta: {}", replica, e.getMessage());
+                routingDataSource.actualizarEstadoReplica(replica, false, -1);
+            }
+        }
+        routingDataSource.purgarEscriturasExpiradas();
+    }
+}
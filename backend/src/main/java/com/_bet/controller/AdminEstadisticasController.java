@@ -0,0 +1,132 @@
+package com._bet.controller;
+
+import com._bet.dto.TransaccionCryptoDto;
+import com._bet.entity.transacciones.TransaccionCrypto;
+import com._bet.entity.user.CryptoWallet;
+import com._bet.repository.RollupRepository.VolumenMensual;
+import com._bet.service.Transaccion.TransaccionCryptoService;
+import com._bet.service.estadisticas.RollupService;
+import com._bet.service.estadisticas.RollupService.ResultadoRollup;
+import com._bet.service.estadisticas.RollupService.ResumenApuestasDto;
+import com._bet.service.estadisticas.RollupService.ResumenTransaccionesDto;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Estadísticas de transacciones y apuestas para administradores. Los totales
+ * salen de los rollups diarios; el detalle baja a las filas con el filtro
+ * paginado de transacciones.
+ */
+@RestController
+@RequestMapping("/24bet/admin/estadisticas")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminEstadisticasController {
+
+    private final RollupService rollupService;
+    private final TransaccionCryptoService transaccionCryptoService;
+
+    /**
+     * Cantidad y monto USD de las transacciones crypto por estado, tipo y crypto;
+     * sin fechas cubre todo el histórico
+     */
+    @GetMapping("/transacciones")
+    public ResponseEntity<ResumenTransaccionesDto> obtenerEstadisticasTransacciones(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            return ResponseEntity.ok(rollupService.resumenTransacciones(desde, hasta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Volumen USD aprobado por mes
+     */
+    @GetMapping("/transacciones/volumen-mensual")
+    public ResponseEntity<List<VolumenMensual>> obtenerVolumenMensual(
+            @RequestParam(defaultValue = "12") int meses) {
+        try {
+            return ResponseEntity.ok(rollupService.volumenMensual(meses));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Transacciones individuales detrás de un agregado: mismos días y
+     * dimensiones, paginadas por cursor
+     */
+    @GetMapping("/transacciones/detalle")
+    public ResponseEntity<TransaccionCryptoDto.PaginaTransaccionesDto> obtenerDetalleTransacciones(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) TransaccionCrypto.EstadoTransaccion estado,
+            @RequestParam(required = false) TransaccionCrypto.TipoTransaccion tipoTransaccion,
+            @RequestParam(required = false) CryptoWallet.TipoCrypto tipoCrypto,
+            @RequestParam(required = false) TransaccionCryptoDto.OrdenTransaccion orden,
+            @RequestParam(required = false) Integer tamanoPagina,
+            @RequestParam(required = false) String cursor) {
+        if (desde.isAfter(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+        TransaccionCryptoDto.FiltroTransaccionDto filtro = new TransaccionCryptoDto.FiltroTransaccionDto();
+        filtro.setFechaInicio(desde.atStartOfDay());
+        filtro.setFechaFin(hasta.plusDays(1).atStartOfDay());
+        filtro.setEstado(estado);
+        filtro.setTipoTransaccion(tipoTransaccion);
+        filtro.setTipoCrypto(tipoCrypto);
+        filtro.setOrden(orden);
+        filtro.setTamanoPagina(tamanoPagina);
+        filtro.setCursor(cursor);
+        try {
+            return ResponseEntity.ok(transaccionCryptoService.getTransaccionesFiltradas(filtro));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Cantidad, monto y ganancia real de las apuestas por estado y resultado;
+     * sin fechas cubre todo el histórico
+     */
+    @GetMapping("/apuestas")
+    public ResponseEntity<ResumenApuestasDto> obtenerEstadisticasApuestas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            return ResponseEntity.ok(rollupService.resumenApuestas(desde, hasta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Aplica ya los cambios pendientes sin esperar a la tarea programada
+     */
+    @PostMapping("/rollups/actualizar")
+    public ResponseEntity<ResultadoRollup> actualizarRollups() {
+        log.info("🔄 Actualización manual de rollups");
+        return ResponseEntity.ok(rollupService.actualizar());
+    }
+
+    /**
+     * Reconstruye los rollups completos desde las tablas origen
+     */
+    @PostMapping("/rollups/reconstruir")
+    public ResponseEntity<ResultadoRollup> reconstruirRollups() {
+        log.info("🔄 Reconstrucción manual de rollups");
+        return ResponseEntity.ok(rollupService.reconstruir());
+    }
+}
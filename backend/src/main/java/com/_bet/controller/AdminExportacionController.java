@@ -0,0 +1,101 @@
+package com._bet.controller;
+
+import com._bet.repository.ExportacionRepository.Conjunto;
+import com._bet.service.exportacion.ExportacionService;
+import com._bet.service.exportacion.ExportacionService.Formato;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exportaciones para contabilidad de transacciones crypto, solicitudes de
+ * depósito y retiro y apuestas. El archivo se genera mientras se descarga.
+ */
+@RestController
+@RequestMapping("/24bet/admin/exportaciones")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExportacionController {
+
+    private final ExportacionService exportacionService;
+
+    @Value("${exportacion.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    /**
+     * Exporta las filas creadas entre dos días (incluidos) en CSV o NDJSON,
+     * opcionalmente comprimidas con gzip. La descarga corre como petición
+     * asíncrona con su propio timeout; el resto de endpoints asíncronos
+     * conservan el del contenedor
+     */
+    @GetMapping("/{conjunto}")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @PathVariable Conjunto conjunto,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "CSV") Formato formato,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        if (desde.isAfter(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!exportacionService.reservar()) {
+            log.warn("Exportación {} rechazada: límite de exportaciones simultáneas", conjunto);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        // El permiso se libera una sola vez: al terminar el cuerpo, al cerrar la
+        // petición asíncrona (timeout o cliente desconectado antes de empezar) o
+        // si algo falla antes de devolver la respuesta
+        AtomicBoolean liberado = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (liberado.compareAndSet(false, true)) {
+                exportacionService.liberar();
+            }
+        };
+        try {
+            log.info("🔄 Exportando {} del {} al {} en {}{}", conjunto, desde, hasta, formato, gzip ? " (gzip)" : "");
+            AsyncWebRequest asincrona = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+            asincrona.setTimeout(timeoutMs);
+            asincrona.addCompletionHandler(liberar);
+            StreamingResponseBody cuerpo = salida -> {
+                try {
+                    exportacionService.exportar(conjunto, formato, desde, hasta, gzip, salida);
+                } finally {
+                    liberar.run();
+                }
+            };
+
+            String archivo = conjunto.name().toLowerCase(Locale.ROOT) + "_" + desde + "_" + hasta + "."
+                    + formato.getExtension() + (gzip ? ".gz" : "");
+            return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType(formato.getTipoContenido() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(archivo).build().toString())
+                .body(cuerpo);
+        } catch (RuntimeException e) {
+            liberar.run();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com._bet.controller;
+
+import com._bet.service.apuesta.ExposicionResumen;
+import com._bet.service.apuesta.ExposicionService;
+import com._bet.service.apuesta.ExposicionService.NivelExposicion;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Controlador de exposición (liability) de la casa para administradores
+ */
+@RestController
+@RequestMapping("/24bet/admin/exposicion")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExposicionController {
+
+    private static final int TOP_MAXIMO = 500;
+    private static final long INTERVALO_MINIMO_MS = 500;
+    private static final long DURACION_STREAM_MS = 30 * 60 * 1000L;
+
+    private final ExposicionService exposicionService;
+    private final TaskScheduler taskScheduler;
+
+    /**
+     * Exposiciones con mayor pago en el peor caso
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<ExposicionResumen>> obtenerTop(
+            @RequestParam(defaultValue = "EVENTO") NivelExposicion nivel,
+            @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(exposicionService.top(nivel, Math.min(limite, TOP_MAXIMO)));
+    }
+
+    /**
+     * Envía por Server-Sent Events las exposiciones con mayor pago cada intervalo
+     */
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public SseEmitter streamTop(
+            @RequestParam(defaultValue = "EVENTO") NivelExposicion nivel,
+            @RequestParam(defaultValue = "20") int limite,
+            @RequestParam(defaultValue = "2000") long intervaloMs) {
+        SseEmitter emitter = new SseEmitter(DURACION_STREAM_MS);
+        int top = Math.min(limite, TOP_MAXIMO);
+        AtomicReference<ScheduledFuture<?>> tarea = new AtomicReference<>();
+
+        tarea.set(taskScheduler.scheduleAtFixedRate(() -> {
+            try {
+                emitter.send(SseEmitter.event().name("exposicion").data(exposicionService.top(nivel, top)));
+            } catch (IOException | IllegalStateException e) {
+                // El cliente cerró la conexión
+                emitter.completeWithError(e);
+            }
+        }, Duration.ofMillis(Math.max(intervaloMs, INTERVALO_MINIMO_MS))));
+
+        Runnable cancelar = () -> {
+            ScheduledFuture<?> futuro = tarea.get();
+            if (futuro != null) {
+                futuro.cancel(false);
+            }
+        };
+        emitter.onCompletion(cancelar);
+        emitter.onTimeout(cancelar);
+        emitter.onError(e -> cancelar.run());
+        return emitter;
+    }
+
+    /**
+     * Exposición de una selección, mercado o evento
+     */
+    @GetMapping("/{nivel}/{id}")
+    public ResponseEntity<ExposicionResumen> obtenerExposicion(@PathVariable NivelExposicion nivel,
+            @PathVariable Long id) {
+        ExposicionResumen resumen = exposicionService.obtener(nivel, id);
+        return resumen != null ? ResponseEntity.ok(resumen) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Reconstruye la exposición desde las apuestas abiertas
+     */
+    @PostMapping("/reconstruir")
+    public ResponseEntity<Integer> reconstruir() {
+        log.info("🔄 Reconstrucción manual de la exposición");
+        return ResponseEntity.ok(exposicionService.reconstruir());
+    }
+}
@@ -0,0 +1,85 @@
+package com._bet.controller;
+
+import com._bet.entity.ledger.MovimientoLedger;
+import com._bet.service.ledger.LedgerService;
+import com._bet.service.saldo.SaldoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Controlador de auditoría del ledger de saldos para administradores
+ */
+@RestController
+@RequestMapping("/24bet/admin/ledger")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminLedgerController {
+
+    private final LedgerService ledgerService;
+    private final SaldoService saldoService;
+
+    /**
+     * Movimientos del ledger de un usuario, más recientes primero
+     */
+    @GetMapping("/usuario/{usuarioId}/movimientos")
+    public ResponseEntity<Page<MovimientoLedger>> obtenerMovimientos(
+            @PathVariable Long usuarioId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(ledgerService.historialUsuario(usuarioId, PageRequest.of(page, size)));
+    }
+
+    /**
+     * Compara el saldo de la cuenta con el reconstruido desde el ledger (ambos
+     * leídos en la primaria)
+     */
+    @GetMapping("/usuario/{usuarioId}/conciliacion")
+    public ResponseEntity<ConciliacionSaldoDto> conciliarSaldo(@PathVariable Long usuarioId) {
+        SaldoService.ConciliacionSaldo conciliacion = saldoService.conciliar(usuarioId);
+
+        ConciliacionSaldoDto dto = new ConciliacionSaldoDto(usuarioId, conciliacion.getSaldoCuenta(),
+                conciliacion.getSaldoLedger());
+        if (dto.getDiferencia().signum() != 0) {
+            log.warn("Saldo del usuario {} no concilia: cuenta {} vs ledger {}", usuarioId,
+                    dto.getSaldoCuenta(), dto.getSaldoLedger());
+        }
+        return ResponseEntity.ok(dto);
+    }
+
+    /**
+     * Fuerza la creación de fotos de saldo fuera del horario programado
+     */
+    @PostMapping("/snapshots")
+    public ResponseEntity<Integer> crearSnapshots() {
+        return ResponseEntity.ok(ledgerService.crearSnapshots());
+    }
+
+    // ========== DTOs ==========
+
+    public static class ConciliacionSaldoDto {
+        private final Long usuarioId;
+        private final BigDecimal saldoCuenta;
+        private final BigDecimal saldoLedger;
+
+        public ConciliacionSaldoDto(Long usuarioId, BigDecimal saldoCuenta, BigDecimal saldoLedger) {
+            this.usuarioId = usuarioId;
+            this.saldoCuenta = saldoCuenta;
+            this.saldoLedger = saldoLedger;
+        }
+
+        public Long getUsuarioId() { return usuarioId; }
+        public BigDecimal getSaldoCuenta() { return saldoCuenta; }
+        public BigDecimal getSaldoLedger() { return saldoLedger; }
+        public BigDecimal getDiferencia() { return saldoCuenta.subtract(saldoLedger); }
+    }
+}
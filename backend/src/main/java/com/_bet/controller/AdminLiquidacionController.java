@@ -0,0 +1,86 @@
+package com._bet.controller;
+
+import com._bet.service.apuesta.AnulacionService;
+import com._bet.service.apuesta.AnulacionService.ResultadoAnulacion;
+import com._bet.service.apuesta.LiquidacionMasivaService;
+import com._bet.service.apuesta.LiquidacionMasivaService.ResultadoLiquidacionMasiva;
+import com._bet.service.apuesta.LiquidacionService;
+import com._bet.service.apuesta.LiquidacionService.ResultadoLiquidacion;
+import com._bet.service.evento.CicloVidaEventoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Controlador de liquidación de apuestas para administradores
+ */
+@RestController
+@RequestMapping("/24bet/admin/liquidacion")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminLiquidacionController {
+
+    private final LiquidacionService liquidacionService;
+    private final LiquidacionMasivaService liquidacionMasivaService;
+    private final AnulacionService anulacionService;
+    private final CicloVidaEventoService cicloVidaEventoService;
+
+    /**
+     * Liquida las apuestas y parlays abiertos de un evento ya resuelto
+     */
+    @PostMapping("/evento/{eventoId}")
+    public ResponseEntity<ResultadoLiquidacion> liquidarEvento(@PathVariable Long eventoId) {
+        log.info("🔄 Liquidación manual del evento {}", eventoId);
+        return ResponseEntity.ok(liquidacionService.liquidarEvento(eventoId));
+    }
+
+    /**
+     * Liquida en paralelo varios eventos ya resueltos; sin ids liquida todos los
+     * eventos terminados que aún tienen apuestas abiertas
+     */
+    @PostMapping("/eventos")
+    public ResponseEntity<ResultadoLiquidacionMasiva> liquidarEventos(
+            @RequestBody(required = false) List<Long> eventoIds) {
+        if (eventoIds == null || eventoIds.isEmpty()) {
+            log.info("🔄 Liquidación masiva de eventos terminados");
+            return ResponseEntity.ok(liquidacionMasivaService.liquidarFinalizados());
+        }
+        log.info("🔄 Liquidación masiva de {} eventos", eventoIds.size());
+        return ResponseEntity.ok(liquidacionMasivaService.liquidarEventos(eventoIds));
+    }
+
+    /**
+     * Anula las apuestas abiertas de un evento aplazado, cancelado, abandonado,
+     * adjudicado o detenido: reembolsa las simples y descarta sus piernas de los
+     * parlays. Un evento en cualquier otro estado se rechaza.
+     */
+    @PostMapping("/evento/{eventoId}/anular")
+    public ResponseEntity<ResultadoAnulacion> anularEvento(@PathVariable Long eventoId) {
+        log.info("🔄 Anulación manual del evento {}", eventoId);
+        try {
+            ResultadoAnulacion resultado = anulacionService.anularEvento(eventoId);
+            cicloVidaEventoService.descartarRevision(eventoId);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Anulación rechazada: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Eventos suspendidos o interrumpidos que no se reanudaron tras las
+     * revisiones automáticas y esperan una decisión del administrador
+     */
+    @GetMapping("/eventos/por-revisar")
+    public ResponseEntity<Set<Long>> eventosPorRevisar() {
+        return ResponseEntity.ok(cicloVidaEventoService.eventosPorRevisar());
+    }
+}
@@ -2,6 +2,11 @@ package com._bet.controller;
 
 import com._bet.entity.transacciones.SolicitudDeposito;
 import com._bet.entity.transacciones.SolicitudRetiro;
+import com._bet.entity.transacciones.AgregadoSolicitud.TipoSolicitud;
+import com._bet.service.Transaccion.DashboardSolicitudesService;
+import com._bet.service.Transaccion.SolicitudLoteService;
+import com._bet.service.Transaccion.SolicitudLoteService.Decision;
+import com._bet.service.Transaccion.SolicitudLoteService.ResultadoLoteDto;
 import com._bet.service.Transaccion.SolicitudTransaccionService;
 
 import lombok.RequiredArgsConstructor;
@@ -24,6 +29,8 @@ import java.util.List;
 public class AdminSolicitudesController {
 
     private final SolicitudTransaccionService solicitudTransaccionService;
+    private final DashboardSolicitudesService dashboardSolicitudesService;
+    private final SolicitudLoteService solicitudLoteService;
 
     // ========== SOLICITUDES DE DEPÓSITO ==========
 
@@ -74,6 +81,23 @@ public class AdminSolicitudesController {
         }
     }
 
+    /**
+     * Aprueba o rechaza varias solicitudes de depósito; cada una recibe su
+     * resultado y las que ya no están pendientes no detienen a las demás
+     */
+    @PostMapping("/depositos/lote")
+    public ResponseEntity<ResultadoLoteDto> procesarDepositosEnLote(@RequestBody ProcesarLoteDto dto) {
+        try {
+            log.info("Procesando lote de depósitos ({}) por admin: {}", dto.getDecision(), dto.getAdminId());
+            ResultadoLoteDto resultado = solicitudLoteService.procesarDepositos(
+                dto.getSolicitudIds(), dto.getDecision(), dto.getAdminId(), dto.getObservaciones());
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            log.error("Error procesando lote de depósitos: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ========== SOLICITUDES DE RETIRO ==========
 
     /**
@@ -124,6 +148,24 @@ public class AdminSolicitudesController {
         }
     }
 
+    /**
+     * Aprueba o rechaza varias solicitudes de retiro; al rechazar se devuelven
+     * los fondos agrupados por usuario
+     */
+    @PostMapping("/retiros/lote")
+    public ResponseEntity<ResultadoLoteDto> procesarRetirosEnLote(@RequestBody ProcesarLoteDto dto) {
+        try {
+            log.info("Procesando lote de retiros ({}) por admin: {}", dto.getDecision(), dto.getAdminId());
+            ResultadoLoteDto resultado = solicitudLoteService.procesarRetiros(
+                dto.getSolicitudIds(), dto.getDecision(), dto.getAdminId(), dto.getObservaciones(),
+                dto.getReferenciaTransaccion());
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            log.error("Error procesando lote de retiros: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ========== ESTADÍSTICAS ==========
 
     /**
@@ -138,29 +180,42 @@ public class AdminSolicitudesController {
     }
 
     /**
-     * Obtiene resumen del dashboard de administración
+     * Obtiene resumen del dashboard de administración: contadores y montos de
+     * los agregados y solo la primera página de cada cola de pendientes
      */
     @GetMapping("/dashboard")
-    public ResponseEntity<DashboardAdminDto> obtenerDashboard() {
+    public ResponseEntity<DashboardAdminDto> obtenerDashboard(
+            @RequestParam(defaultValue = "20") int limite) {
         log.info("Obteniendo dashboard de administración");
         
-        List<SolicitudDeposito> depositosPendientes = solicitudTransaccionService.obtenerSolicitudesDepositoPendientes();
-        List<SolicitudRetiro> retirosPendientes = solicitudTransaccionService.obtenerSolicitudesRetiroPendientes();
-        SolicitudTransaccionService.EstadisticasTransaccionesDto estadisticas = 
-            solicitudTransaccionService.obtenerEstadisticas();
+        int tamano = Math.max(1, Math.min(limite, 100));
+        List<DashboardSolicitudesService.AgregadoDashboardDto> agregados = dashboardSolicitudesService.obtenerAgregados();
+        List<SolicitudDeposito> depositosPendientes = solicitudTransaccionService.obtenerPrimerosDepositosPendientes(tamano);
+        List<SolicitudRetiro> retirosPendientes = solicitudTransaccionService.obtenerPrimerosRetirosPendientes(tamano);
 
         DashboardAdminDto dashboard = new DashboardAdminDto(
-            depositosPendientes.size(),
-            retirosPendientes.size(),
-            estadisticas.getDepositosHoy(),
-            estadisticas.getRetirosHoy(),
+            (int) DashboardSolicitudesService.cantidad(agregados, TipoSolicitud.DEPOSITO, SolicitudDeposito.EstadoSolicitud.PENDIENTE),
+            (int) DashboardSolicitudesService.cantidad(agregados, TipoSolicitud.RETIRO, SolicitudRetiro.EstadoSolicitud.PENDIENTE),
+            DashboardSolicitudesService.montoHoy(agregados, TipoSolicitud.DEPOSITO, SolicitudDeposito.EstadoSolicitud.COMPLETADA),
+            DashboardSolicitudesService.montoHoy(agregados, TipoSolicitud.RETIRO, SolicitudRetiro.EstadoSolicitud.COMPLETADA),
             depositosPendientes,
-            retirosPendientes
+            retirosPendientes,
+            agregados
         );
 
         return ResponseEntity.ok(dashboard);
     }
 
+    /**
+     * Recalcula los agregados del dashboard desde las solicitudes
+     */
+    @PostMapping("/dashboard/reconstruir")
+    public ResponseEntity<Void> reconstruirDashboard() {
+        log.info("🔄 Reconstruyendo agregados del dashboard de solicitudes");
+        dashboardSolicitudesService.reconstruir();
+        return ResponseEntity.ok().build();
+    }
+
     // ========== DTOs ==========
 
     public static class AprobarSolicitudDto {
@@ -196,6 +251,25 @@ public class AdminSolicitudesController {
         public void setMotivo(String motivo) { this.motivo = motivo; }
     }
 
+    public static class ProcesarLoteDto {
+        private List<Long> solicitudIds;
+        private Decision decision;
+        private Long adminId;
+        private String observaciones;
+        private String referenciaTransaccion;
+
+        public List<Long> getSolicitudIds() { return solicitudIds; }
+        public void setSolicitudIds(List<Long> solicitudIds) { this.solicitudIds = solicitudIds; }
+        public Decision getDecision() { return decision; }
+        public void setDecision(Decision decision) { this.decision = decision; }
+        public Long getAdminId() { return adminId; }
+        public void setAdminId(Long adminId) { this.adminId = adminId; }
+        public String getObservaciones() { return observaciones; }
+        public void setObservaciones(String observaciones) { this.observaciones = observaciones; }
+        public String getReferenciaTransaccion() { return referenciaTransaccion; }
+        public void setReferenciaTransaccion(String referenciaTransaccion) { this.referenciaTransaccion = referenciaTransaccion; }
+    }
+
     public static class DashboardAdminDto {
         private final int depositosPendientes;
         private final int retirosPendientes;
@@ -203,17 +277,20 @@ public class AdminSolicitudesController {
         private final java.math.BigDecimal retirosHoy;
         private final List<SolicitudDeposito> ultimosDepositosPendientes;
         private final List<SolicitudRetiro> ultimosRetirosPendientes;
+        private final List<DashboardSolicitudesService.AgregadoDashboardDto> agregados;
 
         public DashboardAdminDto(int depositosPendientes, int retirosPendientes,
                                java.math.BigDecimal depositosHoy, java.math.BigDecimal retirosHoy,
                                List<SolicitudDeposito> ultimosDepositosPendientes,
-                               List<SolicitudRetiro> ultimosRetirosPendientes) {
+                               List<SolicitudRetiro> ultimosRetirosPendientes,
+                               List<DashboardSolicitudesService.AgregadoDashboardDto> agregados) {
             this.depositosPendientes = depositosPendientes;
             this.retirosPendientes = retirosPendientes;
             this.depositosHoy = depositosHoy;
             this.retirosHoy = retirosHoy;
             this.ultimosDepositosPendientes = ultimosDepositosPendientes;
             this.ultimosRetirosPendientes = ultimosRetirosPendientes;
+            this.agregados = agregados;
         }
 
         public int getDepositosPendientes() { return depositosPendientes; }
@@ -222,5 +299,6 @@ public class AdminSolicitudesController {
         public java.math.BigDecimal getRetirosHoy() { return retirosHoy; }
         public List<SolicitudDeposito> getUltimosDepositosPendientes() { return ultimosDepositosPendientes; }
         public List<SolicitudRetiro> getUltimosRetirosPendientes() { return ultimosRetirosPendientes; }
+        public List<DashboardSolicitudesService.AgregadoDashboardDto> getAgregados() { return agregados; }
     }
 }
@@ -10,6 +10,7 @@ import com._bet.entity.apuestas.Apuesta;
 import com._bet.entity.user.Usuario;
 import com._bet.repository.ApuestaRepository;
 import com._bet.service.apuesta.ApuestaService;
+import com._bet.service.idempotencia.IdempotenciaService;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,8 @@ public class ApuestaController {
     private ApuestaRepository apuestaRepository;
     @Autowired
     private ApuestaService apuestaService;
+    @Autowired
+    private IdempotenciaService idempotenciaService;
 
     /**
      * Obtiene el historial de apuestas de un usuario
@@ -67,11 +70,16 @@ public class ApuestaController {
      */
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/crear")
-    public ResponseEntity<ApiResponseWrapper<Void>> crearApuesta(@RequestBody List<CrearApuestaRequest> dto) {
+    public ResponseEntity<ApiResponseWrapper<Void>> crearApuesta(@RequestBody List<CrearApuestaRequest> dto,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String claveIdempotencia) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             Usuario usuario = (Usuario) authentication.getPrincipal();
-            apuestaService.crearMultiplesApuestasSimples(dto, usuario);
+            idempotenciaService.ejecutar(usuario.getId(), claveIdempotencia, "CREAR_APUESTAS", dto, Boolean.class,
+                    () -> {
+                        apuestaService.crearMultiplesApuestasSimples(dto, usuario);
+                        return Boolean.TRUE;
+                    });
             return ResponseEntity.ok(new ApiResponseWrapper<>(true,"Apuestas creadas exitosamente", null));
         } catch (Exception e) {
             log.error("Error creando apuesta: {}", e.getMessage());
@@ -84,7 +92,8 @@ public class ApuestaController {
      */
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/parlay/crear")
-    public ResponseEntity<ApiResponseWrapper<ParlayResponse>> crearParlay(@RequestBody ParlayRequest parlayRequest) {
+    public ResponseEntity<ApiResponseWrapper<ParlayResponse>> crearParlay(@RequestBody ParlayRequest parlayRequest,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String claveIdempotencia) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             Usuario usuario = (Usuario) authentication.getPrincipal();
@@ -92,7 +101,9 @@ public class ApuestaController {
             log.info("Creando parlay para usuario: {} con {} apuestas", 
                     usuario.getId(), parlayRequest.getApuestas().size());
             
-            ParlayResponse parlayResponse = apuestaService.crearParlay(parlayRequest, usuario);
+            ParlayResponse parlayResponse = idempotenciaService.ejecutar(usuario.getId(), claveIdempotencia,
+                    "CREAR_PARLAY", parlayRequest, ParlayResponse.class,
+                    () -> apuestaService.crearParlay(parlayRequest, usuario));
             
             return ResponseEntity.ok(new ApiResponseWrapper<>(true, "Parlay creado exitosamente", parlayResponse));
         } catch (Exception e) {
@@ -5,6 +5,8 @@ import com._bet.dto.request.RegistroRequest;
 import com._bet.dto.response.JwtResponse;
 import com._bet.dto.response.UsuarioResponse;
 import com._bet.service.auth.AuthService;
+import com._bet.service.auth.HashingService;
+import com._bet.service.auth.HashingService.Operacion;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,6 +18,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
 @RestController
 @RequestMapping("/24bet/auth")
 @RequiredArgsConstructor
@@ -23,26 +30,25 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final HashingService hashingService;
 
     @PostMapping("/registro")
     @Operation(summary = "Registrar nuevo usuario", description = "Crea una nueva cuenta de usuario")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Usuario registrado exitosamente"),
             @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
-            @ApiResponse(responseCode = "409", description = "Usuario o email ya existente")
+            @ApiResponse(responseCode = "409", description = "Usuario o email ya existente"),
+            @ApiResponse(responseCode = "503", description = "Demasiadas solicitudes de autenticación en curso")
     })
-    public ResponseEntity<?> registrarUsuario(@Valid @RequestBody RegistroRequest registroRequest) {
-        try { 
-            UsuarioResponse usuario = authService.registrar(registroRequest);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(new ApiResponseWrapper<>(true, "Usuario registrado exitosamente", usuario));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(new ApiResponseWrapper<>(false, e.getMessage(), null));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ApiResponseWrapper<>(false, "Error interno del servidor", null));
-        }
+    public CompletableFuture<ResponseEntity<?>> registrarUsuario(@Valid @RequestBody RegistroRequest registroRequest) {
+        return hashingService.ejecutar(Operacion.REGISTRO, () -> authService.registrar(registroRequest))
+                .handle((usuario, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.status(HttpStatus.CREATED)
+                                .body(new ApiResponseWrapper<>(true, "Usuario registrado exitosamente", usuario));
+                    }
+                    return respuestaError(error, HttpStatus.CONFLICT);
+                });
     }
 
     @PostMapping("/login")
@@ -50,19 +56,35 @@ public class AuthController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login exitoso"),
             @ApiResponse(responseCode = "401", description = "Credenciales incorrectas"),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+            @ApiResponse(responseCode = "503", description = "Demasiadas solicitudes de autenticación en curso")
     })
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
-        try {
-            JwtResponse jwtResponse = authService.login(loginRequest);
-            return ResponseEntity.ok(new ApiResponseWrapper<>(true, "Login exitoso", jwtResponse));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new ApiResponseWrapper<>(false, e.getMessage(), null));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ApiResponseWrapper<>(false, "Error interno del servidor", null));
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return hashingService.ejecutar(Operacion.LOGIN, () -> authService.login(loginRequest))
+                .handle((jwtResponse, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(new ApiResponseWrapper<>(true, "Login exitoso", jwtResponse));
+                    }
+                    return respuestaError(error, HttpStatus.UNAUTHORIZED);
+                });
+    }
+
+    /**
+     * Cola de hashing llena o sin respuesta a tiempo: 503 para que el cliente
+     * reintente; errores de negocio con el estado de cada endpoint
+     */
+    private ResponseEntity<?> respuestaError(Throwable error, HttpStatus estadoNegocio) {
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (causa instanceof RejectedExecutionException || causa instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponseWrapper<>(false, "Servicio ocupado, intenta de nuevo en unos segundos", null));
+        }
+        if (causa instanceof RuntimeException) {
+            return ResponseEntity.status(estadoNegocio)
+                    .body(new ApiResponseWrapper<>(false, causa.getMessage(), null));
         }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiResponseWrapper<>(false, "Error interno del servidor", null));
     }
 
     // Clase interna para wrapper de respuestas API
@@ -7,6 +7,7 @@ import com._bet.entity.transacciones.SolicitudRetiro;
 import com._bet.entity.user.CryptoWallet;
 import com._bet.service.Transaccion.SolicitudTransaccionService;
 import com._bet.service.cryptoWallet.CryptoWalletService;
+import com._bet.service.idempotencia.IdempotenciaService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -32,6 +33,9 @@ public class CryptoWalletController {
     @Autowired
     private SolicitudTransaccionService solicitudTransaccionService;
 
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
     /**
      * Crea un nuevo wallet crypto para un usuario
      */
@@ -181,18 +185,22 @@ public class CryptoWalletController {
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<SolicitudRetiroResponse> crearSolicitudRetiro(
             @PathVariable Long usuarioId,
-            @RequestBody SolicitudTransaccionService.SolicitudRetiroDto request) {
+            @RequestBody SolicitudTransaccionService.SolicitudRetiroDto request,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String claveIdempotencia) {
         
         try {
-            SolicitudRetiro solicitud = solicitudTransaccionService.crearSolicitudRetiro(usuarioId, request);
-            SolicitudRetiroResponse response = new SolicitudRetiroResponse(
-                "Solicitud de retiro creada exitosamente. Fondos bloqueados. Pendiente de aprobación.", 
-                solicitud.getId(),
-                solicitud.getMonto(),
-                solicitud.getMontoNeto(),
-                solicitud.getComision(),
-                solicitud.getEstado().toString()
-            );
+            SolicitudRetiroResponse response = idempotenciaService.ejecutar(usuarioId, claveIdempotencia,
+                "SOLICITUD_RETIRO", request, SolicitudRetiroResponse.class, () -> {
+                    SolicitudRetiro solicitud = solicitudTransaccionService.crearSolicitudRetiro(usuarioId, request);
+                    return new SolicitudRetiroResponse(
+                        "Solicitud de retiro creada exitosamente. Fondos bloqueados. Pendiente de aprobación.", 
+                        solicitud.getId(),
+                        solicitud.getMonto(),
+                        solicitud.getMontoNeto(),
+                        solicitud.getComision(),
+                        solicitud.getEstado().toString()
+                    );
+                });
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -444,6 +452,9 @@ public class CryptoWalletController {
         private BigDecimal comision;
         private String estado;
         
+        public SolicitudRetiroResponse() {
+        }
+
         public SolicitudRetiroResponse(String mensaje, Long solicitudId, BigDecimal monto, 
                                      BigDecimal montoNeto, BigDecimal comision, String estado) {
             this.mensaje = mensaje;
@@ -201,15 +201,20 @@ public class TransaccionCryptoController {
     }
     
     /**
-     * Obtiene transacciones filtradas (solo admin)
+     * Obtiene una página de transacciones filtradas (solo admin); para la
+     * siguiente página se reenvía el filtro con el siguienteCursor recibido
      */
     @PostMapping("/filtrar")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<TransaccionCryptoDto>> getTransaccionesFiltradas(
+    public ResponseEntity<TransaccionCryptoDto.PaginaTransaccionesDto> getTransaccionesFiltradas(
             @RequestBody TransaccionCryptoDto.FiltroTransaccionDto filtro) {
         
-        List<TransaccionCryptoDto> transacciones = transaccionService.getTransaccionesFiltradas(filtro);
-        return ResponseEntity.ok(transacciones);
+        try {
+            TransaccionCryptoDto.PaginaTransaccionesDto pagina = transaccionService.getTransaccionesFiltradas(filtro);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
@@ -217,10 +222,9 @@ public class TransaccionCryptoController {
      */
     @PatchMapping("/recalcular-tasas")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> recalcularTasasConversion() {
+    public ResponseEntity<TransaccionCryptoDto.RecalculoTasasDto> recalcularTasasConversion() {
         try {
-            transaccionService.recalcularTasasConversionPendientes();
-            return ResponseEntity.ok().build();
+            return ResponseEntity.ok(transaccionService.recalcularTasasConversionPendientes());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
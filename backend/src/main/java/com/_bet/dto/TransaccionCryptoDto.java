@@ -14,6 +14,8 @@ import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -235,6 +237,20 @@ public class TransaccionCryptoDto {
         private BigDecimal volumenTotalUsd;
     }
     
+    /**
+     * Resultado del recálculo de tasas de las transacciones pendientes
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecalculoTasasDto {
+        
+        private Long transaccionesPendientes;
+        private Integer transaccionesActualizadas;
+        private Map<CryptoWallet.TipoCrypto, Integer> actualizadasPorTipo;
+        private Long duracionMs;
+    }
+    
     // ========== DTO PARA FILTROS ==========
     
     @Data
@@ -249,5 +265,46 @@ public class TransaccionCryptoDto {
         private LocalDateTime fechaFin;
         private Long usuarioId;
         private String usuarioUsername;
+        
+        // Paginación por cursor: se envía el siguienteCursor de la página anterior
+        private OrdenTransaccion orden;
+        private Integer tamanoPagina;
+        private String cursor;
+    }
+    
+    /**
+     * Ordenes disponibles para el filtro de transacciones
+     */
+    public enum OrdenTransaccion {
+        FECHA_DESC("fechaCreacion", false),
+        FECHA_ASC("fechaCreacion", true),
+        MONTO_DESC("cantidadUsd", false),
+        MONTO_ASC("cantidadUsd", true);
+        
+        private final String campo;
+        private final boolean ascendente;
+        
+        OrdenTransaccion(String campo, boolean ascendente) {
+            this.campo = campo;
+            this.ascendente = ascendente;
+        }
+        
+        public String getCampo() {
+            return campo;
+        }
+        
+        public boolean isAscendente() {
+            return ascendente;
+        }
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PaginaTransaccionesDto {
+        
+        private List<TransaccionCryptoDto> transacciones;
+        private String siguienteCursor;
+        private boolean hayMas;
     }
 }
@@ -0,0 +1,69 @@
+package com._bet.dto.apiSports.entidades;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento de un partido (gol, tarjeta, cambio) de /fixtures y /fixtures/events
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FixtureEvent {
+    @JsonProperty("time")
+    private Time time;
+    @JsonProperty("team")
+    private EventTeam team;
+    @JsonProperty("type")
+    private String type;
+    @JsonProperty("detail")
+    private String detail;
+    @JsonProperty("comments")
+    private String comments;
+
+    /**
+     * Gol anotado en los 90 minutos (incluye el tiempo añadido, no la prórroga
+     * ni la tanda de penales)
+     */
+    public boolean esGolEnTiempoReglamentario() {
+        return "Goal".equalsIgnoreCase(type) && !"Missed Penalty".equalsIgnoreCase(detail)
+                && time != null && time.getElapsed() != null && time.getElapsed() <= 90;
+    }
+
+    public boolean esAutogol() {
+        return "Own Goal".equalsIgnoreCase(detail);
+    }
+
+    /**
+     * Minuto para ordenar los eventos, con el tiempo añadido
+     */
+    public int minuto() {
+        if (time == null || time.getElapsed() == null) {
+            return Integer.MAX_VALUE;
+        }
+        return time.getElapsed() * 100 + (time.getExtra() != null ? time.getExtra() : 0);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Time {
+        @JsonProperty("elapsed")
+        private Integer elapsed;
+        @JsonProperty("extra")
+        private Integer extra;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class EventTeam {
+        @JsonProperty("id")
+        private Integer id;
+        @JsonProperty("name")
+        private String name;
+    }
+}
@@ -1,6 +1,9 @@
 package com._bet.dto.apiSports.response;
 
+import java.util.List;
+
 import com._bet.dto.apiSports.entidades.Fixture;
+import com._bet.dto.apiSports.entidades.FixtureEvent;
 import com._bet.dto.apiSports.entidades.League;
 import com._bet.dto.apiSports.entidades.Team;
 import com._bet.dto.apiSports.entidades.Venue;
@@ -25,6 +28,8 @@ public class EventsByLeagueResponse {
     private Goals goals;
     @JsonProperty("league")
     private League league;
+    @JsonProperty("events")
+    private List<FixtureEvent> events;
 
     @Data
     public static class Periods {
@@ -25,8 +25,11 @@ import java.time.LocalDateTime;
 @Table(name = "apuestas", indexes = {
     @Index(name = "idx_apuesta_usuario", columnList = "usuario_id"),
     @Index(name = "idx_apuesta_evento", columnList = "evento_deportivo_id"),
+    @Index(name = "idx_apuesta_valor", columnList = "valor_id"),
+    @Index(name = "idx_apuesta_evento_estado_usuario", columnList = "evento_deportivo_id, estado, usuario_id"),
     @Index(name = "idx_apuesta_estado", columnList = "estado"),
-    @Index(name = "idx_apuesta_fecha", columnList = "fechaCreacion")
+    @Index(name = "idx_apuesta_fecha", columnList = "fechaCreacion"),
+    @Index(name = "idx_apuesta_actualizacion", columnList = "fecha_actualizacion")
 })
 @Data
 @NoArgsConstructor
@@ -52,6 +55,12 @@ public class Apuesta {
     @Column(name = "resultado_apostado", nullable = true)
     private String resultadoApostado;
 
+    /**
+     * Id del Valor (selección) apostado
+     */
+    @Column(name = "valor_id")
+    private Long valorId;
+
     /**
      * Descripcion del resultado apostado
      */
@@ -53,6 +53,14 @@ public class Parlay {
     @Column(name = "momio_total", precision = 10, scale = 3)
     private BigDecimal momioTotal;
 
+    /**
+     * Producto exacto de lo que paga por unidad cada pierna ya liquidada (su
+     * momio si ganó, 1 si se anuló, la mitad si se liquidó a la mitad). Solo lo
+     * escribe la liquidación
+     */
+    @Column(name = "momio_liquidado", precision = 24, scale = 10, insertable = false, updatable = false)
+    private BigDecimal momioLiquidado;
+
     /**
      * Ganancia potencial total
      */
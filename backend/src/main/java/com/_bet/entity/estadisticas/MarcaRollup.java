@@ -0,0 +1,26 @@
+package com._bet.entity.estadisticas;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hasta qué fecha_actualizacion de la tabla origen está aplicado un rollup
+ */
+@Entity
+@Table(name = "rollup_marcas")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class MarcaRollup {
+
+    @Id
+    @Column(name = "nombre", length = 40)
+    private String nombre;
+
+    @Column(name = "procesado_hasta", nullable = false)
+    private LocalDateTime procesadoHasta;
+}
@@ -0,0 +1,45 @@
+package com._bet.entity.estadisticas;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Apuestas por día de creación, estado y resultado final (SIN_RESULTADO
+ * mientras están abiertas). Lo mantiene RollupService a partir de las filas
+ * modificadas.
+ */
+@Entity
+@Table(name = "rollup_apuestas", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_apuesta", columnNames = {"dia", "estado", "resultado"})
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RollupApuesta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "resultado", nullable = false, length = 20)
+    private String resultado;
+
+    @Column(name = "cantidad", nullable = false)
+    private long cantidad;
+
+    @Column(name = "monto", nullable = false, precision = 19, scale = 2)
+    private BigDecimal monto;
+
+    @Column(name = "ganancia_real", nullable = false, precision = 19, scale = 2)
+    private BigDecimal gananciaReal;
+}
@@ -0,0 +1,45 @@
+package com._bet.entity.estadisticas;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Transacciones crypto por día de creación, tipo de transacción, crypto y
+ * estado. Lo mantiene RollupService a partir de las filas modificadas.
+ */
+@Entity
+@Table(name = "rollup_transacciones_crypto", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_transaccion_crypto",
+        columnNames = {"dia", "tipo_transaccion", "tipo_crypto", "estado"})
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RollupTransaccionCrypto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "tipo_transaccion", nullable = false, length = 20)
+    private String tipoTransaccion;
+
+    @Column(name = "tipo_crypto", nullable = false, length = 20)
+    private String tipoCrypto;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "cantidad", nullable = false)
+    private long cantidad;
+
+    @Column(name = "monto_usd", nullable = false, precision = 19, scale = 2)
+    private BigDecimal montoUsd;
+}
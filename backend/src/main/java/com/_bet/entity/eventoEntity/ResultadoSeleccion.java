@@ -0,0 +1,18 @@
+package com._bet.entity.eventoEntity;
+
+/**
+ * Resultado de una selección una vez resuelto su mercado. Las líneas enteras y
+ * de cuarto (handicap asiático, goal line) pueden anularse o liquidarse a la
+ * mitad.
+ */
+public enum ResultadoSeleccion {
+    GANA,
+    MEDIO_GANA,
+    NULA,
+    MEDIO_PIERDE,
+    PIERDE;
+
+    public boolean esGanadora() {
+        return this == GANA || this == MEDIO_GANA;
+    }
+}
@@ -7,11 +7,16 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 
 @Entity
 @Table(name = "scores")
+@Getter
+@Setter
 @NoArgsConstructor
 public class Score {
     
@@ -43,10 +48,24 @@ public class Score {
     @Column(name = "penalty_away")
     private Integer penaltyAway;
 
+    /**
+     * Equipo que anotó el primer gol en los 90 minutos (HOME / AWAY)
+     */
+    @Column(name = "primer_anota", length = 4)
+    private String primerAnota;
+
+    /**
+     * Equipo que anotó el último gol en los 90 minutos (HOME / AWAY)
+     */
+    @Column(name = "ultimo_anota", length = 4)
+    private String ultimoAnota;
+
     /*
      * Evento asociado a este marcador
      */
     @OneToOne(mappedBy = "puntuaciones")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private EventoDeportivo evento;
     
 }
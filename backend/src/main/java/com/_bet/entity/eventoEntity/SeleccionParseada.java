@@ -0,0 +1,68 @@
+package com._bet.entity.eventoEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Etiqueta de un Valor ya interpretada según su mercado. Se calcula una sola
+ * vez al ingerir los momios para que la resolución del evento no tenga que
+ * volver a leer texto.
+ */
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeleccionParseada {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "seleccion_tipo", length = 20)
+    private TipoSeleccion tipo;
+
+    /**
+     * Línea del mercado en cuartos de gol (Over 2.25 = 9, Home -1.5 = -6)
+     */
+    @Column(name = "seleccion_cuartos")
+    private Integer cuartos;
+
+    /**
+     * Goles del local en un marcador exacto, o resultado al medio tiempo en
+     * HT/FT (1 local, 0 empate, -1 visitante)
+     */
+    @Column(name = "seleccion_primero")
+    private Integer primero;
+
+    /**
+     * Goles del visitante en un marcador exacto, o resultado final en HT/FT
+     */
+    @Column(name = "seleccion_segundo")
+    private Integer segundo;
+
+    public static SeleccionParseada de(TipoSeleccion tipo) {
+        return new SeleccionParseada(tipo, null, null, null);
+    }
+
+    public enum TipoSeleccion {
+        LOCAL,
+        EMPATE,
+        VISITANTE,
+        SI,
+        NO,
+        MAS,
+        MENOS,
+        PAR,
+        IMPAR,
+        LOCAL_EMPATE,
+        LOCAL_VISITANTE,
+        EMPATE_VISITANTE,
+        MARCADOR,
+        MEDIO_FINAL,
+        PRIMERA_MITAD,
+        SEGUNDA_MITAD,
+        DESCONOCIDA
+    }
+}
@@ -3,10 +3,11 @@ package com._bet.entity.eventoEntity;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-import javax.swing.text.StyledEditorKit.BoldAction;
-
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -33,6 +34,19 @@ public class Valor {
 
     private Boolean isGanador;
 
+    /**
+     * Resultado detallado de la selección (incluye nula y medio ganada/perdida)
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resultado", length = 15)
+    private ResultadoSeleccion resultado;
+
+    /**
+     * Etiqueta interpretada al ingerir los momios
+     */
+    @Embedded
+    private SeleccionParseada seleccion;
+
     /**
      * Límite máximo de apuesta para este momio
      */
@@ -40,17 +54,19 @@ public class Valor {
     private BigDecimal limiteMaximo;
 
     /**
-     * Número de apuestas realizadas con este momio
+     * Número de apuestas realizadas con este momio.
+     * Solo lo actualiza el volcado de ContadoresValorService
      */
     @Builder.Default
-    @Column(name = "numero_apuestas")
+    @Column(name = "numero_apuestas", updatable = false)
     private Integer numeroApuestas = 0;
 
     /**
-     * Monto total apostado con este momio
+     * Monto total apostado con este momio.
+     * Solo lo actualiza el volcado de ContadoresValorService
      */
     @Builder.Default
-    @Column(name = "monto_total_apostado", precision = 15, scale = 2)
+    @Column(name = "monto_total_apostado", precision = 15, scale = 2, updatable = false)
     private BigDecimal montoTotalApostado = BigDecimal.ZERO;
 
     @ManyToOne(fetch = FetchType.LAZY)
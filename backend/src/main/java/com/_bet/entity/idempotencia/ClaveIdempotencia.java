@@ -0,0 +1,55 @@
+package com._bet.entity.idempotencia;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clave Idempotency-Key enviada por un cliente junto con el hash de la petición
+ * y la primera respuesta, para devolverla si el cliente reintenta.
+ */
+@Entity
+@Table(name = "claves_idempotencia", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_idempotencia_usuario_clave", columnNames = {"usuario_id", "clave"})
+}, indexes = {
+    @Index(name = "idx_idempotencia_expira", columnList = "expira_en")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = "respuesta")
+public class ClaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false, updatable = false)
+    private Long usuarioId;
+
+    @Column(name = "clave", nullable = false, updatable = false, length = 100)
+    private String clave;
+
+    @Column(name = "operacion", nullable = false, length = 40)
+    private String operacion;
+
+    /**
+     * SHA-256 en hexadecimal de la operación y el cuerpo de la petición
+     */
+    @Column(name = "hash_peticion", nullable = false, length = 64)
+    private String hashPeticion;
+
+    /**
+     * Primera respuesta serializada en JSON (null mientras se procesa)
+     */
+    @Column(name = "respuesta", columnDefinition = "TEXT")
+    private String respuesta;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+}
@@ -0,0 +1,28 @@
+package com._bet.entity.ledger;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de que la cuenta USUARIO de un usuario ya se abrió en el ledger. La
+ * llave primaria hace que solo la primera operación del usuario registre el
+ * asiento de APERTURA, aunque dos lleguen a la vez.
+ */
+@Entity
+@Table(name = "ledger_aperturas")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class AperturaLedger {
+
+    @Id
+    @Column(name = "usuario_id", nullable = false, updatable = false)
+    private Long usuarioId;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,113 @@
+package com._bet.entity.ledger;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Asiento contable de solo inserción. Cada movimiento de saldo genera dos filas
+ * con el mismo número de asiento: la pata del usuario y la de la contrapartida
+ * (casa, externa o ajustes), cuyos montos suman cero.
+ */
+@Entity
+@Table(name = "ledger_movimientos", indexes = {
+    @Index(name = "idx_ledger_usuario_cuenta_fecha", columnList = "usuario_id, cuenta, fecha_creacion"),
+    @Index(name = "idx_ledger_referencia", columnList = "referencia_tipo, referencia_id"),
+    @Index(name = "idx_ledger_asiento", columnList = "asiento"),
+    @Index(name = "idx_ledger_usuario_cuenta_transaccion", columnList = "usuario_id, cuenta, transaccion_bd")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class MovimientoLedger {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_movimientos_seq")
+    @SequenceGenerator(name = "ledger_movimientos_seq", sequenceName = "ledger_movimientos_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Identificador compartido por las dos patas del asiento
+     */
+    @Column(name = "asiento", nullable = false, updatable = false, length = 36)
+    private String asiento;
+
+    @Column(name = "usuario_id", nullable = false, updatable = false)
+    private Long usuarioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cuenta", nullable = false, updatable = false, length = 20)
+    private CuentaLedger cuenta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, updatable = false, length = 30)
+    private TipoMovimiento tipo;
+
+    /**
+     * Monto con signo: positivo abona a la cuenta, negativo la carga
+     */
+    @Column(name = "monto", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal monto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "referencia_tipo", nullable = false, updatable = false, length = 30)
+    private TipoReferencia referenciaTipo;
+
+    @Column(name = "referencia_id", updatable = false)
+    private Long referenciaId;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Transacción de PostgreSQL que insertó la fila (la asigna la base). Las
+     * fotos de saldo cortan por este valor y no por fecha: una transacción por
+     * debajo del corte ya terminó, así que no puede aparecer después
+     */
+    @Column(name = "transaccion_bd", insertable = false, updatable = false,
+            columnDefinition = "bigint NOT NULL DEFAULT (pg_current_xact_id()::text::bigint)")
+    private Long transaccionBd;
+
+    public enum CuentaLedger {
+        USUARIO,
+        CASA,
+        EXTERNA,
+        AJUSTES
+    }
+
+    public enum TipoMovimiento {
+        APERTURA(CuentaLedger.AJUSTES),
+        DEPOSITO(CuentaLedger.EXTERNA),
+        RETIRO(CuentaLedger.EXTERNA),
+        REEMBOLSO_RETIRO(CuentaLedger.EXTERNA),
+        APUESTA(CuentaLedger.CASA),
+        PARLAY(CuentaLedger.CASA),
+        PAGO_APUESTA(CuentaLedger.CASA),
+        PAGO_PARLAY(CuentaLedger.CASA),
+        REEMBOLSO_APUESTA(CuentaLedger.CASA),
+        AJUSTE(CuentaLedger.AJUSTES);
+
+        private final CuentaLedger contrapartida;
+
+        TipoMovimiento(CuentaLedger contrapartida) {
+            this.contrapartida = contrapartida;
+        }
+
+        public CuentaLedger getContrapartida() {
+            return contrapartida;
+        }
+    }
+
+    public enum TipoReferencia {
+        APUESTA,
+        PARLAY,
+        SOLICITUD_DEPOSITO,
+        SOLICITUD_RETIRO,
+        TRANSACCION_CRYPTO,
+        NINGUNA
+    }
+}
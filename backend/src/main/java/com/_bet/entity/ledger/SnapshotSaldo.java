@@ -0,0 +1,50 @@
+package com._bet.entity.ledger;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Foto del saldo de un usuario según el ledger hasta una transacción de corte.
+ * El saldo actual es la última foto más los movimientos desde el corte.
+ */
+@Entity
+@Table(name = "ledger_snapshots", indexes = {
+    @Index(name = "idx_snapshot_usuario_corte", columnList = "usuario_id, corte"),
+    @Index(name = "idx_snapshot_usuario_id", columnList = "usuario_id, id")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class SnapshotSaldo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false, updatable = false)
+    private Long usuarioId;
+
+    @Column(name = "saldo", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal saldo;
+
+    /**
+     * Momento en que se tomó la foto
+     */
+    @Column(name = "corte", nullable = false, updatable = false)
+    private LocalDateTime corte;
+
+    /**
+     * Incluye los movimientos de la cuenta USUARIO insertados por transacciones
+     * menores a este valor (todas ya terminadas al tomar la foto)
+     */
+    @Column(name = "corte_transaccion", nullable = false, updatable = false)
+    private Long corteTransaccion;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+}
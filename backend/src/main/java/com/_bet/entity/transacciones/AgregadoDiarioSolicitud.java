@@ -0,0 +1,49 @@
+package com._bet.entity.transacciones;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com._bet.entity.transacciones.AgregadoSolicitud.TipoSolicitud;
+
+/**
+ * Solicitudes que entraron a cada estado por día y método; los totales de
+ * hoy, la semana y el mes se suman sobre a lo más 31 días
+ */
+@Entity
+@Table(name = "agregados_diarios_solicitudes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_agregado_diario_solicitud", columnNames = {"tipo", "estado", "metodo", "dia"})
+}, indexes = {
+    @Index(name = "idx_agregado_diario_dia", columnList = "dia")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AgregadoDiarioSolicitud {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 10)
+    private TipoSolicitud tipo;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "metodo", nullable = false, length = 40)
+    private String metodo;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "cantidad", nullable = false)
+    private long cantidad;
+
+    @Column(name = "monto", nullable = false, precision = 19, scale = 2)
+    private BigDecimal monto;
+}
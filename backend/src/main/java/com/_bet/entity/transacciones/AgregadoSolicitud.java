@@ -0,0 +1,47 @@
+package com._bet.entity.transacciones;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Número y monto de las solicitudes de depósito o retiro que están en cada
+ * estado, por método. Se actualiza en la misma transacción que cada cambio de
+ * estado, así el dashboard no cuenta las solicitudes.
+ */
+@Entity
+@Table(name = "agregados_solicitudes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_agregado_solicitud", columnNames = {"tipo", "estado", "metodo"})
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AgregadoSolicitud {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 10)
+    private TipoSolicitud tipo;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "metodo", nullable = false, length = 40)
+    private String metodo;
+
+    @Column(name = "cantidad", nullable = false)
+    private long cantidad;
+
+    @Column(name = "monto", nullable = false, precision = 19, scale = 2)
+    private BigDecimal monto;
+
+    public enum TipoSolicitud {
+        DEPOSITO,
+        RETIRO
+    }
+}
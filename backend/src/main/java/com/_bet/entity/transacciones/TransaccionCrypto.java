@@ -17,7 +17,14 @@ import com._bet.entity.user.CryptoWallet;
 import com._bet.entity.user.Usuario;
 
 @Entity
-@Table(name = "transacciones_crypto")
+@Table(name = "transacciones_crypto", indexes = {
+    @Index(name = "idx_transaccion_crypto_estado_fecha", columnList = "estado, fecha_creacion, id"),
+    @Index(name = "idx_transaccion_crypto_estado_tipo_id", columnList = "estado, tipo_crypto, id"),
+    @Index(name = "idx_transaccion_crypto_usuario_fecha", columnList = "usuario_id, fecha_creacion, id"),
+    @Index(name = "idx_transaccion_crypto_tipo_fecha", columnList = "tipo_crypto, fecha_creacion, id"),
+    @Index(name = "idx_transaccion_crypto_fecha", columnList = "fecha_creacion"),
+    @Index(name = "idx_transaccion_crypto_actualizacion", columnList = "fecha_actualizacion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
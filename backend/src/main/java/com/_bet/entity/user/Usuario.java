@@ -79,7 +79,8 @@ public class Usuario implements UserDetails {
     
     // ========== SALDO GENERAL PARA APUESTAS ==========
     
-    @Column(name = "saldo_usd", precision = 19, scale = 2)
+    // No actualizable por JPA: el saldo solo cambia con los UPDATE condicionales de SaldoService
+    @Column(name = "saldo_usd", precision = 19, scale = 2, updatable = false)
     private BigDecimal saldoUsd = BigDecimal.ZERO;
     
     // ========== RELACIÓN CON INFORMACIÓN PERSONAL ==========
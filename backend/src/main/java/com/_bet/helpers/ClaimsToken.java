@@ -0,0 +1,28 @@
+package com._bet.helpers;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Datos de un JWT ya verificado (firma y expiración)
+ *
+ * @param subject    username del usuario
+ * @param usuarioId  id del usuario; null en tokens emitidos antes de incluirlo
+ * @param roles      autoridades al emitir el token (ROLE_...)
+ * @param expiracion momento en que el token deja de ser válido
+ */
+public record ClaimsToken(String subject, Long usuarioId, List<String> roles, Instant expiracion) {
+
+    public ClaimsToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    /**
+     * Si el token se emitió para este usuario
+     */
+    public boolean perteneceA(UserDetails userDetails) {
+        return subject != null && subject.equals(userDetails.getUsername());
+    }
+}
@@ -4,23 +4,55 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com._bet.entity.user.Usuario;
+
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Emisión y verificación de JWT. La llave se decodifica una sola vez y el
+ * parser (inmutable y seguro entre hilos) se reutiliza en todas las
+ * verificaciones.
+ */
 @Service
 public class JwtHelper {
 
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+
+    public JwtHelper(@Value("${jwt.secret}") String secretKey, @Value("${jwt.expiration}") Long jwtExpiration) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.jwtExpiration = jwtExpiration;
+    }
 
-    @Value("${jwt.expiration}")
-    private Long JWT_EXPIRATION;
+    /**
+     * Verifica firma y expiración del token en una sola pasada
+     *
+     * @throws JwtException si el token no es válido o ya expiró
+     */
+    public ClaimsToken verificar(String token) {
+        Claims claims = extractAllClaims(token);
+        Object usuarioId = claims.get(CLAIM_USUARIO_ID);
+        Object roles = claims.get(CLAIM_ROLES);
+        return new ClaimsToken(
+                claims.getSubject(),
+                usuarioId instanceof Number numero ? numero.longValue() : null,
+                roles instanceof List<?> lista ? lista.stream().map(String::valueOf).toList() : List.of(),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -32,7 +64,12 @@ public class JwtHelper {
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof Usuario usuario) {
+            claims.put(CLAIM_USUARIO_ID, usuario.getId());
+        }
+        claims.put(CLAIM_ROLES, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -41,42 +78,26 @@ public class JwtHelper {
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * El parser ya rechaza tokens expirados, así que basta una verificación
+     */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verificar(token).perteneceA(userDetails);
     }
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
             throw new JwtException("Error al procesar el token JWT: " + e.getMessage());
         }
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public boolean validateToken(String token) {
         try {
             extractAllClaims(token);
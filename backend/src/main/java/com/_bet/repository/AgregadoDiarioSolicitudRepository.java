@@ -0,0 +1,60 @@
+package com._bet.repository;
+
+import com._bet.entity.transacciones.AgregadoDiarioSolicitud;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AgregadoDiarioSolicitudRepository extends JpaRepository<AgregadoDiarioSolicitud, Long> {
+
+    /**
+     * Agregados diarios desde la fecha indicada
+     */
+    List<AgregadoDiarioSolicitud> findByDiaGreaterThanEqual(LocalDate desde);
+
+    /**
+     * Suma una solicitud que entró al estado en el día indicado
+     */
+    @Modifying
+    @Query(value = "INSERT INTO agregados_diarios_solicitudes (tipo, estado, metodo, dia, cantidad, monto) " +
+                   "VALUES (:tipo, :estado, :metodo, :dia, :cantidad, :monto) " +
+                   "ON CONFLICT (tipo, estado, metodo, dia) DO UPDATE SET " +
+                   "cantidad = agregados_diarios_solicitudes.cantidad + EXCLUDED.cantidad, " +
+                   "monto = agregados_diarios_solicitudes.monto + EXCLUDED.monto", nativeQuery = true)
+    int sumar(@Param("tipo") String tipo,
+              @Param("estado") String estado,
+              @Param("metodo") String metodo,
+              @Param("dia") LocalDate dia,
+              @Param("cantidad") long cantidad,
+              @Param("monto") BigDecimal monto);
+
+    @Modifying
+    @Query(value = "DELETE FROM agregados_diarios_solicitudes", nativeQuery = true)
+    int eliminarTodos();
+
+    /**
+     * Recalcula los agregados diarios desde las solicitudes: cada una entra a
+     * PENDIENTE el día que se creó y a su estado actual el día que se procesó
+     */
+    @Modifying
+    @Query(value = "INSERT INTO agregados_diarios_solicitudes (tipo, estado, metodo, dia, cantidad, monto) " +
+                   "SELECT tipo, estado, metodo, dia, COUNT(*), COALESCE(SUM(monto), 0) FROM (" +
+                   "SELECT 'DEPOSITO' AS tipo, estado, metodo_pago AS metodo, " +
+                   "CAST(COALESCE(fecha_procesamiento, fecha_solicitud) AS date) AS dia, monto FROM solicitudes_deposito " +
+                   "UNION ALL SELECT 'DEPOSITO', 'PENDIENTE', metodo_pago, CAST(fecha_solicitud AS date), monto " +
+                   "FROM solicitudes_deposito WHERE estado <> 'PENDIENTE' " +
+                   "UNION ALL SELECT 'RETIRO', estado, metodo_retiro, " +
+                   "CAST(COALESCE(fecha_procesamiento, fecha_solicitud) AS date), monto FROM solicitudes_retiro " +
+                   "UNION ALL SELECT 'RETIRO', 'PENDIENTE', metodo_retiro, CAST(fecha_solicitud AS date), monto " +
+                   "FROM solicitudes_retiro WHERE estado <> 'PENDIENTE'" +
+                   ") e GROUP BY tipo, estado, metodo, dia", nativeQuery = true)
+    int reconstruir();
+}
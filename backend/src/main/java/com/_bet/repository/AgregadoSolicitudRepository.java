@@ -0,0 +1,46 @@
+package com._bet.repository;
+
+import com._bet.entity.transacciones.AgregadoSolicitud;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface AgregadoSolicitudRepository extends JpaRepository<AgregadoSolicitud, Long> {
+
+    /**
+     * Suma (o resta, con valores negativos) al agregado del estado y método
+     */
+    @Modifying
+    @Query(value = "INSERT INTO agregados_solicitudes (tipo, estado, metodo, cantidad, monto) " +
+                   "VALUES (:tipo, :estado, :metodo, :cantidad, :monto) " +
+                   "ON CONFLICT (tipo, estado, metodo) DO UPDATE SET " +
+                   "cantidad = agregados_solicitudes.cantidad + EXCLUDED.cantidad, " +
+                   "monto = agregados_solicitudes.monto + EXCLUDED.monto", nativeQuery = true)
+    int sumar(@Param("tipo") String tipo,
+              @Param("estado") String estado,
+              @Param("metodo") String metodo,
+              @Param("cantidad") long cantidad,
+              @Param("monto") BigDecimal monto);
+
+    @Modifying
+    @Query(value = "DELETE FROM agregados_solicitudes", nativeQuery = true)
+    int eliminarTodos();
+
+    /**
+     * Recalcula los agregados desde las solicitudes
+     */
+    @Modifying
+    @Query(value = "INSERT INTO agregados_solicitudes (tipo, estado, metodo, cantidad, monto) " +
+                   "SELECT 'DEPOSITO', estado, metodo_pago, COUNT(*), COALESCE(SUM(monto), 0) " +
+                   "FROM solicitudes_deposito GROUP BY estado, metodo_pago " +
+                   "UNION ALL " +
+                   "SELECT 'RETIRO', estado, metodo_retiro, COUNT(*), COALESCE(SUM(monto), 0) " +
+                   "FROM solicitudes_retiro GROUP BY estado, metodo_retiro", nativeQuery = true)
+    int reconstruir();
+}
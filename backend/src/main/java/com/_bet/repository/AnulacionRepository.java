@@ -0,0 +1,215 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sentencias por conjuntos para anular las apuestas de un evento aplazado,
+ * cancelado o abandonado. Todas filtran por estado ACTIVA/ACTIVO, así que
+ * volver a ejecutarlas sobre un evento ya anulado no cambia nada.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnulacionRepository {
+
+    private static final String SQL_ANULAR_SIMPLES = "UPDATE apuestas a SET estado = 'CANCELADA', activa = false, "
+            + "resultado_final = 'CANCELADA', ganancia_real = 0, fecha_liquidacion = ?, fecha_actualizacion = ?, "
+            + "observaciones = 'Evento anulado' "
+            + "WHERE a.evento_deportivo_id = ? AND a.estado = 'ACTIVA' AND a.parlay_id IS NULL "
+            + "AND a.usuario_id = ANY(?) "
+            + "RETURNING a.id, a.usuario_id, a.valor_id, ROUND(CAST(a.monto AS numeric), 2), "
+            + "ROUND(CAST(a.monto AS numeric) * CAST(a.momio AS numeric), 2)";
+
+    private static final String SQL_ANULAR_PIERNAS = "UPDATE apuestas a SET estado = 'CANCELADA', activa = false, "
+            + "resultado_final = 'CANCELADA', fecha_liquidacion = ?, fecha_actualizacion = ?, "
+            + "observaciones = 'Evento anulado' "
+            + "FROM parlays p "
+            + "WHERE p.id = a.parlay_id AND p.estado = 'ACTIVO' AND a.evento_deportivo_id = ? "
+            + "AND a.estado = 'ACTIVA' AND a.usuario_id = ANY(?) "
+            + "RETURNING a.parlay_id, a.valor_id, ROUND(CAST(p.monto_total AS numeric), 2), "
+            + "ROUND(CAST(p.monto_total AS numeric) * p.momio_total, 2)";
+
+    /**
+     * Momio total y pago potencial a partir de las piernas que siguen en el
+     * parlay. La copia "anterior" conserva el momio con el que se reservó la
+     * exposición de las piernas pendientes.
+     */
+    private static final String SQL_RECALCULAR_PARLAYS = "UPDATE parlays p SET "
+            + "momio_total = ROUND(EXP(r.suma_ln), 3), "
+            + "ganancia_potencial = ROUND(CAST(p.monto_total AS numeric) * EXP(r.suma_ln), 2), "
+            + "numero_apuestas = r.piernas, apuestas_pendientes = r.pendientes, fecha_actualizacion = ? "
+            + "FROM (SELECT a.parlay_id, SUM(LN(CAST(a.momio AS numeric))) AS suma_ln, COUNT(*) AS piernas, "
+            + "COUNT(*) FILTER (WHERE a.estado = 'ACTIVA') AS pendientes, "
+            + "ARRAY_AGG(a.valor_id) FILTER (WHERE a.estado = 'ACTIVA') AS valores_pendientes "
+            + "FROM apuestas a WHERE a.parlay_id = ANY(?) AND a.estado <> 'CANCELADA' GROUP BY a.parlay_id) r, "
+            + "parlays anterior "
+            + "WHERE p.id = r.parlay_id AND anterior.id = p.id AND p.estado = 'ACTIVO' "
+            + "RETURNING p.id, ROUND(CAST(p.monto_total AS numeric) * anterior.momio_total, 2), "
+            + "ROUND(CAST(p.monto_total AS numeric) * p.momio_total, 2), r.valores_pendientes";
+
+    private static final String SQL_CANCELAR_PARLAYS_SIN_PIERNAS = "UPDATE parlays p SET estado = 'CANCELADO', "
+            + "activo = false, resultado_final = 'CANCELADO', ganancia_real = 0, apuestas_pendientes = 0, "
+            + "fecha_liquidacion = ?, fecha_actualizacion = ? "
+            + "WHERE p.id = ANY(?) AND p.estado = 'ACTIVO' "
+            + "AND NOT EXISTS (SELECT 1 FROM apuestas a WHERE a.parlay_id = p.id AND a.estado <> 'CANCELADA') "
+            + "RETURNING p.id, p.usuario_id, ROUND(CAST(p.monto_total AS numeric), 2)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Anula las apuestas simples abiertas del evento para el lote de usuarios
+     */
+    public List<ApuestaAnulada> anularSimples(Long eventoId, Collection<Long> usuarioIds, LocalDateTime fecha) {
+        return ejecutar(SQL_ANULAR_SIMPLES, fecha, eventoId, usuarioIds, rs -> new ApuestaAnulada(rs.getLong(1),
+                rs.getLong(2), (Long) rs.getObject(3), rs.getBigDecimal(4), rs.getBigDecimal(5)));
+    }
+
+    /**
+     * Anula las piernas abiertas del evento en parlays activos del lote de
+     * usuarios. Monto y pago son los del parlay completo antes de recalcularlo.
+     */
+    public List<PiernaAnulada> anularPiernas(Long eventoId, Collection<Long> usuarioIds, LocalDateTime fecha) {
+        return ejecutar(SQL_ANULAR_PIERNAS, fecha, eventoId, usuarioIds, rs -> new PiernaAnulada(rs.getLong(1),
+                (Long) rs.getObject(2), rs.getBigDecimal(3), rs.getBigDecimal(4)));
+    }
+
+    /**
+     * Recalcula momio total, pago potencial y contadores de los parlays con las
+     * piernas que no se anularon
+     *
+     * @return parlays actualizados con su pago antes y después y las selecciones
+     *         de sus piernas aún pendientes
+     */
+    public List<ParlayRecalculado> recalcularParlays(Collection<Long> parlayIds, LocalDateTime fecha) {
+        return jdbcTemplate.execute((ConnectionCallback<List<ParlayRecalculado>>) con -> {
+            Array ids = con.createArrayOf("bigint", parlayIds.toArray());
+            List<ParlayRecalculado> recalculados = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(SQL_RECALCULAR_PARLAYS)) {
+                ps.setTimestamp(1, Timestamp.valueOf(fecha));
+                ps.setArray(2, ids);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        List<Long> valores = new ArrayList<>();
+                        Array pendientes = rs.getArray(4);
+                        if (pendientes != null) {
+                            for (Object valorId : (Object[]) pendientes.getArray()) {
+                                if (valorId != null) {
+                                    valores.add(((Number) valorId).longValue());
+                                }
+                            }
+                        }
+                        recalculados.add(new ParlayRecalculado(rs.getLong(1), rs.getBigDecimal(2),
+                                rs.getBigDecimal(3), valores));
+                    }
+                }
+            } finally {
+                ids.free();
+            }
+            return recalculados;
+        });
+    }
+
+    /**
+     * Cancela los parlays que se quedaron sin piernas válidas
+     */
+    public List<ParlayCancelado> cancelarParlaysSinPiernas(Collection<Long> parlayIds, LocalDateTime fecha) {
+        return jdbcTemplate.execute((ConnectionCallback<List<ParlayCancelado>>) con -> {
+            Array ids = con.createArrayOf("bigint", parlayIds.toArray());
+            List<ParlayCancelado> cancelados = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(SQL_CANCELAR_PARLAYS_SIN_PIERNAS)) {
+                Timestamp ts = Timestamp.valueOf(fecha);
+                ps.setTimestamp(1, ts);
+                ps.setTimestamp(2, ts);
+                ps.setArray(3, ids);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        cancelados.add(new ParlayCancelado(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3)));
+                    }
+                }
+            } finally {
+                ids.free();
+            }
+            return cancelados;
+        });
+    }
+
+    private <T> List<T> ejecutar(String sql, LocalDateTime fecha, Long eventoId, Collection<Long> usuarioIds,
+            MapeoFila<T> mapeo) {
+        return jdbcTemplate.execute((ConnectionCallback<List<T>>) con -> {
+            Array usuarios = con.createArrayOf("bigint", usuarioIds.toArray());
+            List<T> filas = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                Timestamp ts = Timestamp.valueOf(fecha);
+                ps.setTimestamp(1, ts);
+                ps.setTimestamp(2, ts);
+                ps.setLong(3, eventoId);
+                ps.setArray(4, usuarios);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        filas.add(mapeo.mapear(rs));
+                    }
+                }
+            } finally {
+                usuarios.free();
+            }
+            return filas;
+        });
+    }
+
+    @FunctionalInterface
+    private interface MapeoFila<T> {
+        T mapear(ResultSet rs) throws java.sql.SQLException;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ApuestaAnulada {
+        private final Long apuestaId;
+        private final Long usuarioId;
+        private final Long valorId;
+        private final BigDecimal monto;
+        private final BigDecimal pago;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PiernaAnulada {
+        private final Long parlayId;
+        private final Long valorId;
+        private final BigDecimal montoParlay;
+        private final BigDecimal pagoParlay;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ParlayRecalculado {
+        private final Long parlayId;
+        private final BigDecimal pagoAnterior;
+        private final BigDecimal pagoNuevo;
+        /** Selecciones de las piernas aún pendientes (las piernas legadas sin valor_id no aparecen) */
+        private final List<Long> valoresPendientes;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ParlayCancelado {
+        private final Long parlayId;
+        private final Long usuarioId;
+        private final BigDecimal monto;
+    }
+}
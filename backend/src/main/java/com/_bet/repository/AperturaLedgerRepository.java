@@ -0,0 +1,59 @@
+package com._bet.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Apertura de cuentas del ledger con INSERT ... ON CONFLICT DO NOTHING sobre
+ * la llave de ledger_aperturas: entre operaciones concurrentes del mismo
+ * usuario solo una obtiene la fila.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AperturaLedgerRepository {
+
+    private static final String SQL_ABRIR = "INSERT INTO ledger_aperturas (usuario_id, fecha_creacion) "
+            + "SELECT c.id, now() FROM unnest(?) AS c(id) "
+            + "ORDER BY c.id "
+            + "ON CONFLICT (usuario_id) DO NOTHING "
+            + "RETURNING usuario_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Abre las cuentas de los usuarios indicados que aún no estaban abiertas
+     *
+     * @return usuarios cuya cuenta se abrió con esta llamada (deben registrar
+     *         su asiento de APERTURA)
+     */
+    public Set<Long> abrir(Collection<Long> usuarioIds) {
+        Set<Long> abiertos = new HashSet<>();
+        if (usuarioIds.isEmpty()) {
+            return abiertos;
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Set<Long>>) con -> {
+            Array ids = con.createArrayOf("bigint", usuarioIds.toArray());
+            try (PreparedStatement ps = con.prepareStatement(SQL_ABRIR)) {
+                ps.setArray(1, ids);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        abiertos.add(rs.getLong(1));
+                    }
+                }
+            } finally {
+                ids.free();
+            }
+            return abiertos;
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com._bet.entity.apuestas.Apuesta;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Escrituras por lotes JDBC para la colocación de boletos.
+ *
+ * Apuesta usa IDENTITY, por lo que Hibernate no puede agrupar sus INSERT; aquí
+ * se envían en un solo lote y se recuperan las llaves generadas.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ApuestaBatchRepository {
+
+    private static final String SQL_INSERTAR_APUESTA = "INSERT INTO apuestas (tipo_apuesta, resultado_apostado, "
+            + "descripcion_resultado, monto, momio, ganancia_potencial, ganancia_real, estado, activa, "
+            + "fecha_creacion, fecha_actualizacion, usuario_id, evento_deportivo_id, parlay_id, valor_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_CONTADORES_VALOR = "UPDATE valor SET "
+            + "numero_apuestas = COALESCE(numero_apuestas, 0) + ?, "
+            + "monto_total_apostado = COALESCE(monto_total_apostado, 0) + ? "
+            + "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta las apuestas en un solo lote y asigna a cada una su id generado
+     */
+    public void insertarEnLote(List<Apuesta> apuestas) {
+        if (apuestas.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(SQL_INSERTAR_APUESTA, new String[] { "id" })) {
+                for (Apuesta apuesta : apuestas) {
+                    Timestamp fecha = Timestamp.valueOf(apuesta.getFechaCreacion());
+                    ps.setString(1, apuesta.getTipoApuesta());
+                    ps.setString(2, apuesta.getResultadoApostado());
+                    ps.setString(3, apuesta.getDescripcionResultado());
+                    ps.setDouble(4, apuesta.getMonto());
+                    ps.setDouble(5, apuesta.getMomio());
+                    ps.setBigDecimal(6, apuesta.getGananciaPotencial());
+                    ps.setBigDecimal(7, apuesta.getGananciaReal());
+                    ps.setString(8, apuesta.getEstado().name());
+                    ps.setBoolean(9, apuesta.getActiva() == null || apuesta.getActiva());
+                    ps.setTimestamp(10, fecha);
+                    ps.setTimestamp(11, fecha);
+                    ps.setLong(12, apuesta.getUsuario().getId());
+                    ps.setLong(13, apuesta.getEventoDeportivo().getId());
+                    if (apuesta.getParlay() != null) {
+                        ps.setLong(14, apuesta.getParlay().getId());
+                    } else {
+                        ps.setNull(14, Types.BIGINT);
+                    }
+                    if (apuesta.getValorId() != null) {
+                        ps.setLong(15, apuesta.getValorId());
+                    } else {
+                        ps.setNull(15, Types.BIGINT);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet llaves = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (llaves.next()) {
+                        apuestas.get(i++).setId(llaves.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Suma en un solo lote el número de apuestas y el monto apostado por Valor
+     *
+     * @param apuestasPorValor número de apuestas nuevas por id de Valor
+     * @param montoPorValor    monto nuevo apostado por id de Valor
+     */
+    public void acumularContadoresValor(Map<Long, Integer> apuestasPorValor, Map<Long, BigDecimal> montoPorValor) {
+        if (apuestasPorValor.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> parametros = new ArrayList<>(apuestasPorValor.size());
+        apuestasPorValor.forEach((valorId, numero) -> parametros.add(new Object[] {
+                numero, montoPorValor.getOrDefault(valorId, BigDecimal.ZERO), valorId }));
+
+        jdbcTemplate.batchUpdate(SQL_CONTADORES_VALOR, parametros);
+    }
+}
@@ -85,15 +85,4 @@ public interface ApuestaRepository extends JpaRepository<Apuesta, Long> {
      */
     List<Apuesta> findByEventoDeportivoIdAndEstado(Long eventoId, Apuesta.EstadoApuesta estado);
     
-    /**
-     * Cuenta apuestas por estado
-     */
-    long countByEstado(Apuesta.EstadoApuesta estado);
-    
-    /**
-     * Suma el monto total apostado después de una fecha
-     */
-    @Query("SELECT COALESCE(SUM(a.monto), 0) FROM Apuesta a WHERE a.fechaCreacion >= :fecha")
-    BigDecimal sumMontoByFechaCreacionAfter(@Param("fecha") LocalDateTime fecha);
-    
 }
@@ -0,0 +1,49 @@
+package com._bet.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com._bet.entity.idempotencia.ClaveIdempotencia;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    Optional<ClaveIdempotencia> findByUsuarioIdAndClave(Long usuarioId, String clave);
+
+    /**
+     * Reserva la clave para el usuario. Si ya existe y no ha expirado no hace
+     * nada; si otra transacción la está reservando espera a que termine.
+     *
+     * @return 1 si la clave quedó reservada por esta petición, 0 si ya existía
+     */
+    @Modifying
+    @Query(value = "INSERT INTO claves_idempotencia (usuario_id, clave, operacion, hash_peticion, fecha_creacion, expira_en) " +
+                   "VALUES (:usuarioId, :clave, :operacion, :hash, :ahora, :expiraEn) " +
+                   "ON CONFLICT (usuario_id, clave) DO UPDATE SET operacion = EXCLUDED.operacion, " +
+                   "hash_peticion = EXCLUDED.hash_peticion, respuesta = NULL, " +
+                   "fecha_creacion = EXCLUDED.fecha_creacion, expira_en = EXCLUDED.expira_en " +
+                   "WHERE claves_idempotencia.expira_en < EXCLUDED.fecha_creacion", nativeQuery = true)
+    int reservar(@Param("usuarioId") Long usuarioId,
+                 @Param("clave") String clave,
+                 @Param("operacion") String operacion,
+                 @Param("hash") String hash,
+                 @Param("ahora") LocalDateTime ahora,
+                 @Param("expiraEn") LocalDateTime expiraEn);
+
+    @Modifying
+    @Query(value = "UPDATE claves_idempotencia SET respuesta = :respuesta " +
+                   "WHERE usuario_id = :usuarioId AND clave = :clave", nativeQuery = true)
+    int guardarRespuesta(@Param("usuarioId") Long usuarioId,
+                         @Param("clave") String clave,
+                         @Param("respuesta") String respuesta);
+
+    @Modifying
+    @Query(value = "DELETE FROM claves_idempotencia WHERE expira_en < :ahora", nativeQuery = true)
+    int eliminarExpiradas(@Param("ahora") LocalDateTime ahora);
+}
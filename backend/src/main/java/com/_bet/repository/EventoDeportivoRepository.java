@@ -10,7 +10,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la entidad EventoDeportivo
@@ -96,6 +98,38 @@ public interface EventoDeportivoRepository extends JpaRepository<EventoDeportivo
      */
     List<EventoDeportivo> findByEnVivoTrue();
 
+    /**
+     * apiSportsId de los eventos marcados en vivo (estado inicial del
+     * seguimiento de eventos en vivo)
+     */
+    @Query("SELECT e.apiSportsId FROM EventoDeportivo e WHERE e.enVivo = true")
+    List<Integer> findApiSportsIdsEnVivo();
+
+    /**
+     * apiSportsId de los eventos cuya hora de inicio ya pasó pero siguen en un
+     * estado previo al partido (posibles aplazados o cancelados sin cerrar)
+     */
+    @Query("SELECT e.apiSportsId FROM EventoDeportivo e JOIN e.estado s " +
+           "WHERE e.fechaEvento BETWEEN :desde AND :hasta AND s.corto IN :estados")
+    List<Integer> findApiSportsIdsVencidos(@Param("desde") LocalDateTime desde,
+                                           @Param("hasta") LocalDateTime hasta,
+                                           @Param("estados") Collection<String> estados);
+
+    /**
+     * Estado corto del evento (FT, PST, CANC...), vacío si no existe o aún no
+     * tiene estado
+     */
+    @Query("SELECT s.corto FROM EventoDeportivo e JOIN e.estado s WHERE e.id = :id")
+    Optional<String> findEstadoCorto(@Param("id") Long id);
+
+    /**
+     * Evento con sus equipos, marcador y goles ya cargados, para resolverlo
+     * fuera de una transacción (tareas del TaskScheduler)
+     */
+    @Query("SELECT e FROM EventoDeportivo e LEFT JOIN FETCH e.equipoLocal LEFT JOIN FETCH e.equipoVisitante " +
+           "LEFT JOIN FETCH e.puntuaciones LEFT JOIN FETCH e.goles WHERE e.id = :id")
+    Optional<EventoDeportivo> findByIdParaResolver(@Param("id") Long id);
+
     /*
      * Buscar eventos por fecha anterior a una fecha dada
      */
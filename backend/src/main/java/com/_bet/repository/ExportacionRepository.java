@@ -0,0 +1,80 @@
+package com._bet.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lectura en flujo de las tablas que se exportan para contabilidad.
+ *
+ * Las filas se recorren con un cursor del servidor: con autocommit apagado
+ * (dentro de una transacción) y fetch size, el driver de Postgres trae las
+ * filas por bloques en lugar de cargar todo el resultado en memoria.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExportacionRepository {
+
+    /**
+     * Tablas exportables con sus columnas (los alias son las cabeceras del
+     * archivo) y la columna de fecha por la que se acota el periodo
+     */
+    public enum Conjunto {
+        TRANSACCIONES_CRYPTO("SELECT t.id, t.tipo_transaccion, t.estado, t.tipo_crypto, t.cantidad_crypto, "
+                + "t.tasa_conversion_usd, t.cantidad_usd, t.hash_transaccion, t.direccion_wallet, t.usuario_id, "
+                + "u.username, t.fecha_creacion, t.fecha_procesamiento, t.fecha_completado, t.motivo_rechazo "
+                + "FROM transacciones_crypto t JOIN usuarios u ON u.id = t.usuario_id "
+                + "WHERE t.fecha_creacion >= ? AND t.fecha_creacion < ? ORDER BY t.fecha_creacion, t.id"),
+        SOLICITUDES_DEPOSITO("SELECT s.id, s.usuario_id, u.username, s.monto, s.metodo_pago, s.estado, "
+                + "s.tipo_crypto, s.referencia_transaccion, s.hash_transaccion, s.fecha_solicitud, "
+                + "s.fecha_procesamiento, s.aprobado_por, s.observaciones_admin "
+                + "FROM solicitudes_deposito s JOIN usuarios u ON u.id = s.usuario_id "
+                + "WHERE s.fecha_solicitud >= ? AND s.fecha_solicitud < ? ORDER BY s.fecha_solicitud, s.id"),
+        SOLICITUDES_RETIRO("SELECT s.id, s.usuario_id, u.username, s.monto, s.comision, s.monto_neto, "
+                + "s.metodo_retiro, s.estado, s.tipo_crypto, s.banco, s.referencia_transaccion, s.hash_transaccion, "
+                + "s.fecha_solicitud, s.fecha_procesamiento, s.aprobado_por, s.observaciones_admin "
+                + "FROM solicitudes_retiro s JOIN usuarios u ON u.id = s.usuario_id "
+                + "WHERE s.fecha_solicitud >= ? AND s.fecha_solicitud < ? ORDER BY s.fecha_solicitud, s.id"),
+        APUESTAS("SELECT a.id, a.usuario_id, u.username, a.evento_deportivo_id, a.parlay_id, a.tipo_apuesta, "
+                + "a.resultado_apostado, ROUND(CAST(a.monto AS numeric), 2) AS monto, a.momio, "
+                + "a.ganancia_potencial, a.ganancia_real, a.estado, a.resultado_final, a.fecha_creacion, "
+                + "a.fecha_liquidacion "
+                + "FROM apuestas a JOIN usuarios u ON u.id = a.usuario_id "
+                + "WHERE a.fecha_creacion >= ? AND a.fecha_creacion < ? ORDER BY a.fecha_creacion, a.id");
+
+        private final String sql;
+
+        Conjunto(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${exportacion.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Entrega al extractor el resultado con las filas creadas en [desde, hasta).
+     * Debe llamarse dentro de una transacción para que el driver use el cursor.
+     */
+    public <T> T recorrer(Conjunto conjunto, LocalDateTime desde, LocalDateTime hasta,
+            ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(conjunto.sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(desde));
+            ps.setTimestamp(2, Timestamp.valueOf(hasta));
+            return ps;
+        }, extractor);
+    }
+}
@@ -0,0 +1,59 @@
+package com._bet.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lectura en flujo de las apuestas abiertas para reconstruir la exposición en
+ * memoria (ver ExposicionService).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExposicionRepository {
+
+    private static final int TAMANO_FETCH = 1000;
+
+    /**
+     * Una fila por apuesta simple o pierna de parlay activa. En las piernas de
+     * parlay el monto y el pago son los del parlay completo, redondeados como en
+     * la reserva (ExposicionService.pago y pagoParlay). Las apuestas anteriores a
+     * la columna valor_id se resuelven por evento, mercado y valor.
+     */
+    private static final String SQL_APUESTAS_ACTIVAS = "SELECT v.id AS valor_id, v.momio_id, "
+            + "m.evento_deportivo_id AS evento_id, v.limite_maximo, "
+            + "CASE WHEN a.parlay_id IS NULL THEN a.monto ELSE p.monto_total END AS monto, "
+            + "CASE WHEN a.parlay_id IS NULL "
+            + "THEN ROUND(CAST(a.monto AS numeric) * CAST(a.momio AS numeric), 2) "
+            + "ELSE ROUND(CAST(p.monto_total AS numeric) * p.momio_total, 2) END AS pago "
+            + "FROM apuestas a "
+            + "LEFT JOIN parlays p ON p.id = a.parlay_id "
+            + "JOIN valor v ON v.id = COALESCE(a.valor_id, "
+            + "(SELECT v2.id FROM valor v2 JOIN momios m2 ON m2.id = v2.momio_id "
+            + "WHERE m2.evento_deportivo_id = a.evento_deportivo_id AND m2.tipo_apuesta = a.tipo_apuesta "
+            + "AND v2.valor = a.resultado_apostado LIMIT 1)) "
+            + "JOIN momios m ON m.id = v.momio_id "
+            + "WHERE a.estado = 'ACTIVA' AND (p.id IS NULL OR p.estado = 'ACTIVO') "
+            + "AND a.fecha_creacion < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recorre las apuestas activas creadas antes del corte sin cargarlas todas en
+     * memoria (requiere transacción para que el driver use cursor)
+     */
+    public void recorrerApuestasActivas(LocalDateTime corte, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_APUESTAS_ACTIVAS);
+            ps.setFetchSize(TAMANO_FETCH);
+            ps.setTimestamp(1, Timestamp.valueOf(corte));
+            return ps;
+        }, handler);
+    }
+}
@@ -0,0 +1,342 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sentencias por conjuntos de la liquidación de apuestas y parlays de un
+ * evento ya resuelto (Valor.isGanador y Valor.resultado asignados). Cada
+ * sentencia procesa un lote de usuarios y devuelve con RETURNING lo necesario
+ * para los pagos. Las selecciones anuladas devuelven el monto y las
+ * liquidadas a la mitad pagan la mitad ganada o la mitad del monto.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LiquidacionRepository {
+
+    private static final String SQL_ASIGNAR_VALOR = "UPDATE apuestas a SET valor_id = v.id "
+            + "FROM valor v JOIN momios m ON m.id = v.momio_id "
+            + "WHERE a.valor_id IS NULL AND a.evento_deportivo_id = ? "
+            + "AND m.evento_deportivo_id = a.evento_deportivo_id AND m.tipo_apuesta = a.tipo_apuesta "
+            + "AND v.valor = a.resultado_apostado";
+
+    private static final String SQL_USUARIOS_CON_ABIERTAS = "SELECT DISTINCT usuario_id FROM apuestas "
+            + "WHERE evento_deportivo_id = ? AND estado = 'ACTIVA' ORDER BY usuario_id";
+
+    /** Resultado de la selección; los valores resueltos antes de existir la columna usan is_ganador */
+    private static final String RESULTADO_VALOR = "COALESCE(v.resultado, "
+            + "CASE WHEN v.is_ganador THEN 'GANA' ELSE 'PIERDE' END)";
+
+    /** Pago por unidad apostada según el resultado de la selección y el momio tomado */
+    private static final String FACTOR_PAGO = "(CASE " + RESULTADO_VALOR + " "
+            + "WHEN 'GANA' THEN CAST(a.momio AS numeric) "
+            + "WHEN 'MEDIO_GANA' THEN (CAST(a.momio AS numeric) + 1) / 2 "
+            + "WHEN 'NULA' THEN 1 WHEN 'MEDIO_PIERDE' THEN 0.5 ELSE 0 END)";
+
+    private static final String RESULTADO_FINAL = "CASE " + RESULTADO_VALOR + " "
+            + "WHEN 'GANA' THEN 'GANADA' WHEN 'MEDIO_GANA' THEN 'GANADA' "
+            + "WHEN 'NULA' THEN 'EMPATE_PUSH' ELSE 'PERDIDA' END";
+
+    private static final String SQL_LIQUIDAR_SIMPLES = "UPDATE apuestas a SET estado = 'LIQUIDADA', activa = false, "
+            + "fecha_liquidacion = ?, fecha_actualizacion = ?, "
+            + "resultado_final = " + RESULTADO_FINAL + ", "
+            + "ganancia_real = GREATEST(ROUND(CAST(a.monto AS numeric) * " + FACTOR_PAGO
+            + " - CAST(a.monto AS numeric), 2), 0) "
+            + "FROM valor v "
+            + "WHERE v.id = a.valor_id AND a.evento_deportivo_id = ? AND a.estado = 'ACTIVA' "
+            + "AND a.parlay_id IS NULL AND v.is_ganador IS NOT NULL AND a.usuario_id = ANY(?) "
+            + "RETURNING a.id, a.usuario_id, a.valor_id, ROUND(CAST(a.monto AS numeric), 2), "
+            + "ROUND(CAST(a.monto AS numeric) * CAST(a.momio AS numeric), 2), a.resultado_final, "
+            + "ROUND(CAST(a.monto AS numeric) * " + FACTOR_PAGO + ", 2)";
+
+    /** Solo piernas de parlays aún activos: las de un parlay ya perdido se cierran aparte */
+    private static final String SQL_LIQUIDAR_PIERNAS = "UPDATE apuestas a SET estado = 'LIQUIDADA', activa = false, "
+            + "fecha_liquidacion = ?, fecha_actualizacion = ?, "
+            + "resultado_final = " + RESULTADO_FINAL + " "
+            + "FROM valor v, parlays p "
+            + "WHERE v.id = a.valor_id AND p.id = a.parlay_id AND a.evento_deportivo_id = ? "
+            + "AND a.estado = 'ACTIVA' AND p.estado = 'ACTIVO' AND v.is_ganador IS NOT NULL "
+            + "AND a.usuario_id = ANY(?) "
+            + "RETURNING a.parlay_id, a.valor_id, ROUND(CAST(p.monto_total AS numeric), 2), "
+            + "ROUND(CAST(p.monto_total AS numeric) * p.momio_total, 2), " + FACTOR_PAGO;
+
+    /** Contadores atómicos y producto exacto de los momios liquidados */
+    private static final String SQL_CONTADORES_PARLAY = "UPDATE parlays p SET "
+            + "apuestas_ganadas = COALESCE(p.apuestas_ganadas, 0) + c.ganadas, "
+            + "apuestas_perdidas = COALESCE(p.apuestas_perdidas, 0) + c.perdidas, "
+            + "apuestas_pendientes = COALESCE(p.apuestas_pendientes, 0) - c.ganadas - c.perdidas, "
+            + "momio_liquidado = ROUND(COALESCE(p.momio_liquidado, 1) * c.factor, 10), "
+            + "fecha_actualizacion = ? "
+            + "FROM (SELECT unnest(?) AS id, unnest(?) AS ganadas, unnest(?) AS perdidas, unnest(?) AS factor) c "
+            + "WHERE p.id = c.id";
+
+    private static final String PAGO_PARLAY = "ROUND(CAST(monto_total AS numeric) "
+            + "* COALESCE(momio_liquidado, momio_total), 2)";
+
+    /** Un parlay se pierde con su primera pierna perdida y se gana con la última pierna pendiente */
+    private static final String SQL_FINALIZAR_PARLAYS = "UPDATE parlays SET estado = 'LIQUIDADO', activo = false, "
+            + "fecha_liquidacion = ?, fecha_actualizacion = ?, "
+            + "resultado_final = CASE WHEN apuestas_perdidas > 0 THEN 'PERDIDO' ELSE 'GANADO' END, "
+            + "ganancia_real = CASE WHEN apuestas_perdidas > 0 THEN 0 "
+            + "ELSE GREATEST(" + PAGO_PARLAY + " - CAST(monto_total AS numeric), 0) END, "
+            + "apuestas_pendientes = CASE WHEN apuestas_perdidas > 0 THEN 0 ELSE apuestas_pendientes END "
+            + "WHERE id = ANY(?) AND estado = 'ACTIVO' AND (apuestas_perdidas > 0 OR apuestas_pendientes <= 0) "
+            + "RETURNING id, usuario_id, " + PAGO_PARLAY + ", resultado_final";
+
+    /** Piernas aún abiertas de parlays ya perdidos: salen de la liquidación y de la exposición */
+    private static final String SQL_CERRAR_PIERNAS_RESTANTES = "UPDATE apuestas a SET estado = 'CANCELADA', "
+            + "activa = false, resultado_final = 'CANCELADA', fecha_liquidacion = ?, fecha_actualizacion = ?, "
+            + "observaciones = 'Parlay perdido en otra pierna' "
+            + "FROM parlays p "
+            + "WHERE p.id = a.parlay_id AND a.parlay_id = ANY(?) AND a.estado = 'ACTIVA' "
+            + "RETURNING a.parlay_id, a.valor_id, ROUND(CAST(p.monto_total AS numeric), 2), "
+            + "ROUND(CAST(p.monto_total AS numeric) * p.momio_total, 2)";
+
+    private static final String SQL_ABIERTAS_POR_EVENTO_Y_USUARIO = "SELECT DISTINCT evento_deportivo_id, usuario_id "
+            + "FROM apuestas WHERE evento_deportivo_id = ANY(?) AND estado = 'ACTIVA'";
+
+    private static final String SQL_EVENTOS_CON_ABIERTAS_POR_ESTADO = "SELECT DISTINCT a.evento_deportivo_id "
+            + "FROM apuestas a JOIN eventos_deportivos e ON e.id = a.evento_deportivo_id "
+            + "JOIN estado s ON s.id = e.estado_id "
+            + "WHERE a.estado = 'ACTIVA' AND s.corto = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Completa valor_id en las apuestas del evento creadas antes de que existiera
+     * la columna
+     */
+    public int asignarValorFaltante(Long eventoId) {
+        return jdbcTemplate.update(SQL_ASIGNAR_VALOR, eventoId);
+    }
+
+    /**
+     * Usuarios con apuestas abiertas en el evento, ordenados por id
+     */
+    public List<Long> usuariosConApuestasAbiertas(Long eventoId) {
+        return jdbcTemplate.queryForList(SQL_USUARIOS_CON_ABIERTAS, Long.class, eventoId);
+    }
+
+    /**
+     * Pares (evento, usuario) con apuestas abiertas en los eventos indicados
+     */
+    public List<long[]> usuariosConApuestasAbiertas(Collection<Long> eventoIds) {
+        return jdbcTemplate.execute((ConnectionCallback<List<long[]>>) con -> {
+            Array eventos = con.createArrayOf("bigint", eventoIds.toArray());
+            List<long[]> pares = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(SQL_ABIERTAS_POR_EVENTO_Y_USUARIO)) {
+                ps.setArray(1, eventos);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        pares.add(new long[] { rs.getLong(1), rs.getLong(2) });
+                    }
+                }
+            } finally {
+                eventos.free();
+            }
+            return pares;
+        });
+    }
+
+    /**
+     * Eventos en alguno de los estados indicados que aún tienen apuestas abiertas
+     */
+    public List<Long> eventosConApuestasAbiertas(Collection<String> estados) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) con -> {
+            Array arregloEstados = con.createArrayOf("varchar", estados.toArray());
+            List<Long> eventos = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(SQL_EVENTOS_CON_ABIERTAS_POR_ESTADO)) {
+                ps.setArray(1, arregloEstados);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        eventos.add(rs.getLong(1));
+                    }
+                }
+            } finally {
+                arregloEstados.free();
+            }
+            return eventos;
+        });
+    }
+
+    /**
+     * Liquida las apuestas simples del evento para el lote de usuarios
+     */
+    public List<ApuestaLiquidada> liquidarSimples(Long eventoId, Collection<Long> usuarioIds, LocalDateTime fecha) {
+        return ejecutarConUsuarios(SQL_LIQUIDAR_SIMPLES, eventoId, usuarioIds, fecha, rs -> new ApuestaLiquidada(
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4), rs.getBigDecimal(5),
+                rs.getBigDecimal(7), "GANADA".equals(rs.getString(6))));
+    }
+
+    /**
+     * Liquida las piernas de parlay del evento para el lote de usuarios. Monto y
+     * pago son los del parlay completo; el factor es lo que paga la pierna por
+     * unidad (su momio si ganó, 1 si se anuló, 0 si perdió).
+     */
+    public List<PiernaLiquidada> liquidarPiernas(Long eventoId, Collection<Long> usuarioIds, LocalDateTime fecha) {
+        return ejecutarConUsuarios(SQL_LIQUIDAR_PIERNAS, eventoId, usuarioIds, fecha, rs -> new PiernaLiquidada(
+                rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5)));
+    }
+
+    /**
+     * Suma las piernas ganadas y perdidas a los contadores de cada parlay y
+     * multiplica su momio liquidado por el factor de sus piernas
+     */
+    public void actualizarContadoresParlay(Long[] parlayIds, Integer[] ganadas, Integer[] perdidas,
+            BigDecimal[] factores, LocalDateTime fecha) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            Array ids = con.createArrayOf("bigint", parlayIds);
+            Array arregloGanadas = con.createArrayOf("integer", ganadas);
+            Array arregloPerdidas = con.createArrayOf("integer", perdidas);
+            Array arregloFactores = con.createArrayOf("numeric", factores);
+            try (PreparedStatement ps = con.prepareStatement(SQL_CONTADORES_PARLAY)) {
+                ps.setTimestamp(1, Timestamp.valueOf(fecha));
+                ps.setArray(2, ids);
+                ps.setArray(3, arregloGanadas);
+                ps.setArray(4, arregloPerdidas);
+                ps.setArray(5, arregloFactores);
+                ps.executeUpdate();
+            } finally {
+                ids.free();
+                arregloGanadas.free();
+                arregloPerdidas.free();
+                arregloFactores.free();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Cierra los parlays indicados que ya no tienen piernas pendientes
+     */
+    public List<ParlayFinalizado> finalizarParlays(Collection<Long> parlayIds, LocalDateTime fecha) {
+        if (parlayIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<ParlayFinalizado>>) con -> {
+            Array ids = con.createArrayOf("bigint", parlayIds.toArray());
+            List<ParlayFinalizado> finalizados = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(SQL_FINALIZAR_PARLAYS)) {
+                Timestamp ts = Timestamp.valueOf(fecha);
+                ps.setTimestamp(1, ts);
+                ps.setTimestamp(2, ts);
+                ps.setArray(3, ids);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        finalizados.add(new ParlayFinalizado(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3),
+                                "GANADO".equals(rs.getString(4))));
+                    }
+                }
+            } finally {
+                ids.free();
+            }
+            return finalizados;
+        });
+    }
+
+    /**
+     * Cierra las piernas abiertas de los parlays indicados que ya se perdieron
+     */
+    public List<PiernaLiquidada> cerrarPiernasRestantes(Collection<Long> parlayIds, LocalDateTime fecha) {
+        if (parlayIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<PiernaLiquidada>>) con -> {
+            Array ids = con.createArrayOf("bigint", parlayIds.toArray());
+            List<PiernaLiquidada> cerradas = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(SQL_CERRAR_PIERNAS_RESTANTES)) {
+                Timestamp ts = Timestamp.valueOf(fecha);
+                ps.setTimestamp(1, ts);
+                ps.setTimestamp(2, ts);
+                ps.setArray(3, ids);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        cerradas.add(new PiernaLiquidada(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3),
+                                rs.getBigDecimal(4), BigDecimal.ZERO));
+                    }
+                }
+            } finally {
+                ids.free();
+            }
+            return cerradas;
+        });
+    }
+
+    private <T> List<T> ejecutarConUsuarios(String sql, Long eventoId, Collection<Long> usuarioIds,
+            LocalDateTime fecha, MapeoFila<T> mapeo) {
+        return jdbcTemplate.execute((ConnectionCallback<List<T>>) con -> {
+            Array usuarios = con.createArrayOf("bigint", usuarioIds.toArray());
+            List<T> filas = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                Timestamp ts = Timestamp.valueOf(fecha);
+                ps.setTimestamp(1, ts);
+                ps.setTimestamp(2, ts);
+                ps.setLong(3, eventoId);
+                ps.setArray(4, usuarios);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        filas.add(mapeo.mapear(rs));
+                    }
+                }
+            } finally {
+                usuarios.free();
+            }
+            return filas;
+        });
+    }
+
+    @FunctionalInterface
+    private interface MapeoFila<T> {
+        T mapear(ResultSet rs) throws java.sql.SQLException;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ApuestaLiquidada {
+        private final Long apuestaId;
+        private final Long usuarioId;
+        private final Long valorId;
+        private final BigDecimal monto;
+        private final BigDecimal pago;
+        private final BigDecimal pagoReal;
+        private final boolean ganada;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PiernaLiquidada {
+        private final Long parlayId;
+        private final Long valorId;
+        private final BigDecimal montoParlay;
+        private final BigDecimal pagoParlay;
+        private final BigDecimal factor;
+
+        public boolean isPerdida() {
+            return factor.signum() == 0;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ParlayFinalizado {
+        private final Long parlayId;
+        private final Long usuarioId;
+        private final BigDecimal pago;
+        private final boolean ganado;
+    }
+}
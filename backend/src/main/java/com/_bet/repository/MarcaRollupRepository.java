@@ -0,0 +1,10 @@
+package com._bet.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com._bet.entity.estadisticas.MarcaRollup;
+
+@Repository
+public interface MarcaRollupRepository extends JpaRepository<MarcaRollup, String> {
+}
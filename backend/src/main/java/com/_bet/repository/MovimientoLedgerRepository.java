@@ -0,0 +1,41 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com._bet.entity.ledger.MovimientoLedger;
+import com._bet.entity.ledger.MovimientoLedger.CuentaLedger;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+
+@Repository
+public interface MovimientoLedgerRepository extends JpaRepository<MovimientoLedger, Long> {
+
+    /**
+     * Suma de los movimientos de una cuenta insertados por transacciones desde
+     * el corte de una foto
+     */
+    @Query("SELECT COALESCE(SUM(m.monto), 0) FROM MovimientoLedger m " +
+           "WHERE m.usuarioId = :usuarioId AND m.cuenta = :cuenta AND m.transaccionBd >= :desde")
+    BigDecimal sumarDesdeTransaccion(@Param("usuarioId") Long usuarioId,
+                                     @Param("cuenta") CuentaLedger cuenta,
+                                     @Param("desde") Long desde);
+
+    /**
+     * Historial de movimientos de una cuenta, más recientes primero
+     */
+    Page<MovimientoLedger> findByUsuarioIdAndCuentaOrderByFechaCreacionDescIdDesc(Long usuarioId,
+            CuentaLedger cuenta, Pageable pageable);
+
+    /**
+     * Movimientos asociados a una entidad (apuesta, parlay, solicitud, transacción)
+     */
+    List<MovimientoLedger> findByReferenciaTipoAndReferenciaIdOrderByIdAsc(TipoReferencia referenciaTipo,
+            Long referenciaId);
+}
@@ -0,0 +1,162 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Sentencias de los rollups diarios de transacciones crypto y apuestas.
+ *
+ * Cada rollup se recalcula por día completo: se buscan los días de creación
+ * de las filas modificadas desde la última pasada (por fecha_actualizacion) y
+ * se reemplazan sus agregados con un GROUP BY acotado a ese día.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RollupRepository {
+
+    /**
+     * Rollups disponibles con su tabla origen y su agregación
+     */
+    public enum Rollup {
+        TRANSACCIONES_CRYPTO("transacciones_crypto", "rollup_transacciones_crypto",
+                "dia, tipo_transaccion, tipo_crypto, estado, cantidad, monto_usd",
+                "SELECT CAST(fecha_creacion AS date), tipo_transaccion, tipo_crypto, estado, COUNT(*), "
+                        + "COALESCE(SUM(cantidad_usd), 0) FROM transacciones_crypto",
+                "GROUP BY 1, 2, 3, 4"),
+        APUESTAS("apuestas", "rollup_apuestas",
+                "dia, estado, resultado, cantidad, monto, ganancia_real",
+                "SELECT CAST(fecha_creacion AS date), estado, COALESCE(resultado_final, 'SIN_RESULTADO'), COUNT(*), "
+                        + "COALESCE(ROUND(SUM(CAST(monto AS numeric)), 2), 0), COALESCE(SUM(ganancia_real), 0) "
+                        + "FROM apuestas",
+                "GROUP BY 1, 2, 3");
+
+        private final String origen;
+        private final String tabla;
+        private final String columnas;
+        private final String seleccion;
+        private final String agrupacion;
+
+        Rollup(String origen, String tabla, String columnas, String seleccion, String agrupacion) {
+            this.origen = origen;
+            this.tabla = tabla;
+            this.columnas = columnas;
+            this.seleccion = seleccion;
+            this.agrupacion = agrupacion;
+        }
+    }
+
+    /**
+     * Dimensiones por las que se pueden leer los rollups
+     */
+    public enum Dimension {
+        ESTADO("estado"),
+        TIPO_TRANSACCION("tipo_transaccion"),
+        TIPO_CRYPTO("tipo_crypto"),
+        RESULTADO("resultado");
+
+        private final String columna;
+
+        Dimension(String columna) {
+            this.columna = columna;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Días de creación de las filas modificadas en (desde, hasta]
+     */
+    public List<LocalDate> diasModificados(Rollup rollup, LocalDateTime desde, LocalDateTime hasta) {
+        return jdbcTemplate.query("SELECT DISTINCT CAST(fecha_creacion AS date) FROM " + rollup.origen
+                + " WHERE fecha_actualizacion > ? AND fecha_actualizacion <= ?",
+                (rs, i) -> rs.getDate(1).toLocalDate(), Timestamp.valueOf(desde), Timestamp.valueOf(hasta));
+    }
+
+    /**
+     * Reemplaza los agregados de un día
+     *
+     * @return filas del rollup para ese día
+     */
+    public int recalcularDia(Rollup rollup, LocalDate dia) {
+        jdbcTemplate.update("DELETE FROM " + rollup.tabla + " WHERE dia = ?", Date.valueOf(dia));
+        return jdbcTemplate.update("INSERT INTO " + rollup.tabla + " (" + rollup.columnas + ") " + rollup.seleccion
+                + " WHERE fecha_creacion >= ? AND fecha_creacion < ? " + rollup.agrupacion,
+                Timestamp.valueOf(dia.atStartOfDay()), Timestamp.valueOf(dia.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Reconstruye el rollup completo desde la tabla origen
+     *
+     * @return filas del rollup
+     */
+    public int reconstruir(Rollup rollup) {
+        jdbcTemplate.update("DELETE FROM " + rollup.tabla);
+        return jdbcTemplate.update("INSERT INTO " + rollup.tabla + " (" + rollup.columnas + ") " + rollup.seleccion
+                + " " + rollup.agrupacion);
+    }
+
+    /**
+     * Cantidad y monto de las transacciones crypto por una dimensión entre dos
+     * días (incluidos)
+     */
+    public List<Agregado> transaccionesPor(Dimension dimension, LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query("SELECT " + dimension.columna + ", SUM(cantidad), SUM(monto_usd) "
+                + "FROM rollup_transacciones_crypto WHERE dia >= ? AND dia <= ? GROUP BY 1 ORDER BY 1",
+                (rs, i) -> new Agregado(rs.getString(1), rs.getLong(2), rs.getBigDecimal(3), null),
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    /**
+     * Volumen USD aprobado por mes desde el día indicado, el más reciente primero
+     */
+    public List<VolumenMensual> volumenMensual(LocalDate desde) {
+        return jdbcTemplate.query("SELECT CAST(EXTRACT(YEAR FROM dia) AS int), CAST(EXTRACT(MONTH FROM dia) AS int), "
+                + "SUM(monto_usd) FROM rollup_transacciones_crypto WHERE estado = 'APROBADO' AND dia >= ? "
+                + "GROUP BY 1, 2 ORDER BY 1 DESC, 2 DESC",
+                (rs, i) -> new VolumenMensual(rs.getInt(1), rs.getInt(2), rs.getBigDecimal(3)),
+                Date.valueOf(desde));
+    }
+
+    /**
+     * Cantidad, monto y ganancia real de las apuestas por una dimensión entre
+     * dos días (incluidos)
+     */
+    public List<Agregado> apuestasPor(Dimension dimension, LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query("SELECT " + dimension.columna + ", SUM(cantidad), SUM(monto), SUM(ganancia_real) "
+                + "FROM rollup_apuestas WHERE dia >= ? AND dia <= ? GROUP BY 1 ORDER BY 1",
+                (rs, i) -> new Agregado(rs.getString(1), rs.getLong(2), rs.getBigDecimal(3), rs.getBigDecimal(4)),
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Agregado {
+        private final String clave;
+        private final long cantidad;
+        private final BigDecimal monto;
+        /** Solo en apuestas */
+        private final BigDecimal gananciaReal;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class VolumenMensual {
+        private final int anio;
+        private final int mes;
+        private final BigDecimal montoUsd;
+    }
+}
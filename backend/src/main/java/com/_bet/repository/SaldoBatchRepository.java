@@ -0,0 +1,82 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Movimientos de saldo de muchos usuarios en una sola sentencia (liquidación
+ * de eventos). Los montos van como arreglos y se cruzan con unnest.
+ *
+ * Varios lotes (liquidación, anulaciones, solicitudes por lote) pueden tocar a
+ * los mismos usuarios a la vez: las filas se bloquean primero en orden de id
+ * para que dos lotes nunca se esperen en orden cruzado.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SaldoBatchRepository {
+
+    private static final String SQL_BLOQUEAR = "SELECT id FROM usuarios WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+
+    private static final String SQL_ACREDITAR = "UPDATE usuarios u "
+            + "SET saldo_usd = COALESCE(u.saldo_usd, 0) + c.monto "
+            + "FROM (SELECT unnest(?) AS id, unnest(?) AS monto) c "
+            + "WHERE u.id = c.id "
+            + "RETURNING u.id, u.saldo_usd";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Suma a cada usuario su monto con un solo UPDATE
+     *
+     * @param montosPorUsuario monto a acreditar por id de usuario
+     * @return saldo resultante por id de usuario (solo usuarios existentes)
+     */
+    public Map<Long, BigDecimal> acreditar(Map<Long, BigDecimal> montosPorUsuario) {
+        Map<Long, BigDecimal> saldos = new HashMap<>();
+        if (montosPorUsuario.isEmpty()) {
+            return saldos;
+        }
+
+        Map<Long, BigDecimal> ordenados = new TreeMap<>(montosPorUsuario);
+        Long[] ids = new Long[ordenados.size()];
+        BigDecimal[] montos = new BigDecimal[ordenados.size()];
+        int i = 0;
+        for (Map.Entry<Long, BigDecimal> entrada : ordenados.entrySet()) {
+            ids[i] = entrada.getKey();
+            montos[i++] = entrada.getValue();
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<Map<Long, BigDecimal>>) con -> {
+            Array arregloIds = con.createArrayOf("bigint", ids);
+            Array arregloMontos = con.createArrayOf("numeric", montos);
+            try (PreparedStatement bloqueo = con.prepareStatement(SQL_BLOQUEAR);
+                    PreparedStatement ps = con.prepareStatement(SQL_ACREDITAR)) {
+                bloqueo.setArray(1, arregloIds);
+                bloqueo.executeQuery().close();
+
+                ps.setArray(1, arregloIds);
+                ps.setArray(2, arregloMontos);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        saldos.put(rs.getLong(1), rs.getBigDecimal(2));
+                    }
+                }
+            } finally {
+                arregloIds.free();
+                arregloMontos.free();
+            }
+            return saldos;
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com._bet.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com._bet.entity.ledger.SnapshotSaldo;
+
+@Repository
+public interface SnapshotSaldoRepository extends JpaRepository<SnapshotSaldo, Long> {
+
+    /**
+     * Última foto de saldo del usuario
+     */
+    Optional<SnapshotSaldo> findFirstByUsuarioIdOrderByIdDesc(Long usuarioId);
+
+    /**
+     * Crea en una sola sentencia una foto nueva para cada usuario con movimientos
+     * posteriores a su última foto. El corte es el xmin de la instantánea actual:
+     * toda transacción menor ya terminó, así que ningún movimiento incluido puede
+     * cambiar ni aparecer después
+     */
+    @Modifying
+    @Query(value = "WITH corte AS ( " +
+                   "  SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS transaccion), " +
+                   "ultimas AS ( " +
+                   "  SELECT DISTINCT ON (usuario_id) usuario_id, saldo, corte_transaccion " +
+                   "  FROM ledger_snapshots ORDER BY usuario_id, id DESC) " +
+                   "INSERT INTO ledger_snapshots (usuario_id, saldo, corte, corte_transaccion, fecha_creacion) " +
+                   "SELECT m.usuario_id, COALESCE(u.saldo, 0) + SUM(m.monto), now(), c.transaccion, now() " +
+                   "FROM ledger_movimientos m CROSS JOIN corte c " +
+                   "LEFT JOIN ultimas u ON u.usuario_id = m.usuario_id " +
+                   "WHERE m.cuenta = 'USUARIO' AND m.transaccion_bd < c.transaccion " +
+                   "AND (u.usuario_id IS NULL OR m.transaccion_bd >= u.corte_transaccion) " +
+                   "GROUP BY m.usuario_id, u.saldo, c.transaccion", nativeQuery = true)
+    int crearSnapshots();
+
+    /**
+     * Elimina fotos antiguas que ya fueron superadas por una más reciente
+     */
+    @Modifying
+    @Query(value = "DELETE FROM ledger_snapshots s USING ledger_snapshots n " +
+                   "WHERE n.usuario_id = s.usuario_id AND n.id > s.id " +
+                   "AND s.fecha_creacion < :antesDe", nativeQuery = true)
+    int eliminarSnapshotsSuperados(@Param("antesDe") LocalDateTime antesDe);
+}
@@ -35,6 +35,11 @@ public interface SolicitudDepositoRepository extends JpaRepository<SolicitudDepo
      */
     List<SolicitudDeposito> findByEstadoOrderByFechaSolicitudAsc(SolicitudDeposito.EstadoSolicitud estado);
 
+    /**
+     * Primera página de solicitudes por estado, las más antiguas primero
+     */
+    List<SolicitudDeposito> findByEstadoOrderByFechaSolicitudAsc(SolicitudDeposito.EstadoSolicitud estado, Pageable pageable);
+
     /**
      * Busca solicitudes por usuario y estado
      */
@@ -0,0 +1,122 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sentencias por conjuntos para procesar solicitudes de depósito o retiro. El
+ * UPDATE solo toma las que siguen PENDIENTE, así que dos administradores (con
+ * un lote o una sola solicitud) procesando la misma no la aplican dos veces.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SolicitudLoteRepository {
+
+    /**
+     * Tablas de solicitudes con su columna de método
+     */
+    public enum TablaSolicitud {
+        DEPOSITO("solicitudes_deposito", "metodo_pago"),
+        RETIRO("solicitudes_retiro", "metodo_retiro");
+
+        private final String tabla;
+        private final String columnaMetodo;
+
+        TablaSolicitud(String tabla, String columnaMetodo) {
+            this.tabla = tabla;
+            this.columnaMetodo = columnaMetodo;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Pasa al nuevo estado las solicitudes pendientes de la lista. La referencia
+     * solo se sobrescribe si se indica.
+     *
+     * @param adminId administrador que procesa, o null si es el propio usuario
+     *                (cancelación)
+     * @return solicitudes que estaban pendientes y se actualizaron
+     */
+    public List<SolicitudProcesada> procesarPendientes(TablaSolicitud tabla, Collection<Long> ids, String estado,
+            Long adminId, String observaciones, String referencia, LocalDateTime fecha) {
+        String sql = "UPDATE " + tabla.tabla + " SET estado = ?, aprobado_por = ?, observaciones_admin = ?, "
+                + "referencia_transaccion = COALESCE(?, referencia_transaccion), "
+                + "fecha_procesamiento = ?, fecha_actualizacion = ? "
+                + "WHERE id = ANY(?) AND estado = 'PENDIENTE' "
+                + "RETURNING id, usuario_id, monto, " + tabla.columnaMetodo;
+        return jdbcTemplate.execute((ConnectionCallback<List<SolicitudProcesada>>) con -> {
+            Array solicitudes = con.createArrayOf("bigint", ids.toArray());
+            List<SolicitudProcesada> procesadas = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                Timestamp ts = Timestamp.valueOf(fecha);
+                ps.setString(1, estado);
+                ps.setObject(2, adminId, Types.BIGINT);
+                ps.setString(3, observaciones);
+                ps.setString(4, referencia);
+                ps.setTimestamp(5, ts);
+                ps.setTimestamp(6, ts);
+                ps.setArray(7, solicitudes);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        procesadas.add(new SolicitudProcesada(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3),
+                                rs.getString(4)));
+                    }
+                }
+            } finally {
+                solicitudes.free();
+            }
+            return procesadas;
+        });
+    }
+
+    /**
+     * Estado actual de las solicitudes de la lista; las que no existen no
+     * aparecen
+     */
+    public Map<Long, String> estados(TablaSolicitud tabla, Collection<Long> ids) {
+        return jdbcTemplate.execute((ConnectionCallback<Map<Long, String>>) con -> {
+            Array solicitudes = con.createArrayOf("bigint", ids.toArray());
+            Map<Long, String> estados = new HashMap<>();
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, estado FROM " + tabla.tabla + " WHERE id = ANY(?)")) {
+                ps.setArray(1, solicitudes);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        estados.put(rs.getLong(1), rs.getString(2));
+                    }
+                }
+            } finally {
+                solicitudes.free();
+            }
+            return estados;
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SolicitudProcesada {
+        private final Long solicitudId;
+        private final Long usuarioId;
+        private final BigDecimal monto;
+        private final String metodo;
+    }
+}
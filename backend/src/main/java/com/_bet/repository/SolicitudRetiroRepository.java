@@ -35,6 +35,11 @@ public interface SolicitudRetiroRepository extends JpaRepository<SolicitudRetiro
      */
     List<SolicitudRetiro> findByEstadoOrderByFechaSolicitudAsc(SolicitudRetiro.EstadoSolicitud estado);
 
+    /**
+     * Primera página de solicitudes por estado, las más antiguas primero
+     */
+    List<SolicitudRetiro> findByEstadoOrderByFechaSolicitudAsc(SolicitudRetiro.EstadoSolicitud estado, Pageable pageable);
+
     /**
      * Busca solicitudes por usuario y estado
      */
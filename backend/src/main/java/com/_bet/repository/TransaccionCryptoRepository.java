@@ -7,17 +7,21 @@ import com._bet.entity.user.Usuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TransaccionCryptoRepository extends JpaRepository<TransaccionCrypto, Long> {
+public interface TransaccionCryptoRepository extends JpaRepository<TransaccionCrypto, Long>,
+        JpaSpecificationExecutor<TransaccionCrypto> {
     
     /**
      * Encuentra todas las transacciones de un usuario
@@ -166,29 +170,34 @@ public interface TransaccionCryptoRepository extends JpaRepository<TransaccionCr
     List<TransaccionCrypto> findByProcesadoPor(Usuario admin);
     
     /**
-     * Estadísticas de transacciones por estado
+     * Número de transacciones pendientes por tipo de crypto
      */
-    @Query("SELECT t.estado, COUNT(t) FROM TransaccionCrypto t GROUP BY t.estado")
-    List<Object[]> getEstadisticasPorEstado();
+    @Query("SELECT t.tipoCrypto, COUNT(t) FROM TransaccionCrypto t " +
+           "WHERE t.estado = 'PENDIENTE' GROUP BY t.tipoCrypto")
+    List<Object[]> countPendientesPorTipoCrypto();
     
     /**
-     * Estadísticas de transacciones por tipo
+     * Siguiente lote de ids pendientes de un tipo después del último procesado
+     * (recorrido por keyset sobre idx_transaccion_crypto_estado_tipo_id)
      */
-    @Query("SELECT t.tipoTransaccion, COUNT(t) FROM TransaccionCrypto t GROUP BY t.tipoTransaccion")
-    List<Object[]> getEstadisticasPorTipo();
+    @Query(value = "SELECT id FROM transacciones_crypto " +
+                   "WHERE estado = 'PENDIENTE' AND tipo_crypto = :tipoCrypto AND id > :ultimo " +
+                   "ORDER BY id LIMIT :limite", nativeQuery = true)
+    List<Long> findIdsPendientesDespuesDe(@Param("tipoCrypto") String tipoCrypto,
+                                          @Param("ultimo") Long ultimo,
+                                          @Param("limite") int limite);
     
     /**
-     * Estadísticas de transacciones por tipo de crypto
+     * Aplica la tasa a las transacciones del lote que siguen pendientes; las que
+     * ya tienen esa tasa no se tocan
+     *
+     * @return filas actualizadas
      */
-    @Query("SELECT t.tipoCrypto, COUNT(t) FROM TransaccionCrypto t GROUP BY t.tipoCrypto")
-    List<Object[]> getEstadisticasPorTipoCrypto();
-    
-    /**
-     * Volumen total de transacciones por mes
-     */
-    @Query("SELECT FUNCTION('MONTH', t.fechaCreacion), FUNCTION('YEAR', t.fechaCreacion), SUM(t.cantidadUsd) " +
-           "FROM TransaccionCrypto t WHERE t.estado = 'APROBADO' " +
-           "GROUP BY FUNCTION('YEAR', t.fechaCreacion), FUNCTION('MONTH', t.fechaCreacion) " +
-           "ORDER BY FUNCTION('YEAR', t.fechaCreacion) DESC, FUNCTION('MONTH', t.fechaCreacion) DESC")
-    List<Object[]> getVolumenMensual();
+    @Modifying
+    @Query(value = "UPDATE transacciones_crypto SET tasa_conversion_usd = :tasa, " +
+                   "cantidad_usd = ROUND(cantidad_crypto * :tasa, 2), fecha_actualizacion = :ahora " +
+                   "WHERE id IN (:ids) AND estado = 'PENDIENTE' AND tasa_conversion_usd <> :tasa", nativeQuery = true)
+    int actualizarTasaPendientes(@Param("ids") Collection<Long> ids,
+                                 @Param("tasa") BigDecimal tasa,
+                                 @Param("ahora") LocalDateTime ahora);
 }
@@ -0,0 +1,145 @@
+package com._bet.repository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com._bet.dto.TransaccionCryptoDto.FiltroTransaccionDto;
+import com._bet.dto.TransaccionCryptoDto.OrdenTransaccion;
+import com._bet.entity.transacciones.TransaccionCrypto;
+import com._bet.entity.user.Usuario;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Traduce el filtro de transacciones a una sola consulta con paginación por
+ * cursor (keyset): en lugar de OFFSET, cada página continúa después de la
+ * última fila de la anterior usando el valor de orden y el id como desempate,
+ * así el costo depende del tamaño de página y no de la tabla.
+ */
+public final class TransaccionCryptoSpecifications {
+
+    private TransaccionCryptoSpecifications() {
+    }
+
+    /**
+     * Filtro, posición del cursor y carga del usuario en la misma consulta
+     */
+    public static Specification<TransaccionCrypto> filtrar(FiltroTransaccionDto filtro, OrdenTransaccion orden,
+            String cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            // El DTO necesita el username: se trae con un join en lugar de una consulta por fila
+            Join<TransaccionCrypto, Usuario> usuario;
+            if (Long.class == query.getResultType()) {
+                usuario = root.join("usuario", JoinType.INNER);
+            } else {
+                Fetch<TransaccionCrypto, Usuario> fetch = root.fetch("usuario", JoinType.INNER);
+                usuario = (Join<TransaccionCrypto, Usuario>) fetch;
+            }
+
+            if (filtro.getTipoTransaccion() != null) {
+                predicados.add(cb.equal(root.get("tipoTransaccion"), filtro.getTipoTransaccion()));
+            }
+            if (filtro.getEstado() != null) {
+                predicados.add(cb.equal(root.get("estado"), filtro.getEstado()));
+            }
+            if (filtro.getTipoCrypto() != null) {
+                predicados.add(cb.equal(root.get("tipoCrypto"), filtro.getTipoCrypto()));
+            }
+            if (filtro.getUsuarioId() != null) {
+                predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuarioId()));
+            }
+            if (filtro.getUsuarioUsername() != null && !filtro.getUsuarioUsername().isBlank()) {
+                predicados.add(cb.equal(usuario.get("username"), filtro.getUsuarioUsername().trim()));
+            }
+            if (filtro.getFechaInicio() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fechaCreacion"), filtro.getFechaInicio()));
+            }
+            if (filtro.getFechaFin() != null) {
+                predicados.add(cb.lessThan(root.get("fechaCreacion"), filtro.getFechaFin()));
+            }
+            if (cursor != null && !cursor.isBlank()) {
+                predicados.add(despuesDe(root, cb, orden, cursor));
+            }
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Orden de la consulta; el id desempata para que el cursor sea estable
+     */
+    public static Sort orden(OrdenTransaccion orden) {
+        Sort.Direction direccion = orden.isAscendente() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direccion, orden.getCampo()).and(Sort.by(direccion, "id"));
+    }
+
+    /**
+     * Cursor opaco con el valor de orden y el id de la última fila de la página
+     */
+    public static String cursor(TransaccionCrypto ultima, OrdenTransaccion orden) {
+        Object valor = "cantidadUsd".equals(orden.getCampo()) ? ultima.getCantidadUsd().toPlainString()
+                : ultima.getFechaCreacion();
+        String texto = valor + "|" + ultima.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Predicate despuesDe(Root<TransaccionCrypto> root, CriteriaBuilder cb, OrdenTransaccion orden,
+            String cursor) {
+        String valor;
+        Long id;
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf('|');
+            valor = texto.substring(0, separador);
+            id = Long.valueOf(texto.substring(separador + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+
+        Path<Long> rootId = root.get("id");
+        if ("cantidadUsd".equals(orden.getCampo())) {
+            BigDecimal monto;
+            try {
+                monto = new BigDecimal(valor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return siguiente(cb, root.get("cantidadUsd"), monto, rootId, id, orden.isAscendente());
+        }
+        LocalDateTime fecha;
+        try {
+            fecha = LocalDateTime.parse(valor);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+        return siguiente(cb, root.get("fechaCreacion"), fecha, rootId, id, orden.isAscendente());
+    }
+
+    /**
+     * (valor, id) estrictamente después del cursor en el sentido del orden
+     */
+    private static <T extends Comparable<? super T>> Predicate siguiente(CriteriaBuilder cb,
+            Expression<? extends T> campo, T valor, Path<Long> rootId, Long id, boolean ascendente) {
+        if (ascendente) {
+            return cb.or(cb.greaterThan(campo, valor),
+                    cb.and(cb.equal(campo, valor), cb.greaterThan(rootId, id)));
+        }
+        return cb.or(cb.lessThan(campo, valor),
+                cb.and(cb.equal(campo, valor), cb.lessThan(rootId, id)));
+    }
+}
@@ -1,12 +1,14 @@
 package com._bet.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com._bet.entity.user.Usuario;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 @Repository
@@ -25,4 +27,50 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
     @Query("SELECT u FROM Usuario u WHERE u.username = :identifier OR u.email = :identifier")
     Optional<Usuario> findByUsernameOrEmailForLogin(@Param("identifier") String identifier);
+
+    // ========== OPERACIONES DE SALDO (solo vía SaldoService) ==========
+
+    /**
+     * Descuenta saldo solo si el usuario tiene suficiente. Devuelve 1 si se aplicó, 0 si no
+     */
+    @Modifying
+    @Query(value = "UPDATE usuarios SET saldo_usd = saldo_usd - :monto WHERE id = :id AND saldo_usd >= :monto", nativeQuery = true)
+    int debitarSaldo(@Param("id") Long id, @Param("monto") BigDecimal monto);
+
+    /**
+     * Suma saldo al usuario. Devuelve 1 si el usuario existe
+     */
+    @Modifying
+    @Query(value = "UPDATE usuarios SET saldo_usd = COALESCE(saldo_usd, 0) + :monto WHERE id = :id", nativeQuery = true)
+    int acreditarSaldo(@Param("id") Long id, @Param("monto") BigDecimal monto);
+
+    /**
+     * Fija el saldo a un valor absoluto (ajuste administrativo)
+     */
+    @Modifying
+    @Query(value = "UPDATE usuarios SET saldo_usd = :saldo WHERE id = :id", nativeQuery = true)
+    int establecerSaldo(@Param("id") Long id, @Param("saldo") BigDecimal saldo);
+
+    /**
+     * Lee el saldo bloqueando la fila (solo para ajustes administrativos)
+     */
+    @Query(value = "SELECT saldo_usd FROM usuarios WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<BigDecimal> findSaldoUsdByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Lee el saldo actual directamente de la base de datos
+     */
+    @Query(value = "SELECT saldo_usd FROM usuarios WHERE id = :id", nativeQuery = true)
+    Optional<BigDecimal> findSaldoUsdById(@Param("id") Long id);
+
+    // ========== CONTRASEÑAS ==========
+
+    /**
+     * Reemplaza el hash de la contraseña solo si no cambió desde que se leyó.
+     * Devuelve 1 si se aplicó
+     */
+    @Modifying
+    @Query(value = "UPDATE usuarios SET password = :nuevo, fecha_actualizacion = CURRENT_TIMESTAMP "
+            + "WHERE id = :id AND password = :anterior", nativeQuery = true)
+    int reemplazarPassword(@Param("id") Long id, @Param("anterior") String anterior, @Param("nuevo") String nuevo);
 }
@@ -1,6 +1,12 @@
 package com._bet.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com._bet.entity.eventoEntity.Valor;
@@ -8,4 +14,27 @@ import com._bet.entity.eventoEntity.Valor;
 @Repository
 public interface ValorRepository extends JpaRepository<Valor, Long> {
 
-}
\ No newline at end of file
+    /**
+     * Carga en una sola consulta los valores con su mercado, evento y equipos
+     * (validación de boletos sin cargas perezosas)
+     */
+    @Query("SELECT v FROM Valor v " +
+           "JOIN FETCH v.momio m " +
+           "JOIN FETCH m.eventoDeportivo e " +
+           "LEFT JOIN FETCH e.equipoLocal " +
+           "LEFT JOIN FETCH e.equipoVisitante " +
+           "LEFT JOIN FETCH e.estado " +
+           "WHERE v.id IN :ids")
+    List<Valor> findAllConEventoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Valores con su mercado, evento y estado de los eventos próximos o en vivo
+     * (carga del libro de precios en una sola consulta)
+     */
+    @Query("SELECT v FROM Valor v " +
+           "JOIN FETCH v.momio m " +
+           "JOIN FETCH m.eventoDeportivo e " +
+           "LEFT JOIN FETCH e.estado " +
+           "WHERE e.fechaEvento >= :desde OR e.enVivo = true")
+    List<Valor> findAllParaLibroDesde(@Param("desde") LocalDateTime desde);
+}
@@ -1,5 +1,6 @@
 package com._bet.scheduler.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -62,4 +63,25 @@ public class SchedulerConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor acotado para los hashes BCrypt de login y registro, separado de
+     * los hilos de Tomcat. Con la cola llena rechaza la tarea en lugar de
+     * acumularla
+     */
+    @Bean(name = "hashingTaskExecutor")
+    public ThreadPoolTaskExecutor hashingTaskExecutor(
+            @Value("${seguridad.hashing.hilos:0}") int hilos,
+            @Value("${seguridad.hashing.cola:100}") int cola) {
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(tamano);
+        executor.setMaxPoolSize(tamano);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("Hashing-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
 }
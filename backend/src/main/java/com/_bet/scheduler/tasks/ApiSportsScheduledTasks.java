@@ -77,12 +77,16 @@ public class ApiSportsScheduledTasks {
         }
     }
 
-    @Scheduled(fixedRate = 120000) // 2 minutos
-    public void quitarEstadoEnVivoDeEventos() {
+    /**
+     * Consulta cada 15 minutos los eventos que debieron empezar y siguen sin
+     * iniciar (el cambio a en vivo y a finalizado lo detecta el actualizador en vivo)
+     */
+    @Scheduled(fixedRate = 900000) // 15 minutos
+    public void verificarEventosVencidos() {
         try {
-            eventoService.quitarEstadoEnVivoDeEventos();
+            apiSportService.verificarEventosVencidos();
         } catch (Exception e) {
-            log.error("❌ Error al quitar el estado de en vivo de eventos: {}", e.getMessage(), e);
+            log.error("❌ Error al verificar eventos vencidos: {}", e.getMessage(), e);
         }
     }
     
@@ -0,0 +1,41 @@
+package com._bet.scheduler.tasks;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com._bet.service.apuesta.ContadoresValorService;
+import com._bet.service.apuesta.LiquidacionMasivaService;
+
+/**
+ * Tareas programadas del flujo de apuestas
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApuestasScheduledTasks {
+
+    private final ContadoresValorService contadoresValorService;
+    private final LiquidacionMasivaService liquidacionMasivaService;
+
+    /**
+     * Vuelca los contadores de apuestas por Valor acumulados en memoria
+     */
+    @Scheduled(fixedDelayString = "${valor.contadores.intervalo-volcado-ms:5000}")
+    public void volcarContadoresValor() {
+        contadoresValorService.volcar();
+    }
+
+    /**
+     * Liquida juntos los eventos resueltos desde la pasada anterior
+     */
+    @Scheduled(fixedDelayString = "${liquidacion.masiva.intervalo-ms:15000}")
+    public void liquidarEventosResueltos() {
+        try {
+            liquidacionMasivaService.procesarPendientes();
+        } catch (Exception e) {
+            log.error("❌ Error en la liquidación de eventos resueltos: {}", e.getMessage(), e);
+        }
+    }
+}
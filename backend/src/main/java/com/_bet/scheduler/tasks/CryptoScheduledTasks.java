@@ -0,0 +1,32 @@
+package com._bet.scheduler.tasks;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com._bet.service.cryptoWallet.CryptoConversionService;
+
+/**
+ * Tareas programadas de las tasas de conversión crypto
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoScheduledTasks {
+
+    private final CryptoConversionService cryptoConversionService;
+
+    /**
+     * Refresca todas las tasas en una sola consulta antes de que expiren (por
+     * defecto cada 4 minutos con un TTL de 5); la primera corre al arrancar
+     */
+    @Scheduled(fixedDelayString = "${crypto.tasas.intervalo-refresco-ms:240000}")
+    public void refrescarTasasConversion() {
+        try {
+            cryptoConversionService.refrescarTasas();
+        } catch (Exception e) {
+            log.error("❌ Error al refrescar las tasas de conversión: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com._bet.scheduler.tasks;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com._bet.service.idempotencia.IdempotenciaService;
+
+/**
+ * Tareas programadas de las claves de idempotencia
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotenciaScheduledTasks {
+
+    private final IdempotenciaService idempotenciaService;
+
+    /**
+     * Elimina las claves de idempotencia expiradas (por defecto cada hora)
+     */
+    @Scheduled(cron = "${idempotencia.purga.cron:0 20 * * * *}", zone = "America/Mexico_City")
+    public void purgarClavesExpiradas() {
+        try {
+            idempotenciaService.purgarExpiradas();
+        } catch (Exception e) {
+            log.error("❌ Error al purgar claves de idempotencia: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com._bet.scheduler.tasks;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com._bet.service.ledger.LedgerService;
+
+/**
+ * Tareas programadas del ledger de saldos
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerScheduledTasks {
+
+    private final LedgerService ledgerService;
+
+    /**
+     * Crea las fotos de saldo periódicas (por defecto cada hora)
+     */
+    @Scheduled(cron = "${ledger.snapshot.cron:0 5 * * * *}", zone = "America/Mexico_City")
+    public void crearSnapshotsDeSaldo() {
+        try {
+            ledgerService.crearSnapshots();
+        } catch (Exception e) {
+            log.error("❌ Error al crear snapshots de saldo: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com._bet.scheduler.tasks;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com._bet.service.estadisticas.RollupService;
+
+/**
+ * Tareas programadas de los rollups de estadísticas
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RollupScheduledTasks {
+
+    private final RollupService rollupService;
+
+    /**
+     * Aplica a los rollups las transacciones y apuestas modificadas (por defecto
+     * cada minuto); la primera pasada construye los rollups si no existen
+     */
+    @Scheduled(fixedDelayString = "${estadisticas.rollup.intervalo-ms:60000}")
+    public void actualizarRollups() {
+        try {
+            rollupService.actualizar();
+        } catch (Exception e) {
+            log.error("❌ Error al actualizar los rollups de estadísticas: {}", e.getMessage(), e);
+        }
+    }
+}
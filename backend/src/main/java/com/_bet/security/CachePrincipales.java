@@ -0,0 +1,124 @@
+package com._bet.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com._bet.entity.user.Usuario;
+import com._bet.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Usuarios autenticados por JWT guardados en memoria por username durante un
+ * TTL corto, para que el filtro no consulte la base en cada petición.
+ *
+ * Los cambios de estado, rol, datos o contraseña de un usuario lo sacan de la
+ * caché al confirmarse la transacción; en otras instancias de la aplicación el
+ * cambio se ve al vencer el TTL. El usuario guardado es compartido entre
+ * peticiones: su saldo no es fuente de verdad (los saldos van por SaldoService).
+ */
+@Component
+public class CachePrincipales {
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    @Value("${seguridad.principales.cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${seguridad.principales.cache.max-entradas:10000}")
+    private int maxEntradas;
+
+    private final ConcurrentHashMap<String, PrincipalGuardado> cache = new ConcurrentHashMap<>();
+    /** Cambia con cada invalidación: una lectura que se cruzó con una no se guarda */
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CachePrincipales(UsuarioRepository usuarioRepository, TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.aciertos = Counter.builder("seguridad.principales.cache")
+                .description("Usuarios del filtro JWT resueltos desde la caché o desde la base")
+                .tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("seguridad.principales.cache")
+                .description("Usuarios del filtro JWT resueltos desde la caché o desde la base")
+                .tag("resultado", "fallo")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("seguridad.principales.cache.entradas", Tags.empty(), cache);
+    }
+
+    /**
+     * Usuario del token, desde la caché si no ha vencido
+     *
+     * @throws UsernameNotFoundException si el usuario ya no existe
+     */
+    public Usuario obtener(String username) {
+        long ahora = System.currentTimeMillis();
+        PrincipalGuardado guardado = cache.get(username);
+        if (guardado != null && guardado.expiraEn > ahora) {
+            aciertos.increment();
+            return guardado.usuario;
+        }
+
+        fallos.increment();
+        long generacionLectura = generacion.get();
+        // En la primaria: una réplica atrasada podría devolver un usuario recién desactivado
+        Usuario usuario = transactionTemplate.execute(status -> usuarioRepository
+                .findByUsernameOrEmailForLogin(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username)));
+
+        if (cache.size() >= maxEntradas) {
+            cache.values().removeIf(e -> e.expiraEn <= ahora);
+        }
+        if (generacion.get() == generacionLectura
+                && (cache.size() < maxEntradas || cache.containsKey(username))) {
+            cache.put(username, new PrincipalGuardado(usuario, ahora + ttlMs));
+        }
+        return usuario;
+    }
+
+    /**
+     * Saca al usuario de la caché cuando la transacción actual se confirma (o
+     * de inmediato si no hay transacción), así la siguiente petición ya ve el
+     * cambio
+     */
+    public void invalidar(Long usuarioId) {
+        Runnable accion = () -> {
+            generacion.incrementAndGet();
+            cache.values().removeIf(e -> usuarioId.equals(e.usuario.getId()));
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private static final class PrincipalGuardado {
+        private final Usuario usuario;
+        private final long expiraEn;
+
+        private PrincipalGuardado(Usuario usuario, long expiraEn) {
+            this.usuario = usuario;
+            this.expiraEn = expiraEn;
+        }
+    }
+}
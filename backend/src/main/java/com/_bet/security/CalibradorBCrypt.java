@@ -0,0 +1,59 @@
+package com._bet.security;
+
+import java.security.SecureRandom;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Elige el costo de BCrypt según el tiempo por hash que se quiere en este
+ * hardware. Cada punto de costo duplica el trabajo, así que basta medir el
+ * costo mínimo y proyectar.
+ *
+ * El resultado depende del nodo y del arranque: con varias instancias conviene
+ * fijar seguridad.password.bcrypt.costo con el valor que se registra aquí.
+ */
+@Slf4j
+public final class CalibradorBCrypt {
+
+    private static final int MEDICIONES = 3;
+
+    private CalibradorBCrypt() {
+    }
+
+    /**
+     * Mayor costo entre minimo y maximo cuyo hash tarda a lo más
+     * tiempoObjetivoMs; el mínimo si ni ese lo cumple
+     */
+    public static int costoPara(long tiempoObjetivoMs, int minimo, int maximo) {
+        if (minimo < 4 || maximo > 31 || minimo > maximo) {
+            throw new IllegalArgumentException("Rango de costo BCrypt inválido: " + minimo + " - " + maximo);
+        }
+
+        SecureRandom random = new SecureRandom();
+        String sal = BCrypt.gensalt(minimo, random);
+        // Calentamiento (JIT) antes de medir
+        BCrypt.hashpw("calibracion", sal);
+
+        long mejorNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = System.nanoTime();
+            BCrypt.hashpw("calibracion", sal);
+            mejorNanos = Math.min(mejorNanos, System.nanoTime() - inicio);
+        }
+
+        double msMinimo = mejorNanos / 1_000_000.0;
+        int costo = minimo;
+        while (costo < maximo && msMinimo * (1L << (costo + 1 - minimo)) <= tiempoObjetivoMs) {
+            costo++;
+        }
+
+        log.info("✅ Costo BCrypt {} (costo {}: {} ms por hash, objetivo {} ms)", costo, minimo,
+                String.format("%.1f", msMinimo), tiempoObjetivoMs);
+        log.warn("⚠️ Costo BCrypt calibrado en este nodo; con varias instancias fije "
+                + "seguridad.password.bcrypt.costo={} para que todas usen el mismo y no rehasheen "
+                + "contraseñas entre sí", costo);
+        return costo;
+    }
+}
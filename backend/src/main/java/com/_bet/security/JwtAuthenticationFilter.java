@@ -1,7 +1,7 @@
 package com._bet.security;
 
+import com._bet.helpers.ClaimsToken;
 import com._bet.helpers.JwtHelper;
-import com._bet.service.user.UsuarioService;
 
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -21,7 +21,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtHelper jwtHelper;
-    private final UsuarioService usuarioService;
+    private final CachePrincipales cachePrincipales;
 
     @Override
     protected void doFilterInternal(
@@ -43,17 +43,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            // Extraer username del token
-            username = jwtHelper.extractUsername(jwt);
+            // Verificar firma y expiración una sola vez
+            ClaimsToken claims = jwtHelper.verificar(jwt);
+            username = claims.subject();
 
             // Si el username no es null y no hay autenticación en el contexto
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                // Cargar detalles del usuario
-                UserDetails userDetails = usuarioService.loadUserByUsername(username);
+                // Cargar detalles del usuario (caché de TTL corto, se invalida al cambiar el usuario)
+                UserDetails userDetails = cachePrincipales.obtener(username);
 
-                // Validar el token
-                if (jwtHelper.isTokenValid(jwt, userDetails)) {
+                // Validar el token; un usuario desactivado no se autentica aunque su token siga vigente
+                if (userDetails.isEnabled() && claims.perteneceA(userDetails)) {
 
                     // Crear token de autenticación
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -0,0 +1,193 @@
+package com._bet.service.Transaccion;
+
+import com._bet.entity.transacciones.AgregadoDiarioSolicitud;
+import com._bet.entity.transacciones.AgregadoSolicitud;
+import com._bet.entity.transacciones.AgregadoSolicitud.TipoSolicitud;
+import com._bet.repository.AgregadoDiarioSolicitudRepository;
+import com._bet.repository.AgregadoSolicitudRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agregados del dashboard de solicitudes de depósito y retiro.
+ *
+ * Cada creación o cambio de estado de una solicitud mueve los contadores en
+ * la misma transacción (upsert sobre una fila por tipo, estado y método), así
+ * el dashboard lee unas cuantas filas sin importar cuántas solicitudes haya.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardSolicitudesService {
+
+    private static final String PENDIENTE = "PENDIENTE";
+
+    private final AgregadoSolicitudRepository agregadoSolicitudRepository;
+    private final AgregadoDiarioSolicitudRepository agregadoDiarioSolicitudRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Registra una solicitud nueva en estado PENDIENTE
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCreacion(TipoSolicitud tipo, Enum<?> metodo, BigDecimal monto) {
+        agregadoSolicitudRepository.sumar(tipo.name(), PENDIENTE, metodo.name(), 1, monto);
+        agregadoDiarioSolicitudRepository.sumar(tipo.name(), PENDIENTE, metodo.name(), LocalDate.now(), 1, monto);
+    }
+
+    /**
+     * Mueve una solicitud de un estado a otro
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambioEstado(TipoSolicitud tipo, Enum<?> metodo, BigDecimal monto, Enum<?> anterior,
+            Enum<?> nuevo) {
+        registrarCambiosEstado(tipo, metodo.name(), 1, monto, anterior, nuevo);
+    }
+
+    /**
+     * Mueve varias solicitudes del mismo método de un estado a otro; monto es
+     * la suma de todas
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambiosEstado(TipoSolicitud tipo, String metodo, long cantidad, BigDecimal monto,
+            Enum<?> anterior, Enum<?> nuevo) {
+        agregadoSolicitudRepository.sumar(tipo.name(), anterior.name(), metodo, -cantidad, monto.negate());
+        agregadoSolicitudRepository.sumar(tipo.name(), nuevo.name(), metodo, cantidad, monto);
+        agregadoDiarioSolicitudRepository.sumar(tipo.name(), nuevo.name(), metodo, LocalDate.now(), cantidad, monto);
+    }
+
+    /**
+     * Totales actuales y de hoy, la semana (desde el lunes) y el mes por tipo,
+     * estado y método
+     */
+    @Transactional(readOnly = true)
+    public List<AgregadoDashboardDto> obtenerAgregados() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate inicioSemana = hoy.with(DayOfWeek.MONDAY);
+        LocalDate inicioMes = hoy.withDayOfMonth(1);
+        LocalDate desde = inicioSemana.isBefore(inicioMes) ? inicioSemana : inicioMes;
+
+        Map<String, AgregadoDashboardDto> agregados = new LinkedHashMap<>();
+        for (AgregadoSolicitud a : agregadoSolicitudRepository.findAll()) {
+            AgregadoDashboardDto dto = agregado(agregados, a.getTipo(), a.getEstado(), a.getMetodo());
+            dto.setCantidad(a.getCantidad());
+            dto.setMonto(a.getMonto());
+        }
+        for (AgregadoDiarioSolicitud d : agregadoDiarioSolicitudRepository.findByDiaGreaterThanEqual(desde)) {
+            AgregadoDashboardDto dto = agregado(agregados, d.getTipo(), d.getEstado(), d.getMetodo());
+            if (d.getDia().equals(hoy)) {
+                dto.setCantidadHoy(dto.getCantidadHoy() + d.getCantidad());
+                dto.setMontoHoy(dto.getMontoHoy().add(d.getMonto()));
+            }
+            if (!d.getDia().isBefore(inicioSemana)) {
+                dto.setCantidadSemana(dto.getCantidadSemana() + d.getCantidad());
+                dto.setMontoSemana(dto.getMontoSemana().add(d.getMonto()));
+            }
+            if (!d.getDia().isBefore(inicioMes)) {
+                dto.setCantidadMes(dto.getCantidadMes() + d.getCantidad());
+                dto.setMontoMes(dto.getMontoMes().add(d.getMonto()));
+            }
+        }
+        return new ArrayList<>(agregados.values());
+    }
+
+    /**
+     * Recalcula los agregados desde las solicitudes. Pensado para el primer
+     * arranque o para corregir una desviación en un momento de poco tráfico:
+     * los cambios de estado concurrentes con el recálculo pueden contarse doble.
+     */
+    @Transactional
+    public void reconstruir() {
+        agregadoSolicitudRepository.eliminarTodos();
+        agregadoDiarioSolicitudRepository.eliminarTodos();
+        int filas = agregadoSolicitudRepository.reconstruir();
+        int dias = agregadoDiarioSolicitudRepository.reconstruir();
+        log.info("✅ Agregados de solicitudes reconstruidos: {} filas, {} filas diarias", filas, dias);
+    }
+
+    /**
+     * Construye los agregados la primera vez que arranca la aplicación con esta
+     * versión. La transacción se abre dentro del try: si falla se revierte
+     * completa y el error solo se registra
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (agregadoSolicitudRepository.count() == 0) {
+                    reconstruir();
+                }
+            });
+        } catch (Exception e) {
+            log.error("❌ Error al construir los agregados de solicitudes: {}", e.getMessage(), e);
+        }
+    }
+
+    private static AgregadoDashboardDto agregado(Map<String, AgregadoDashboardDto> agregados, TipoSolicitud tipo,
+            String estado, String metodo) {
+        return agregados.computeIfAbsent(tipo + "|" + estado + "|" + metodo,
+                k -> new AgregadoDashboardDto(tipo, estado, metodo, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO, 0,
+                        BigDecimal.ZERO, 0, BigDecimal.ZERO));
+    }
+
+    /**
+     * Suma de los agregados de un tipo y estado en todos los métodos
+     */
+    public static long cantidad(List<AgregadoDashboardDto> agregados, TipoSolicitud tipo, Enum<?> estado) {
+        return agregados.stream()
+            .filter(a -> a.getTipo() == tipo && a.getEstado().equals(estado.name()))
+            .mapToLong(AgregadoDashboardDto::getCantidad)
+            .sum();
+    }
+
+    /**
+     * Monto de hoy de un tipo y estado en todos los métodos
+     */
+    public static BigDecimal montoHoy(List<AgregadoDashboardDto> agregados, TipoSolicitud tipo, Enum<?> estado) {
+        return agregados.stream()
+            .filter(a -> a.getTipo() == tipo && a.getEstado().equals(estado.name()))
+            .map(AgregadoDashboardDto::getMontoHoy)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Agregado de un tipo, estado y método: cantidad/monto son las solicitudes
+     * que están hoy en el estado; los de hoy, semana y mes las que entraron a él
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AgregadoDashboardDto {
+        private TipoSolicitud tipo;
+        private String estado;
+        private String metodo;
+        private long cantidad;
+        private BigDecimal monto;
+        private long cantidadHoy;
+        private BigDecimal montoHoy;
+        private long cantidadSemana;
+        private BigDecimal montoSemana;
+        private long cantidadMes;
+        private BigDecimal montoMes;
+    }
+}
@@ -0,0 +1,207 @@
+package com._bet.service.Transaccion;
+
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.entity.transacciones.AgregadoSolicitud.TipoSolicitud;
+import com._bet.entity.transacciones.SolicitudDeposito;
+import com._bet.entity.transacciones.SolicitudRetiro;
+import com._bet.repository.SolicitudLoteRepository;
+import com._bet.repository.SolicitudLoteRepository.SolicitudProcesada;
+import com._bet.repository.SolicitudLoteRepository.TablaSolicitud;
+import com._bet.repository.UsuarioRepository;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.SaldoService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aprobación y rechazo de muchas solicitudes de depósito o retiro en una sola
+ * petición.
+ *
+ * Las solicitudes se actualizan con un UPDATE por lote que solo toma las que
+ * siguen pendientes; los saldos se mueven con un crédito agrupado por usuario
+ * y los agregados del dashboard con un upsert por método. Cada solicitud
+ * recibe su propio resultado: las que no existen o ya se procesaron se
+ * reportan sin detener a las demás.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SolicitudLoteService {
+
+    private final SolicitudLoteRepository solicitudLoteRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final SaldoService saldoService;
+    private final DashboardSolicitudesService dashboardSolicitudesService;
+
+    @Value("${solicitudes.lote.max-solicitudes:500}")
+    private int maxSolicitudes;
+
+    /**
+     * Decisión que se aplica a todas las solicitudes del lote
+     */
+    public enum Decision {
+        APROBAR,
+        RECHAZAR
+    }
+
+    /**
+     * Resultado de una solicitud del lote
+     */
+    public enum ResultadoSolicitud {
+        PROCESADA,
+        NO_ENCONTRADA,
+        YA_PROCESADA
+    }
+
+    /**
+     * Aprueba (acredita el monto) o rechaza las solicitudes de depósito pendientes
+     */
+    @Transactional
+    public ResultadoLoteDto procesarDepositos(List<Long> solicitudIds, Decision decision, Long adminId,
+            String observaciones) {
+        SolicitudDeposito.EstadoSolicitud destino = decision == Decision.APROBAR
+            ? SolicitudDeposito.EstadoSolicitud.COMPLETADA
+            : SolicitudDeposito.EstadoSolicitud.RECHAZADA;
+        TipoMovimiento movimiento = decision == Decision.APROBAR ? TipoMovimiento.DEPOSITO : null;
+        return procesar(TablaSolicitud.DEPOSITO, TipoSolicitud.DEPOSITO, solicitudIds, decision, adminId,
+            observaciones, null, SolicitudDeposito.EstadoSolicitud.PENDIENTE, destino, movimiento,
+            TipoReferencia.SOLICITUD_DEPOSITO);
+    }
+
+    /**
+     * Aprueba o rechaza (devuelve los fondos bloqueados) las solicitudes de
+     * retiro pendientes
+     */
+    @Transactional
+    public ResultadoLoteDto procesarRetiros(List<Long> solicitudIds, Decision decision, Long adminId,
+            String observaciones, String referenciaTransaccion) {
+        SolicitudRetiro.EstadoSolicitud destino = decision == Decision.APROBAR
+            ? SolicitudRetiro.EstadoSolicitud.COMPLETADA
+            : SolicitudRetiro.EstadoSolicitud.RECHAZADA;
+        TipoMovimiento movimiento = decision == Decision.RECHAZAR ? TipoMovimiento.REEMBOLSO_RETIRO : null;
+        return procesar(TablaSolicitud.RETIRO, TipoSolicitud.RETIRO, solicitudIds, decision, adminId,
+            observaciones, referenciaTransaccion, SolicitudRetiro.EstadoSolicitud.PENDIENTE, destino, movimiento,
+            TipoReferencia.SOLICITUD_RETIRO);
+    }
+
+    /**
+     * @param movimiento crédito al usuario por solicitud procesada, o null si la
+     *                   decisión no mueve saldo
+     */
+    private ResultadoLoteDto procesar(TablaSolicitud tabla, TipoSolicitud tipo, List<Long> solicitudIds,
+            Decision decision, Long adminId, String observaciones, String referencia, Enum<?> pendiente,
+            Enum<?> destino, TipoMovimiento movimiento, TipoReferencia referenciaMovimiento) {
+        if (decision == null) {
+            throw new IllegalArgumentException("La decisión es obligatoria");
+        }
+        if (solicitudIds == null || solicitudIds.isEmpty()) {
+            throw new IllegalArgumentException("La lista de solicitudes está vacía");
+        }
+        if (solicitudIds.size() > maxSolicitudes) {
+            throw new IllegalArgumentException("Máximo " + maxSolicitudes + " solicitudes por lote");
+        }
+        if (adminId == null || !usuarioRepository.existsById(adminId)) {
+            throw new RuntimeException("Administrador no encontrado");
+        }
+
+        long inicio = System.currentTimeMillis();
+        Set<Long> ids = new LinkedHashSet<>(solicitudIds);
+        ids.remove(null);
+
+        List<SolicitudProcesada> procesadas = ids.isEmpty() ? List.of()
+            : solicitudLoteRepository.procesarPendientes(tabla, ids, destino.name(), adminId, observaciones,
+                referencia, LocalDateTime.now());
+
+        // Saldos: un movimiento por solicitud, un solo crédito por usuario
+        Map<Long, BigDecimal> saldos = Collections.emptyMap();
+        if (movimiento != null && !procesadas.isEmpty()) {
+            Map<Long, List<MovimientoSaldo>> movimientos = new HashMap<>();
+            for (SolicitudProcesada p : procesadas) {
+                movimientos.computeIfAbsent(p.getUsuarioId(), k -> new ArrayList<>())
+                    .add(MovimientoSaldo.de(movimiento, referenciaMovimiento, p.getSolicitudId(), p.getMonto()));
+            }
+            saldos = saldoService.acreditarEnLote(movimientos);
+        }
+
+        // Dashboard: un cambio de estado por método con la cantidad y el monto sumados
+        Map<String, Long> cantidadPorMetodo = new HashMap<>();
+        Map<String, BigDecimal> montoPorMetodo = new HashMap<>();
+        for (SolicitudProcesada p : procesadas) {
+            cantidadPorMetodo.merge(p.getMetodo(), 1L, Long::sum);
+            montoPorMetodo.merge(p.getMetodo(), p.getMonto(), BigDecimal::add);
+        }
+        cantidadPorMetodo.forEach((metodo, cantidad) -> dashboardSolicitudesService.registrarCambiosEstado(
+            tipo, metodo, cantidad, montoPorMetodo.get(metodo), pendiente, destino));
+
+        // Las que no se actualizaron: una sola consulta para saber por qué
+        Map<Long, SolicitudProcesada> porId = new HashMap<>();
+        procesadas.forEach(p -> porId.put(p.getSolicitudId(), p));
+        List<Long> noProcesadas = ids.stream().filter(id -> !porId.containsKey(id)).toList();
+        Map<Long, String> estados = noProcesadas.isEmpty() ? Map.of()
+            : solicitudLoteRepository.estados(tabla, noProcesadas);
+
+        List<ResultadoSolicitudDto> resultados = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            SolicitudProcesada p = porId.get(id);
+            if (p != null) {
+                resultados.add(new ResultadoSolicitudDto(id, ResultadoSolicitud.PROCESADA, destino.name(),
+                    p.getUsuarioId(), p.getMonto(), saldos.get(p.getUsuarioId()), null));
+            } else if (estados.containsKey(id)) {
+                resultados.add(new ResultadoSolicitudDto(id, ResultadoSolicitud.YA_PROCESADA, estados.get(id),
+                    null, null, null, "La solicitud ya fue procesada"));
+            } else {
+                resultados.add(new ResultadoSolicitudDto(id, ResultadoSolicitud.NO_ENCONTRADA, null,
+                    null, null, null, "Solicitud no encontrada"));
+            }
+        }
+
+        ResultadoLoteDto resultado = new ResultadoLoteDto(tipo, decision, resultados.size(), procesadas.size(),
+            resultados.size() - procesadas.size(), System.currentTimeMillis() - inicio, resultados);
+        log.info("✅ Lote de {} {}: {} procesadas, {} sin procesar por admin {} en {} ms", tipo, decision,
+            resultado.getProcesadas(), resultado.getFallidas(), adminId, resultado.getDuracionMs());
+        return resultado;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ResultadoSolicitudDto {
+        private final Long solicitudId;
+        private final ResultadoSolicitud resultado;
+        /** Estado en que quedó la solicitud (o en el que ya estaba) */
+        private final String estado;
+        private final Long usuarioId;
+        private final BigDecimal monto;
+        /** Saldo del usuario después del lote, solo si la decisión movió saldo */
+        private final BigDecimal saldoUsuario;
+        private final String mensaje;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ResultadoLoteDto {
+        private final TipoSolicitud tipo;
+        private final Decision decision;
+        private final int solicitudes;
+        private final int procesadas;
+        private final int fallidas;
+        private final long duracionMs;
+        private final List<ResultadoSolicitudDto> resultados;
+    }
+}
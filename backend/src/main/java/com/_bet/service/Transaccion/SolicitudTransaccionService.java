@@ -2,12 +2,21 @@ package com._bet.service.Transaccion;
 
 import com._bet.entity.transacciones.SolicitudDeposito;
 import com._bet.entity.transacciones.SolicitudRetiro;
+import com._bet.entity.transacciones.AgregadoSolicitud.TipoSolicitud;
 import com._bet.entity.user.Usuario;
 import com._bet.repository.*;
+import com._bet.repository.SolicitudLoteRepository.SolicitudProcesada;
+import com._bet.repository.SolicitudLoteRepository.TablaSolicitud;
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.ResultadoOperacionSaldo;
+import com._bet.service.saldo.SaldoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,7 +26,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Servicio para gestionar solicitudes de depósito y retiro con aprobación
+ * Servicio para gestionar solicitudes de depósito y retiro con aprobación.
+ *
+ * Aprobar, rechazar o cancelar toma la solicitud con el mismo UPDATE
+ * condicional (estado = 'PENDIENTE') que el procesamiento por lotes, y solo
+ * mueve saldo si el UPDATE devolvió la fila: una operación individual y un
+ * lote sobre la misma solicitud no la aplican dos veces.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,7 +40,10 @@ public class SolicitudTransaccionService {
 
     private final SolicitudDepositoRepository solicitudDepositoRepository;
     private final SolicitudRetiroRepository solicitudRetiroRepository;
+    private final SolicitudLoteRepository solicitudLoteRepository;
     private final UsuarioRepository usuarioRepository;
+    private final SaldoService saldoService;
+    private final DashboardSolicitudesService dashboardSolicitudesService;
 
     @Value("${transactions.deposit.minimum:1.00}")
     private BigDecimal depositoMinimo = BigDecimal.valueOf(1.00);
@@ -72,6 +89,7 @@ public class SolicitudTransaccionService {
             .build();
 
         solicitud = solicitudDepositoRepository.save(solicitud);
+        dashboardSolicitudesService.registrarCreacion(TipoSolicitud.DEPOSITO, solicitud.getMetodoPago(), solicitud.getMonto());
         
         log.info("Solicitud de depósito creada con ID: {} para usuario: {}", solicitud.getId(), usuarioId);
         return solicitud;
@@ -84,37 +102,24 @@ public class SolicitudTransaccionService {
     public SolicitudDeposito aprobarSolicitudDeposito(Long solicitudId, Long adminId, String observaciones) {
         log.info("Aprobando solicitud de depósito: {} por admin: {}", solicitudId, adminId);
 
-        SolicitudDeposito solicitud = solicitudDepositoRepository.findById(solicitudId)
-            .orElseThrow(() -> new RuntimeException("Solicitud de depósito no encontrada"));
-
-        if (solicitud.getEstado() != SolicitudDeposito.EstadoSolicitud.PENDIENTE) {
-            throw new RuntimeException("La solicitud ya fue procesada");
-        }
-
-        Usuario admin = usuarioRepository.findById(adminId)
-            .orElseThrow(() -> new RuntimeException("Administrador no encontrado"));
-
-        Usuario usuario = solicitud.getUsuario();
-
-        // Actualizar solicitud
-        solicitud.setEstado(SolicitudDeposito.EstadoSolicitud.APROBADA);
-        solicitud.setAprobadoPor(admin);
-        solicitud.setObservacionesAdmin(observaciones);
-        solicitud.setFechaProcesamiento(LocalDateTime.now());
+        validarAdmin(adminId);
+        SolicitudProcesada procesada = tomarPendiente(TablaSolicitud.DEPOSITO, solicitudId,
+            SolicitudDeposito.EstadoSolicitud.COMPLETADA, adminId, observaciones, null);
 
         // Transferir fondos al usuario
-        BigDecimal saldoAnterior = usuario.getSaldoUsd();
-        BigDecimal nuevoSaldo = saldoAnterior.add(solicitud.getMonto());
-        usuario.setSaldoUsd(nuevoSaldo);
-        usuarioRepository.save(usuario);
+        ResultadoOperacionSaldo credito = saldoService.acreditar(procesada.getUsuarioId(), MovimientoSaldo.de(
+            TipoMovimiento.DEPOSITO, TipoReferencia.SOLICITUD_DEPOSITO, solicitudId, procesada.getMonto()));
+        BigDecimal nuevoSaldo = credito.getSaldoResultante();
+        BigDecimal saldoAnterior = nuevoSaldo.subtract(procesada.getMonto());
 
-        // Marcar como completada
-        solicitud.setEstado(SolicitudDeposito.EstadoSolicitud.COMPLETADA);
-        solicitud = solicitudDepositoRepository.save(solicitud);
+        dashboardSolicitudesService.registrarCambiosEstado(TipoSolicitud.DEPOSITO, procesada.getMetodo(), 1,
+            procesada.getMonto(), SolicitudDeposito.EstadoSolicitud.PENDIENTE, SolicitudDeposito.EstadoSolicitud.COMPLETADA);
 
         log.info("Solicitud de depósito {} aprobada. Saldo usuario actualizado de {} a {}", 
             solicitudId, saldoAnterior, nuevoSaldo);
 
+        SolicitudDeposito solicitud = obtenerDepositoPorId(solicitudId);
+        solicitud.getUsuario().setSaldoUsd(nuevoSaldo);
         return solicitud;
     }
 
@@ -125,25 +130,15 @@ public class SolicitudTransaccionService {
     public SolicitudDeposito rechazarSolicitudDeposito(Long solicitudId, Long adminId, String motivo) {
         log.info("Rechazando solicitud de depósito: {} por admin: {}", solicitudId, adminId);
 
-        SolicitudDeposito solicitud = solicitudDepositoRepository.findById(solicitudId)
-            .orElseThrow(() -> new RuntimeException("Solicitud de depósito no encontrada"));
-
-        if (solicitud.getEstado() != SolicitudDeposito.EstadoSolicitud.PENDIENTE) {
-            throw new RuntimeException("La solicitud ya fue procesada");
-        }
-
-        Usuario admin = usuarioRepository.findById(adminId)
-            .orElseThrow(() -> new RuntimeException("Administrador no encontrado"));
-
-        solicitud.setEstado(SolicitudDeposito.EstadoSolicitud.RECHAZADA);
-        solicitud.setAprobadoPor(admin);
-        solicitud.setObservacionesAdmin(motivo);
-        solicitud.setFechaProcesamiento(LocalDateTime.now());
+        validarAdmin(adminId);
+        SolicitudProcesada procesada = tomarPendiente(TablaSolicitud.DEPOSITO, solicitudId,
+            SolicitudDeposito.EstadoSolicitud.RECHAZADA, adminId, motivo, null);
 
-        solicitud = solicitudDepositoRepository.save(solicitud);
+        dashboardSolicitudesService.registrarCambiosEstado(TipoSolicitud.DEPOSITO, procesada.getMetodo(), 1,
+            procesada.getMonto(), SolicitudDeposito.EstadoSolicitud.PENDIENTE, SolicitudDeposito.EstadoSolicitud.RECHAZADA);
         
         log.info("Solicitud de depósito {} rechazada por: {}", solicitudId, motivo);
-        return solicitud;
+        return obtenerDepositoPorId(solicitudId);
     }
 
     // ============ SOLICITUDES DE RETIRO ============
@@ -163,20 +158,10 @@ public class SolicitudTransaccionService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        // Verificar saldo suficiente
-        if (usuario.getSaldoUsd().compareTo(dto.getMonto()) < 0) {
-            throw new RuntimeException("Saldo insuficiente para el retiro");
-        }
-
         // Calcular comisión y monto neto
         BigDecimal comision = dto.getMonto().multiply(comisionRetiro);
         BigDecimal montoNeto = dto.getMonto().subtract(comision);
 
-        // Bloquear fondos del usuario
-        BigDecimal nuevoSaldo = usuario.getSaldoUsd().subtract(dto.getMonto());
-        usuario.setSaldoUsd(nuevoSaldo);
-        usuarioRepository.save(usuario);
-
         // Crear solicitud de retiro
         SolicitudRetiro solicitud = SolicitudRetiro.builder()
             .usuario(usuario)
@@ -195,6 +180,15 @@ public class SolicitudTransaccionService {
             .build();
 
         solicitud = solicitudRetiroRepository.save(solicitud);
+        dashboardSolicitudesService.registrarCreacion(TipoSolicitud.RETIRO, solicitud.getMetodoRetiro(), solicitud.getMonto());
+
+        // Bloquear fondos del usuario (solo si el saldo alcanza; si no, se revierte la solicitud)
+        ResultadoOperacionSaldo debito = saldoService.debitar(usuarioId, MovimientoSaldo.de(
+            TipoMovimiento.RETIRO, TipoReferencia.SOLICITUD_RETIRO, solicitud.getId(), dto.getMonto()));
+        if (!debito.isAplicado()) {
+            throw new RuntimeException("Saldo insuficiente para el retiro");
+        }
+        usuario.setSaldoUsd(debito.getSaldoResultante());
         
         log.info("Solicitud de retiro creada con ID: {} para usuario: {}. Fondos bloqueados.", 
             solicitud.getId(), usuarioId);
@@ -208,29 +202,16 @@ public class SolicitudTransaccionService {
     public SolicitudRetiro aprobarSolicitudRetiro(Long solicitudId, Long adminId, String observaciones, String referenciaTransaccion) {
         log.info("Aprobando solicitud de retiro: {} por admin: {}", solicitudId, adminId);
 
-        SolicitudRetiro solicitud = solicitudRetiroRepository.findById(solicitudId)
-            .orElseThrow(() -> new RuntimeException("Solicitud de retiro no encontrada"));
-
-        if (solicitud.getEstado() != SolicitudRetiro.EstadoSolicitud.PENDIENTE) {
-            throw new RuntimeException("La solicitud ya fue procesada");
-        }
+        validarAdmin(adminId);
+        // Se marca como completada: los fondos ya fueron descontados al crear la solicitud
+        SolicitudProcesada procesada = tomarPendiente(TablaSolicitud.RETIRO, solicitudId,
+            SolicitudRetiro.EstadoSolicitud.COMPLETADA, adminId, observaciones, referenciaTransaccion);
 
-        Usuario admin = usuarioRepository.findById(adminId)
-            .orElseThrow(() -> new RuntimeException("Administrador no encontrado"));
-
-        // Actualizar solicitud
-        solicitud.setEstado(SolicitudRetiro.EstadoSolicitud.APROBADA);
-        solicitud.setAprobadoPor(admin);
-        solicitud.setObservacionesAdmin(observaciones);
-        solicitud.setReferenciaTransaccion(referenciaTransaccion);
-        solicitud.setFechaProcesamiento(LocalDateTime.now());
-
-        // Marcar como completada (los fondos ya fueron descontados al crear la solicitud)
-        solicitud.setEstado(SolicitudRetiro.EstadoSolicitud.COMPLETADA);
-        solicitud = solicitudRetiroRepository.save(solicitud);
+        dashboardSolicitudesService.registrarCambiosEstado(TipoSolicitud.RETIRO, procesada.getMetodo(), 1,
+            procesada.getMonto(), SolicitudRetiro.EstadoSolicitud.PENDIENTE, SolicitudRetiro.EstadoSolicitud.COMPLETADA);
 
         log.info("Solicitud de retiro {} aprobada y completada", solicitudId);
-        return solicitud;
+        return obtenerRetiroPorId(solicitudId);
     }
 
     /**
@@ -240,31 +221,20 @@ public class SolicitudTransaccionService {
     public SolicitudRetiro rechazarSolicitudRetiro(Long solicitudId, Long adminId, String motivo) {
         log.info("Rechazando solicitud de retiro: {} por admin: {}", solicitudId, adminId);
 
-        SolicitudRetiro solicitud = solicitudRetiroRepository.findById(solicitudId)
-            .orElseThrow(() -> new RuntimeException("Solicitud de retiro no encontrada"));
-
-        if (solicitud.getEstado() != SolicitudRetiro.EstadoSolicitud.PENDIENTE) {
-            throw new RuntimeException("La solicitud ya fue procesada");
-        }
-
-        Usuario admin = usuarioRepository.findById(adminId)
-            .orElseThrow(() -> new RuntimeException("Administrador no encontrado"));
-
-        Usuario usuario = solicitud.getUsuario();
+        validarAdmin(adminId);
+        SolicitudProcesada procesada = tomarPendiente(TablaSolicitud.RETIRO, solicitudId,
+            SolicitudRetiro.EstadoSolicitud.RECHAZADA, adminId, motivo, null);
 
         // Devolver fondos al usuario
-        BigDecimal nuevoSaldo = usuario.getSaldoUsd().add(solicitud.getMonto());
-        usuario.setSaldoUsd(nuevoSaldo);
-        usuarioRepository.save(usuario);
+        ResultadoOperacionSaldo credito = saldoService.acreditar(procesada.getUsuarioId(), MovimientoSaldo.de(
+            TipoMovimiento.REEMBOLSO_RETIRO, TipoReferencia.SOLICITUD_RETIRO, solicitudId, procesada.getMonto()));
 
-        solicitud.setEstado(SolicitudRetiro.EstadoSolicitud.RECHAZADA);
-        solicitud.setAprobadoPor(admin);
-        solicitud.setObservacionesAdmin(motivo);
-        solicitud.setFechaProcesamiento(LocalDateTime.now());
-
-        solicitud = solicitudRetiroRepository.save(solicitud);
+        dashboardSolicitudesService.registrarCambiosEstado(TipoSolicitud.RETIRO, procesada.getMetodo(), 1,
+            procesada.getMonto(), SolicitudRetiro.EstadoSolicitud.PENDIENTE, SolicitudRetiro.EstadoSolicitud.RECHAZADA);
         
         log.info("Solicitud de retiro {} rechazada. Fondos devueltos al usuario", solicitudId);
+        SolicitudRetiro solicitud = obtenerRetiroPorId(solicitudId);
+        solicitud.getUsuario().setSaldoUsd(credito.getSaldoResultante());
         return solicitud;
     }
 
@@ -303,6 +273,22 @@ public class SolicitudTransaccionService {
         return solicitudRetiroRepository.findByEstadoOrderByFechaSolicitudAsc(SolicitudRetiro.EstadoSolicitud.PENDIENTE);
     }
 
+    /**
+     * Primera página de la cola de depósitos pendientes (los más antiguos)
+     */
+    public List<SolicitudDeposito> obtenerPrimerosDepositosPendientes(int limite) {
+        return solicitudDepositoRepository.findByEstadoOrderByFechaSolicitudAsc(
+            SolicitudDeposito.EstadoSolicitud.PENDIENTE, PageRequest.of(0, limite));
+    }
+
+    /**
+     * Primera página de la cola de retiros pendientes (los más antiguos)
+     */
+    public List<SolicitudRetiro> obtenerPrimerosRetirosPendientes(int limite) {
+        return solicitudRetiroRepository.findByEstadoOrderByFechaSolicitudAsc(
+            SolicitudRetiro.EstadoSolicitud.PENDIENTE, PageRequest.of(0, limite));
+    }
+
     /**
      * Obtiene estadísticas de transacciones
      */
@@ -440,46 +426,78 @@ public class SolicitudTransaccionService {
 
     @Transactional
     public SolicitudDeposito cancelarSolicitudDeposito(Long solicitudId, Long usuarioId) {
-        SolicitudDeposito solicitud = solicitudDepositoRepository.findById(solicitudId)
-            .orElseThrow(() -> new RuntimeException("Solicitud de depósito no encontrada"));
-
-        if (!solicitud.getUsuario().getId().equals(usuarioId)) {
-            throw new RuntimeException("No tiene permisos para cancelar esta solicitud");
-        }
-
-        if (solicitud.getEstado() != SolicitudDeposito.EstadoSolicitud.PENDIENTE) {
+        SolicitudProcesada procesada = solicitudLoteRepository.procesarPendientes(TablaSolicitud.DEPOSITO,
+            List.of(solicitudId), SolicitudDeposito.EstadoSolicitud.CANCELADA.name(), null, null, null,
+            LocalDateTime.now()).stream().findFirst().orElse(null);
+
+        // Sin cambios o de otro usuario: la excepción revierte el UPDATE
+        if (procesada == null || !procesada.getUsuarioId().equals(usuarioId)) {
+            SolicitudDeposito solicitud = obtenerDepositoPorId(solicitudId);
+            if (!solicitud.getUsuario().getId().equals(usuarioId)) {
+                throw new RuntimeException("No tiene permisos para cancelar esta solicitud");
+            }
             throw new RuntimeException("Solo se pueden cancelar solicitudes pendientes");
         }
 
-        solicitud.setEstado(SolicitudDeposito.EstadoSolicitud.CANCELADA);
-        solicitud.setFechaProcesamiento(LocalDateTime.now());
+        dashboardSolicitudesService.registrarCambiosEstado(TipoSolicitud.DEPOSITO, procesada.getMetodo(), 1,
+            procesada.getMonto(), SolicitudDeposito.EstadoSolicitud.PENDIENTE, SolicitudDeposito.EstadoSolicitud.CANCELADA);
 
         log.info("Solicitud de depósito {} cancelada por el usuario {}", solicitudId, usuarioId);
-        return solicitudDepositoRepository.save(solicitud);
+        return obtenerDepositoPorId(solicitudId);
     }
 
     @Transactional
     public SolicitudRetiro cancelarSolicitudRetiro(Long solicitudId, Long usuarioId) {
-        SolicitudRetiro solicitud = solicitudRetiroRepository.findById(solicitudId)
-            .orElseThrow(() -> new RuntimeException("Solicitud de retiro no encontrada"));
-
-        if (!solicitud.getUsuario().getId().equals(usuarioId)) {
-            throw new RuntimeException("No tiene permisos para cancelar esta solicitud");
-        }
-
-        if (solicitud.getEstado() != SolicitudRetiro.EstadoSolicitud.PENDIENTE) {
+        SolicitudProcesada procesada = solicitudLoteRepository.procesarPendientes(TablaSolicitud.RETIRO,
+            List.of(solicitudId), SolicitudRetiro.EstadoSolicitud.CANCELADA.name(), null, null, null,
+            LocalDateTime.now()).stream().findFirst().orElse(null);
+
+        // Sin cambios o de otro usuario: la excepción revierte el UPDATE
+        if (procesada == null || !procesada.getUsuarioId().equals(usuarioId)) {
+            SolicitudRetiro solicitud = obtenerRetiroPorId(solicitudId);
+            if (!solicitud.getUsuario().getId().equals(usuarioId)) {
+                throw new RuntimeException("No tiene permisos para cancelar esta solicitud");
+            }
             throw new RuntimeException("Solo se pueden cancelar solicitudes pendientes");
         }
 
         // Liberar los fondos bloqueados
-        Usuario usuario = solicitud.getUsuario();
-        usuario.setSaldoUsd(usuario.getSaldoUsd().add(solicitud.getMonto()));
-        usuarioRepository.save(usuario);
+        ResultadoOperacionSaldo credito = saldoService.acreditar(usuarioId, MovimientoSaldo.de(
+            TipoMovimiento.REEMBOLSO_RETIRO, TipoReferencia.SOLICITUD_RETIRO, solicitudId, procesada.getMonto()));
 
-        solicitud.setEstado(SolicitudRetiro.EstadoSolicitud.CANCELADA);
-        solicitud.setFechaProcesamiento(LocalDateTime.now());
+        dashboardSolicitudesService.registrarCambiosEstado(TipoSolicitud.RETIRO, procesada.getMetodo(), 1,
+            procesada.getMonto(), SolicitudRetiro.EstadoSolicitud.PENDIENTE, SolicitudRetiro.EstadoSolicitud.CANCELADA);
 
         log.info("Solicitud de retiro {} cancelada por el usuario {}. Fondos liberados.", solicitudId, usuarioId);
-        return solicitudRetiroRepository.save(solicitud);
+        SolicitudRetiro solicitud = obtenerRetiroPorId(solicitudId);
+        solicitud.getUsuario().setSaldoUsd(credito.getSaldoResultante());
+        return solicitud;
+    }
+
+    private void validarAdmin(Long adminId) {
+        if (adminId == null || !usuarioRepository.existsById(adminId)) {
+            throw new RuntimeException("Administrador no encontrado");
+        }
+    }
+
+    /**
+     * Pasa la solicitud al nuevo estado solo si sigue PENDIENTE
+     *
+     * @return la solicitud tomada; si no existe o ya se procesó, lanza la excepción
+     */
+    private SolicitudProcesada tomarPendiente(TablaSolicitud tabla, Long solicitudId, Enum<?> estado, Long adminId,
+            String observaciones, String referencia) {
+        List<SolicitudProcesada> procesadas = solicitudLoteRepository.procesarPendientes(tabla, List.of(solicitudId),
+            estado.name(), adminId, observaciones, referencia, LocalDateTime.now());
+        if (!procesadas.isEmpty()) {
+            return procesadas.get(0);
+        }
+        boolean existe = tabla == TablaSolicitud.DEPOSITO ? solicitudDepositoRepository.existsById(solicitudId)
+            : solicitudRetiroRepository.existsById(solicitudId);
+        if (!existe) {
+            throw new RuntimeException(tabla == TablaSolicitud.DEPOSITO ? "Solicitud de depósito no encontrada"
+                : "Solicitud de retiro no encontrada");
+        }
+        throw new RuntimeException("La solicitud ya fue procesada");
     }
 }
@@ -5,22 +5,36 @@ import com._bet.entity.transacciones.TransaccionCrypto;
 import com._bet.entity.user.CryptoWallet;
 import com._bet.entity.user.Usuario;
 import com._bet.repository.TransaccionCryptoRepository;
+import com._bet.repository.TransaccionCryptoSpecifications;
 import com._bet.repository.UsuarioRepository;
 import com._bet.service.cryptoWallet.CryptoConversionService;
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.ResultadoOperacionSaldo;
+import com._bet.service.saldo.SaldoService;
 import com._bet.repository.CryptoWalletRepository;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class TransaccionCryptoService {
     
@@ -28,6 +42,14 @@ public class TransaccionCryptoService {
     private final UsuarioRepository usuarioRepository;
     private final CryptoWalletRepository cryptoWalletRepository;
     private final CryptoConversionService conversionService;
+    private final SaldoService saldoService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${transacciones.recalculo.filas-por-lote:5000}")
+    private int filasPorLote;
+    
+    private static final int TAMANO_PAGINA_DEFECTO = 50;
+    private static final int TAMANO_PAGINA_MAXIMO = 200;
     
     /**
      * Crea una nueva solicitud de transacción (depósito o retiro)
@@ -115,18 +137,22 @@ public class TransaccionCryptoService {
         
         // Actualizar el saldo USD del usuario
         Usuario usuario = transaccion.getUsuario();
-        BigDecimal nuevoSaldo;
+        ResultadoOperacionSaldo resultado;
         
         if (transaccion.esDeposito()) {
             // Sumar al saldo
-            nuevoSaldo = usuario.getSaldoUsd().add(transaccion.getCantidadUsd());
+            resultado = saldoService.acreditar(usuario.getId(), MovimientoSaldo.de(TipoMovimiento.DEPOSITO,
+                TipoReferencia.TRANSACCION_CRYPTO, transaccion.getId(), transaccion.getCantidadUsd()));
         } else {
-            // Restar del saldo (ya validamos que tiene suficiente)
-            nuevoSaldo = usuario.getSaldoUsd().subtract(transaccion.getCantidadUsd());
+            // Restar del saldo; el saldo pudo cambiar desde que se creó la transacción
+            resultado = saldoService.debitar(usuario.getId(), MovimientoSaldo.de(TipoMovimiento.RETIRO,
+                TipoReferencia.TRANSACCION_CRYPTO, transaccion.getId(), transaccion.getCantidadUsd()));
+            if (!resultado.isAplicado()) {
+                throw new RuntimeException("Saldo insuficiente para realizar el retiro");
+            }
         }
         
-        usuario.setSaldoUsd(nuevoSaldo);
-        usuarioRepository.save(usuario);
+        usuario.setSaldoUsd(resultado.getSaldoResultante());
     }
     
     /**
@@ -270,22 +296,36 @@ public class TransaccionCryptoService {
     }
     
     /**
-     * Obtiene transacciones filtradas
+     * Obtiene una página de transacciones filtradas. El filtro y el orden se
+     * resuelven en la base de datos y la página continúa desde el cursor de la
+     * anterior, así el costo depende del tamaño de página y no de la tabla.
      */
     @Transactional(readOnly = true)
-    public List<TransaccionCryptoDto> getTransaccionesFiltradas(TransaccionCryptoDto.FiltroTransaccionDto filtro) {
-        // Implementación básica - en producción usar Specifications o Criteria API
-        List<TransaccionCrypto> transacciones = transaccionRepository.findAll();
+    public TransaccionCryptoDto.PaginaTransaccionesDto getTransaccionesFiltradas(
+            TransaccionCryptoDto.FiltroTransaccionDto filtro) {
+        TransaccionCryptoDto.OrdenTransaccion orden = filtro.getOrden() != null
+            ? filtro.getOrden()
+            : TransaccionCryptoDto.OrdenTransaccion.FECHA_DESC;
+        int tamano = filtro.getTamanoPagina() != null
+            ? Math.max(1, Math.min(filtro.getTamanoPagina(), TAMANO_PAGINA_MAXIMO))
+            : TAMANO_PAGINA_DEFECTO;
         
-        return transacciones.stream()
-            .filter(t -> filtro.getTipoTransaccion() == null || t.getTipoTransaccion() == filtro.getTipoTransaccion())
-            .filter(t -> filtro.getEstado() == null || t.getEstado() == filtro.getEstado())
-            .filter(t -> filtro.getTipoCrypto() == null || t.getTipoCrypto() == filtro.getTipoCrypto())
-            .filter(t -> filtro.getUsuarioId() == null || t.getUsuario().getId().equals(filtro.getUsuarioId()))
-            .filter(t -> filtro.getFechaInicio() == null || t.getFechaCreacion().isAfter(filtro.getFechaInicio()))
-            .filter(t -> filtro.getFechaFin() == null || t.getFechaCreacion().isBefore(filtro.getFechaFin()))
-            .map(TransaccionCryptoDto::fromEntity)
-            .collect(Collectors.toList());
+        // Se pide una fila extra para saber si hay otra página sin contar la tabla
+        List<TransaccionCrypto> filas = transaccionRepository.findBy(
+            TransaccionCryptoSpecifications.filtrar(filtro, orden, filtro.getCursor()),
+            q -> q.sortBy(TransaccionCryptoSpecifications.orden(orden)).limit(tamano + 1).all());
+        
+        boolean hayMas = filas.size() > tamano;
+        List<TransaccionCrypto> pagina = hayMas ? filas.subList(0, tamano) : filas;
+        String siguienteCursor = hayMas
+            ? TransaccionCryptoSpecifications.cursor(pagina.get(pagina.size() - 1), orden)
+            : null;
+        
+        return new TransaccionCryptoDto.PaginaTransaccionesDto(
+            pagina.stream().map(TransaccionCryptoDto::fromEntity).collect(Collectors.toList()),
+            siguienteCursor,
+            hayMas
+        );
     }
     
     /**
@@ -306,22 +346,53 @@ public class TransaccionCryptoService {
     }
     
     /**
-     * Recalcula las tasas de conversión para transacciones pendientes
+     * Recalcula las tasas de conversión de las transacciones pendientes. Se toma
+     * una sola tasa por tipo de crypto y se aplica en lotes de ids pendientes
+     * recorridos por keyset, de una transacción cada uno.
      */
-    public void recalcularTasasConversionPendientes() {
-        List<TransaccionCrypto> pendientes = transaccionRepository.findTransaccionesPendientes();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransaccionCryptoDto.RecalculoTasasDto recalcularTasasConversionPendientes() {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<CryptoWallet.TipoCrypto, BigDecimal> tasas =
+            conversionService.getTasasConversion(CryptoWallet.TipoCrypto.values());
         
-        for (TransaccionCrypto transaccion : pendientes) {
-            BigDecimal nuevaTasa = conversionService.getTasaConversion(transaccion.getTipoCrypto());
-            BigDecimal nuevaCantidadUsd = conversionService.convertirCryptoAUsd(
-                transaccion.getCantidadCrypto(), 
-                transaccion.getTipoCrypto()
-            );
+        Map<CryptoWallet.TipoCrypto, Integer> actualizadasPorTipo = new EnumMap<>(CryptoWallet.TipoCrypto.class);
+        long pendientes = 0;
+        for (Object[] conteo : transaccionRepository.countPendientesPorTipoCrypto()) {
+            CryptoWallet.TipoCrypto tipo = (CryptoWallet.TipoCrypto) conteo[0];
+            pendientes += (Long) conteo[1];
+            BigDecimal tasa = tasas.get(tipo);
             
-            transaccion.setTasaConversionUsd(nuevaTasa);
-            transaccion.setCantidadUsd(nuevaCantidadUsd);
+            // Recorrido por keyset: cada lote empieza después del último id del anterior
+            int actualizadas = 0;
+            long ultimo = 0L;
+            while (true) {
+                long desde = ultimo;
+                long[] lote = transactionTemplate.execute(status -> {
+                    List<Long> ids = transaccionRepository.findIdsPendientesDespuesDe(tipo.name(), desde, filasPorLote);
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    int filas = transaccionRepository.actualizarTasaPendientes(ids, tasa, ahora);
+                    return new long[] { ids.get(ids.size() - 1), filas, ids.size() };
+                });
+                if (lote == null) {
+                    break;
+                }
+                ultimo = lote[0];
+                actualizadas += (int) lote[1];
+                if (lote[2] < filasPorLote) {
+                    break;
+                }
+            }
+            actualizadasPorTipo.put(tipo, actualizadas);
         }
         
-        transaccionRepository.saveAll(pendientes);
+        int total = actualizadasPorTipo.values().stream().mapToInt(Integer::intValue).sum();
+        long duracionMs = System.currentTimeMillis() - inicio;
+        log.info("✅ Tasas de {} transacciones pendientes recalculadas ({} revisadas) en {} ms",
+            total, pendientes, duracionMs);
+        return new TransaccionCryptoDto.RecalculoTasasDto(pendientes, total, actualizadasPorTipo, duracionMs);
     }
 }
@@ -5,10 +5,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import com._bet.dto.apiSports.entidades.FixtureEvent;
 import com._bet.dto.apiSports.entidades.Season;
 import com._bet.dto.apiSports.entidades.Odds.Bet;
 import com._bet.dto.apiSports.entidades.Odds.Value;
@@ -32,6 +34,10 @@ import com._bet.repository.EquipoRepository;
 import com._bet.repository.EventoDeportivoRepository;
 import com._bet.repository.LigaRepository;
 import com._bet.repository.MomioRepository;
+import com._bet.service.apuesta.CatalogoMercados;
+import com._bet.service.apuesta.CatalogoMercados.DefinicionMercado;
+import com._bet.service.apuesta.LibroPreciosService;
+import com._bet.service.evento.CicloVidaEventoService;
 
 import org.springframework.http.HttpMethod;
 
@@ -40,6 +46,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -63,6 +70,13 @@ public class ApiSportService {
     private final LigaRepository ligaRepository;
     private final EquipoRepository equipoRepository;
     private final MomioRepository momioRepository;
+    private final LibroPreciosService libroPreciosService;
+    private final CicloVidaEventoService cicloVidaEventoService;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogoMercados catalogoMercados;
+
+    /** Máximo de ids por consulta a /fixtures?ids= */
+    private static final int MAX_IDS_POR_CONSULTA = 20;
 
     public static final Map<String, String> URLS_POR_DEPORTE = Map.ofEntries(
             Map.entry("Soccer", "https://v3.football.api-sports.io"),
@@ -535,6 +549,9 @@ public class ApiSportService {
                 momio.setEventoDeportivo(newEvent);
                 momioRepository.save(momio);
             });
+            libroPreciosService.publicar(newEvent, momios);
+        } else {
+            libroPreciosService.actualizarEvento(newEvent);
         }
 
         return newEvent;
@@ -546,12 +563,17 @@ public class ApiSportService {
         for (Bet bet : bets) {
             Momio momio = new Momio();
             momio.setTipoApuesta(bet.getName());
+            DefinicionMercado mercado = catalogoMercados.obtener(bet.getName());
 
             List<Valor> valores = new ArrayList<>();
             for (Value odd : bet.getValues()) {
                 Valor valor = new Valor();
                 valor.setValor(odd.getValue());
                 valor.setOdd(odd.getOdd());
+                // La etiqueta se interpreta una sola vez, al ingerir
+                if (mercado != null) {
+                    valor.setSeleccion(mercado.parsear(odd.getValue()));
+                }
                 valor.setMomio(momio);
                 valores.add(valor);
             }
@@ -586,63 +608,225 @@ public class ApiSportService {
          * });
          */
 
+        if (eventosResponse == null || eventosResponse.getResponse() == null) {
+            return;
+        }
+
+        Set<Integer> vistos = new HashSet<>();
         eventosResponse.getResponse().forEach(eventoEnVivo -> {
-            EventoDeportivo existingEvent = eventoDeportivoRepository
-                    .findByApiSportsId(eventoEnVivo.getFixture().getId());
+            if (eventoEnVivo.getFixture() == null) {
+                return;
+            }
+            vistos.add(eventoEnVivo.getFixture().getId());
+            actualizarDesdeFixture(eventoEnVivo.getFixture().getId(), eventoEnVivo);
+        });
 
-            if (existingEvent != null) {
-                System.out.println("Actualizando evento en vivo: " + existingEvent.getNombre() + " (ID: "
-                        + existingEvent.getApiSportsId() + ")");
-                
-                // Actualizar estado
-                if (eventoEnVivo.getFixture() != null && eventoEnVivo.getFixture().getStatus() != null) {
-                    existingEvent.getEstado().setLargo(eventoEnVivo.getFixture().getStatus().getLongStatus());
-                    existingEvent.getEstado().setCorto(eventoEnVivo.getFixture().getStatus().getShortStatus());
-                    existingEvent.getEstado().setElapsed(eventoEnVivo.getFixture().getStatus().getElapsed());
-                    existingEvent.getEstado().setExtra(eventoEnVivo.getFixture().getStatus().getExtra());
-                }
-                
-                existingEvent.setEnVivo(true);
-                existingEvent.setFechaActualizacion(LocalDateTime.now());
-
-                // Verificar que score no sea null
-                if (eventoEnVivo.getScore() != null) {
-                    // Actualizar goles totales
-                    if (eventoEnVivo.getScore().getFulltime() != null) {
-                        Integer homeGoals = eventoEnVivo.getScore().getFulltime().getHome();
-                        Integer awayGoals = eventoEnVivo.getScore().getFulltime().getAway();
-                        
-                        existingEvent.getGoles().setLocales(homeGoals != null ? homeGoals : 0);
-                        existingEvent.getGoles().setVisitantes(awayGoals != null ? awayGoals : 0);
-                        
-                        // Actualizar fulltime
-                        existingEvent.getGoles().getFulltime().setLocales(homeGoals != null ? homeGoals : 0);
-                        existingEvent.getGoles().getFulltime().setVisitantes(awayGoals != null ? awayGoals : 0);
-                    }
-
-                    // Actualizar extratime
-                    if (eventoEnVivo.getScore().getExtratime() != null) {
-                        Integer homeExtratime = eventoEnVivo.getScore().getExtratime().getHome();
-                        Integer awayExtratime = eventoEnVivo.getScore().getExtratime().getAway();
-                        
-                        existingEvent.getGoles().getExtratime().setLocales(homeExtratime != null ? homeExtratime : 0);
-                        existingEvent.getGoles().getExtratime().setVisitantes(awayExtratime != null ? awayExtratime : 0);
-                    }
-
-                    // Actualizar penalty
-                    if (eventoEnVivo.getScore().getPenalty() != null) {
-                        Integer homePenalty = eventoEnVivo.getScore().getPenalty().getHome();
-                        Integer awayPenalty = eventoEnVivo.getScore().getPenalty().getAway();
-                        
-                        existingEvent.getGoles().getPenalty().setLocales(homePenalty != null ? homePenalty : 0);
-                        existingEvent.getGoles().getPenalty().setVisitantes(awayPenalty != null ? awayPenalty : 0);
-                    }
+        // Los fixtures terminados salen de live=all: se consulta su estado final por id
+        consultarFixtures(baseUrl, cicloVidaEventoService.registrarRondaEnVivo(vistos));
+    }
+
+    /**
+     * Consulta el estado de los eventos que debieron empezar hace horas y siguen
+     * sin iniciar según la base de datos (el actualizador en vivo nunca los vio)
+     */
+    public void verificarEventosVencidos() {
+        String baseUrl = URLS_POR_DEPORTE.get("Soccer");
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Integer> vencidos = eventoDeportivoRepository.findApiSportsIdsVencidos(ahora.minusDays(2),
+                ahora.minusHours(3), CicloVidaEventoService.ESTADOS_PREVIOS);
+        consultarFixtures(baseUrl, vencidos);
+    }
+
+    /**
+     * Consulta los fixtures por id en grupos de hasta 20 (ids=1-2-3) y aplica su
+     * estado, marcador y goles. La respuesta por id ya trae los eventos del
+     * partido; solo si un partido terminado con goles llega sin eventos se piden
+     * a /fixtures/events.
+     */
+    private void consultarFixtures(String baseUrl, List<Integer> apiSportsIds) {
+        for (int desde = 0; desde < apiSportsIds.size(); desde += MAX_IDS_POR_CONSULTA) {
+            List<Integer> grupo = apiSportsIds.subList(desde,
+                    Math.min(desde + MAX_IDS_POR_CONSULTA, apiSportsIds.size()));
+            String ids = grupo.stream().map(String::valueOf).collect(Collectors.joining("-"));
+
+            Response<EventsByLeagueResponse> respuesta = getFromSportApi(baseUrl + "/fixtures?ids=" + ids,
+                    new ParameterizedTypeReference<Response<EventsByLeagueResponse>>() {
+                    });
+            if (respuesta == null || respuesta.getResponse() == null) {
+                continue;
+            }
+            for (EventsByLeagueResponse fixture : respuesta.getResponse()) {
+                if (fixture.getFixture() == null) {
+                    continue;
                 }
-                
-                // Guardar los cambios
-                eventoDeportivoRepository.save(existingEvent);
+                completarEventos(baseUrl, fixture);
+                actualizarDesdeFixture(fixture.getFixture().getId(), fixture);
+            }
+        }
+    }
+
+    private void completarEventos(String baseUrl, EventsByLeagueResponse fixture) {
+        boolean terminado = fixture.getFixture().getStatus() != null && CicloVidaEventoService.ESTADOS_FINALIZADOS
+                .contains(fixture.getFixture().getStatus().getShortStatus());
+        boolean conGoles = fixture.getGoals() != null
+                && (nvl(fixture.getGoals().getHome()) + nvl(fixture.getGoals().getAway())) > 0;
+        if (!terminado || !conGoles || (fixture.getEvents() != null && !fixture.getEvents().isEmpty())) {
+            return;
+        }
+        Response<FixtureEvent> eventos = getFromSportApi(
+                baseUrl + "/fixtures/events?fixture=" + fixture.getFixture().getId() + "&type=Goal",
+                new ParameterizedTypeReference<Response<FixtureEvent>>() {
+                });
+        if (eventos != null) {
+            fixture.setEvents(eventos.getResponse());
+        }
+    }
+
+    private static int nvl(Integer valor) {
+        return valor == null ? 0 : valor;
+    }
+
+    /**
+     * Aplica el estado y el marcador de un fixture al evento y notifica el cambio
+     * de estado al ciclo de vida del evento. Se hace sobre la entidad gestionada
+     * para que los cambios de estado, goles y puntuaciones se persistan.
+     */
+    private void actualizarDesdeFixture(Integer apiSportsId, EventsByLeagueResponse eventoEnVivo) {
+        transactionTemplate.executeWithoutResult(status -> {
+            EventoDeportivo existingEvent = eventoDeportivoRepository.findByApiSportsId(apiSportsId);
+            if (existingEvent != null) {
+                aplicarFixture(existingEvent, eventoEnVivo);
             }
         });
     }
 
+    private void aplicarFixture(EventoDeportivo existingEvent, EventsByLeagueResponse eventoEnVivo) {
+        if (existingEvent.getEstado() == null) {
+            existingEvent.setEstado(new Estado());
+        }
+        String estadoAnterior = existingEvent.getEstado().getCorto();
+
+        // Actualizar estado
+        if (eventoEnVivo.getFixture() != null && eventoEnVivo.getFixture().getStatus() != null) {
+            existingEvent.getEstado().setLargo(eventoEnVivo.getFixture().getStatus().getLongStatus());
+            existingEvent.getEstado().setCorto(eventoEnVivo.getFixture().getStatus().getShortStatus());
+            existingEvent.getEstado().setElapsed(eventoEnVivo.getFixture().getStatus().getElapsed());
+            existingEvent.getEstado().setExtra(eventoEnVivo.getFixture().getStatus().getExtra());
+        }
+        String estadoNuevo = existingEvent.getEstado().getCorto();
+
+        existingEvent.setEnVivo(CicloVidaEventoService.esEnJuego(estadoNuevo));
+        existingEvent.setFechaActualizacion(LocalDateTime.now());
+
+        if (existingEvent.getGoles() == null) {
+            existingEvent.setGoles(new Goles());
+        }
+
+        // Marcador actual
+        if (eventoEnVivo.getGoals() != null) {
+            Integer homeGoals = eventoEnVivo.getGoals().getHome();
+            Integer awayGoals = eventoEnVivo.getGoals().getAway();
+            existingEvent.getGoles().setLocales(homeGoals != null ? homeGoals : 0);
+            existingEvent.getGoles().setVisitantes(awayGoals != null ? awayGoals : 0);
+        }
+
+        // Verificar que score no sea null
+        if (eventoEnVivo.getScore() != null) {
+            EventsByLeagueResponse.Score score = eventoEnVivo.getScore();
+            if (existingEvent.getPuntuaciones() == null) {
+                existingEvent.setPuntuaciones(new Score());
+            }
+            Score puntuaciones = existingEvent.getPuntuaciones();
+
+            if (score.getHalftime() != null) {
+                puntuaciones.setHalftimeHome(score.getHalftime().getHome());
+                puntuaciones.setHalftimeAway(score.getHalftime().getAway());
+            }
+
+            // Actualizar fulltime
+            if (score.getFulltime() != null) {
+                Integer homeGoals = score.getFulltime().getHome();
+                Integer awayGoals = score.getFulltime().getAway();
+                puntuaciones.setFulltimeHome(homeGoals);
+                puntuaciones.setFulltimeAway(awayGoals);
+
+                if (homeGoals != null && awayGoals != null) {
+                    existingEvent.getGoles().getFulltime().setLocales(homeGoals);
+                    existingEvent.getGoles().getFulltime().setVisitantes(awayGoals);
+                }
+            }
+
+            // Actualizar extratime
+            if (score.getExtratime() != null) {
+                Integer homeExtratime = score.getExtratime().getHome();
+                Integer awayExtratime = score.getExtratime().getAway();
+                puntuaciones.setExtratimeHome(homeExtratime);
+                puntuaciones.setExtratimeAway(awayExtratime);
+
+                existingEvent.getGoles().getExtratime().setLocales(homeExtratime != null ? homeExtratime : 0);
+                existingEvent.getGoles().getExtratime().setVisitantes(awayExtratime != null ? awayExtratime : 0);
+            }
+
+            // Primer y último equipo en anotar en los 90 minutos
+            if (eventoEnVivo.getEvents() != null) {
+                aplicarGoleadores(existingEvent, puntuaciones, eventoEnVivo.getEvents());
+            }
+
+            // Actualizar penalty
+            if (score.getPenalty() != null) {
+                Integer homePenalty = score.getPenalty().getHome();
+                Integer awayPenalty = score.getPenalty().getAway();
+                puntuaciones.setPenaltyHome(homePenalty);
+                puntuaciones.setPenaltyAway(awayPenalty);
+
+                existingEvent.getGoles().getPenalty().setLocales(homePenalty != null ? homePenalty : 0);
+                existingEvent.getGoles().getPenalty().setVisitantes(awayPenalty != null ? awayPenalty : 0);
+            }
+        }
+
+        // Guardar los cambios
+        eventoDeportivoRepository.save(existingEvent);
+        libroPreciosService.actualizarEvento(existingEvent);
+        cicloVidaEventoService.registrarTransicion(existingEvent.getId(), estadoAnterior, estadoNuevo);
+    }
+
+    /**
+     * Guarda qué equipo anotó primero y cuál al último. En un autogol API-Sports
+     * reporta el equipo del jugador, así que el gol cuenta para el rival. Sin
+     * goles en la respuesta se conservan los valores anteriores.
+     */
+    private void aplicarGoleadores(EventoDeportivo evento, Score puntuaciones, List<FixtureEvent> eventos) {
+        Integer localId = evento.getEquipoLocal() != null ? evento.getEquipoLocal().getApiSportsId() : null;
+        if (localId == null) {
+            return;
+        }
+        FixtureEvent primero = null;
+        FixtureEvent ultimo = null;
+        for (FixtureEvent gol : eventos) {
+            if (!gol.esGolEnTiempoReglamentario() || gol.getTeam() == null || gol.getTeam().getId() == null) {
+                continue;
+            }
+            if (primero == null || gol.minuto() < primero.minuto()) {
+                primero = gol;
+            }
+            if (ultimo == null || gol.minuto() >= ultimo.minuto()) {
+                ultimo = gol;
+            }
+        }
+        // Una respuesta sin goles (arreglo vacío o recortado) no borra lo ya guardado
+        if (primero == null) {
+            return;
+        }
+        puntuaciones.setPrimerAnota(equipoAcreditado(primero, localId));
+        puntuaciones.setUltimoAnota(equipoAcreditado(ultimo, localId));
+    }
+
+    private static String equipoAcreditado(FixtureEvent gol, Integer localId) {
+        if (gol == null) {
+            return null;
+        }
+        boolean delLocal = localId.equals(gol.getTeam().getId());
+        return delLocal != gol.esAutogol() ? "HOME" : "AWAY";
+    }
+
 }
@@ -0,0 +1,194 @@
+package com._bet.service.apuesta;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.repository.AnulacionRepository;
+import com._bet.repository.AnulacionRepository.ApuestaAnulada;
+import com._bet.repository.AnulacionRepository.ParlayCancelado;
+import com._bet.repository.AnulacionRepository.ParlayRecalculado;
+import com._bet.repository.AnulacionRepository.PiernaAnulada;
+import com._bet.repository.EventoDeportivoRepository;
+import com._bet.repository.LiquidacionRepository;
+import com._bet.repository.LiquidacionRepository.ParlayFinalizado;
+import com._bet.service.evento.CicloVidaEventoService;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.SaldoService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Anulación de las apuestas de un evento aplazado, cancelado, abandonado o
+ * adjudicado, o de un evento detenido por decisión del administrador.
+ *
+ * Igual que la liquidación, los usuarios con apuestas abiertas se procesan en
+ * lotes de una transacción cada uno: las apuestas simples se cancelan y se
+ * reembolsa el monto; las piernas de parlay se descartan, el momio de cada
+ * parlay afectado se recalcula con las piernas restantes y los parlays que se
+ * quedan sin piernas se cancelan con reembolso. Los parlays cuyas piernas
+ * restantes ya estaban ganadas se pagan en el mismo lote. La exposición de las
+ * piernas que siguen pendientes se ajusta al nuevo momio del parlay.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnulacionService {
+
+    private final AnulacionRepository anulacionRepository;
+    private final LiquidacionRepository liquidacionRepository;
+    private final EventoDeportivoRepository eventoDeportivoRepository;
+    private final SaldoService saldoService;
+    private final ExposicionService exposicionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${liquidacion.usuarios-por-lote:500}")
+    private int usuariosPorLote;
+
+    /**
+     * Anula todas las apuestas abiertas del evento. Se puede repetir sin efecto:
+     * solo se tocan apuestas ACTIVA y parlays ACTIVO.
+     *
+     * @throws IllegalArgumentException si el estado del evento no admite
+     *                                  anulación (CicloVidaEventoService.admiteAnulacion)
+     */
+    public ResultadoAnulacion anularEvento(Long eventoId) {
+        String estado = eventoDeportivoRepository.findEstadoCorto(eventoId)
+                .orElseThrow(() -> new IllegalArgumentException("Evento no encontrado o sin estado: " + eventoId));
+        if (!CicloVidaEventoService.admiteAnulacion(estado)) {
+            throw new IllegalArgumentException("El evento " + eventoId + " no está aplazado, cancelado, abandonado,"
+                    + " adjudicado ni detenido (estado " + estado + ")");
+        }
+        long inicio = System.currentTimeMillis();
+
+        List<Long> usuarios = liquidacionRepository.usuariosConApuestasAbiertas(eventoId);
+        log.info("🔄 Anulando evento {}: {} usuarios con apuestas abiertas", eventoId, usuarios.size());
+
+        ResultadoAnulacion total = new ResultadoAnulacion(eventoId, usuarios.size(), 0, 0, 0, 0, 0,
+                BigDecimal.ZERO, BigDecimal.ZERO, 0);
+        for (int desde = 0; desde < usuarios.size(); desde += usuariosPorLote) {
+            List<Long> lote = usuarios.subList(desde, Math.min(desde + usuariosPorLote, usuarios.size()));
+            total = total.sumar(transactionTemplate.execute(status -> anularLote(eventoId, lote)));
+        }
+
+        total = total.conDuracion(System.currentTimeMillis() - inicio);
+        log.info("✅ Evento {} anulado: {}", eventoId, total);
+        return total;
+    }
+
+    private ResultadoAnulacion anularLote(Long eventoId, List<Long> usuarioIds) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<Long, List<MovimientoSaldo>> movimientos = new HashMap<>();
+        BigDecimal reembolsado = BigDecimal.ZERO;
+        BigDecimal pagado = BigDecimal.ZERO;
+
+        // Apuestas simples: se devuelve el monto
+        List<ApuestaAnulada> simples = anulacionRepository.anularSimples(eventoId, usuarioIds, ahora);
+        for (ApuestaAnulada apuesta : simples) {
+            exposicionService.liberar(apuesta.getValorId(), apuesta.getMonto(), apuesta.getPago());
+            if (apuesta.getMonto().signum() > 0) {
+                movimientos.computeIfAbsent(apuesta.getUsuarioId(), id -> new ArrayList<>()).add(MovimientoSaldo.de(
+                        TipoMovimiento.REEMBOLSO_APUESTA, TipoReferencia.APUESTA, apuesta.getApuestaId(),
+                        apuesta.getMonto()));
+                reembolsado = reembolsado.add(apuesta.getMonto());
+            }
+        }
+
+        // Piernas de parlay: se descartan y el parlay sigue con las demás
+        List<PiernaAnulada> piernas = anulacionRepository.anularPiernas(eventoId, usuarioIds, ahora);
+        Set<Long> parlayIds = new LinkedHashSet<>();
+        for (PiernaAnulada pierna : piernas) {
+            exposicionService.liberar(pierna.getValorId(), pierna.getMontoParlay(), pierna.getPagoParlay());
+            parlayIds.add(pierna.getParlayId());
+        }
+
+        List<ParlayRecalculado> recalculados = List.of();
+        List<ParlayCancelado> cancelados = List.of();
+        List<ParlayFinalizado> finalizados = List.of();
+        if (!parlayIds.isEmpty()) {
+            // Las piernas pendientes se reservaron con el pago anterior del parlay
+            recalculados = anulacionRepository.recalcularParlays(parlayIds, ahora);
+            for (ParlayRecalculado parlay : recalculados) {
+                if (parlay.getPagoAnterior().compareTo(parlay.getPagoNuevo()) != 0) {
+                    for (Long valorId : parlay.getValoresPendientes()) {
+                        exposicionService.ajustarPago(valorId, parlay.getPagoAnterior(), parlay.getPagoNuevo());
+                    }
+                }
+            }
+
+            cancelados = anulacionRepository.cancelarParlaysSinPiernas(parlayIds, ahora);
+            for (ParlayCancelado parlay : cancelados) {
+                if (parlay.getMonto().signum() > 0) {
+                    movimientos.computeIfAbsent(parlay.getUsuarioId(), id -> new ArrayList<>()).add(MovimientoSaldo.de(
+                            TipoMovimiento.REEMBOLSO_APUESTA, TipoReferencia.PARLAY, parlay.getParlayId(),
+                            parlay.getMonto()));
+                    reembolsado = reembolsado.add(parlay.getMonto());
+                }
+            }
+
+            // Parlays que ya no tienen piernas pendientes: todas las restantes ganaron
+            finalizados = liquidacionRepository.finalizarParlays(parlayIds, ahora);
+            for (ParlayFinalizado parlay : finalizados) {
+                if (parlay.isGanado() && parlay.getPago().signum() > 0) {
+                    movimientos.computeIfAbsent(parlay.getUsuarioId(), id -> new ArrayList<>()).add(MovimientoSaldo.de(
+                            TipoMovimiento.PAGO_PARLAY, TipoReferencia.PARLAY, parlay.getParlayId(),
+                            parlay.getPago()));
+                    pagado = pagado.add(parlay.getPago());
+                }
+            }
+        }
+
+        if (!movimientos.isEmpty()) {
+            saldoService.acreditarEnLote(movimientos);
+        }
+
+        return new ResultadoAnulacion(eventoId, 0, simples.size(), piernas.size(), recalculados.size(),
+                cancelados.size(), finalizados.size(), reembolsado, pagado, 0);
+    }
+
+    /**
+     * Resumen de la anulación de un evento
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class ResultadoAnulacion {
+        private final Long eventoId;
+        private final int usuarios;
+        private final int apuestasAnuladas;
+        private final int piernasAnuladas;
+        private final int parlaysRecalculados;
+        private final int parlaysCancelados;
+        private final int parlaysFinalizados;
+        private final BigDecimal totalReembolsado;
+        private final BigDecimal totalPagado;
+        private final long duracionMs;
+
+        public ResultadoAnulacion sumar(ResultadoAnulacion otro) {
+            return new ResultadoAnulacion(eventoId, usuarios, apuestasAnuladas + otro.apuestasAnuladas,
+                    piernasAnuladas + otro.piernasAnuladas, parlaysRecalculados + otro.parlaysRecalculados,
+                    parlaysCancelados + otro.parlaysCancelados, parlaysFinalizados + otro.parlaysFinalizados,
+                    totalReembolsado.add(otro.totalReembolsado), totalPagado.add(otro.totalPagado), duracionMs);
+        }
+
+        public ResultadoAnulacion conDuracion(long duracion) {
+            return new ResultadoAnulacion(eventoId, usuarios, apuestasAnuladas, piernasAnuladas, parlaysRecalculados,
+                    parlaysCancelados, parlaysFinalizados, totalReembolsado, totalPagado, duracion);
+        }
+    }
+}
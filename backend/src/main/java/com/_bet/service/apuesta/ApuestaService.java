@@ -3,7 +3,12 @@ package com._bet.service.apuesta;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +21,19 @@ import com._bet.dto.response.ParlayHistorialResponse;
 import com._bet.dto.response.ParlayResponse;
 import com._bet.entity.apuestas.Apuesta;
 import com._bet.entity.apuestas.Parlay;
+import com._bet.entity.datosMaestros.Equipo;
+import com._bet.entity.eventoEntity.EventoDeportivo;
 import com._bet.entity.eventoEntity.Valor;
 import com._bet.entity.user.Usuario;
+import com._bet.repository.ApuestaBatchRepository;
 import com._bet.repository.ApuestaRepository;
 import com._bet.repository.ParlayRepository;
-import com._bet.repository.UsuarioRepository;
 import com._bet.repository.ValorRepository;
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.ResultadoOperacionSaldo;
+import com._bet.service.saldo.SaldoService;
 
 import jakarta.transaction.Transactional;
 
@@ -31,69 +43,85 @@ public class ApuestaService {
         @Autowired
         private ApuestaRepository apuestaRepository;
 
-        @Autowired
-        private UsuarioRepository usuarioRepository;
-
         @Autowired
         private ValorRepository valorRepository;
 
         @Autowired
         private ParlayRepository parlayRepository;
 
+        @Autowired
+        private SaldoService saldoService;
+
+        @Autowired
+        private ApuestaBatchRepository apuestaBatchRepository;
+
+        @Autowired
+        private ContadoresValorService contadoresValorService;
+
+        @Autowired
+        private LibroPreciosService libroPreciosService;
+
+        @Autowired
+        private ExposicionService exposicionService;
+
         @Transactional
         public void crearMultiplesApuestasSimples(List<CrearApuestaRequest> requests, Usuario usuario) {
-                BigDecimal saldoUsuario = usuario.getSaldoUsd();
+                // Una sola consulta para todas las selecciones y validación del boleto completo en memoria
+                Map<Long, Valor> valores = cargarSeleccionesValidadas(requests, true);
 
+                LocalDateTime ahora = LocalDateTime.now();
+                List<Apuesta> apuestas = new ArrayList<>(requests.size());
                 for (CrearApuestaRequest dto : requests) {
-                        if (dto.getMonto().compareTo(saldoUsuario.doubleValue()) > 0) {
-                                throw new IllegalArgumentException("Saldo insuficiente para la apuesta");
-                        }
-
-                        Valor odd = valorRepository.findById(dto.getId())
-                                        .orElseThrow(() -> new IllegalArgumentException(
-                                                        "odd no encontrado: " + dto.getId()));
-
-                        String descripcionResultado = odd.getValor()
-                                        .replace("home", String
-                                                        .valueOf(odd.getMomio().getEventoDeportivo().getEquipoLocal()))
-                                        .replace("away", String.valueOf(
-                                                        odd.getMomio().getEventoDeportivo().getEquipoVisitante()))
-                                        .replace("draw", "Empate");
+                        Valor odd = valores.get(dto.getId());
+                        BigDecimal monto = BigDecimal.valueOf(dto.getMonto());
+                        BigDecimal pago = ExposicionService.pago(monto, BigDecimal.valueOf(dto.getOdd()));
 
-                        Apuesta apuesta = Apuesta.builder()
+                        apuestas.add(Apuesta.builder()
                                         .usuario(usuario)
                                         .momio(dto.getOdd())
                                         .monto(dto.getMonto())
                                         .tipoApuesta(dto.getTipoApuesta())
                                         .resultadoApostado(odd.getValor())
-                                        .gananciaPotencial(BigDecimal.valueOf(dto.getMonto())
-                                                        .multiply(BigDecimal.valueOf(dto.getOdd())))
-                                        .gananciaReal(BigDecimal.valueOf(dto.getMonto())
-                                                        .multiply(BigDecimal.valueOf(dto.getOdd()))
-                                                        .subtract(BigDecimal.valueOf(dto.getMonto())))
+                                        .valorId(odd.getId())
+                                        .gananciaPotencial(pago)
+                                        .gananciaReal(pago.subtract(monto))
                                         .estado(Apuesta.EstadoApuesta.ACTIVA)
-                                        .descripcionResultado(descripcionResultado)
-                                        .fechaCreacion(LocalDateTime.now())
+                                        .activa(true)
+                                        .descripcionResultado(describirResultado(odd))
+                                        .fechaCreacion(ahora)
                                         .eventoDeportivo(odd.getMomio().getEventoDeportivo())
-                                        .build();
-
-                        // Crear la apuesta
-                        apuestaRepository.save(apuesta);
+                                        .build());
+                }
 
-                        // Actualizar el saldo del usuario
-                        usuario.setSaldoUsd(saldoUsuario.subtract(BigDecimal.valueOf(dto.getMonto())));
-                        usuarioRepository.save(usuario);
+                // Reserva contra el límite de pago de cada selección (se libera si se revierte)
+                List<String> errores = new ArrayList<>();
+                for (Apuesta apuesta : apuestas) {
+                        String errorLimite = exposicionService.reservar(valores.get(apuesta.getValorId()),
+                                        BigDecimal.valueOf(apuesta.getMonto()), apuesta.getGananciaPotencial());
+                        if (errorLimite != null) {
+                                errores.add(errorLimite);
+                        }
+                }
+                if (!errores.isEmpty()) {
+                        throw new IllegalArgumentException(String.join("; ", errores));
+                }
 
-                        odd.setNumeroApuestas((odd.getNumeroApuestas() != null ? odd.getNumeroApuestas() : 0) + 1);
-                        odd.setMontoTotalApostado(
-                                        (odd.getMontoTotalApostado() != null ? odd.getMontoTotalApostado()
-                                                        : BigDecimal.ZERO)
-                                                        .add(BigDecimal.valueOf(dto.getMonto())));
-                        valorRepository.save(odd);
+                // Un solo lote de INSERT
+                apuestaBatchRepository.insertarEnLote(apuestas);
 
-                        // Actualizar el saldo del usuario
-                        saldoUsuario = saldoUsuario.subtract(BigDecimal.valueOf(dto.getMonto()));
+                // Débito único y condicional por el total del boleto; si no alcanza se revierte todo
+                List<MovimientoSaldo> movimientos = apuestas.stream()
+                                .map(apuesta -> MovimientoSaldo.de(TipoMovimiento.APUESTA, TipoReferencia.APUESTA,
+                                                apuesta.getId(), BigDecimal.valueOf(apuesta.getMonto())))
+                                .collect(Collectors.toList());
+                ResultadoOperacionSaldo debito = saldoService.debitar(usuario.getId(), movimientos);
+                if (!debito.isAplicado()) {
+                        throw new IllegalArgumentException("Saldo insuficiente para la apuesta");
                 }
+                usuario.setSaldoUsd(debito.getSaldoResultante());
+
+                // Contadores de cada Valor en los acumuladores en memoria
+                acumularContadores(requests, true);
         }
 
         /**
@@ -101,17 +129,14 @@ public class ApuestaService {
          */
         @Transactional
         public ParlayResponse crearParlay(ParlayRequest parlayRequest, Usuario usuario) {
-                // Validar saldo suficiente
-                BigDecimal saldoUsuario = usuario.getSaldoUsd();
-                if (parlayRequest.getMontoApostar().compareTo(saldoUsuario.doubleValue()) > 0) {
-                        throw new IllegalArgumentException("Saldo insuficiente para el parlay");
-                }
-
                 // Validar mínimo 2 apuestas para parlay
-                if (parlayRequest.getApuestas().size() < 2) {
+                if (parlayRequest.getApuestas() == null || parlayRequest.getApuestas().size() < 2) {
                         throw new IllegalArgumentException("Un parlay debe tener al menos 2 apuestas");
                 }
 
+                // Una sola consulta para todas las selecciones del parlay
+                Map<Long, Valor> valores = cargarSeleccionesValidadas(parlayRequest.getApuestas(), false);
+
                 // Calcular momio total del parlay (multiplicación de todos los momios)
                 BigDecimal momioTotal = parlayRequest.getApuestas().stream()
                                 .map(apuesta -> BigDecimal.valueOf(apuesta.getOdd()))
@@ -121,6 +146,8 @@ public class ApuestaService {
                 BigDecimal gananciaPotencial = BigDecimal.valueOf(parlayRequest.getMontoApostar())
                                 .multiply(momioTotal);
 
+                LocalDateTime ahora = LocalDateTime.now();
+
                 // Crear el parlay
                 Parlay parlay = Parlay.builder()
                                 .usuario(usuario)
@@ -132,48 +159,130 @@ public class ApuestaService {
                                 .apuestasPerdidas(0)
                                 .apuestasPendientes(parlayRequest.getApuestas().size())
                                 .estado(Parlay.EstadoParlay.ACTIVO)
-                                .fechaCreacion(LocalDateTime.now())
+                                .fechaCreacion(ahora)
                                 .build();
 
+                // Cada pierna expone el pago completo del parlay sobre su selección
+                BigDecimal pagoExpuesto = ExposicionService.pagoParlay(
+                                BigDecimal.valueOf(parlayRequest.getMontoApostar()), momioTotal);
+                for (Valor valor : valores.values()) {
+                        String errorLimite = exposicionService.reservar(valor,
+                                        BigDecimal.valueOf(parlayRequest.getMontoApostar()), pagoExpuesto);
+                        if (errorLimite != null) {
+                                throw new IllegalArgumentException(errorLimite);
+                        }
+                }
+
                 // Guardar el parlay
                 Parlay parlayGuardado = parlayRepository.save(parlay);
 
-                // Crear las apuestas individuales del parlay
-                List<Apuesta> apuestasParlay = new ArrayList<>();
+                // Descontar el monto del parlay solo si el saldo alcanza
+                ResultadoOperacionSaldo debito = saldoService.debitar(usuario.getId(),
+                                MovimientoSaldo.de(TipoMovimiento.PARLAY, TipoReferencia.PARLAY,
+                                                parlayGuardado.getId(),
+                                                BigDecimal.valueOf(parlayRequest.getMontoApostar())));
+                if (!debito.isAplicado()) {
+                        throw new IllegalArgumentException("Saldo insuficiente para el parlay");
+                }
+                usuario.setSaldoUsd(debito.getSaldoResultante());
+
+                // Crear las apuestas individuales del parlay en un solo lote
+                List<Apuesta> apuestasParlay = new ArrayList<>(parlayRequest.getApuestas().size());
                 for (CrearApuestaRequest apuestaReq : parlayRequest.getApuestas()) {
-                        // Verificar que el valor exista
-                        Valor valor = valorRepository.findById(apuestaReq.getId())
-                                        .orElseThrow(() -> new IllegalArgumentException(
-                                                        "Opción de apuesta no encontrada: " + apuestaReq.getId()));
+                        Valor valor = valores.get(apuestaReq.getId());
 
-                        // Crear apuesta individual
-                        Apuesta apuesta = Apuesta.builder()
+                        apuestasParlay.add(Apuesta.builder()
                                         .usuario(usuario)
                                         .parlay(parlayGuardado)
                                         .momio(apuestaReq.getOdd())
                                         .monto(0.0) // En parlays, el monto está en el parlay padre
                                         .tipoApuesta(apuestaReq.getTipoApuesta())
+                                        .resultadoApostado(valor.getValor())
+                                        .valorId(valor.getId())
+                                        .descripcionResultado(describirResultado(valor))
                                         .estado(Apuesta.EstadoApuesta.ACTIVA)
-                                        .fechaCreacion(LocalDateTime.now())
+                                        .activa(true)
+                                        .fechaCreacion(ahora)
                                         .eventoDeportivo(valor.getMomio().getEventoDeportivo())
-                                        .build();
-
-                        apuestasParlay.add(apuestaRepository.save(apuesta));
-
-                        // Actualizar metadatos del valor
-                        valor.setNumeroApuestas(
-                                        (valor.getNumeroApuestas() != null ? valor.getNumeroApuestas() : 0) + 1);
-                        valorRepository.save(valor);
+                                        .build());
                 }
+                apuestaBatchRepository.insertarEnLote(apuestasParlay);
 
-                // Actualizar saldo del usuario
-                usuario.setSaldoUsd(saldoUsuario.subtract(BigDecimal.valueOf(parlayRequest.getMontoApostar())));
-                usuarioRepository.save(usuario);
+                // Actualizar metadatos de los valores en un solo lote
+                acumularContadores(parlayRequest.getApuestas(), false);
 
                 // Convertir a response
                 return convertirParlayAResponse(parlayGuardado, apuestasParlay);
         }
 
+        /**
+         * Carga todas las selecciones con su mercado, evento y equipos en una sola
+         * consulta y valida el boleto completo. Reporta todos los errores juntos.
+         */
+        private Map<Long, Valor> cargarSeleccionesValidadas(List<CrearApuestaRequest> requests, boolean validarMonto) {
+                if (requests == null || requests.isEmpty()) {
+                        throw new IllegalArgumentException("El boleto no tiene selecciones");
+                }
+
+                Set<Long> ids = requests.stream()
+                                .map(CrearApuestaRequest::getId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet());
+                Map<Long, Valor> valores = valorRepository.findAllConEventoByIdIn(ids).stream()
+                                .collect(Collectors.toMap(Valor::getId, Function.identity()));
+
+                List<String> errores = new ArrayList<>();
+                for (CrearApuestaRequest dto : requests) {
+                        Valor valor = dto.getId() != null ? valores.get(dto.getId()) : null;
+                        if (valor == null) {
+                                errores.add("odd no encontrado: " + dto.getId());
+                                continue;
+                        }
+                        if (validarMonto && (dto.getMonto() == null || dto.getMonto() <= 0)) {
+                                errores.add("Monto inválido para la selección " + dto.getId());
+                        }
+                        // Precio vigente, mercado activo y evento sin comenzar según la entidad recién cargada
+                        String errorPrecio = libroPreciosService.validar(valor, dto.getOdd());
+                        if (errorPrecio != null) {
+                                errores.add(errorPrecio);
+                        }
+                }
+
+                if (!errores.isEmpty()) {
+                        throw new IllegalArgumentException(String.join("; ", errores));
+                }
+                return valores;
+        }
+
+        /**
+         * Agrupa por Valor y suma a los acumuladores en memoria (se vuelcan por lotes
+         * en segundo plano, sin bloquear la fila de Valor durante la apuesta)
+         */
+        private void acumularContadores(List<CrearApuestaRequest> requests, boolean sumarMonto) {
+                Map<Long, Integer> apuestasPorValor = new HashMap<>();
+                Map<Long, BigDecimal> montoPorValor = new HashMap<>();
+                for (CrearApuestaRequest dto : requests) {
+                        apuestasPorValor.merge(dto.getId(), 1, Integer::sum);
+                        if (sumarMonto) {
+                                montoPorValor.merge(dto.getId(), BigDecimal.valueOf(dto.getMonto()), BigDecimal::add);
+                        }
+                }
+                apuestasPorValor.forEach((valorId, numero) -> contadoresValorService.registrar(valorId, numero,
+                                montoPorValor.get(valorId)));
+        }
+
+        private String describirResultado(Valor valor) {
+                EventoDeportivo evento = valor.getMomio().getEventoDeportivo();
+                return valor.getValor()
+                                .replace("home", nombreEquipo(evento.getEquipoLocal()))
+                                .replace("away", nombreEquipo(evento.getEquipoVisitante()))
+                                .replace("draw", "Empate");
+        }
+
+        private String nombreEquipo(Equipo equipo) {
+                return equipo != null ? equipo.getNombre() : "";
+        }
+
         /**
          * Obtiene el historial de parlays de un usuario
          */
@@ -0,0 +1,359 @@
+package com._bet.service.apuesta;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com._bet.entity.eventoEntity.ResultadoSeleccion;
+import com._bet.entity.eventoEntity.SeleccionParseada;
+import com._bet.entity.eventoEntity.SeleccionParseada.TipoSeleccion;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.ResultadoEvento;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.Team;
+
+/**
+ * Catálogo de mercados de API-Sports. Cada mercado se declara con el formato
+ * de sus etiquetas y la regla que resuelve una selección ya interpretada; las
+ * reglas se arman una sola vez al iniciar y solo hacen aritmética entera.
+ *
+ * Las líneas van en cuartos de gol: las de medio gol se ganan o pierden, las
+ * enteras pueden anularse y las de cuarto se dividen en dos mitades (medio
+ * ganada / medio perdida). Una regla devuelve null cuando faltan datos del
+ * evento para resolverla.
+ */
+@Component
+public class CatalogoMercados {
+
+    /**
+     * Regla de un mercado sobre una selección interpretada
+     */
+    @FunctionalInterface
+    public interface ReglaMercado {
+        ResultadoSeleccion evaluar(SeleccionParseada seleccion, ResultadoEvento resultado);
+    }
+
+    /**
+     * Mercado compilado: formato de sus etiquetas y regla de resolución
+     */
+    public static final class DefinicionMercado {
+        private final String nombre;
+        private final FormatoSeleccion formato;
+        private final ReglaMercado regla;
+
+        private DefinicionMercado(String nombre, FormatoSeleccion formato, ReglaMercado regla) {
+            this.nombre = nombre;
+            this.formato = formato;
+            this.regla = regla;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public SeleccionParseada parsear(String etiqueta) {
+            return formato.parsear(etiqueta);
+        }
+
+        public ResultadoSeleccion evaluar(SeleccionParseada seleccion, ResultadoEvento resultado) {
+            if (seleccion == null || seleccion.getTipo() == null || seleccion.getTipo() == TipoSeleccion.DESCONOCIDA) {
+                return null;
+            }
+            return regla.evaluar(seleccion, resultado);
+        }
+    }
+
+    /**
+     * Periodo del partido sobre el que se evalúa un mercado
+     */
+    enum Periodo {
+        PARTIDO,
+        PRIMER_TIEMPO,
+        SEGUNDO_TIEMPO;
+
+        boolean disponible(ResultadoEvento r) {
+            return this == PARTIDO || (r.golesHomeHT != null && r.golesAwayHT != null);
+        }
+
+        int local(ResultadoEvento r) {
+            return this == PARTIDO ? r.golesHomeFT : this == PRIMER_TIEMPO ? r.golesHomeHT : r.golesHome2T();
+        }
+
+        int visitante(ResultadoEvento r) {
+            return this == PARTIDO ? r.golesAwayFT : this == PRIMER_TIEMPO ? r.golesAwayHT : r.golesAway2T();
+        }
+    }
+
+    /**
+     * Goles que cuenta un mercado de totales
+     */
+    enum Conteo {
+        AMBOS,
+        LOCAL,
+        VISITANTE
+    }
+
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final Map<String, DefinicionMercado> mercados = new HashMap<>();
+
+    public CatalogoMercados() {
+        registrar(FormatoSeleccion.RESULTADO, resultado(Periodo.PARTIDO), "Match Winner");
+        registrar(FormatoSeleccion.RESULTADO, empateAnula(), "Home/Away");
+        registrar(FormatoSeleccion.RESULTADO, resultado(Periodo.PRIMER_TIEMPO), "First Half Winner");
+        registrar(FormatoSeleccion.RESULTADO, resultado(Periodo.SEGUNDO_TIEMPO), "Second Half Winner");
+
+        registrar(FormatoSeleccion.TOTAL, total(Periodo.PARTIDO, Conteo.AMBOS), "Goals Over/Under", "Goal Line");
+        registrar(FormatoSeleccion.TOTAL, total(Periodo.PRIMER_TIEMPO, Conteo.AMBOS),
+                "Goals Over/Under First Half", "Goal Line (1st Half)");
+        registrar(FormatoSeleccion.TOTAL, total(Periodo.SEGUNDO_TIEMPO, Conteo.AMBOS),
+                "Goals Over/Under - Second Half");
+        registrar(FormatoSeleccion.TOTAL, total(Periodo.PARTIDO, Conteo.LOCAL), "Total - Home");
+        registrar(FormatoSeleccion.TOTAL, total(Periodo.PARTIDO, Conteo.VISITANTE), "Total - Away");
+
+        registrar(FormatoSeleccion.HANDICAP, handicapAsiatico(Periodo.PARTIDO), "Asian Handicap");
+        registrar(FormatoSeleccion.HANDICAP, handicapAsiatico(Periodo.PRIMER_TIEMPO), "Asian Handicap First Half");
+        registrar(FormatoSeleccion.HANDICAP, handicapResultado(), "Handicap Result");
+
+        registrar(FormatoSeleccion.SI_NO, siNo(r -> r.golesHomeFT > 0 && r.golesAwayFT > 0), "Both Teams Score");
+        registrar(FormatoSeleccion.SI_NO, siNo(r -> r.golesAwayFT == 0), "Clean Sheet - Home");
+        registrar(FormatoSeleccion.SI_NO, siNo(r -> r.golesHomeFT == 0), "Clean Sheet - Away");
+        registrar(FormatoSeleccion.SI_NO, siNo(r -> r.golesAwayFT == 0 && r.golesHomeFT > 0), "Win to Nil - Home");
+        registrar(FormatoSeleccion.SI_NO, siNo(r -> r.golesHomeFT == 0 && r.golesAwayFT > 0), "Win to Nil - Away");
+
+        registrar(FormatoSeleccion.MARCADOR, marcador(Periodo.PARTIDO), "Exact Score");
+        registrar(FormatoSeleccion.MARCADOR, marcador(Periodo.PRIMER_TIEMPO), "Correct Score - First Half");
+        registrar(FormatoSeleccion.MARCADOR, marcador(Periodo.SEGUNDO_TIEMPO), "Correct Score - Second Half");
+
+        registrar(FormatoSeleccion.DOBLE_OPORTUNIDAD, dobleOportunidad(Periodo.PARTIDO), "Double Chance");
+        registrar(FormatoSeleccion.DOBLE_OPORTUNIDAD, dobleOportunidad(Periodo.PRIMER_TIEMPO),
+                "Double Chance - First Half");
+
+        registrar(FormatoSeleccion.PAR_IMPAR, parImpar(Periodo.PARTIDO), "Odd/Even");
+        registrar(FormatoSeleccion.PAR_IMPAR, parImpar(Periodo.PRIMER_TIEMPO), "Odd/Even - First Half");
+        registrar(FormatoSeleccion.PAR_IMPAR, parImpar(Periodo.SEGUNDO_TIEMPO), "Odd/Even - Second Half");
+
+        registrar(FormatoSeleccion.MEDIO_FINAL, medioFinal(), "HT/FT Double");
+        registrar(FormatoSeleccion.MITAD, mitadConMasGoles(), "Highest Scoring Half");
+        registrar(FormatoSeleccion.RESULTADO, ganaAmbasMitades(), "Win Both Halves");
+        registrar(FormatoSeleccion.RESULTADO, equipoQueAnota(true), "Team To Score First");
+        registrar(FormatoSeleccion.RESULTADO, equipoQueAnota(false), "Team To Score Last");
+    }
+
+    /**
+     * Mercado correspondiente al tipo de apuesta del momio, o null si no está
+     * soportado
+     */
+    public DefinicionMercado obtener(String tipoApuesta) {
+        return tipoApuesta == null ? null : mercados.get(normalizar(tipoApuesta));
+    }
+
+    /**
+     * Interpreta la etiqueta de un valor según su mercado; null si el mercado no
+     * está soportado
+     */
+    public SeleccionParseada parsear(String tipoApuesta, String etiqueta) {
+        DefinicionMercado mercado = obtener(tipoApuesta);
+        return mercado == null ? null : mercado.parsear(etiqueta);
+    }
+
+    // ----------------- Reglas -----------------
+
+    private static ReglaMercado resultado(Periodo periodo) {
+        return (s, r) -> {
+            if (!periodo.disponible(r)) {
+                return null;
+            }
+            return gana(FormatoSeleccion.signo(s.getTipo()) == Integer.signum(periodo.local(r) - periodo.visitante(r)));
+        };
+    }
+
+    /**
+     * Empate no apuesta: con empate la selección se anula
+     */
+    private static ReglaMercado empateAnula() {
+        return (s, r) -> {
+            if (s.getTipo() == TipoSeleccion.EMPATE) {
+                return null;
+            }
+            int margen = r.golesHomeFT - r.golesAwayFT;
+            return asiatico(s.getTipo() == TipoSeleccion.LOCAL ? margen : -margen, 0);
+        };
+    }
+
+    private static ReglaMercado total(Periodo periodo, Conteo conteo) {
+        return (s, r) -> {
+            if (!periodo.disponible(r) || s.getCuartos() == null) {
+                return null;
+            }
+            int goles = conteo == Conteo.LOCAL ? periodo.local(r)
+                    : conteo == Conteo.VISITANTE ? periodo.visitante(r)
+                            : periodo.local(r) + periodo.visitante(r);
+            return s.getTipo() == TipoSeleccion.MAS
+                    ? asiatico(goles, -s.getCuartos())
+                    : asiatico(-goles, s.getCuartos());
+        };
+    }
+
+    /**
+     * La línea se aplica al equipo elegido
+     */
+    private static ReglaMercado handicapAsiatico(Periodo periodo) {
+        return (s, r) -> {
+            if (!periodo.disponible(r) || s.getCuartos() == null || s.getTipo() == TipoSeleccion.EMPATE) {
+                return null;
+            }
+            int margen = periodo.local(r) - periodo.visitante(r);
+            return asiatico(s.getTipo() == TipoSeleccion.LOCAL ? margen : -margen, s.getCuartos());
+        };
+    }
+
+    /**
+     * Handicap europeo a tres vías: la línea se suma al local en las tres
+     * selecciones
+     */
+    private static ReglaMercado handicapResultado() {
+        return (s, r) -> {
+            if (s.getCuartos() == null) {
+                return null;
+            }
+            int ajustado = Integer.signum((r.golesHomeFT - r.golesAwayFT) * 4 + s.getCuartos());
+            return gana(FormatoSeleccion.signo(s.getTipo()) == ajustado);
+        };
+    }
+
+    private static ReglaMercado siNo(Predicate<ResultadoEvento> condicion) {
+        return (s, r) -> gana((s.getTipo() == TipoSeleccion.SI) == condicion.test(r));
+    }
+
+    private static ReglaMercado marcador(Periodo periodo) {
+        return (s, r) -> {
+            if (!periodo.disponible(r) || s.getPrimero() == null || s.getSegundo() == null) {
+                return null;
+            }
+            return gana(s.getPrimero() == periodo.local(r) && s.getSegundo() == periodo.visitante(r));
+        };
+    }
+
+    private static ReglaMercado dobleOportunidad(Periodo periodo) {
+        return (s, r) -> {
+            if (!periodo.disponible(r)) {
+                return null;
+            }
+            int signo = Integer.signum(periodo.local(r) - periodo.visitante(r));
+            switch (s.getTipo()) {
+                case LOCAL_EMPATE:
+                    return gana(signo >= 0);
+                case LOCAL_VISITANTE:
+                    return gana(signo != 0);
+                case EMPATE_VISITANTE:
+                    return gana(signo <= 0);
+                default:
+                    return null;
+            }
+        };
+    }
+
+    private static ReglaMercado parImpar(Periodo periodo) {
+        return (s, r) -> {
+            if (!periodo.disponible(r)) {
+                return null;
+            }
+            boolean impar = ((periodo.local(r) + periodo.visitante(r)) & 1) == 1;
+            return gana((s.getTipo() == TipoSeleccion.IMPAR) == impar);
+        };
+    }
+
+    private static ReglaMercado medioFinal() {
+        return (s, r) -> {
+            if (!Periodo.PRIMER_TIEMPO.disponible(r) || s.getPrimero() == null || s.getSegundo() == null) {
+                return null;
+            }
+            return gana(s.getPrimero() == Integer.signum(r.golesHomeHT - r.golesAwayHT)
+                    && s.getSegundo() == Integer.signum(r.golesHomeFT - r.golesAwayFT));
+        };
+    }
+
+    private static ReglaMercado mitadConMasGoles() {
+        return (s, r) -> {
+            if (!Periodo.PRIMER_TIEMPO.disponible(r)) {
+                return null;
+            }
+            int diferencia = Integer.signum(r.totalGolesHT() - (r.golesHome2T() + r.golesAway2T()));
+            TipoSeleccion ganadora = diferencia > 0 ? TipoSeleccion.PRIMERA_MITAD
+                    : diferencia < 0 ? TipoSeleccion.SEGUNDA_MITAD : TipoSeleccion.EMPATE;
+            return gana(s.getTipo() == ganadora);
+        };
+    }
+
+    private static ReglaMercado ganaAmbasMitades() {
+        return (s, r) -> {
+            if (!Periodo.PRIMER_TIEMPO.disponible(r) || s.getTipo() == TipoSeleccion.EMPATE) {
+                return null;
+            }
+            int signo = FormatoSeleccion.signo(s.getTipo());
+            return gana(Integer.signum(r.golesHomeHT - r.golesAwayHT) == signo
+                    && Integer.signum(r.golesHome2T() - r.golesAway2T()) == signo);
+        };
+    }
+
+    /**
+     * Empate significa que no hubo goles
+     */
+    private static ReglaMercado equipoQueAnota(boolean primero) {
+        return (s, r) -> {
+            if (r.totalGolesFT() == 0) {
+                return gana(s.getTipo() == TipoSeleccion.EMPATE);
+            }
+            Team equipo = primero ? r.primerAnota : r.ultimoAnota;
+            if (equipo == null) {
+                return null;
+            }
+            return gana(FormatoSeleccion.signo(s.getTipo()) == (equipo == Team.HOME ? 1 : -1));
+        };
+    }
+
+    // ----------------- Utilidades -----------------
+
+    /**
+     * Liquidación asiática: la selección gana si margen + línea es positivo. Una
+     * línea de cuarto se divide en las dos líneas vecinas de medio gol/entera.
+     */
+    static ResultadoSeleccion asiatico(int margen, int cuartos) {
+        int base = margen * 4;
+        int primera = (cuartos & 1) == 0 ? cuartos : cuartos - 1;
+        int segunda = (cuartos & 1) == 0 ? cuartos : cuartos + 1;
+        switch (Integer.signum(base + primera) + Integer.signum(base + segunda)) {
+            case 2:
+                return ResultadoSeleccion.GANA;
+            case 1:
+                return ResultadoSeleccion.MEDIO_GANA;
+            case 0:
+                return ResultadoSeleccion.NULA;
+            case -1:
+                return ResultadoSeleccion.MEDIO_PIERDE;
+            default:
+                return ResultadoSeleccion.PIERDE;
+        }
+    }
+
+    private static ResultadoSeleccion gana(boolean gana) {
+        return gana ? ResultadoSeleccion.GANA : ResultadoSeleccion.PIERDE;
+    }
+
+    private void registrar(FormatoSeleccion formato, ReglaMercado regla, String... nombres) {
+        for (String nombre : nombres) {
+            mercados.put(normalizar(nombre), new DefinicionMercado(nombre, formato, regla));
+        }
+    }
+
+    /**
+     * API-Sports mezcla guion y raya ("Clean Sheet – Home")
+     */
+    private static String normalizar(String tipoApuesta) {
+        return ESPACIOS.matcher(tipoApuesta.trim().replace('–', '-').replace('—', '-')).replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
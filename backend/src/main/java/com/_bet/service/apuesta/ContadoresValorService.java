@@ -0,0 +1,165 @@
+package com._bet.service.apuesta;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com._bet.entity.eventoEntity.Valor;
+import com._bet.repository.ApuestaBatchRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Acumuladores en memoria de Valor.numeroApuestas y Valor.montoTotalApostado.
+ *
+ * La colocación de apuestas solo suma en contadores LongAdder por Valor (sin
+ * tocar la fila en la base de datos). Una tarea periódica vuelca los deltas con
+ * un UPDATE por lotes y al apagar la aplicación se vuelca lo pendiente. Las
+ * lecturas suman lo pendiente de esta instancia al valor de la base de datos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContadoresValorService {
+
+    private final ApuestaBatchRepository apuestaBatchRepository;
+
+    private final ConcurrentHashMap<Long, Acumulador> acumuladores = new ConcurrentHashMap<>();
+
+    /**
+     * Acumuladores sin actividad retirados del mapa en el volcado anterior; se drenan
+     * una vez más por si algún hilo alcanzó a sumar después de retirarlos
+     */
+    private List<Map.Entry<Long, Acumulador>> retirados = new ArrayList<>();
+
+    /**
+     * Registra apuestas sobre un Valor. Dentro de una transacción solo se aplica si
+     * esta confirma, para no contar apuestas revertidas.
+     */
+    public void registrar(Long valorId, int apuestas, BigDecimal monto) {
+        long centavos = aCentavos(monto);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sumar(valorId, apuestas, centavos);
+                }
+            });
+        } else {
+            sumar(valorId, apuestas, centavos);
+        }
+    }
+
+    /**
+     * Apuestas sobre el Valor: lo ya volcado (la fila cargada) más lo que esta
+     * instancia aún no vuelca. Lo pendiente en otras instancias aparece hasta su
+     * siguiente volcado.
+     */
+    public long numeroApuestas(Valor valor) {
+        long volcadas = valor.getNumeroApuestas() != null ? valor.getNumeroApuestas() : 0L;
+        Acumulador acumulador = acumuladores.get(valor.getId());
+        return acumulador != null ? volcadas + acumulador.apuestas.sum() : volcadas;
+    }
+
+    /**
+     * Monto total apostado sobre el Valor, con el mismo alcance que
+     * numeroApuestas
+     */
+    public BigDecimal montoTotalApostado(Valor valor) {
+        BigDecimal volcado = valor.getMontoTotalApostado() != null ? valor.getMontoTotalApostado() : BigDecimal.ZERO;
+        Acumulador acumulador = acumuladores.get(valor.getId());
+        return acumulador != null ? volcado.add(BigDecimal.valueOf(acumulador.montoCentavos.sum(), 2)) : volcado;
+    }
+
+    /**
+     * Vuelca los deltas acumulados con un solo UPDATE por lotes.
+     * Los deltas se restan de cada acumulador (no se reinician), así que lo que
+     * se sume durante el volcado queda para el siguiente.
+     *
+     * @return número de valores actualizados
+     */
+    public synchronized int volcar() {
+        Map<Long, Integer> apuestasPorValor = new HashMap<>();
+        Map<Long, BigDecimal> montoPorValor = new HashMap<>();
+        Map<Long, long[]> tomados = new HashMap<>();
+
+        for (Map.Entry<Long, Acumulador> entrada : retirados) {
+            tomar(entrada.getKey(), entrada.getValue(), apuestasPorValor, montoPorValor, tomados);
+        }
+        retirados = new ArrayList<>();
+
+        for (Map.Entry<Long, Acumulador> entrada : acumuladores.entrySet()) {
+            boolean conDatos = tomar(entrada.getKey(), entrada.getValue(), apuestasPorValor, montoPorValor, tomados);
+            if (!conDatos && acumuladores.remove(entrada.getKey(), entrada.getValue())) {
+                retirados.add(Map.entry(entrada.getKey(), entrada.getValue()));
+            }
+        }
+
+        if (apuestasPorValor.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            apuestaBatchRepository.acumularContadoresValor(apuestasPorValor, montoPorValor);
+            log.debug("Contadores de {} valores volcados", apuestasPorValor.size());
+            return apuestasPorValor.size();
+        } catch (RuntimeException e) {
+            // Devolver los deltas para reintentar en el siguiente volcado
+            tomados.forEach((valorId, delta) -> sumar(valorId, (int) delta[0], delta[1]));
+            log.error("❌ Error al volcar contadores de valores: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void volcarAlApagar() {
+        int volcados = volcar();
+        log.info("Contadores de valores volcados al apagar: {}", volcados);
+    }
+
+    private void sumar(Long valorId, int apuestas, long centavos) {
+        Acumulador acumulador = acumuladores.computeIfAbsent(valorId, id -> new Acumulador());
+        acumulador.apuestas.add(apuestas);
+        acumulador.montoCentavos.add(centavos);
+    }
+
+    private boolean tomar(Long valorId, Acumulador acumulador, Map<Long, Integer> apuestasPorValor,
+            Map<Long, BigDecimal> montoPorValor, Map<Long, long[]> tomados) {
+        long apuestas = acumulador.apuestas.sum();
+        long centavos = acumulador.montoCentavos.sum();
+        if (apuestas == 0 && centavos == 0) {
+            return false;
+        }
+        acumulador.apuestas.add(-apuestas);
+        acumulador.montoCentavos.add(-centavos);
+
+        apuestasPorValor.merge(valorId, (int) apuestas, Integer::sum);
+        montoPorValor.merge(valorId, BigDecimal.valueOf(centavos, 2), BigDecimal::add);
+        tomados.merge(valorId, new long[] { apuestas, centavos },
+                (a, b) -> new long[] { a[0] + b[0], a[1] + b[1] });
+        return true;
+    }
+
+    private long aCentavos(BigDecimal monto) {
+        if (monto == null) {
+            return 0L;
+        }
+        return monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static final class Acumulador {
+        private final LongAdder apuestas = new LongAdder();
+        private final LongAdder montoCentavos = new LongAdder();
+    }
+}
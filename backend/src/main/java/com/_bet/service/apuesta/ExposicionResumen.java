@@ -0,0 +1,30 @@
+package com._bet.service.apuesta;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Foto de la exposición de una selección, mercado o evento
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ExposicionResumen {
+
+    private final ExposicionService.NivelExposicion nivel;
+
+    /** Id del Valor, Momio o EventoDeportivo según el nivel */
+    private final Long id;
+
+    /** Monto total apostado (simples más parlays que incluyen la selección) */
+    private final BigDecimal montoApostado;
+
+    /** Pago en el peor caso para la casa */
+    private final BigDecimal peorPago;
+
+    /** Límite de pago configurado (solo selecciones; null si no hay) */
+    private final BigDecimal limite;
+}
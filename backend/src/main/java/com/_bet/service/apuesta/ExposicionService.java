@@ -0,0 +1,383 @@
+package com._bet.service.apuesta;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com._bet.entity.eventoEntity.Valor;
+import com._bet.repository.ExposicionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Motor de exposición (liability) en memoria por selección, mercado y evento.
+ *
+ * Por cada Valor se lleva el monto apostado y el pago que la casa tendría que
+ * cubrir si la selección gana (apuestas simples más el pago completo de cada
+ * parlay que la incluye). El mercado toma el peor de sus valores y el evento
+ * suma el peor caso de sus mercados. La colocación reserva contra
+ * Valor.limiteMaximo con un compare-and-set, sin consultar la base de datos.
+ *
+ * Cada selección cuenta sus reservas y liberaciones sin confirmar y una
+ * versión que cambia con cada movimiento; la reconstrucción solo concilia las selecciones quietas
+ * durante la lectura.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExposicionService {
+
+    public enum NivelExposicion {
+        SELECCION,
+        MERCADO,
+        EVENTO
+    }
+
+    /** Pasadas de reconstrucción para conciliar selecciones con movimiento */
+    private static final int PASADAS_RECONSTRUCCION = 3;
+
+    private final ExposicionRepository exposicionRepository;
+
+    private final ConcurrentHashMap<Long, ExposicionSeleccion> selecciones = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> seleccionesPorMercado = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> mercadosPorEvento = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva exposición para una selección. Si la transacción se revierte, la
+     * reserva se libera.
+     *
+     * @param valor Valor cargado con su mercado y evento
+     * @param monto monto apostado (en parlays, el del parlay completo)
+     * @param pago  pago si la selección gana (en parlays, el del parlay completo)
+     * @return mensaje de error si se supera el límite de la selección, o null
+     */
+    public String reservar(Valor valor, BigDecimal monto, BigDecimal pago) {
+        ExposicionSeleccion seleccion = seleccion(valor.getId(), valor.getMomio().getId(),
+                valor.getMomio().getEventoDeportivo().getId());
+        seleccion.limite = valor.getLimiteMaximo();
+
+        long montoCentavos = aCentavos(monto);
+        long pagoCentavos = aCentavos(pago);
+        long limiteCentavos = valor.getLimiteMaximo() != null ? aCentavos(valor.getLimiteMaximo()) : Long.MAX_VALUE;
+
+        // Pendiente antes de tocar los totales, para que la reconstrucción la vea
+        seleccion.pendientes.incrementAndGet();
+        long actual;
+        do {
+            actual = seleccion.pagoCentavos.get();
+            if (actual + pagoCentavos > limiteCentavos) {
+                seleccion.pendientes.decrementAndGet();
+                BigDecimal disponible = BigDecimal.valueOf(Math.max(0, limiteCentavos - actual), 2);
+                return "Límite de la selección " + valor.getId() + " alcanzado: pago máximo disponible "
+                        + disponible;
+            }
+        } while (!seleccion.pagoCentavos.compareAndSet(actual, actual + pagoCentavos));
+        seleccion.montoCentavos.addAndGet(montoCentavos);
+        seleccion.version.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        sumar(seleccion, -montoCentavos, -pagoCentavos);
+                    }
+                    seleccion.pendientes.decrementAndGet();
+                    seleccion.version.incrementAndGet();
+                }
+            });
+        } else {
+            seleccion.pendientes.decrementAndGet();
+        }
+        return null;
+    }
+
+    /**
+     * Pago de una apuesta simple tal como lo calculan la liquidación y la
+     * reconstrucción en SQL (producto exacto redondeado a centavos), para que
+     * reserva y liberación coincidan
+     */
+    public static BigDecimal pago(BigDecimal monto, BigDecimal momio) {
+        return monto.multiply(momio).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Pago de un parlay con el momio total tal como se guarda (3 decimales)
+     */
+    public static BigDecimal pagoParlay(BigDecimal monto, BigDecimal momioTotal) {
+        return pago(monto, momioTotal.setScale(3, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Libera la exposición de una apuesta liquidada o cancelada. Dentro de una
+     * transacción se aplica solo si esta confirma; mientras tanto cuenta como
+     * pendiente, igual que una reserva, para que la reconstrucción no la reste
+     * otra vez si lee la base ya confirmada antes del afterCommit.
+     */
+    public void liberar(Long valorId, BigDecimal monto, BigDecimal pago) {
+        ExposicionSeleccion seleccion = selecciones.get(valorId);
+        if (seleccion == null) {
+            return;
+        }
+        long montoCentavos = aCentavos(monto);
+        long pagoCentavos = aCentavos(pago);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            seleccion.pendientes.incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        sumar(seleccion, -montoCentavos, -pagoCentavos);
+                    }
+                    seleccion.pendientes.decrementAndGet();
+                    seleccion.version.incrementAndGet();
+                }
+            });
+        } else {
+            sumar(seleccion, -montoCentavos, -pagoCentavos);
+        }
+    }
+
+    /**
+     * Ajusta el pago expuesto de una selección cuando cambia el momio de un
+     * parlay abierto (al anular otra de sus piernas). Se aplica como una
+     * liberación de la diferencia.
+     */
+    public void ajustarPago(Long valorId, BigDecimal pagoAnterior, BigDecimal pagoNuevo) {
+        liberar(valorId, BigDecimal.ZERO, pagoAnterior.subtract(pagoNuevo));
+    }
+
+    /**
+     * Reconstruye la exposición desde las apuestas abiertas al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruirAlIniciar() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            log.error("❌ Error al reconstruir la exposición: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reconstruye la exposición desde la base de datos. Solo se concilian las
+     * selecciones sin reservas ni liberaciones pendientes al corte y sin
+     * movimientos durante la lectura: en las demás la base puede ver o no una
+     * reserva o liberación que la memoria ya aplicó. Esas se reintentan en una nueva pasada y, si siguen
+     * con movimiento, conservan lo que llevan en memoria.
+     *
+     * @return número de selecciones con exposición
+     */
+    @Transactional(readOnly = true)
+    public int reconstruir() {
+        Map<Long, long[]> reconstruido = new HashMap<>();
+        Set<Long> sinConciliar = conciliar(null, reconstruido);
+        for (int pasada = 2; pasada <= PASADAS_RECONSTRUCCION && !sinConciliar.isEmpty(); pasada++) {
+            sinConciliar = conciliar(sinConciliar, reconstruido);
+        }
+
+        if (!sinConciliar.isEmpty()) {
+            log.warn("⚠️ {} selecciones con movimiento no se conciliaron; conservan la exposición en memoria",
+                    sinConciliar.size());
+        }
+        log.info("✅ Exposición reconstruida: {} selecciones con apuestas abiertas", reconstruido.size());
+        return reconstruido.size();
+    }
+
+    /**
+     * Una pasada de reconstrucción. A cada selección quieta se le suma la
+     * diferencia entre lo leído y lo que tenía en memoria al corte.
+     *
+     * @param soloEstas    selecciones a conciliar, o null para todas
+     * @param reconstruido totales leídos por selección (se actualiza)
+     * @return selecciones que tuvieron movimiento y no se conciliaron
+     */
+    private Set<Long> conciliar(Set<Long> soloEstas, Map<Long, long[]> reconstruido) {
+        LocalDateTime corte = LocalDateTime.now();
+        // Versión antes que pendientes y totales: una reserva posterior cambia la versión
+        Map<Long, long[]> enCorte = new HashMap<>();
+        selecciones.forEach((valorId, s) -> {
+            if (soloEstas == null || soloEstas.contains(valorId)) {
+                long version = s.version.get();
+                enCorte.put(valorId, new long[] { version, s.pendientes.get(), s.montoCentavos.get(),
+                        s.pagoCentavos.get() });
+            }
+        });
+
+        Map<Long, long[]> leido = new HashMap<>();
+        exposicionRepository.recorrerApuestasActivas(corte, rs -> {
+            long valorId = rs.getLong("valor_id");
+            if (soloEstas != null && !soloEstas.contains(valorId)) {
+                return;
+            }
+            ExposicionSeleccion seleccion = seleccion(valorId, rs.getLong("momio_id"), rs.getLong("evento_id"));
+            seleccion.limite = rs.getBigDecimal("limite_maximo");
+
+            long[] totales = leido.computeIfAbsent(valorId, id -> new long[2]);
+            totales[0] += aCentavos(rs.getBigDecimal("monto"));
+            totales[1] += aCentavos(rs.getBigDecimal("pago"));
+        });
+
+        Set<Long> sinConciliar = new HashSet<>();
+        selecciones.forEach((valorId, s) -> {
+            if (soloEstas != null && !soloEstas.contains(valorId)) {
+                return;
+            }
+            // Las creadas durante la lectura sin reservas quedan en versión 0
+            long[] previo = enCorte.getOrDefault(valorId, new long[4]);
+            if (previo[1] != 0 || s.version.get() != previo[0]) {
+                sinConciliar.add(valorId);
+                return;
+            }
+            long[] nuevo = leido.getOrDefault(valorId, new long[2]);
+            sumar(s, nuevo[0] - previo[2], nuevo[1] - previo[3]);
+            if (nuevo[1] != 0 || nuevo[0] != 0) {
+                reconstruido.put(valorId, nuevo);
+            } else {
+                reconstruido.remove(valorId);
+            }
+        });
+        return sinConciliar;
+    }
+
+    /**
+     * Exposición actual de una selección, mercado o evento
+     */
+    public ExposicionResumen obtener(NivelExposicion nivel, Long id) {
+        switch (nivel) {
+            case SELECCION:
+                ExposicionSeleccion seleccion = selecciones.get(id);
+                return seleccion != null ? resumen(seleccion) : null;
+            case MERCADO:
+                return seleccionesPorMercado.containsKey(id) ? resumenMercado(id) : null;
+            case EVENTO:
+                return mercadosPorEvento.containsKey(id) ? resumenEvento(id) : null;
+            default:
+                throw new IllegalArgumentException("Nivel de exposición no soportado: " + nivel);
+        }
+    }
+
+    /**
+     * Las exposiciones con mayor pago en el peor caso del nivel indicado
+     */
+    public List<ExposicionResumen> top(NivelExposicion nivel, int limite) {
+        List<ExposicionResumen> resumenes = new ArrayList<>();
+        switch (nivel) {
+            case SELECCION:
+                selecciones.values().forEach(s -> resumenes.add(resumen(s)));
+                break;
+            case MERCADO:
+                seleccionesPorMercado.keySet().forEach(id -> resumenes.add(resumenMercado(id)));
+                break;
+            case EVENTO:
+                mercadosPorEvento.keySet().forEach(id -> resumenes.add(resumenEvento(id)));
+                break;
+            default:
+                throw new IllegalArgumentException("Nivel de exposición no soportado: " + nivel);
+        }
+
+        return resumenes.stream()
+                .filter(r -> r.getPeorPago().signum() > 0)
+                .sorted(Comparator.comparing(ExposicionResumen::getPeorPago).reversed())
+                .limit(limite)
+                .toList();
+    }
+
+    private ExposicionSeleccion seleccion(Long valorId, Long momioId, Long eventoId) {
+        return selecciones.computeIfAbsent(valorId, id -> {
+            seleccionesPorMercado.computeIfAbsent(momioId, m -> ConcurrentHashMap.newKeySet()).add(valorId);
+            mercadosPorEvento.computeIfAbsent(eventoId, e -> ConcurrentHashMap.newKeySet()).add(momioId);
+            return new ExposicionSeleccion(valorId);
+        });
+    }
+
+    private void sumar(ExposicionSeleccion seleccion, long montoCentavos, long pagoCentavos) {
+        seleccion.montoCentavos.addAndGet(montoCentavos);
+        seleccion.pagoCentavos.addAndGet(pagoCentavos);
+        seleccion.version.incrementAndGet();
+    }
+
+    private ExposicionResumen resumen(ExposicionSeleccion s) {
+        return new ExposicionResumen(NivelExposicion.SELECCION, s.valorId,
+                BigDecimal.valueOf(s.montoCentavos.get(), 2), BigDecimal.valueOf(s.pagoCentavos.get(), 2), s.limite);
+    }
+
+    /**
+     * Solo gana una selección del mercado: el peor caso es el mayor pago
+     */
+    private long[] totalesMercado(Long momioId) {
+        long monto = 0;
+        long peorPago = 0;
+        for (Long valorId : seleccionesPorMercado.getOrDefault(momioId, Set.of())) {
+            ExposicionSeleccion s = selecciones.get(valorId);
+            if (s != null) {
+                monto += s.montoCentavos.get();
+                peorPago = Math.max(peorPago, s.pagoCentavos.get());
+            }
+        }
+        return new long[] { monto, peorPago };
+    }
+
+    private ExposicionResumen resumenMercado(Long momioId) {
+        long[] totales = totalesMercado(momioId);
+        return new ExposicionResumen(NivelExposicion.MERCADO, momioId,
+                BigDecimal.valueOf(totales[0], 2), BigDecimal.valueOf(totales[1], 2), null);
+    }
+
+    /**
+     * Cota superior del evento: suma del peor caso de cada mercado
+     */
+    private ExposicionResumen resumenEvento(Long eventoId) {
+        long monto = 0;
+        long peorPago = 0;
+        for (Long momioId : mercadosPorEvento.getOrDefault(eventoId, Set.of())) {
+            long[] totales = totalesMercado(momioId);
+            monto += totales[0];
+            peorPago += totales[1];
+        }
+        return new ExposicionResumen(NivelExposicion.EVENTO, eventoId,
+                BigDecimal.valueOf(monto, 2), BigDecimal.valueOf(peorPago, 2), null);
+    }
+
+    private long aCentavos(BigDecimal monto) {
+        if (monto == null) {
+            return 0L;
+        }
+        return monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static final class ExposicionSeleccion {
+        private final Long valorId;
+        private final AtomicLong montoCentavos = new AtomicLong();
+        private final AtomicLong pagoCentavos = new AtomicLong();
+        /** Reservas y liberaciones cuya transacción no ha terminado */
+        private final AtomicInteger pendientes = new AtomicInteger();
+        /** Cambia con cada movimiento de los totales */
+        private final AtomicLong version = new AtomicLong();
+        private volatile BigDecimal limite;
+
+        private ExposicionSeleccion(Long valorId) {
+            this.valorId = valorId;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com._bet.service.apuesta;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com._bet.entity.eventoEntity.SeleccionParseada;
+import com._bet.entity.eventoEntity.SeleccionParseada.TipoSeleccion;
+
+/**
+ * Formatos de etiqueta de los valores de API-Sports. Cada mercado del
+ * CatalogoMercados declara su formato y la etiqueta se interpreta una sola vez
+ * al ingerir los momios. Las etiquetas que no se reconocen quedan como
+ * DESCONOCIDA y sus apuestas no se liquidan.
+ */
+public enum FormatoSeleccion {
+
+    /** Home / Draw / Away */
+    RESULTADO {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            return resultado(etiqueta);
+        }
+    },
+
+    /** Over 2.5 / Under 2.25 */
+    TOTAL {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            Matcher m = PATRON_TOTAL.matcher(etiqueta);
+            if (!m.matches()) {
+                return null;
+            }
+            String lado = m.group(1);
+            TipoSeleccion tipo = lado.startsWith("over") || lado.startsWith("más") || lado.startsWith("mas")
+                    ? TipoSeleccion.MAS
+                    : TipoSeleccion.MENOS;
+            Integer cuartos = aCuartos(m.group(2));
+            return cuartos == null ? null : new SeleccionParseada(tipo, cuartos, null, null);
+        }
+    },
+
+    /** Home -1.5 / Away +0.25 / Draw -1 */
+    HANDICAP {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            Matcher m = PATRON_HANDICAP.matcher(etiqueta);
+            if (!m.matches()) {
+                return null;
+            }
+            SeleccionParseada lado = resultado(m.group(1));
+            Integer cuartos = aCuartos(m.group(2));
+            if (lado == null || cuartos == null) {
+                return null;
+            }
+            lado.setCuartos(cuartos);
+            return lado;
+        }
+    },
+
+    /** Yes / No */
+    SI_NO {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            return deEtiqueta(etiqueta, TipoSeleccion.SI, TipoSeleccion.NO);
+        }
+    },
+
+    /** 2:1 / 0-0 */
+    MARCADOR {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            Matcher m = PATRON_MARCADOR.matcher(etiqueta);
+            if (!m.matches()) {
+                return null;
+            }
+            return new SeleccionParseada(TipoSeleccion.MARCADOR, null, Integer.parseInt(m.group(1)),
+                    Integer.parseInt(m.group(2)));
+        }
+    },
+
+    /** Home/Draw / Home/Away / Draw/Away */
+    DOBLE_OPORTUNIDAD {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            return deEtiqueta(etiqueta, TipoSeleccion.LOCAL_EMPATE, TipoSeleccion.LOCAL_VISITANTE,
+                    TipoSeleccion.EMPATE_VISITANTE);
+        }
+    },
+
+    /** Odd / Even */
+    PAR_IMPAR {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            return deEtiqueta(etiqueta, TipoSeleccion.PAR, TipoSeleccion.IMPAR);
+        }
+    },
+
+    /** Home/Draw como resultado al medio tiempo / resultado final */
+    MEDIO_FINAL {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            int separador = etiqueta.indexOf('/');
+            if (separador < 0) {
+                return null;
+            }
+            SeleccionParseada medio = resultado(etiqueta.substring(0, separador));
+            SeleccionParseada fin = resultado(etiqueta.substring(separador + 1));
+            if (medio == null || fin == null) {
+                return null;
+            }
+            return new SeleccionParseada(TipoSeleccion.MEDIO_FINAL, null, signo(medio.getTipo()),
+                    signo(fin.getTipo()));
+        }
+    },
+
+    /** 1st Half / 2nd Half / Draw */
+    MITAD {
+        @Override
+        SeleccionParseada interpretar(String etiqueta) {
+            return deEtiqueta(etiqueta, TipoSeleccion.PRIMERA_MITAD, TipoSeleccion.SEGUNDA_MITAD,
+                    TipoSeleccion.EMPATE);
+        }
+    };
+
+    private static final Pattern PATRON_TOTAL = Pattern
+            .compile("^(over|under|más de|mas de|menos de)\\s*([+-]?\\d+(?:\\.\\d+)?)$");
+    private static final Pattern PATRON_HANDICAP = Pattern
+            .compile("^([a-záéíóú ]+?)\\s*([+-]?\\d+(?:\\.\\d+)?)$");
+    private static final Pattern PATRON_MARCADOR = Pattern.compile("^(\\d+)\\s*[-:]\\s*(\\d+)$");
+
+    private static final Map<String, TipoSeleccion> ETIQUETAS = new HashMap<>();
+
+    static {
+        etiquetas(TipoSeleccion.LOCAL, "home", "local", "1");
+        etiquetas(TipoSeleccion.EMPATE, "draw", "empate", "x", "no goal", "tie");
+        etiquetas(TipoSeleccion.VISITANTE, "away", "visitante", "2");
+        etiquetas(TipoSeleccion.SI, "yes", "si", "sí");
+        etiquetas(TipoSeleccion.NO, "no");
+        etiquetas(TipoSeleccion.PAR, "even", "par");
+        etiquetas(TipoSeleccion.IMPAR, "odd", "impar");
+        etiquetas(TipoSeleccion.LOCAL_EMPATE, "home/draw", "1x", "1/x");
+        etiquetas(TipoSeleccion.LOCAL_VISITANTE, "home/away", "12", "1/2");
+        etiquetas(TipoSeleccion.EMPATE_VISITANTE, "draw/away", "x2", "x/2");
+        etiquetas(TipoSeleccion.PRIMERA_MITAD, "1st half", "first half", "primer tiempo");
+        etiquetas(TipoSeleccion.SEGUNDA_MITAD, "2nd half", "second half", "segundo tiempo");
+    }
+
+    abstract SeleccionParseada interpretar(String etiquetaNormalizada);
+
+    /**
+     * Interpreta la etiqueta de un valor; nunca devuelve null
+     */
+    public SeleccionParseada parsear(String etiqueta) {
+        if (etiqueta == null || etiqueta.isBlank()) {
+            return SeleccionParseada.de(TipoSeleccion.DESCONOCIDA);
+        }
+        SeleccionParseada seleccion = interpretar(etiqueta.trim().toLowerCase(Locale.ROOT));
+        return seleccion != null ? seleccion : SeleccionParseada.de(TipoSeleccion.DESCONOCIDA);
+    }
+
+    /**
+     * 1 local, 0 empate, -1 visitante
+     */
+    static int signo(TipoSeleccion tipo) {
+        return tipo == TipoSeleccion.LOCAL ? 1 : tipo == TipoSeleccion.VISITANTE ? -1 : 0;
+    }
+
+    private static SeleccionParseada resultado(String etiqueta) {
+        return deEtiqueta(etiqueta.trim(), TipoSeleccion.LOCAL, TipoSeleccion.EMPATE, TipoSeleccion.VISITANTE);
+    }
+
+    private static SeleccionParseada deEtiqueta(String etiqueta, TipoSeleccion... permitidos) {
+        TipoSeleccion tipo = ETIQUETAS.get(etiqueta);
+        if (tipo == null) {
+            return null;
+        }
+        for (TipoSeleccion permitido : permitidos) {
+            if (permitido == tipo) {
+                return SeleccionParseada.de(tipo);
+            }
+        }
+        return null;
+    }
+
+    private static Integer aCuartos(String linea) {
+        try {
+            double valor = Double.parseDouble(linea);
+            double cuartos = valor * 4;
+            if (cuartos != Math.rint(cuartos)) {
+                return null;
+            }
+            return (int) cuartos;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static void etiquetas(TipoSeleccion tipo, String... textos) {
+        for (String texto : textos) {
+            ETIQUETAS.put(texto, tipo);
+        }
+    }
+}
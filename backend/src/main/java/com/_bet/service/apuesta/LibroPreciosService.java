@@ -0,0 +1,254 @@
+package com._bet.service.apuesta;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com._bet.entity.eventoEntity.EventoDeportivo;
+import com._bet.entity.eventoEntity.Momio;
+import com._bet.entity.eventoEntity.Valor;
+import com._bet.repository.ValorRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Libro de precios en memoria, autoritativo en el servidor, indexado por id de
+ * Valor.
+ *
+ * La ingesta y el actualizador en vivo lo mantienen al día y una recarga
+ * periódica desde la base de datos lo hace converger con los cambios hechos
+ * por otras instancias. Al colocar una apuesta sirve de filtro rápido: la
+ * decisión se toma con el momio, el mercado y el evento de la entidad Valor
+ * que se acaba de cargar, y la entrada del libro se corrige si difiere.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LibroPreciosService {
+
+    /** Estados del proveedor en los que el evento aún no ha comenzado */
+    private static final Set<String> ESTADOS_PREVIOS = Set.of("NS", "TBD");
+
+    private static final double TOLERANCIA_ODD = 0.000001;
+
+    private final ValorRepository valorRepository;
+
+    @Value("${libro.precios.horas-atras:6}")
+    private long horasAtras;
+
+    private final ConcurrentHashMap<Long, PrecioValor> precios = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, EstadoEvento> eventos = new ConcurrentHashMap<>();
+
+    /**
+     * Carga inicial del libro al arrancar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            log.error("❌ Error al cargar el libro de precios: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recarga el libro desde la base de datos con una sola consulta. Las entradas
+     * publicadas por esta instancia durante la consulta se conservan.
+     *
+     * @return número de precios en el libro
+     */
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${libro.precios.intervalo-recarga-ms:600000}",
+            initialDelayString = "${libro.precios.intervalo-recarga-ms:600000}")
+    public int recargar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        List<Valor> valores = valorRepository
+                .findAllParaLibroDesde(inicio.minusHours(horasAtras));
+
+        Set<Long> valoresVigentes = new HashSet<>(valores.size());
+        Set<Long> eventosVigentes = new HashSet<>();
+        for (Valor valor : valores) {
+            EventoDeportivo evento = valor.getMomio().getEventoDeportivo();
+            valoresVigentes.add(valor.getId());
+            if (eventosVigentes.add(evento.getId())) {
+                eventos.compute(evento.getId(), (id, actual) -> actual != null && actual.getActualizado().isAfter(inicio)
+                        ? actual
+                        : EstadoEvento.de(evento, inicio));
+            }
+            precios.compute(valor.getId(), (id, actual) -> actual != null && actual.getActualizado().isAfter(inicio)
+                    ? actual
+                    : PrecioValor.de(valor, inicio));
+        }
+
+        // Retirar lo que ya no está en la ventana y no se publicó durante la recarga
+        precios.entrySet().removeIf(e -> !valoresVigentes.contains(e.getKey())
+                && !e.getValue().getActualizado().isAfter(inicio));
+        eventos.entrySet().removeIf(e -> !eventosVigentes.contains(e.getKey())
+                && !e.getValue().getActualizado().isAfter(inicio));
+
+        log.info("✅ Libro de precios recargado: {} precios de {} eventos", precios.size(), eventos.size());
+        return precios.size();
+    }
+
+    /**
+     * Publica los precios de un evento recién ingerido. Dentro de una transacción
+     * se aplica solo si esta confirma.
+     */
+    public void publicar(EventoDeportivo evento, List<Momio> momios) {
+        alConfirmar(() -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            eventos.put(evento.getId(), EstadoEvento.de(evento, ahora));
+            for (Momio momio : momios) {
+                if (momio.getValores() == null) {
+                    continue;
+                }
+                boolean activo = !Boolean.FALSE.equals(momio.getActivo());
+                for (Valor valor : momio.getValores()) {
+                    precios.put(valor.getId(), new PrecioValor(valor.getId(), evento.getId(), valor.getOdd(), activo,
+                            ahora));
+                }
+            }
+        });
+    }
+
+    /**
+     * Actualiza el estado (en vivo, estado corto, fecha) de un evento del libro
+     */
+    public void actualizarEvento(EventoDeportivo evento) {
+        alConfirmar(() -> eventos.put(evento.getId(), EstadoEvento.de(evento, LocalDateTime.now())));
+    }
+
+    /**
+     * Valida una selección. El libro se consulta primero; si no tiene la
+     * selección o no coincide con la entidad (otra instancia la cambió después
+     * de la última recarga), manda la entidad y la entrada se reemplaza.
+     *
+     * @param valor      Valor recién cargado con su mercado, evento y estado
+     * @param oddCliente momio que vio el cliente
+     * @return mensaje de error, o null si la selección es válida
+     */
+    public String validar(Valor valor, Double oddCliente) {
+        LocalDateTime ahora = LocalDateTime.now();
+        PrecioValor precio = precios.get(valor.getId());
+        if (precio == null || !precio.coincideCon(valor)) {
+            precio = PrecioValor.de(valor, ahora);
+            precios.put(valor.getId(), precio);
+        }
+        EventoDeportivo eventoCargado = valor.getMomio().getEventoDeportivo();
+        EstadoEvento evento = eventos.get(precio.getEventoId());
+        if (evento == null || !evento.coincideCon(eventoCargado)) {
+            evento = EstadoEvento.de(eventoCargado, ahora);
+            eventos.put(evento.getEventoId(), evento);
+        }
+
+        if (!precio.isActivo()) {
+            return "El mercado de la selección " + valor.getId() + " no está activo";
+        }
+        if (!evento.aceptaApuestas(ahora)) {
+            return "El evento de la selección " + valor.getId() + " ya comenzó o terminó";
+        }
+        if (precio.getOdd() == null || precio.getOdd() <= 1.0) {
+            return "Momio inválido para la selección " + valor.getId();
+        }
+        if (oddCliente == null || Math.abs(oddCliente - precio.getOdd()) > TOLERANCIA_ODD) {
+            return "El momio de la selección " + valor.getId() + " cambió: actual " + precio.getOdd();
+        }
+        return null;
+    }
+
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Precio inmutable de un Valor
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static final class PrecioValor {
+        private final Long valorId;
+        private final Long eventoId;
+        private final Double odd;
+        private final boolean activo;
+        private final LocalDateTime actualizado;
+
+        static PrecioValor de(Valor valor, LocalDateTime ahora) {
+            Momio momio = valor.getMomio();
+            return new PrecioValor(valor.getId(), momio.getEventoDeportivo().getId(), valor.getOdd(),
+                    !Boolean.FALSE.equals(momio.getActivo()), ahora);
+        }
+
+        boolean coincideCon(Valor valor) {
+            return Objects.equals(odd, valor.getOdd())
+                    && activo == !Boolean.FALSE.equals(valor.getMomio().getActivo());
+        }
+    }
+
+    /**
+     * Estado inmutable del evento al que pertenecen los precios
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static final class EstadoEvento {
+        private final Long eventoId;
+        private final LocalDateTime fechaEvento;
+        private final boolean enVivo;
+        private final String estadoCorto;
+        private final LocalDateTime actualizado;
+
+        static EstadoEvento de(EventoDeportivo evento, LocalDateTime ahora) {
+            return new EstadoEvento(evento.getId(), evento.getFechaEvento(), Boolean.TRUE.equals(evento.getEnVivo()),
+                    estadoCorto(evento), ahora);
+        }
+
+        boolean coincideCon(EventoDeportivo evento) {
+            return enVivo == Boolean.TRUE.equals(evento.getEnVivo())
+                    && Objects.equals(fechaEvento, evento.getFechaEvento())
+                    && Objects.equals(estadoCorto, estadoCorto(evento));
+        }
+
+        private static String estadoCorto(EventoDeportivo evento) {
+            return evento.getEstado() != null ? evento.getEstado().getCorto() : null;
+        }
+
+        /**
+         * Solo se aceptan apuestas antes del inicio del evento
+         */
+        public boolean aceptaApuestas(LocalDateTime ahora) {
+            if (enVivo) {
+                return false;
+            }
+            if (estadoCorto != null && !ESTADOS_PREVIOS.contains(estadoCorto.toUpperCase())) {
+                return false;
+            }
+            return fechaEvento == null || fechaEvento.isAfter(ahora);
+        }
+    }
+}
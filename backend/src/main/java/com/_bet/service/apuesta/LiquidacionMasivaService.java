@@ -0,0 +1,278 @@
+package com._bet.service.apuesta;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com._bet.repository.LiquidacionRepository;
+import com._bet.service.apuesta.LiquidacionService.ResultadoLiquidacion;
+import com._bet.service.evento.CicloVidaEventoService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Liquidación en paralelo de varios eventos terminados.
+ *
+ * Los usuarios con apuestas abiertas en el lote de eventos se reparten por
+ * hash de su id entre las particiones; cada partición corre en su propio hilo
+ * del pool y confirma sus lotes por separado, así que dos hilos nunca tocan el
+ * mismo saldo. Los eventos resueltos por el ciclo de vida se acumulan en una
+ * cola y se liquidan juntos en cada pasada programada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiquidacionMasivaService {
+
+    private final LiquidacionRepository liquidacionRepository;
+    private final LiquidacionService liquidacionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${liquidacion.particiones:4}")
+    private int particiones;
+
+    @Value("${liquidacion.usuarios-por-lote:500}")
+    private int usuariosPorLote;
+
+    @Value("${liquidacion.masiva.max-intentos:5}")
+    private int maxIntentos;
+
+    /** Eventos resueltos pendientes de liquidar */
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+
+    /** Pasadas fallidas por evento */
+    private final Map<Long, Integer> intentos = new ConcurrentHashMap<>();
+
+    private ForkJoinPool pool;
+    private Counter contadorApuestas;
+
+    @PostConstruct
+    void iniciar() {
+        pool = new ForkJoinPool(particiones, p -> {
+            ForkJoinWorkerThread hilo = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            hilo.setName("Liquidacion-" + hilo.getPoolIndex());
+            return hilo;
+        }, null, false);
+        contadorApuestas = meterRegistry.counter("liquidacion.apuestas");
+        meterRegistry.gauge("liquidacion.eventos.pendientes", pendientes, Set::size);
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Encola un evento ya resuelto para la siguiente pasada
+     */
+    public void encolar(Long eventoId) {
+        pendientes.add(eventoId);
+    }
+
+    /**
+     * Liquida juntos los eventos encolados. Los eventos con algún lote fallido,
+     * o todos si la pasada completa falla, se vuelven a encolar hasta agotar
+     * los intentos.
+     */
+    public ResultadoLiquidacionMasiva procesarPendientes() {
+        if (pendientes.isEmpty()) {
+            return null;
+        }
+        List<Long> eventos = new ArrayList<>(pendientes);
+        pendientes.removeAll(eventos);
+
+        ResultadoLiquidacionMasiva resultado;
+        try {
+            resultado = liquidarEventos(eventos);
+        } catch (RuntimeException e) {
+            log.warn("La pasada de liquidación de los eventos {} falló, se reencolan: {}", eventos, e.getMessage());
+            eventos.forEach(this::reintentar);
+            throw e;
+        }
+
+        for (Long eventoId : eventos) {
+            if (resultado.getEventosConError().contains(eventoId)) {
+                reintentar(eventoId);
+            } else {
+                intentos.remove(eventoId);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Vuelve a encolar un evento fallido o lo abandona si agotó sus intentos
+     */
+    private void reintentar(Long eventoId) {
+        int intento = intentos.merge(eventoId, 1, Integer::sum);
+        if (intento < maxIntentos) {
+            pendientes.add(eventoId);
+        } else {
+            intentos.remove(eventoId);
+            log.error("❌ Liquidación del evento {} abandonada tras {} intentos", eventoId, intento);
+        }
+    }
+
+    /**
+     * Liquida los eventos terminados que aún tienen apuestas abiertas
+     */
+    public ResultadoLiquidacionMasiva liquidarFinalizados() {
+        return liquidarEventos(liquidacionRepository.eventosConApuestasAbiertas(CicloVidaEventoService.ESTADOS_FINALIZADOS));
+    }
+
+    /**
+     * Liquida en paralelo las apuestas abiertas de varios eventos ya resueltos
+     */
+    public synchronized ResultadoLiquidacionMasiva liquidarEventos(Collection<Long> eventoIds) {
+        long inicio = System.nanoTime();
+        Set<Long> eventos = new LinkedHashSet<>(eventoIds);
+        if (eventos.isEmpty()) {
+            return new ResultadoLiquidacionMasiva(0, 0, 0, 0, BigDecimal.ZERO, 0, 0, List.of(), Set.of());
+        }
+        eventos.forEach(liquidacionService::prepararEvento);
+
+        // Reparto de usuarios por hash: partición -> evento -> usuarios
+        List<Map<Long, List<Long>>> reparto = new ArrayList<>(particiones);
+        for (int i = 0; i < particiones; i++) {
+            reparto.add(new HashMap<>());
+        }
+        Set<Long> usuarios = new HashSet<>();
+        for (long[] par : liquidacionRepository.usuariosConApuestasAbiertas(eventos)) {
+            int particion = Math.floorMod(Long.hashCode(par[1]), particiones);
+            reparto.get(particion).computeIfAbsent(par[0], id -> new ArrayList<>()).add(par[1]);
+            usuarios.add(par[1]);
+        }
+        log.info("🔄 Liquidación masiva de {} eventos: {} usuarios en {} particiones", eventos.size(),
+                usuarios.size(), particiones);
+
+        List<Future<ResultadoParticion>> futuros = new ArrayList<>(particiones);
+        for (int i = 0; i < particiones; i++) {
+            int particion = i;
+            futuros.add(pool.submit(() -> liquidarParticion(particion, reparto.get(particion), inicio)));
+        }
+
+        List<ResultadoParticion> resultados = new ArrayList<>(particiones);
+        Set<Long> eventosConError = new HashSet<>();
+        for (Future<ResultadoParticion> futuro : futuros) {
+            try {
+                ResultadoParticion parcial = futuro.get();
+                resultados.add(parcial);
+                eventosConError.addAll(parcial.getEventosConError());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Liquidación masiva interrumpida", e);
+            } catch (Exception e) {
+                throw new RuntimeException("Error en la liquidación masiva: " + e.getMessage(), e);
+            }
+        }
+
+        // Retraso de cada partición respecto a la primera en terminar
+        long primeraEnTerminar = resultados.stream().mapToLong(ResultadoParticion::getTerminoMs).min().orElse(0);
+        resultados.forEach(r -> r.retrasoMs = r.terminoMs - primeraEnTerminar);
+
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        int apuestas = resultados.stream().mapToInt(ResultadoParticion::getApuestas).sum();
+        int parlays = resultados.stream().mapToInt(ResultadoParticion::getParlaysFinalizados).sum();
+        BigDecimal pagado = resultados.stream().map(ResultadoParticion::getTotalPagado)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        double apuestasPorSegundo = duracionMs > 0 ? apuestas * 1000.0 / duracionMs : apuestas;
+
+        ResultadoLiquidacionMasiva total = new ResultadoLiquidacionMasiva(eventos.size(), usuarios.size(), apuestas,
+                parlays, pagado, duracionMs, apuestasPorSegundo, resultados, eventosConError);
+        log.info("✅ Liquidación masiva terminada: {} apuestas en {} ms ({} apuestas/s), eventos con error: {}",
+                apuestas, duracionMs, Math.round(apuestasPorSegundo), eventosConError);
+        return total;
+    }
+
+    private ResultadoParticion liquidarParticion(int particion, Map<Long, List<Long>> usuariosPorEvento,
+            long inicioNanos) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        Set<Long> usuarios = new HashSet<>();
+        Set<Long> eventosConError = new HashSet<>();
+        ResultadoLiquidacion acumulado = new ResultadoLiquidacion(null, 0, 0, 0, 0, BigDecimal.ZERO, 0);
+
+        for (Map.Entry<Long, List<Long>> entrada : usuariosPorEvento.entrySet()) {
+            Long eventoId = entrada.getKey();
+            List<Long> lista = entrada.getValue();
+            usuarios.addAll(lista);
+            for (int desde = 0; desde < lista.size(); desde += usuariosPorLote) {
+                List<Long> lote = lista.subList(desde, Math.min(desde + usuariosPorLote, lista.size()));
+                try {
+                    ResultadoLiquidacion parcial = liquidacionService.liquidarUsuarios(eventoId, lote);
+                    acumulado = acumulado.sumar(parcial);
+                    contadorApuestas.increment(parcial.getApuestasLiquidadas() + parcial.getPiernasLiquidadas());
+                } catch (Exception e) {
+                    eventosConError.add(eventoId);
+                    log.error("❌ Error liquidando evento {} en la partición {}: {}", eventoId, particion,
+                            e.getMessage(), e);
+                }
+            }
+        }
+
+        long terminoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos);
+        muestra.stop(meterRegistry.timer("liquidacion.particion", "particion", String.valueOf(particion)));
+        return new ResultadoParticion(particion, usuarios.size(),
+                acumulado.getApuestasLiquidadas() + acumulado.getPiernasLiquidadas(),
+                acumulado.getParlaysFinalizados(), acumulado.getTotalPagado(), terminoMs, 0, eventosConError);
+    }
+
+    /**
+     * Resumen de una partición: terminoMs es lo que tardó desde el inicio de la
+     * pasada y retrasoMs lo que terminó después de la partición más rápida
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class ResultadoParticion {
+        private final int particion;
+        private final int usuarios;
+        private final int apuestas;
+        private final int parlaysFinalizados;
+        private final BigDecimal totalPagado;
+        private final long terminoMs;
+        private long retrasoMs;
+        private final Set<Long> eventosConError;
+    }
+
+    /**
+     * Resumen de una liquidación masiva
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class ResultadoLiquidacionMasiva {
+        private final int eventos;
+        private final int usuarios;
+        private final int apuestasLiquidadas;
+        private final int parlaysFinalizados;
+        private final BigDecimal totalPagado;
+        private final long duracionMs;
+        private final double apuestasPorSegundo;
+        private final List<ResultadoParticion> particiones;
+        private final Set<Long> eventosConError;
+    }
+}
@@ -0,0 +1,193 @@
+package com._bet.service.apuesta;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.repository.LiquidacionRepository;
+import com._bet.repository.LiquidacionRepository.ApuestaLiquidada;
+import com._bet.repository.LiquidacionRepository.ParlayFinalizado;
+import com._bet.repository.LiquidacionRepository.PiernaLiquidada;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.SaldoService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Liquidación de las apuestas y parlays de un evento cuyos momios ya fueron
+ * resueltos por DeterminarResultadoApuesta.
+ *
+ * Los usuarios con apuestas abiertas se procesan en lotes; cada lote es una
+ * transacción con un UPDATE por conjuntos para las apuestas simples, otro para
+ * las piernas de parlay, uno para los contadores de los parlays, uno para
+ * cerrar los parlays perdidos o sin piernas pendientes, uno para descartar las
+ * piernas restantes de los perdidos y un solo crédito de saldo para todos los
+ * ganadores del lote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiquidacionService {
+
+    private final LiquidacionRepository liquidacionRepository;
+    private final SaldoService saldoService;
+    private final ExposicionService exposicionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${liquidacion.usuarios-por-lote:500}")
+    private int usuariosPorLote;
+
+    /**
+     * Liquida todas las apuestas abiertas del evento cuyas selecciones ya tienen
+     * resultado. Las selecciones sin resultado quedan abiertas.
+     */
+    public ResultadoLiquidacion liquidarEvento(Long eventoId) {
+        long inicio = System.currentTimeMillis();
+
+        prepararEvento(eventoId);
+
+        List<Long> usuarios = liquidacionRepository.usuariosConApuestasAbiertas(eventoId);
+        log.info("🔄 Liquidando evento {}: {} usuarios con apuestas abiertas", eventoId, usuarios.size());
+
+        ResultadoLiquidacion total = new ResultadoLiquidacion(eventoId, usuarios.size(), 0, 0, 0, BigDecimal.ZERO, 0);
+        for (int desde = 0; desde < usuarios.size(); desde += usuariosPorLote) {
+            List<Long> lote = usuarios.subList(desde, Math.min(desde + usuariosPorLote, usuarios.size()));
+            total = total.sumar(liquidarUsuarios(eventoId, lote));
+        }
+
+        total = total.conDuracion(System.currentTimeMillis() - inicio);
+        log.info("✅ Evento {} liquidado: {}", eventoId, total);
+        return total;
+    }
+
+    /**
+     * Vincula a su valor las apuestas antiguas del evento; se llama una vez antes
+     * de liquidarlo
+     */
+    public void prepararEvento(Long eventoId) {
+        int asignadas = transactionTemplate.execute(status -> liquidacionRepository.asignarValorFaltante(eventoId));
+        if (asignadas > 0) {
+            log.info("Apuestas antiguas del evento {} vinculadas a su valor: {}", eventoId, asignadas);
+        }
+    }
+
+    /**
+     * Liquida en una sola transacción las apuestas del evento de un lote de
+     * usuarios
+     */
+    public ResultadoLiquidacion liquidarUsuarios(Long eventoId, List<Long> usuarioIds) {
+        return transactionTemplate.execute(status -> liquidarLote(eventoId, usuarioIds));
+    }
+
+    private ResultadoLiquidacion liquidarLote(Long eventoId, List<Long> usuarioIds) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<Long, List<MovimientoSaldo>> pagos = new HashMap<>();
+        BigDecimal pagado = BigDecimal.ZERO;
+
+        // Apuestas simples
+        List<ApuestaLiquidada> simples = liquidacionRepository.liquidarSimples(eventoId, usuarioIds, ahora);
+        for (ApuestaLiquidada apuesta : simples) {
+            exposicionService.liberar(apuesta.getValorId(), apuesta.getMonto(), apuesta.getPago());
+            // Ganadas, anuladas (devuelven el monto) y medio perdidas
+            if (apuesta.getPagoReal().signum() > 0) {
+                pagos.computeIfAbsent(apuesta.getUsuarioId(), id -> new ArrayList<>()).add(MovimientoSaldo.de(
+                        TipoMovimiento.PAGO_APUESTA, TipoReferencia.APUESTA, apuesta.getApuestaId(),
+                        apuesta.getPagoReal()));
+                pagado = pagado.add(apuesta.getPagoReal());
+            }
+        }
+
+        // Piernas de parlay y contadores de cada parlay
+        List<PiernaLiquidada> piernas = liquidacionRepository.liquidarPiernas(eventoId, usuarioIds, ahora);
+        Map<Long, int[]> conteoPorParlay = new HashMap<>();
+        Map<Long, BigDecimal> factorPorParlay = new HashMap<>();
+        for (PiernaLiquidada pierna : piernas) {
+            exposicionService.liberar(pierna.getValorId(), pierna.getMontoParlay(), pierna.getPagoParlay());
+            conteoPorParlay.computeIfAbsent(pierna.getParlayId(), id -> new int[2])[pierna.isPerdida() ? 1 : 0]++;
+            factorPorParlay.merge(pierna.getParlayId(), pierna.getFactor(), BigDecimal::multiply);
+        }
+
+        List<ParlayFinalizado> finalizados = List.of();
+        if (!conteoPorParlay.isEmpty()) {
+            Long[] parlayIds = new Long[conteoPorParlay.size()];
+            Integer[] ganadas = new Integer[conteoPorParlay.size()];
+            Integer[] perdidas = new Integer[conteoPorParlay.size()];
+            BigDecimal[] factores = new BigDecimal[conteoPorParlay.size()];
+            int i = 0;
+            for (Map.Entry<Long, int[]> entrada : conteoPorParlay.entrySet()) {
+                parlayIds[i] = entrada.getKey();
+                ganadas[i] = entrada.getValue()[0];
+                perdidas[i] = entrada.getValue()[1];
+                factores[i++] = factorPorParlay.get(entrada.getKey());
+            }
+            liquidacionRepository.actualizarContadoresParlay(parlayIds, ganadas, perdidas, factores, ahora);
+
+            // Se cierran los parlays con una pierna perdida o sin piernas pendientes
+            finalizados = liquidacionRepository.finalizarParlays(conteoPorParlay.keySet(), ahora);
+            List<Long> perdidos = new ArrayList<>();
+            for (ParlayFinalizado parlay : finalizados) {
+                if (!parlay.isGanado()) {
+                    perdidos.add(parlay.getParlayId());
+                }
+                if (parlay.isGanado() && parlay.getPago().signum() > 0) {
+                    pagos.computeIfAbsent(parlay.getUsuarioId(), id -> new ArrayList<>()).add(MovimientoSaldo.de(
+                            TipoMovimiento.PAGO_PARLAY, TipoReferencia.PARLAY, parlay.getParlayId(),
+                            parlay.getPago()));
+                    pagado = pagado.add(parlay.getPago());
+                }
+            }
+
+            // Las piernas de otros eventos de un parlay perdido ya no se liquidan
+            for (PiernaLiquidada pierna : liquidacionRepository.cerrarPiernasRestantes(perdidos, ahora)) {
+                exposicionService.liberar(pierna.getValorId(), pierna.getMontoParlay(), pierna.getPagoParlay());
+            }
+        }
+
+        // Un solo crédito para todos los ganadores del lote
+        if (!pagos.isEmpty()) {
+            saldoService.acreditarEnLote(pagos);
+        }
+
+        return new ResultadoLiquidacion(eventoId, 0, simples.size(), piernas.size(), finalizados.size(), pagado, 0);
+    }
+
+    /**
+     * Resumen de la liquidación de un evento
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class ResultadoLiquidacion {
+        private final Long eventoId;
+        private final int usuarios;
+        private final int apuestasLiquidadas;
+        private final int piernasLiquidadas;
+        private final int parlaysFinalizados;
+        private final BigDecimal totalPagado;
+        private final long duracionMs;
+
+        public ResultadoLiquidacion sumar(ResultadoLiquidacion otro) {
+            return new ResultadoLiquidacion(eventoId, usuarios, apuestasLiquidadas + otro.apuestasLiquidadas,
+                    piernasLiquidadas + otro.piernasLiquidadas, parlaysFinalizados + otro.parlaysFinalizados,
+                    totalPagado.add(otro.totalPagado), duracionMs);
+        }
+
+        public ResultadoLiquidacion conDuracion(long duracion) {
+            return new ResultadoLiquidacion(eventoId, usuarios, apuestasLiquidadas, piernasLiquidadas,
+                    parlaysFinalizados, totalPagado, duracion);
+        }
+    }
+}
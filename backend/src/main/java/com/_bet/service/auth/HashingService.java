@@ -0,0 +1,123 @@
+package com._bet.service.auth;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ejecuta en el executor acotado de hashing las operaciones que calculan o
+ * verifican un hash BCrypt (login y registro), para que un pico de logins no
+ * ocupe los hilos de Tomcat.
+ *
+ * Una operación que pasó en cola más que el timeout ya no se ejecuta (el
+ * cliente ya recibió 503). El timeout solo corta operaciones en curso si
+ * abandonarlas no deja efectos: un registro que ya empezó termina aunque tarde.
+ *
+ * Métricas: las del pool (executor.* con name=hashing: activos, en cola,
+ * completados), el tiempo en cola y de ejecución por operación
+ * (seguridad.hashing.espera / seguridad.hashing.duracion), las tareas
+ * rechazadas por cola llena (seguridad.hashing.rechazos) y las descartadas por
+ * vencer en cola (seguridad.hashing.vencidas).
+ */
+@Service
+@Slf4j
+public class HashingService {
+
+    /**
+     * Operaciones que pasan por el executor
+     */
+    public enum Operacion {
+        LOGIN(true),
+        REGISTRO(false);
+
+        /** Si el timeout aplica también con la operación ya en curso */
+        private final boolean timeoutEnCurso;
+
+        Operacion(boolean timeoutEnCurso) {
+            this.timeoutEnCurso = timeoutEnCurso;
+        }
+    }
+
+    private final ThreadPoolTaskExecutor executor;
+    private final Map<Operacion, Timer> esperas = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, Timer> duraciones = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, Counter> rechazos = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, Counter> vencidas = new EnumMap<>(Operacion.class);
+
+    @Value("${seguridad.hashing.timeout-ms:10000}")
+    private long timeoutMs;
+
+    public HashingService(@Qualifier("hashingTaskExecutor") ThreadPoolTaskExecutor executor,
+            MeterRegistry meterRegistry) {
+        this.executor = executor;
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "hashing", Tags.empty())
+                .bindTo(meterRegistry);
+        for (Operacion operacion : Operacion.values()) {
+            String tag = operacion.name().toLowerCase();
+            esperas.put(operacion, Timer.builder("seguridad.hashing.espera")
+                    .description("Tiempo en cola antes de calcular el hash")
+                    .tag("operacion", tag)
+                    .register(meterRegistry));
+            duraciones.put(operacion, Timer.builder("seguridad.hashing.duracion")
+                    .description("Tiempo de ejecución de la operación en el executor de hashing")
+                    .tag("operacion", tag)
+                    .register(meterRegistry));
+            rechazos.put(operacion, Counter.builder("seguridad.hashing.rechazos")
+                    .description("Operaciones rechazadas por cola de hashing llena")
+                    .tag("operacion", tag)
+                    .register(meterRegistry));
+            vencidas.put(operacion, Counter.builder("seguridad.hashing.vencidas")
+                    .description("Operaciones descartadas por pasar en cola más que el timeout")
+                    .tag("operacion", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Encola la operación. El future falla con RejectedExecutionException si la
+     * cola está llena y con TimeoutException si vence en cola (o, en
+     * operaciones sin efectos, si no termina a tiempo)
+     */
+    public <T> CompletableFuture<T> ejecutar(Operacion operacion, Supplier<T> tarea) {
+        long encolada = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        CompletableFuture<T> futuro;
+        try {
+            futuro = CompletableFuture.supplyAsync(() -> {
+                long inicio = System.nanoTime();
+                esperas.get(operacion).record(inicio - encolada, TimeUnit.NANOSECONDS);
+                if (inicio - encolada >= timeoutNanos) {
+                    vencidas.get(operacion).increment();
+                    throw new CompletionException(new TimeoutException(operacion + " venció en la cola de hashing"));
+                }
+                try {
+                    return tarea.get();
+                } finally {
+                    duraciones.get(operacion).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rechazos.get(operacion).increment();
+            log.warn("⚠️ Cola de hashing llena, {} rechazado", operacion);
+            return CompletableFuture.failedFuture(e);
+        }
+        return operacion.timeoutEnCurso ? futuro.orTimeout(timeoutMs, TimeUnit.MILLISECONDS) : futuro;
+    }
+}
@@ -2,26 +2,52 @@ package com._bet.service.cryptoWallet;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import com._bet.entity.user.CryptoWallet;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Tasas de conversión crypto/USD.
+ *
+ * Las 18 tasas se guardan en una instantánea inmutable que un solo refresco en
+ * segundo plano reemplaza completa antes de que expire; las lecturas de los
+ * depósitos y retiros solo leen la instantánea y nunca esperan a la API. Si el
+ * proveedor falla se siguen sirviendo las tasas anteriores y, para los tipos
+ * que nunca se obtuvieron, las de respaldo.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CryptoConversionService {
     
-    // RestTemplate para futuras llamadas a APIs externas
-    // private final RestTemplate restTemplate = new RestTemplate();
+    private final ProveedorTasasCrypto proveedorTasas;
+    private final TaskScheduler taskScheduler;
     
-    // Cache simple para las tasas de conversión (en producción usar Redis)
-    private final Map<CryptoWallet.TipoCrypto, CacheTasa> cacheConversiones = new HashMap<>();
-    private static final long CACHE_DURATION_MS = 5 * 60 * 1000; // 5 minutos
+    @Value("${crypto.tasas.ttl-ms:300000}")
+    private long ttlMs;
+    
+    // Espera mínima entre refrescos disparados por lecturas tras un fallo
+    @Value("${crypto.tasas.espera-reintento-ms:30000}")
+    private long esperaReintentoMs;
+    
+    private volatile TasasEnCache cacheConversiones = TasasEnCache.VACIA;
+    
+    // Refresco en curso; las peticiones concurrentes se unen a este en lugar de lanzar otro
+    private final AtomicReference<CompletableFuture<Void>> refrescoEnCurso = new AtomicReference<>();
+    private volatile long ultimoIntento;
     
     // Tasas fijas como fallback en caso de falla de API
     private static final Map<CryptoWallet.TipoCrypto, BigDecimal> TASAS_FALLBACK;
@@ -50,38 +76,72 @@ public class CryptoConversionService {
     }
     
     /**
-     * Obtiene la tasa de conversión actual de una criptomoneda a USD
+     * Obtiene la tasa de conversión actual de una criptomoneda a USD. No hace
+     * I/O: si la instantánea expiró se pide un refresco en segundo plano y se
+     * responde con la tasa vigente.
      */
     public BigDecimal getTasaConversion(CryptoWallet.TipoCrypto tipoCrypto) {
+        TasasEnCache actual = cacheConversiones;
+        if (actual.estaExpirada(ttlMs)) {
+            refrescarEnSegundoPlano();
+        }
+        
+        BigDecimal tasa = actual.getTasas().get(tipoCrypto);
+        if (tasa != null) {
+            return tasa;
+        }
+        
+        BigDecimal tasaFallback = TASAS_FALLBACK.get(tipoCrypto);
+        log.debug("Usando tasa fallback para {}: {}", tipoCrypto, tasaFallback);
+        return tasaFallback != null ? tasaFallback : BigDecimal.ONE;
+    }
+    
+    /**
+     * Consulta las tasas de todos los tipos en una sola llamada al proveedor y
+     * reemplaza la instantánea. Si ya hay un refresco en curso devuelve ese.
+     */
+    public CompletableFuture<Void> refrescarTasas() {
+        CompletableFuture<Void> nuevo = new CompletableFuture<>();
+        CompletableFuture<Void> enCurso = refrescoEnCurso.compareAndExchange(null, nuevo);
+        if (enCurso != null) {
+            return enCurso;
+        }
+        
+        ultimoIntento = System.currentTimeMillis();
         try {
-            // Verificar cache
-            CacheTasa tasaCache = cacheConversiones.get(tipoCrypto);
-            if (tasaCache != null && !tasaCache.estaExpirada()) {
-                log.debug("Usando tasa desde cache para {}: {}", tipoCrypto, tasaCache.getTasa());
-                return tasaCache.getTasa();
-            }
-            
-            // Obtener tasa desde API externa
-            BigDecimal tasaApi = obtenerTasaDesdeAPI(tipoCrypto);
-            if (tasaApi != null) {
-                // Guardar en cache
-                cacheConversiones.put(tipoCrypto, new CacheTasa(tasaApi));
-                log.info("Tasa obtenida desde API para {}: {}", tipoCrypto, tasaApi);
-                return tasaApi;
-            }
-            
-            // Fallback a tasa fija
-            BigDecimal tasaFallback = TASAS_FALLBACK.get(tipoCrypto);
-            log.warn("Usando tasa fallback para {}: {}", tipoCrypto, tasaFallback);
-            return tasaFallback != null ? tasaFallback : BigDecimal.ONE;
+            Map<CryptoWallet.TipoCrypto, BigDecimal> obtenidas = proveedorTasas
+                .obtenerTasas(EnumSet.allOf(CryptoWallet.TipoCrypto.class));
             
+            // Los tipos que no vinieron conservan su tasa anterior
+            Map<CryptoWallet.TipoCrypto, BigDecimal> tasas = new EnumMap<>(CryptoWallet.TipoCrypto.class);
+            tasas.putAll(cacheConversiones.getTasas());
+            obtenidas.forEach((tipo, tasa) -> {
+                if (tasa != null && tasa.signum() > 0) {
+                    tasas.put(tipo, tasa);
+                }
+            });
+            cacheConversiones = new TasasEnCache(Collections.unmodifiableMap(tasas), System.currentTimeMillis());
+            log.info("✅ Tasas de conversión actualizadas: {} de {} desde el proveedor", obtenidas.size(),
+                CryptoWallet.TipoCrypto.values().length);
+            nuevo.complete(null);
         } catch (Exception e) {
-            log.error("Error al obtener tasa de conversión para {}: {}", tipoCrypto, e.getMessage());
-            
-            // En caso de error, usar tasa fallback
-            BigDecimal tasaFallback = TASAS_FALLBACK.get(tipoCrypto);
-            return tasaFallback != null ? tasaFallback : BigDecimal.ONE;
+            log.warn("Error al refrescar las tasas de conversión, se mantienen las anteriores: {}", e.getMessage());
+            nuevo.completeExceptionally(e);
+        } finally {
+            refrescoEnCurso.set(null);
+        }
+        return nuevo;
+    }
+    
+    /**
+     * Lanza un refresco en otro hilo si no hay uno en curso ni un fallo reciente
+     */
+    private void refrescarEnSegundoPlano() {
+        if (refrescoEnCurso.get() != null
+                || System.currentTimeMillis() - ultimoIntento < esperaReintentoMs) {
+            return;
         }
+        taskScheduler.schedule(this::refrescarTasas, Instant.now());
     }
     
     /**
@@ -116,7 +176,7 @@ public class CryptoConversionService {
      * Obtiene múltiples tasas de conversión
      */
     public Map<CryptoWallet.TipoCrypto, BigDecimal> getTasasConversion(CryptoWallet.TipoCrypto... tipos) {
-        Map<CryptoWallet.TipoCrypto, BigDecimal> tasas = new HashMap<>();
+        Map<CryptoWallet.TipoCrypto, BigDecimal> tasas = new EnumMap<>(CryptoWallet.TipoCrypto.class);
         
         for (CryptoWallet.TipoCrypto tipo : tipos) {
             tasas.put(tipo, getTasaConversion(tipo));
@@ -126,65 +186,15 @@ public class CryptoConversionService {
     }
     
     /**
-     * Limpia el cache de conversiones
+     * Limpia el cache de conversiones y pide un refresco en segundo plano
      */
     public void limpiarCache() {
-        cacheConversiones.clear();
+        cacheConversiones = TasasEnCache.VACIA;
+        ultimoIntento = 0;
+        refrescarEnSegundoPlano();
         log.info("Cache de tasas de conversión limpiado");
     }
     
-    /**
-     * Obtiene tasa desde API externa (implementación básica)
-     * En producción, usar APIs como CoinGecko, CoinMarketCap, etc.
-     */
-    private BigDecimal obtenerTasaDesdeAPI(CryptoWallet.TipoCrypto tipoCrypto) {
-        try {
-            // Aquí implementarías la llamada a la API externa
-            // Por ejemplo, usando CoinGecko API:
-            // String url = String.format("https://api.coingecko.com/api/v3/simple/price?ids=%s&vs_currencies=usd", 
-            //                          mapearSimboloACoinGeckoId(tipoCrypto));
-            
-            // Implementación simulada - en producción hacer la llamada real
-            log.debug("Simulando llamada a API para {}", tipoCrypto);
-            
-            // Por ahora retornamos null para usar fallback
-            return null;
-            
-        } catch (Exception e) {
-            log.error("Error al obtener tasa desde API para {}: {}", tipoCrypto, e.getMessage());
-            return null;
-        }
-    }
-    
-    /**
-     * Mapea el símbolo crypto al ID de CoinGecko
-     * (Comentado temporalmente - se usará cuando se implemente la API real)
-     */
-    /*
-    private String mapearSimboloACoinGeckoId(CryptoWallet.TipoCrypto tipoCrypto) {
-        return switch (tipoCrypto) {
-            case BITCOIN -> "bitcoin";
-            case ETHEREUM -> "ethereum";
-            case LITECOIN -> "litecoin";
-            case RIPPLE -> "ripple";
-            case CARDANO -> "cardano";
-            case POLKADOT -> "polkadot";
-            case CHAINLINK -> "chainlink";
-            case BITCOIN_CASH -> "bitcoin-cash";
-            case STELLAR -> "stellar";
-            case DOGECOIN -> "dogecoin";
-            case POLYGON -> "matic-network";
-            case SOLANA -> "solana";
-            case AVALANCHE -> "avalanche-2";
-            case TRON -> "tron";
-            case BINANCE_COIN -> "binancecoin";
-            case USDT -> "tether";
-            case USDC -> "usd-coin";
-            case BUSD -> "binance-usd";
-        };
-    }
-    */
-    
     /**
      * Valida si una tasa de conversión es razonable
      */
@@ -207,21 +217,26 @@ public class CryptoConversionService {
     
     // ========== CLASE AUXILIAR PARA CACHE ==========
     
-    private static class CacheTasa {
-        private final BigDecimal tasa;
+    /**
+     * Instantánea inmutable de las tasas y el momento en que se obtuvo
+     */
+    private static class TasasEnCache {
+        private static final TasasEnCache VACIA = new TasasEnCache(Map.of(), 0L);
+        
+        private final Map<CryptoWallet.TipoCrypto, BigDecimal> tasas;
         private final long timestamp;
         
-        public CacheTasa(BigDecimal tasa) {
-            this.tasa = tasa;
-            this.timestamp = System.currentTimeMillis();
+        public TasasEnCache(Map<CryptoWallet.TipoCrypto, BigDecimal> tasas, long timestamp) {
+            this.tasas = tasas;
+            this.timestamp = timestamp;
         }
         
-        public BigDecimal getTasa() {
-            return tasa;
+        public Map<CryptoWallet.TipoCrypto, BigDecimal> getTasas() {
+            return tasas;
         }
         
-        public boolean estaExpirada() {
-            return System.currentTimeMillis() - timestamp > CACHE_DURATION_MS;
+        public boolean estaExpirada(long ttlMs) {
+            return System.currentTimeMillis() - timestamp > ttlMs;
         }
     }
 }
@@ -5,6 +5,10 @@ import com._bet.entity.user.CryptoWallet;
 import com._bet.entity.user.Usuario;
 import com._bet.repository.CryptoWalletRepository;
 import com._bet.repository.UsuarioRepository;
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.ResultadoOperacionSaldo;
+import com._bet.service.saldo.SaldoService;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -23,6 +27,7 @@ public class CryptoWalletService {
     
     private final CryptoWalletRepository cryptoWalletRepository;
     private final UsuarioRepository usuarioRepository;
+    private final SaldoService saldoService;
     
     /**
      * Crea un nuevo wallet crypto para un usuario
@@ -185,14 +190,11 @@ public class CryptoWalletService {
         }
         
         // Actualizar saldo USD del usuario directamente
-        BigDecimal saldoActual = usuario.getSaldoUsd() != null ? usuario.getSaldoUsd() : BigDecimal.ZERO;
-        BigDecimal nuevoSaldo = saldoActual.add(cantidad);
-        usuario.setSaldoUsd(nuevoSaldo);
+        ResultadoOperacionSaldo credito = saldoService.acreditar(usuarioId,
+            MovimientoSaldo.sinReferencia(TipoMovimiento.DEPOSITO, cantidad));
+        usuario.setSaldoUsd(credito.getSaldoResultante());
         
-        // Guardar el usuario con el nuevo saldo
-        usuarioRepository.save(usuario);
-        
-        return nuevoSaldo;
+        return credito.getSaldoResultante();
     }
     
     /**
@@ -230,20 +232,15 @@ public class CryptoWalletService {
             throw new RuntimeException("No se puede procesar el retiro para un usuario inactivo");
         }
         
-        BigDecimal saldoActual = usuario.getSaldoUsd() != null ? usuario.getSaldoUsd() : BigDecimal.ZERO;
-        
-        if (saldoActual.compareTo(cantidad) < 0) {
+        // Actualizar saldo USD del usuario (solo si alcanza)
+        ResultadoOperacionSaldo debito = saldoService.debitar(usuarioId,
+            MovimientoSaldo.sinReferencia(TipoMovimiento.RETIRO, cantidad));
+        if (!debito.isAplicado()) {
             throw new RuntimeException("Saldo insuficiente para realizar el retiro");
         }
+        usuario.setSaldoUsd(debito.getSaldoResultante());
         
-        // Actualizar saldo USD del usuario
-        BigDecimal nuevoSaldo = saldoActual.subtract(cantidad);
-        usuario.setSaldoUsd(nuevoSaldo);
-        
-        // Guardar el usuario con el nuevo saldo
-        usuarioRepository.save(usuario);
-        
-        return nuevoSaldo;
+        return debito.getSaldoResultante();
     }
     
     /**
@@ -0,0 +1,83 @@
+package com._bet.service.cryptoWallet;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com._bet.entity.user.CryptoWallet;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Precios de CoinGecko: los 18 tipos en una sola llamada a /simple/price
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.tasas.proveedor", havingValue = "coingecko")
+@RequiredArgsConstructor
+@Slf4j
+public class ProveedorTasasCoinGecko implements ProveedorTasasCrypto {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${crypto.tasas.coingecko.url:https://api.coingecko.com/api/v3}")
+    private String baseUrl;
+
+    @Override
+    public Map<CryptoWallet.TipoCrypto, BigDecimal> obtenerTasas(Set<CryptoWallet.TipoCrypto> tipos) {
+        Map<String, CryptoWallet.TipoCrypto> porId = tipos.stream()
+                .collect(Collectors.toMap(ProveedorTasasCoinGecko::idCoinGecko, t -> t));
+        String url = baseUrl + "/simple/price?vs_currencies=usd&ids=" + String.join(",", porId.keySet());
+
+        ResponseEntity<Map<String, Map<String, BigDecimal>>> response = restTemplate.exchange(url, HttpMethod.GET,
+                null, new ParameterizedTypeReference<Map<String, Map<String, BigDecimal>>>() {
+                });
+
+        Map<CryptoWallet.TipoCrypto, BigDecimal> tasas = new EnumMap<>(CryptoWallet.TipoCrypto.class);
+        Map<String, Map<String, BigDecimal>> cuerpo = response.getBody();
+        if (cuerpo != null) {
+            cuerpo.forEach((id, precios) -> {
+                CryptoWallet.TipoCrypto tipo = porId.get(id);
+                BigDecimal usd = precios != null ? precios.get("usd") : null;
+                if (tipo != null && usd != null) {
+                    tasas.put(tipo, usd);
+                }
+            });
+        }
+        log.debug("CoinGecko devolvió {} de {} tasas", tasas.size(), tipos.size());
+        return tasas;
+    }
+
+    private static String idCoinGecko(CryptoWallet.TipoCrypto tipoCrypto) {
+        return switch (tipoCrypto) {
+            case BITCOIN -> "bitcoin";
+            case ETHEREUM -> "ethereum";
+            case LITECOIN -> "litecoin";
+            case RIPPLE -> "ripple";
+            case CARDANO -> "cardano";
+            case POLKADOT -> "polkadot";
+            case CHAINLINK -> "chainlink";
+            case BITCOIN_CASH -> "bitcoin-cash";
+            case STELLAR -> "stellar";
+            case DOGECOIN -> "dogecoin";
+            case POLYGON -> "matic-network";
+            case SOLANA -> "solana";
+            case AVALANCHE -> "avalanche-2";
+            case TRON -> "tron";
+            case BINANCE_COIN -> "binancecoin";
+            case USDT -> "tether";
+            case USDC -> "usd-coin";
+            case BUSD -> "binance-usd";
+        };
+    }
+}
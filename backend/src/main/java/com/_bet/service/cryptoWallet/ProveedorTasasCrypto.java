@@ -0,0 +1,20 @@
+package com._bet.service.cryptoWallet;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+import com._bet.entity.user.CryptoWallet;
+
+/**
+ * Fuente de precios en USD de las criptomonedas. CryptoConversionService la
+ * consulta en segundo plano con todos los tipos a la vez; los tipos que no
+ * vengan en la respuesta conservan su tasa anterior o la de respaldo.
+ */
+public interface ProveedorTasasCrypto {
+
+    /**
+     * Precio en USD de los tipos pedidos, en una sola consulta
+     */
+    Map<CryptoWallet.TipoCrypto, BigDecimal> obtenerTasas(Set<CryptoWallet.TipoCrypto> tipos);
+}
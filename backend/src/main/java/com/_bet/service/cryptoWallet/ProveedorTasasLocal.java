@@ -0,0 +1,28 @@
+package com._bet.service.cryptoWallet;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com._bet.entity.user.CryptoWallet;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Proveedor local sin API externa (desarrollo y pruebas): no devuelve precios,
+ * así que se usan las tasas de respaldo
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.tasas.proveedor", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class ProveedorTasasLocal implements ProveedorTasasCrypto {
+
+    @Override
+    public Map<CryptoWallet.TipoCrypto, BigDecimal> obtenerTasas(Set<CryptoWallet.TipoCrypto> tipos) {
+        log.debug("Proveedor local de tasas: sin precios para {} tipos", tipos.size());
+        return Map.of();
+    }
+}
@@ -0,0 +1,197 @@
+package com._bet.service.estadisticas;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com._bet.entity.estadisticas.MarcaRollup;
+import com._bet.repository.MarcaRollupRepository;
+import com._bet.repository.RollupRepository;
+import com._bet.repository.RollupRepository.Agregado;
+import com._bet.repository.RollupRepository.Dimension;
+import com._bet.repository.RollupRepository.Rollup;
+import com._bet.repository.RollupRepository.VolumenMensual;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rollups diarios de transacciones crypto y apuestas para las estadísticas de
+ * administración.
+ *
+ * La primera pasada construye cada rollup completo; las siguientes leen como
+ * fuente de cambios las filas con fecha_actualizacion posterior a la marca y
+ * recalculan solo los días de creación afectados. La ventana se solapa con la
+ * pasada anterior (margen) para incluir las transacciones que se confirmaron
+ * después de leerse la marca; recalcular un día dos veces no cambia el
+ * resultado.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+
+    /** Límite inferior cuando no se indica fecha */
+    private static final LocalDate SIN_LIMITE = LocalDate.of(2000, 1, 1);
+
+    private final RollupRepository rollupRepository;
+    private final MarcaRollupRepository marcaRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${estadisticas.rollup.margen-ms:120000}")
+    private long margenMs;
+
+    /**
+     * Aplica a los rollups los cambios desde la pasada anterior
+     */
+    public synchronized ResultadoRollup actualizar() {
+        long inicio = System.currentTimeMillis();
+        int transacciones = actualizar(Rollup.TRANSACCIONES_CRYPTO);
+        int apuestas = actualizar(Rollup.APUESTAS);
+        ResultadoRollup resultado = new ResultadoRollup(transacciones, apuestas,
+                System.currentTimeMillis() - inicio);
+        if (transacciones > 0 || apuestas > 0) {
+            log.info("✅ Rollups actualizados: {}", resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Reconstruye ambos rollups desde las tablas origen
+     */
+    public synchronized ResultadoRollup reconstruir() {
+        long inicio = System.currentTimeMillis();
+        int transacciones = reconstruir(Rollup.TRANSACCIONES_CRYPTO);
+        int apuestas = reconstruir(Rollup.APUESTAS);
+        ResultadoRollup resultado = new ResultadoRollup(transacciones, apuestas,
+                System.currentTimeMillis() - inicio);
+        log.info("✅ Rollups reconstruidos: {}", resultado);
+        return resultado;
+    }
+
+    /**
+     * Transacciones crypto por estado, tipo y crypto entre dos días (incluidos)
+     */
+    @Transactional(readOnly = true)
+    public ResumenTransaccionesDto resumenTransacciones(LocalDate desde, LocalDate hasta) {
+        LocalDate inicio = desde != null ? desde : SIN_LIMITE;
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        validarRango(inicio, fin);
+        return new ResumenTransaccionesDto(inicio, fin,
+                rollupRepository.transaccionesPor(Dimension.ESTADO, inicio, fin),
+                rollupRepository.transaccionesPor(Dimension.TIPO_TRANSACCION, inicio, fin),
+                rollupRepository.transaccionesPor(Dimension.TIPO_CRYPTO, inicio, fin),
+                procesadoHasta(Rollup.TRANSACCIONES_CRYPTO));
+    }
+
+    /**
+     * Volumen USD aprobado de los últimos meses, el más reciente primero
+     */
+    @Transactional(readOnly = true)
+    public List<VolumenMensual> volumenMensual(int meses) {
+        if (meses < 1) {
+            throw new IllegalArgumentException("El número de meses debe ser mayor a cero");
+        }
+        return rollupRepository.volumenMensual(LocalDate.now().withDayOfMonth(1).minusMonths(meses - 1L));
+    }
+
+    /**
+     * Apuestas por estado y resultado entre dos días (incluidos)
+     */
+    @Transactional(readOnly = true)
+    public ResumenApuestasDto resumenApuestas(LocalDate desde, LocalDate hasta) {
+        LocalDate inicio = desde != null ? desde : SIN_LIMITE;
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        validarRango(inicio, fin);
+        return new ResumenApuestasDto(inicio, fin,
+                rollupRepository.apuestasPor(Dimension.ESTADO, inicio, fin),
+                rollupRepository.apuestasPor(Dimension.RESULTADO, inicio, fin),
+                procesadoHasta(Rollup.APUESTAS));
+    }
+
+    /**
+     * @return días recalculados, o filas del rollup si se construyó completo
+     */
+    private int actualizar(Rollup rollup) {
+        Optional<MarcaRollup> marca = marcaRollupRepository.findById(rollup.name());
+        if (marca.isEmpty()) {
+            log.info("🔄 Construyendo rollup {} por primera vez", rollup);
+            return reconstruir(rollup);
+        }
+
+        // La marca se toma antes de leer: lo que cambie durante la pasada entra en la siguiente
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime desde = marca.get().getProcesadoHasta().minusNanos(margenMs * 1_000_000);
+        List<LocalDate> dias = rollupRepository.diasModificados(rollup, desde, ahora);
+        for (LocalDate dia : dias) {
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.recalcularDia(rollup, dia));
+        }
+
+        MarcaRollup nueva = marca.get();
+        nueva.setProcesadoHasta(ahora);
+        marcaRollupRepository.save(nueva);
+        return dias.size();
+    }
+
+    private int reconstruir(Rollup rollup) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            int filas = rollupRepository.reconstruir(rollup);
+            marcaRollupRepository.save(new MarcaRollup(rollup.name(), ahora));
+            return filas;
+        });
+    }
+
+    private LocalDateTime procesadoHasta(Rollup rollup) {
+        return marcaRollupRepository.findById(rollup.name())
+            .map(MarcaRollup::getProcesadoHasta)
+            .orElse(null);
+    }
+
+    private static void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class ResultadoRollup {
+        private final int transacciones;
+        private final int apuestas;
+        private final long duracionMs;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ResumenTransaccionesDto {
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        private final List<Agregado> porEstado;
+        private final List<Agregado> porTipo;
+        private final List<Agregado> porTipoCrypto;
+        /** Cambios incluidos hasta esta fecha */
+        private final LocalDateTime actualizadoHasta;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ResumenApuestasDto {
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        private final List<Agregado> porEstado;
+        private final List<Agregado> porResultado;
+        /** Cambios incluidos hasta esta fecha */
+        private final LocalDateTime actualizadoHasta;
+    }
+}
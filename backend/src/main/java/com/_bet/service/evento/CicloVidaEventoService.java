@@ -0,0 +1,342 @@
+package com._bet.service.evento;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com._bet.entity.eventoEntity.EventoDeportivo;
+import com._bet.entity.eventoEntity.Goles;
+import com._bet.entity.eventoEntity.Score;
+import com._bet.repository.EventoDeportivoRepository;
+import com._bet.service.apuesta.AnulacionService;
+import com._bet.service.apuesta.AnulacionService.ResultadoAnulacion;
+import com._bet.service.apuesta.DeterminarResultadoApuesta;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.ResultadoEvento;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.Team;
+import com._bet.service.apuesta.LiquidacionMasivaService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ciclo de vida de los eventos a partir de los cambios de estado que reporta
+ * el actualizador en vivo.
+ *
+ * Cuando un evento pasa a un estado final (FT/AET/PEN) se encola la
+ * resolución de sus momios y luego la liquidación de sus apuestas; si pasa a
+ * aplazado, cancelado o adjudicado (AWD/WO) se encola su anulación. Las tareas
+ * corren en el TaskScheduler con reintentos y espera exponencial.
+ *
+ * Un evento suspendido o interrumpido (SUSP/INT) se vuelve a revisar un número
+ * acotado de veces; si no se reanuda ni termina queda marcado para que un
+ * administrador decida (por ejemplo, anularlo).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CicloVidaEventoService {
+
+    /** Estados del proveedor con resultado definitivo */
+    public static final Set<String> ESTADOS_FINALIZADOS = Set.of("FT", "AET", "PEN");
+
+    /** Estados del proveedor en los que el evento no se jugará (o no se terminó) */
+    public static final Set<String> ESTADOS_ANULADOS = Set.of("PST", "CANC", "ABD");
+
+    /**
+     * Estados finales adjudicados en la mesa (derrota técnica o walkover). El
+     * marcador adjudicado no sale de un partido jugado, así que sus apuestas no
+     * se liquidan por resultado: se anulan con reembolso, igual que un evento
+     * cancelado.
+     */
+    public static final Set<String> ESTADOS_ADJUDICADOS = Set.of("AWD", "WO");
+
+    /** Estados del proveedor en los que el partido está detenido y puede reanudarse */
+    public static final Set<String> ESTADOS_DETENIDOS = Set.of("SUSP", "INT");
+
+    /** Estados del proveedor previos al inicio del evento */
+    public static final Set<String> ESTADOS_PREVIOS = Set.of("NS", "TBD");
+
+    private enum TipoTarea {
+        RESOLVER,
+        ANULAR
+    }
+
+    private final EventoDeportivoRepository eventoDeportivoRepository;
+    private final DeterminarResultadoApuesta determinarResultadoApuesta;
+    private final LiquidacionMasivaService liquidacionMasivaService;
+    private final AnulacionService anulacionService;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${eventos.ciclo-vida.max-intentos:5}")
+    private int maxIntentos;
+
+    @Value("${eventos.ciclo-vida.espera-inicial-ms:30000}")
+    private long esperaInicialMs;
+
+    @Value("${eventos.ciclo-vida.detenido.max-revisiones:6}")
+    private int maxRevisiones;
+
+    @Value("${eventos.ciclo-vida.detenido.espera-ms:900000}")
+    private long esperaDetenidoMs;
+
+    /** Eventos con una tarea encolada o en curso */
+    private final Set<Long> enCola = ConcurrentHashMap.newKeySet();
+
+    /** Eventos detenidos con una revisión programada */
+    private final Set<Long> enRevision = ConcurrentHashMap.newKeySet();
+
+    /** Eventos detenidos que no se reanudaron tras las revisiones: requieren un administrador */
+    private final Set<Long> porRevisar = ConcurrentHashMap.newKeySet();
+
+    /** apiSportsId vistos en la última ronda del actualizador en vivo */
+    private volatile Set<Integer> fixturesEnVivo;
+
+    /**
+     * Indica si el estado corresponde a un evento en juego
+     */
+    public static boolean esEnJuego(String estadoCorto) {
+        if (estadoCorto == null) {
+            return false;
+        }
+        String estado = estadoCorto.toUpperCase();
+        return !ESTADOS_FINALIZADOS.contains(estado) && !ESTADOS_ANULADOS.contains(estado)
+                && !ESTADOS_ADJUDICADOS.contains(estado) && !ESTADOS_PREVIOS.contains(estado);
+    }
+
+    /**
+     * Indica si las apuestas del evento en ese estado se pueden anular: aplazado,
+     * cancelado, abandonado o adjudicado, o detenido (decisión del administrador)
+     */
+    public static boolean admiteAnulacion(String estadoCorto) {
+        if (estadoCorto == null) {
+            return false;
+        }
+        String estado = estadoCorto.toUpperCase();
+        return ESTADOS_ANULADOS.contains(estado) || ESTADOS_ADJUDICADOS.contains(estado)
+                || ESTADOS_DETENIDOS.contains(estado);
+    }
+
+    /**
+     * Eventos detenidos que agotaron sus revisiones sin reanudarse
+     */
+    public Set<Long> eventosPorRevisar() {
+        return Set.copyOf(porRevisar);
+    }
+
+    /**
+     * Quita un evento de la lista de revisión (el administrador ya lo atendió)
+     */
+    public void descartarRevision(Long eventoId) {
+        porRevisar.remove(eventoId);
+    }
+
+    /**
+     * Registra el cambio de estado de un evento y encola su resolución o su
+     * anulación si el nuevo estado es terminal. Dentro de una transacción se
+     * encola solo si esta confirma.
+     */
+    public void registrarTransicion(Long eventoId, String estadoAnterior, String estadoNuevo) {
+        if (estadoNuevo == null || estadoNuevo.equalsIgnoreCase(estadoAnterior)) {
+            return;
+        }
+        String estado = estadoNuevo.toUpperCase();
+        if (!ESTADOS_DETENIDOS.contains(estado)) {
+            porRevisar.remove(eventoId);
+        }
+        if (ESTADOS_FINALIZADOS.contains(estado)) {
+            log.info("Evento {} finalizado ({} -> {}), se encola su resolución", eventoId, estadoAnterior, estado);
+            encolar(eventoId, TipoTarea.RESOLVER);
+        } else if (ESTADOS_ANULADOS.contains(estado)) {
+            log.info("Evento {} anulado ({} -> {}), se encola su anulación", eventoId, estadoAnterior, estado);
+            encolar(eventoId, TipoTarea.ANULAR);
+        } else if (ESTADOS_ADJUDICADOS.contains(estado)) {
+            log.info("Evento {} adjudicado ({} -> {}), sus apuestas se anulan", eventoId, estadoAnterior, estado);
+            encolar(eventoId, TipoTarea.ANULAR);
+        } else if (ESTADOS_DETENIDOS.contains(estado)) {
+            log.info("Evento {} detenido ({} -> {}), se revisará cada {} s", eventoId, estadoAnterior, estado,
+                    esperaDetenidoMs / 1000);
+            alConfirmar(eventoId, enRevision, () -> programarRevision(eventoId, 1));
+        }
+    }
+
+    /**
+     * Registra los fixtures que reportó en vivo el proveedor en esta ronda.
+     *
+     * @return apiSportsId que estaban en vivo en la ronda anterior y ya no
+     *         aparecen (terminaron o se suspendieron; hay que consultar su
+     *         estado final)
+     */
+    public synchronized List<Integer> registrarRondaEnVivo(Collection<Integer> vistos) {
+        Set<Integer> anteriores = fixturesEnVivo;
+        if (anteriores == null) {
+            anteriores = new HashSet<>(eventoDeportivoRepository.findApiSportsIdsEnVivo());
+        }
+
+        List<Integer> desaparecidos = new ArrayList<>();
+        for (Integer id : anteriores) {
+            if (id != null && !vistos.contains(id)) {
+                desaparecidos.add(id);
+            }
+        }
+        fixturesEnVivo = new HashSet<>(vistos);
+        return desaparecidos;
+    }
+
+    private void encolar(Long eventoId, TipoTarea tarea) {
+        alConfirmar(eventoId, enCola, () -> programar(eventoId, tarea, 1, Instant.now()));
+    }
+
+    /**
+     * Ejecuta la acción si el evento no estaba ya en el conjunto; dentro de una
+     * transacción, solo si esta confirma
+     */
+    private void alConfirmar(Long eventoId, Set<Long> pendientes, Runnable programar) {
+        if (!pendientes.add(eventoId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        programar.run();
+                    } else {
+                        pendientes.remove(eventoId);
+                    }
+                }
+            });
+        } else {
+            programar.run();
+        }
+    }
+
+    private void programarRevision(Long eventoId, int revision) {
+        taskScheduler.schedule(() -> revisarDetenido(eventoId, revision),
+                Instant.now().plusMillis(esperaDetenidoMs));
+    }
+
+    /**
+     * Si el evento se reanudó o terminó, sus transiciones ya se encargan; si
+     * sigue detenido se programa otra revisión hasta agotar el límite y
+     * entonces queda para un administrador
+     */
+    void revisarDetenido(Long eventoId, int revision) {
+        boolean detenido;
+        try {
+            detenido = eventoDeportivoRepository.findEstadoCorto(eventoId)
+                    .map(estado -> ESTADOS_DETENIDOS.contains(estado.toUpperCase()))
+                    .orElse(false);
+        } catch (Exception e) {
+            // Una consulta fallida cuenta como revisión sin cambios
+            log.warn("Revisión {} del evento detenido {} falló: {}", revision, eventoId, e.getMessage());
+            detenido = true;
+        }
+        if (!detenido) {
+            enRevision.remove(eventoId);
+            return;
+        }
+        if (revision >= maxRevisiones) {
+            enRevision.remove(eventoId);
+            porRevisar.add(eventoId);
+            log.warn("⚠️ Evento {} sigue detenido tras {} revisiones: requiere acción del administrador", eventoId,
+                    revision);
+            return;
+        }
+        programarRevision(eventoId, revision + 1);
+    }
+
+    private void programar(Long eventoId, TipoTarea tarea, int intento, Instant cuando) {
+        taskScheduler.schedule(() -> ejecutar(eventoId, tarea, intento), cuando);
+    }
+
+    private void ejecutar(Long eventoId, TipoTarea tarea, int intento) {
+        try {
+            if (tarea == TipoTarea.RESOLVER) {
+                resolver(eventoId);
+            } else {
+                anular(eventoId);
+            }
+            enCola.remove(eventoId);
+        } catch (Exception e) {
+            if (intento >= maxIntentos) {
+                enCola.remove(eventoId);
+                log.error("❌ {} del evento {} falló tras {} intentos: {}", tarea, eventoId, intento,
+                        e.getMessage(), e);
+                return;
+            }
+            Duration espera = Duration.ofMillis(esperaInicialMs * (1L << (intento - 1)));
+            log.warn("{} del evento {} falló (intento {}), se reintenta en {} s: {}", tarea, eventoId, intento,
+                    espera.toSeconds(), e.getMessage());
+            programar(eventoId, tarea, intento + 1, Instant.now().plus(espera));
+        }
+    }
+
+    /**
+     * Captura el marcador final y resuelve los momios; la liquidación de las
+     * apuestas se hace junto con la de los demás eventos terminados
+     */
+    void resolver(Long eventoId) {
+        // Corre en el TaskScheduler sin sesión abierta: los equipos (LAZY) van en la misma consulta
+        EventoDeportivo evento = eventoDeportivoRepository.findByIdParaResolver(eventoId)
+                .orElseThrow(() -> new RuntimeException("Evento no encontrado: " + eventoId));
+
+        ResultadoEvento resultado = capturarResultado(evento);
+        determinarResultadoApuesta.resolverResultadosDeEvento(eventoId, resultado);
+        liquidacionMasivaService.encolar(eventoId);
+        log.info("✅ Evento {} resuelto {}-{}, encolado para liquidación", eventoId, resultado.golesHomeFT,
+                resultado.golesAwayFT);
+    }
+
+    /**
+     * Las apuestas de un evento aplazado, cancelado o abandonado no se liquidan
+     * por resultado: se reembolsan y las piernas de parlay se descartan
+     */
+    private void anular(Long eventoId) {
+        ResultadoAnulacion resultado = anulacionService.anularEvento(eventoId);
+        log.info("✅ Evento {} anulado: {} apuestas y {} piernas de parlay", eventoId,
+                resultado.getApuestasAnuladas(), resultado.getPiernasAnuladas());
+    }
+
+    /**
+     * Marcador a 90 minutos (los mercados se liquidan sin prórroga ni penales),
+     * al medio tiempo y equipos que anotaron primero y al último
+     */
+    private ResultadoEvento capturarResultado(EventoDeportivo evento) {
+        Score score = evento.getPuntuaciones();
+        Goles goles = evento.getGoles();
+
+        Integer home = score != null ? score.getFulltimeHome() : null;
+        Integer away = score != null ? score.getFulltimeAway() : null;
+        if ((home == null || away == null) && goles != null && goles.getFulltime() != null) {
+            home = goles.getFulltime().getLocales();
+            away = goles.getFulltime().getVisitantes();
+        }
+        if (home == null || away == null) {
+            throw new IllegalStateException("El marcador final del evento " + evento.getId() + " aún no está disponible");
+        }
+
+        ResultadoEvento resultado = new ResultadoEvento();
+        resultado.equipoHome = evento.getEquipoLocal() != null ? evento.getEquipoLocal().getNombre() : null;
+        resultado.equipoAway = evento.getEquipoVisitante() != null ? evento.getEquipoVisitante().getNombre() : null;
+        resultado.golesHomeFT = home;
+        resultado.golesAwayFT = away;
+        if (score != null) {
+            resultado.golesHomeHT = score.getHalftimeHome();
+            resultado.golesAwayHT = score.getHalftimeAway();
+            resultado.primerAnota = score.getPrimerAnota() != null ? Team.valueOf(score.getPrimerAnota()) : null;
+            resultado.ultimoAnota = score.getUltimoAnota() != null ? Team.valueOf(score.getUltimoAnota()) : null;
+        }
+        return resultado;
+    }
+}
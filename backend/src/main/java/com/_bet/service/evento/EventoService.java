@@ -33,6 +33,7 @@ public class EventoService {
          * @param nombreLiga Nombre de la liga
          * @return Lista de eventos deportivos
          */
+        @Transactional(readOnly = true)
         public List<EventoConOddsResponse> obtenerEventosPorLigaPorLigaNombreYPais(String paisLiga, String nombreLiga) {
                 List<EventoDeportivo> eventos = eventoDeportivoRepository
                                 .findByLigaNombreAndLigaPaisNombreAndLigaActivaTrue(nombreLiga, paisLiga);
@@ -42,6 +43,7 @@ public class EventoService {
                                 .collect(Collectors.toList());
         }
 
+        @Transactional(readOnly = true)
         public EventoDeportivoResponse findEventoByNombre(String nombreEvento) {
                 EventoDeportivo eventoDeportivo = eventoDeportivoRepository.findByNombre(nombreEvento);
 
@@ -108,6 +110,7 @@ public class EventoService {
                 return response;
         }
 
+        @Transactional(readOnly = true)
         public List<EventoConOddsResponse> obtenerEventosEnVivoPorDeporte(String nombreDeporte) {
                 List<EventoDeportivo> eventos = eventoDeportivoRepository
                                 .findByLigaDeporteNombreAndEnVivoTrue(nombreDeporte);
@@ -201,6 +204,7 @@ public class EventoService {
                 return response;
         }
 
+        @Transactional(readOnly = true)
         public List<EventoConOddsResponse> obtenerEventosMasProximosPorDeporte(String nombreDeporte) {
                 List<EventoDeportivo> eventos = eventoDeportivoRepository
                                 .findByLigaDeporteNombreAndFechaEventoBetweenOrEnVivoTrue(
@@ -213,23 +217,6 @@ public class EventoService {
                                 .collect(Collectors.toList());
         }
 
-        /**
-         * Metodo para quitar el estado de en vivo de los eventos que ya no lo estan
-         */
-        @Transactional
-        public void quitarEstadoEnVivoDeEventos() {
-                List<EventoDeportivo> eventosEnVivo = eventoDeportivoRepository.findByEnVivoTrue();
-
-                for (EventoDeportivo evento : eventosEnVivo) {
-
-                        if (evento.getEstado().getCorto().equalsIgnoreCase("FT")) {
-                                evento.setEnVivo(false);
-                                eventoDeportivoRepository.save(evento);
-                        }
-                }
-        }
-
-
         /*
          * Metodo para borrar eventos antiguos (mas de 15 dias)
          */
@@ -0,0 +1,296 @@
+package com._bet.service.exportacion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com._bet.repository.ExportacionRepository;
+import com._bet.repository.ExportacionRepository.Conjunto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exportaciones de back-office en CSV o NDJSON.
+ *
+ * Cada fila se escribe a la respuesta en cuanto llega del cursor, así la
+ * memoria no depende del número de filas. La lectura es una transacción
+ * readOnly: con el enrutamiento activo va a una réplica y en la primaria es
+ * una lectura MVCC que no bloquea a las escrituras. Un semáforo limita cuántas
+ * exportaciones corren a la vez.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportacionService {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    /**
+     * Formatos de salida
+     */
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String tipoContenido;
+        private final String extension;
+
+        Formato(String tipoContenido, String extension) {
+            this.tipoContenido = tipoContenido;
+            this.extension = extension;
+        }
+
+        public String getTipoContenido() {
+            return tipoContenido;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final ExportacionRepository exportacionRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${exportacion.max-concurrentes:2}")
+    private int maxConcurrentes;
+
+    private Semaphore exportacionesEnCurso;
+
+    @PostConstruct
+    void inicializar() {
+        exportacionesEnCurso = new Semaphore(maxConcurrentes);
+    }
+
+    /**
+     * Reserva un lugar para una exportación
+     *
+     * @return false si ya corren las exportaciones permitidas
+     */
+    public boolean reservar() {
+        return exportacionesEnCurso.tryAcquire();
+    }
+
+    /**
+     * Libera el lugar reservado con {@link #reservar()}
+     */
+    public void liberar() {
+        exportacionesEnCurso.release();
+    }
+
+    /**
+     * Escribe las filas creadas entre dos días (incluidos) en la salida
+     *
+     * @return filas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Conjunto conjunto, Formato formato, LocalDate desde, LocalDate hasta, boolean gzip,
+            OutputStream salida) throws IOException {
+        long inicio = System.currentTimeMillis();
+        OutputStream destino = gzip ? new GZIPOutputStream(salida, TAMANO_BUFFER) : salida;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANO_BUFFER);
+        EscritorFilas escritor = formato == Formato.CSV ? new EscritorCsv(writer) : new EscritorNdjson(writer);
+
+        long filas;
+        try {
+            filas = exportacionRepository.recorrer(conjunto, desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay(),
+                    rs -> {
+                        long escritas = 0;
+                        try {
+                            escritor.iniciar(rs.getMetaData());
+                            while (rs.next()) {
+                                escritor.escribir(rs);
+                                escritas++;
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return escritas;
+                    });
+        } catch (UncheckedIOException e) {
+            // El cliente cerró la conexión: se corta la lectura y se cierra el cursor
+            throw e.getCause();
+        }
+        escritor.terminar();
+        writer.flush();
+        if (destino instanceof GZIPOutputStream comprimido) {
+            comprimido.finish();
+        }
+
+        log.info("✅ Exportación {} {} del {} al {}: {} filas en {} ms", conjunto, formato, desde, hasta,
+                filas, System.currentTimeMillis() - inicio);
+        return filas;
+    }
+
+    /**
+     * Valor de una columna listo para escribir: fechas en ISO-8601 y números
+     * sin notación científica
+     */
+    private static Object valor(ResultSet rs, int columna) throws SQLException {
+        Object valor = rs.getObject(columna);
+        if (valor instanceof Timestamp fecha) {
+            return fecha.toLocalDateTime().toString();
+        }
+        if (valor instanceof Date fecha) {
+            return fecha.toLocalDate().toString();
+        }
+        // toString de Double/Float usa notación científica desde 10^7 (1.0E7)
+        if ((valor instanceof Double || valor instanceof Float) && Double.isFinite(((Number) valor).doubleValue())) {
+            return new BigDecimal(valor.toString());
+        }
+        return valor;
+    }
+
+    private interface EscritorFilas {
+
+        void iniciar(ResultSetMetaData metaData) throws SQLException, IOException;
+
+        void escribir(ResultSet rs) throws SQLException, IOException;
+
+        void terminar() throws IOException;
+    }
+
+    /**
+     * CSV RFC 4180 con cabecera tomada de los alias de la consulta
+     */
+    private static final class EscritorCsv implements EscritorFilas {
+
+        private final Writer writer;
+        private int columnas;
+
+        private EscritorCsv(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void iniciar(ResultSetMetaData metaData) throws SQLException, IOException {
+            columnas = metaData.getColumnCount();
+            for (int i = 1; i <= columnas; i++) {
+                campo(i, metaData.getColumnLabel(i));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void escribir(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columnas; i++) {
+                Object valor = valor(rs, i);
+                if (valor instanceof BigDecimal numero) {
+                    campo(i, numero.toPlainString());
+                } else if (valor instanceof Number || valor instanceof Boolean) {
+                    campo(i, valor.toString());
+                } else {
+                    campo(i, valor == null ? "" : neutralizarFormula(valor.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void terminar() {
+            // El writer se vacía al final de la exportación
+        }
+
+        private void campo(int columna, String texto) throws IOException {
+            if (columna > 1) {
+                writer.write(',');
+            }
+            if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0
+                    || texto.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(texto.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(texto);
+            }
+        }
+
+        /**
+         * Evita que una hoja de cálculo interprete como fórmula un texto capturado
+         * por el usuario (observaciones, referencias)
+         */
+        private static String neutralizarFormula(String texto) {
+            if (!texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+                return "'" + texto;
+            }
+            return texto;
+        }
+    }
+
+    /**
+     * Un objeto JSON por línea con los alias de la consulta como claves
+     */
+    private final class EscritorNdjson implements EscritorFilas {
+
+        private final JsonGenerator generator;
+        private String[] claves;
+
+        private EscritorNdjson(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // Los objetos se separan con salto de línea, no con el espacio por defecto
+            this.generator.setRootValueSeparator(null);
+            this.generator.enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN.mappedFeature());
+        }
+
+        @Override
+        public void iniciar(ResultSetMetaData metaData) throws SQLException {
+            claves = new String[metaData.getColumnCount()];
+            for (int i = 0; i < claves.length; i++) {
+                claves[i] = metaData.getColumnLabel(i + 1);
+            }
+        }
+
+        @Override
+        public void escribir(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 1; i <= claves.length; i++) {
+                generator.writeFieldName(claves[i - 1]);
+                Object valor = valor(rs, i);
+                if (valor == null) {
+                    generator.writeNull();
+                } else if (valor instanceof BigDecimal numero) {
+                    generator.writeNumber(numero);
+                } else if (valor instanceof Long numero) {
+                    generator.writeNumber(numero);
+                } else if (valor instanceof Integer numero) {
+                    generator.writeNumber(numero);
+                } else if (valor instanceof Double numero) {
+                    generator.writeNumber(numero);
+                } else if (valor instanceof Boolean booleano) {
+                    generator.writeBoolean(booleano);
+                } else {
+                    generator.writeString(valor.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com._bet.service.idempotencia;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com._bet.entity.idempotencia.ClaveIdempotencia;
+import com._bet.repository.ClaveIdempotenciaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Soporte de la cabecera Idempotency-Key para operaciones que mueven saldo.
+ *
+ * La clave se reserva con un INSERT ... ON CONFLICT dentro de la misma
+ * transacción que la operación, así que la apuesta y la clave se confirman o
+ * se revierten juntas y un reintento concurrente espera a la primera petición.
+ * Las respuestas confirmadas se guardan también en memoria para que los
+ * reintentos no toquen la base de datos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotenciaService {
+
+    public static final String CABECERA = "Idempotency-Key";
+
+    private static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotencia.ttl-horas:24}")
+    private long ttlHoras;
+
+    @Value("${idempotencia.cache.max-entradas:10000}")
+    private int maxEntradasCache;
+
+    private final ConcurrentHashMap<String, RespuestaGuardada> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la operación una sola vez por clave. Si la clave ya se usó con la
+     * misma petición devuelve la primera respuesta sin volver a ejecutarla.
+     *
+     * @param usuarioId usuario dueño de la clave
+     * @param clave     valor de la cabecera Idempotency-Key (sin clave se ejecuta normal)
+     * @param operacion nombre de la operación
+     * @param peticion  cuerpo de la petición (se compara su hash)
+     * @param tipo      tipo de la respuesta para reconstruirla al repetir
+     * @param accion    operación a ejecutar
+     */
+    public <T> T ejecutar(Long usuarioId, String clave, String operacion, Object peticion, Class<T> tipo,
+            Supplier<T> accion) {
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+        if (clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException(
+                    "La clave de idempotencia no puede exceder " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+        }
+
+        String llaveCache = usuarioId + ":" + clave;
+        String hash = DigestUtils.sha256Hex(operacion + ":" + aJson(peticion));
+
+        RespuestaGuardada guardada = cache.get(llaveCache);
+        if (guardada != null && guardada.expiraEn.isAfter(LocalDateTime.now())) {
+            return repetir(guardada.hashPeticion, guardada.respuesta, hash, clave, tipo);
+        }
+
+        return transactionTemplate.execute(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            LocalDateTime expiraEn = ahora.plusHours(ttlHoras);
+
+            if (claveIdempotenciaRepository.reservar(usuarioId, clave, operacion, hash, ahora, expiraEn) == 0) {
+                ClaveIdempotencia existente = claveIdempotenciaRepository.findByUsuarioIdAndClave(usuarioId, clave)
+                        .orElseThrow(() -> new IllegalStateException("Clave de idempotencia no encontrada: " + clave));
+                if (existente.getRespuesta() == null) {
+                    throw new IllegalStateException("La petición con esta clave de idempotencia aún se está procesando");
+                }
+                guardarEnCache(llaveCache, existente.getHashPeticion(), existente.getRespuesta(),
+                        existente.getExpiraEn());
+                return repetir(existente.getHashPeticion(), existente.getRespuesta(), hash, clave, tipo);
+            }
+
+            T resultado = accion.get();
+            String respuesta = aJson(resultado);
+            claveIdempotenciaRepository.guardarRespuesta(usuarioId, clave, respuesta);
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guardarEnCache(llaveCache, hash, respuesta, expiraEn);
+                }
+            });
+            return resultado;
+        });
+    }
+
+    /**
+     * Elimina las claves expiradas de la tabla y de la caché
+     *
+     * @return número de claves eliminadas de la tabla
+     */
+    @Transactional
+    public int purgarExpiradas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        cache.entrySet().removeIf(e -> !e.getValue().expiraEn.isAfter(ahora));
+        int eliminadas = claveIdempotenciaRepository.eliminarExpiradas(ahora);
+        if (eliminadas > 0) {
+            log.info("Claves de idempotencia expiradas eliminadas: {}", eliminadas);
+        }
+        return eliminadas;
+    }
+
+    private <T> T repetir(String hashGuardado, String respuesta, String hash, String clave, Class<T> tipo) {
+        if (!hashGuardado.equals(hash)) {
+            throw new IllegalArgumentException("La clave de idempotencia " + clave + " ya se usó con otra petición");
+        }
+        log.info("🔄 Petición repetida con clave de idempotencia {}, se devuelve la primera respuesta", clave);
+        try {
+            return objectMapper.readValue(respuesta, tipo);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al leer la respuesta guardada: " + e.getMessage(), e);
+        }
+    }
+
+    private void guardarEnCache(String llave, String hash, String respuesta, LocalDateTime expiraEn) {
+        if (cache.size() < maxEntradasCache || cache.containsKey(llave)) {
+            cache.put(llave, new RespuestaGuardada(hash, respuesta, expiraEn));
+        }
+    }
+
+    private String aJson(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al serializar la petición: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class RespuestaGuardada {
+        private final String hashPeticion;
+        private final String respuesta;
+        private final LocalDateTime expiraEn;
+
+        private RespuestaGuardada(String hashPeticion, String respuesta, LocalDateTime expiraEn) {
+            this.hashPeticion = hashPeticion;
+            this.respuesta = respuesta;
+            this.expiraEn = expiraEn;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com._bet.service.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com._bet.entity.ledger.MovimientoLedger;
+import com._bet.entity.ledger.MovimientoLedger.CuentaLedger;
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.entity.ledger.SnapshotSaldo;
+import com._bet.repository.AperturaLedgerRepository;
+import com._bet.repository.MovimientoLedgerRepository;
+import com._bet.repository.SnapshotSaldoRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ledger de saldos de doble partida y solo inserción.
+ *
+ * Los asientos se escriben desde SaldoService dentro de la misma transacción que
+ * el UPDATE condicional de saldo_usd, de modo que cada cambio de saldo queda
+ * auditado. El saldo según el ledger es la última foto más los movimientos
+ * posteriores a su corte.
+ *
+ * La primera operación de cada usuario registra su saldo previo como APERTURA;
+ * ledger_aperturas garantiza que sea una sola. Los usuarios ya abiertos se
+ * recuerdan en memoria para no consultar en cada operación.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerService {
+
+    private final MovimientoLedgerRepository movimientoLedgerRepository;
+    private final SnapshotSaldoRepository snapshotSaldoRepository;
+    private final AperturaLedgerRepository aperturaLedgerRepository;
+
+    @Value("${ledger.snapshot.retencion-dias:30}")
+    private long retencionSnapshotsDias = 30;
+
+    @Value("${ledger.aperturas.cache.max-entradas:100000}")
+    private int maxAperturasEnCache = 100000;
+
+    /** Usuarios cuya cuenta ya está abierta (se agregan al confirmar la transacción) */
+    private final Set<Long> cuentasAbiertas = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registra los asientos de una operación de saldo ya aplicada.
+     *
+     * @param signo -1 para débitos al usuario, 1 para créditos
+     * @param saldoAnterior saldo_usd antes de la operación, para la apertura de
+     *                      cuentas que aún no tienen movimientos
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long usuarioId, List<MovimientoSaldo> movimientos, int signo, BigDecimal saldoAnterior) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<MovimientoLedger> filas = new ArrayList<>(movimientos.size() * 2 + 2);
+
+        if (abrirCuentas(List.of(usuarioId)).contains(usuarioId)
+                && saldoAnterior != null && saldoAnterior.signum() != 0) {
+            agregarAsiento(filas, usuarioId, MovimientoSaldo.sinReferencia(TipoMovimiento.APERTURA, saldoAnterior),
+                    1, ahora);
+        }
+
+        for (MovimientoSaldo movimiento : movimientos) {
+            agregarAsiento(filas, usuarioId, movimiento, signo, ahora);
+        }
+
+        movimientoLedgerRepository.saveAll(filas);
+    }
+
+    /**
+     * Registra los asientos de operaciones de saldo ya aplicadas a muchos
+     * usuarios (liquidación por lotes). Las cuentas se abren con una sola
+     * sentencia para todos.
+     *
+     * @param movimientosPorUsuario movimientos de cada usuario
+     * @param signo                 -1 para débitos al usuario, 1 para créditos
+     * @param saldosAnteriores      saldo_usd de cada usuario antes de la operación
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEnLote(Map<Long, List<MovimientoSaldo>> movimientosPorUsuario, int signo,
+            Map<Long, BigDecimal> saldosAnteriores) {
+        if (movimientosPorUsuario.isEmpty()) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        Set<Long> abiertas = abrirCuentas(movimientosPorUsuario.keySet());
+
+        List<MovimientoLedger> filas = new ArrayList<>();
+        movimientosPorUsuario.forEach((usuarioId, movimientos) -> {
+            BigDecimal saldoAnterior = saldosAnteriores.get(usuarioId);
+            if (abiertas.contains(usuarioId) && saldoAnterior != null && saldoAnterior.signum() != 0) {
+                agregarAsiento(filas, usuarioId,
+                        MovimientoSaldo.sinReferencia(TipoMovimiento.APERTURA, saldoAnterior), 1, ahora);
+            }
+            for (MovimientoSaldo movimiento : movimientos) {
+                agregarAsiento(filas, usuarioId, movimiento, signo, ahora);
+            }
+        });
+
+        movimientoLedgerRepository.saveAll(filas);
+    }
+
+    /**
+     * Saldo del usuario reconstruido desde el ledger: última foto + movimientos posteriores
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal saldoSegunLedger(Long usuarioId) {
+        Optional<SnapshotSaldo> snapshot = snapshotSaldoRepository.findFirstByUsuarioIdOrderByIdDesc(usuarioId);
+        if (snapshot.isEmpty()) {
+            return movimientoLedgerRepository.sumarDesdeTransaccion(usuarioId, CuentaLedger.USUARIO, 0L);
+        }
+
+        SnapshotSaldo foto = snapshot.get();
+        return foto.getSaldo().add(movimientoLedgerRepository.sumarDesdeTransaccion(usuarioId,
+                CuentaLedger.USUARIO, foto.getCorteTransaccion()));
+    }
+
+    /**
+     * Historial paginado de movimientos del usuario
+     */
+    @Transactional(readOnly = true)
+    public Page<MovimientoLedger> historialUsuario(Long usuarioId, Pageable pageable) {
+        return movimientoLedgerRepository.findByUsuarioIdAndCuentaOrderByFechaCreacionDescIdDesc(
+                usuarioId, CuentaLedger.USUARIO, pageable);
+    }
+
+    /**
+     * Movimientos asociados a una apuesta, parlay, solicitud o transacción
+     */
+    @Transactional(readOnly = true)
+    public List<MovimientoLedger> movimientosDeReferencia(TipoReferencia referenciaTipo, Long referenciaId) {
+        return movimientoLedgerRepository.findByReferenciaTipoAndReferenciaIdOrderByIdAsc(referenciaTipo,
+                referenciaId);
+    }
+
+    /**
+     * Crea las fotos de saldo de todos los usuarios con movimientos nuevos y
+     * purga las fotos superadas fuera del periodo de retención. El corte es la
+     * transacción abierta más antigua de la base: lo que quede fuera por una
+     * transacción larga entra en la siguiente foto
+     *
+     * @return número de fotos creadas
+     */
+    @Transactional
+    public int crearSnapshots() {
+        int creadas = snapshotSaldoRepository.crearSnapshots();
+        int eliminadas = snapshotSaldoRepository
+                .eliminarSnapshotsSuperados(LocalDateTime.now().minusDays(retencionSnapshotsDias));
+
+        log.info("Snapshots de saldo: {} creados, {} purgados", creadas, eliminadas);
+        return creadas;
+    }
+
+    /**
+     * Abre en ledger_aperturas las cuentas de los usuarios que no se sabe si
+     * están abiertas
+     *
+     * @return usuarios abiertos por esta transacción
+     */
+    private Set<Long> abrirCuentas(Collection<Long> usuarioIds) {
+        List<Long> pendientes = usuarioIds.stream().filter(id -> !cuentasAbiertas.contains(id)).toList();
+        if (pendientes.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> abiertas = aperturaLedgerRepository.abrir(pendientes);
+
+        // Confirmada la transacción la cuenta existe, la haya abierto esta u otra
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (cuentasAbiertas.size() + pendientes.size() > maxAperturasEnCache) {
+                    cuentasAbiertas.clear();
+                }
+                cuentasAbiertas.addAll(pendientes);
+            }
+        });
+        return abiertas;
+    }
+
+    private void agregarAsiento(List<MovimientoLedger> filas, Long usuarioId, MovimientoSaldo movimiento,
+            int signo, LocalDateTime fecha) {
+        String asiento = UUID.randomUUID().toString();
+        BigDecimal monto = signo < 0 ? movimiento.getMonto().negate() : movimiento.getMonto();
+
+        filas.add(fila(asiento, usuarioId, CuentaLedger.USUARIO, movimiento, monto, fecha));
+        filas.add(fila(asiento, usuarioId, movimiento.getTipo().getContrapartida(), movimiento, monto.negate(),
+                fecha));
+    }
+
+    private MovimientoLedger fila(String asiento, Long usuarioId, CuentaLedger cuenta, MovimientoSaldo movimiento,
+            BigDecimal monto, LocalDateTime fecha) {
+        return MovimientoLedger.builder()
+                .asiento(asiento)
+                .usuarioId(usuarioId)
+                .cuenta(cuenta)
+                .tipo(movimiento.getTipo())
+                .monto(monto)
+                .referenciaTipo(movimiento.getReferenciaTipo())
+                .referenciaId(movimiento.getReferenciaId())
+                .fechaCreacion(fecha)
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com._bet.service.ledger;
+
+import java.math.BigDecimal;
+
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Descripción de un movimiento de saldo: qué lo origina y por cuánto (siempre positivo).
+ * El signo lo decide la operación (débito o crédito) de SaldoService.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class MovimientoSaldo {
+
+    private final TipoMovimiento tipo;
+    private final TipoReferencia referenciaTipo;
+    private final Long referenciaId;
+    private final BigDecimal monto;
+
+    public static MovimientoSaldo de(TipoMovimiento tipo, TipoReferencia referenciaTipo, Long referenciaId,
+            BigDecimal monto) {
+        return new MovimientoSaldo(tipo, referenciaTipo, referenciaId, monto);
+    }
+
+    public static MovimientoSaldo sinReferencia(TipoMovimiento tipo, BigDecimal monto) {
+        return new MovimientoSaldo(tipo, TipoReferencia.NINGUNA, null, monto);
+    }
+}
@@ -0,0 +1,30 @@
+package com._bet.service.saldo;
+
+import java.math.BigDecimal;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Resultado de un débito o crédito de saldo
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ResultadoOperacionSaldo {
+
+    private final Long usuarioId;
+    private final BigDecimal monto;
+    private final boolean aplicado;
+    private final BigDecimal saldoResultante;
+
+    static ResultadoOperacionSaldo aplicado(Long usuarioId, BigDecimal monto, BigDecimal saldoResultante) {
+        return new ResultadoOperacionSaldo(usuarioId, monto, true, saldoResultante);
+    }
+
+    static ResultadoOperacionSaldo rechazado(Long usuarioId, BigDecimal monto, BigDecimal saldoActual) {
+        return new ResultadoOperacionSaldo(usuarioId, monto, false, saldoActual);
+    }
+}
@@ -0,0 +1,180 @@
+package com._bet.service.saldo;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.repository.SaldoBatchRepository;
+import com._bet.repository.UsuarioRepository;
+import com._bet.service.ledger.LedgerService;
+import com._bet.service.ledger.MovimientoSaldo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Único punto de entrada para mover el saldo USD de un usuario.
+ *
+ * Cada operación es un solo UPDATE condicional en la base de datos, por lo que
+ * peticiones concurrentes del mismo usuario no pierden actualizaciones y no
+ * hace falta bloquear la fila antes de leerla. Cada operación aplicada deja
+ * sus asientos en el ledger dentro de la misma transacción.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SaldoService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final LedgerService ledgerService;
+    private final SaldoBatchRepository saldoBatchRepository;
+
+    /**
+     * Descuenta el movimiento solo si el saldo alcanza. Si no alcanza, no modifica
+     * nada y el resultado viene con aplicado = false
+     */
+    @Transactional
+    public ResultadoOperacionSaldo debitar(Long usuarioId, MovimientoSaldo movimiento) {
+        return debitar(usuarioId, List.of(movimiento));
+    }
+
+    /**
+     * Descuenta varios movimientos con un único UPDATE condicional por el total
+     * (por ejemplo, todas las apuestas de un boleto)
+     */
+    @Transactional
+    public ResultadoOperacionSaldo debitar(Long usuarioId, List<MovimientoSaldo> movimientos) {
+        BigDecimal total = totalizar(movimientos);
+
+        int filas = usuarioRepository.debitarSaldo(usuarioId, total);
+        BigDecimal saldo = saldoActual(usuarioId);
+
+        if (filas == 0) {
+            log.debug("Débito de {} rechazado para usuario {} (saldo {})", total, usuarioId, saldo);
+            return ResultadoOperacionSaldo.rechazado(usuarioId, total, saldo);
+        }
+
+        ledgerService.registrar(usuarioId, movimientos, -1, saldo.add(total));
+        return ResultadoOperacionSaldo.aplicado(usuarioId, total, saldo);
+    }
+
+    /**
+     * Suma el movimiento al saldo del usuario
+     */
+    @Transactional
+    public ResultadoOperacionSaldo acreditar(Long usuarioId, MovimientoSaldo movimiento) {
+        return acreditar(usuarioId, List.of(movimiento));
+    }
+
+    /**
+     * Suma varios movimientos al saldo del usuario con un único UPDATE
+     */
+    @Transactional
+    public ResultadoOperacionSaldo acreditar(Long usuarioId, List<MovimientoSaldo> movimientos) {
+        BigDecimal total = totalizar(movimientos);
+
+        int filas = usuarioRepository.acreditarSaldo(usuarioId, total);
+        if (filas == 0) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+        BigDecimal saldo = saldoActual(usuarioId);
+
+        ledgerService.registrar(usuarioId, movimientos, 1, saldo.subtract(total));
+        return ResultadoOperacionSaldo.aplicado(usuarioId, total, saldo);
+    }
+
+    /**
+     * Acredita a muchos usuarios con un solo UPDATE y registra sus asientos en
+     * lote (pagos de la liquidación de un evento)
+     *
+     * @return saldo resultante por id de usuario
+     */
+    @Transactional
+    public Map<Long, BigDecimal> acreditarEnLote(Map<Long, List<MovimientoSaldo>> movimientosPorUsuario) {
+        Map<Long, BigDecimal> totales = new HashMap<>();
+        movimientosPorUsuario.forEach((usuarioId, movimientos) -> totales.put(usuarioId, totalizar(movimientos)));
+
+        Map<Long, BigDecimal> saldos = saldoBatchRepository.acreditar(totales);
+        if (saldos.size() != totales.size()) {
+            throw new RuntimeException("Usuario no encontrado al acreditar en lote");
+        }
+
+        Map<Long, BigDecimal> saldosAnteriores = new HashMap<>();
+        saldos.forEach((usuarioId, saldo) -> saldosAnteriores.put(usuarioId, saldo.subtract(totales.get(usuarioId))));
+        ledgerService.registrarEnLote(movimientosPorUsuario, 1, saldosAnteriores);
+        return saldos;
+    }
+
+    /**
+     * Ajuste administrativo: fija el saldo a un valor absoluto y registra la
+     * diferencia como AJUSTE en el ledger
+     */
+    @Transactional
+    public ResultadoOperacionSaldo establecer(Long usuarioId, BigDecimal saldo) {
+        if (saldo == null || saldo.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("El saldo no puede ser negativo");
+        }
+
+        BigDecimal saldoAnterior = usuarioRepository.findSaldoUsdByIdForUpdate(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        usuarioRepository.establecerSaldo(usuarioId, saldo);
+
+        BigDecimal diferencia = saldo.subtract(saldoAnterior);
+        if (diferencia.signum() != 0) {
+            ledgerService.registrar(usuarioId,
+                    List.of(MovimientoSaldo.sinReferencia(TipoMovimiento.AJUSTE, diferencia.abs())),
+                    diferencia.signum(), saldoAnterior);
+        }
+
+        log.info("Saldo del usuario {} ajustado de {} a {}", usuarioId, saldoAnterior, saldo);
+        return ResultadoOperacionSaldo.aplicado(usuarioId, diferencia.abs(), saldo);
+    }
+
+    /**
+     * Saldo actual leído de la base de datos (no del objeto Usuario en memoria)
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal saldoActual(Long usuarioId) {
+        return usuarioRepository.findSaldoUsdById(usuarioId).orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Saldo de la cuenta y saldo según el ledger para conciliarlos. No es
+     * readOnly para leer en la primaria: una réplica atrasada reportaría
+     * diferencias que no existen. Ambas lecturas ven la misma instantánea.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public ConciliacionSaldo conciliar(Long usuarioId) {
+        BigDecimal saldoCuenta = usuarioRepository.findSaldoUsdById(usuarioId).orElse(BigDecimal.ZERO);
+        return new ConciliacionSaldo(saldoCuenta, ledgerService.saldoSegunLedger(usuarioId));
+    }
+
+    private BigDecimal totalizar(List<MovimientoSaldo> movimientos) {
+        if (movimientos == null || movimientos.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un movimiento");
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (MovimientoSaldo movimiento : movimientos) {
+            if (movimiento.getMonto() == null || movimiento.getMonto().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("El monto debe ser mayor a cero");
+            }
+            total = total.add(movimiento.getMonto());
+        }
+        return total;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ConciliacionSaldo {
+        private final BigDecimal saldoCuenta;
+        private final BigDecimal saldoLedger;
+    }
+}
@@ -9,11 +9,16 @@ import com._bet.entity.user.Usuario;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.Optional;
 
-public interface UsuarioService extends UserDetailsService {
+/**
+ * Como UserDetailsPasswordService, recibe del login el hash nuevo de las
+ * contraseñas guardadas con un costo BCrypt menor al actual
+ */
+public interface UsuarioService extends UserDetailsService, UserDetailsPasswordService {
     
     // ========== MÉTODOS DE REGISTRO Y BÚSQUEDA ==========
     
@@ -10,24 +10,33 @@ import com._bet.dto.response.UsuarioResponse;
 import com._bet.entity.user.InformacionPersonal;
 import com._bet.entity.user.Usuario;
 import com._bet.repository.UsuarioRepository;
+import com._bet.security.CachePrincipales;
+import com._bet.service.saldo.SaldoService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class UsuarioServiceImpl implements UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SaldoService saldoService;
+    private final CachePrincipales cachePrincipales;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional(readOnly = true)
@@ -235,6 +244,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         actualizarInformacionPersonal(usuario, request.getInformacionPersonal());
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
+        cachePrincipales.invalidar(userId);
         return convertirAUsuarioResponse(usuarioActualizado);
     }
 
@@ -267,6 +277,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuario.setNumeroTelefono(request.getNumeroTelefono());
         usuario.setFechaNacimiento(request.getFechaNacimiento());
         if (request.getSaldoUsd() != null) {
+            saldoService.establecer(userId, request.getSaldoUsd());
             usuario.setSaldoUsd(request.getSaldoUsd());
         }
 
@@ -281,6 +292,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         actualizarInformacionPersonal(usuario, request.getInformacionPersonal());
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
+        cachePrincipales.invalidar(userId);
         return convertirAUsuarioResponse(usuarioActualizado);
     }
 
@@ -303,6 +315,34 @@ public class UsuarioServiceImpl implements UsuarioService {
         // Actualizar contraseña
         usuario.setPassword(passwordEncoder.encode(request.getNuevaPassword()));
         usuarioRepository.save(usuario);
+        cachePrincipales.invalidar(userId);
+    }
+
+    /**
+     * Guarda el hash recalculado tras un login exitoso cuyo hash tenía un costo
+     * menor al configurado. Va en su propia transacción (el login es de solo
+     * lectura y se enruta a la réplica) y no pisa un cambio de contraseña
+     * concurrente. Si falla, el login sigue con el hash anterior.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (!(user instanceof Usuario usuario)) {
+            return user;
+        }
+        TransactionTemplate nuevaTransaccion = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            Integer actualizadas = nuevaTransaccion.execute(status ->
+                    usuarioRepository.reemplazarPassword(usuario.getId(), usuario.getPassword(), newPassword));
+            if (actualizadas != null && actualizadas == 1) {
+                usuario.setPassword(newPassword);
+                cachePrincipales.invalidar(usuario.getId());
+                log.info("🔄 Contraseña del usuario {} rehasheada con el costo actual", usuario.getId());
+            }
+        } catch (Exception e) {
+            log.error("❌ Error al rehashear la contraseña del usuario {}: {}", usuario.getId(), e.getMessage());
+        }
+        return usuario;
     }
 
     @Override
@@ -313,6 +353,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         usuario.setActivo(false);
         usuarioRepository.save(usuario);
+        cachePrincipales.invalidar(userId);
     }
 
     @Override
@@ -323,6 +364,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         usuario.setActivo(true);
         usuarioRepository.save(usuario);
+        cachePrincipales.invalidar(userId);
     }
 
     @Override
@@ -332,5 +374,6 @@ public class UsuarioServiceImpl implements UsuarioService {
             throw new RuntimeException("Usuario no encontrado");
         }
         usuarioRepository.deleteById(userId);
+        cachePrincipales.invalidar(userId);
     }
 }
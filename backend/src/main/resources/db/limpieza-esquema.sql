@@ -0,0 +1,7 @@
+-- ddl-auto=update agrega columnas pero nunca las elimina: aquí se retiran las
+-- que ya no mapea ninguna entidad. Corre en cada arranque después de Hibernate,
+-- así que cada sentencia debe poder repetirse.
+
+-- parlays.factor_ajuste: reemplazada por momio_liquidado (producto de los
+-- factores de las piernas ya liquidadas)
+ALTER TABLE parlays DROP COLUMN IF EXISTS factor_ajuste;
@@ -0,0 +1,88 @@
+package com._bet;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com._bet.entity.eventoEntity.ResultadoSeleccion;
+
+/**
+ * Inserta directamente en las tablas los datos mínimos (usuario, evento,
+ * selección, parlay y apuesta) para probar el SQL de liquidación y anulación
+ * contra PruebaPostgres
+ */
+public class DatosApuestas {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timestamp ahora = Timestamp.valueOf(LocalDateTime.now().minusMinutes(5));
+    private int secuencia;
+
+    public DatosApuestas(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Long usuario(String saldo) {
+        String nombre = "usuario" + (++secuencia);
+        return jdbcTemplate.queryForObject("INSERT INTO usuarios (username, email, password, activo, rol, saldo_usd) "
+                + "VALUES (?, ?, 'secreto', true, 'USER', ?) RETURNING id", Long.class, nombre,
+                nombre + "@24bet.test", new BigDecimal(saldo));
+    }
+
+    /**
+     * Evento con su deporte, liga y estado del proveedor
+     */
+    public Long evento(String estadoCorto) {
+        int n = ++secuencia;
+        Long deporte = jdbcTemplate.queryForObject("INSERT INTO deportes (nombre, activo, fecha_creacion, "
+                + "fecha_actualizacion) VALUES (?, true, ?, ?) RETURNING id", Long.class, "Fútbol " + n, ahora, ahora);
+        Long liga = jdbcTemplate.queryForObject("INSERT INTO ligas (nombre, temporada, activa, deporte_id, "
+                + "fecha_creacion, fecha_actualizacion) VALUES (?, 2026, true, ?, ?, ?) RETURNING id", Long.class,
+                "Liga " + n, deporte, ahora, ahora);
+        Long estado = jdbcTemplate.queryForObject("INSERT INTO estado (corto) VALUES (?) RETURNING id", Long.class,
+                estadoCorto);
+        return jdbcTemplate.queryForObject("INSERT INTO eventos_deportivos (nombre, liga_id, estado_id, "
+                + "fecha_creacion, fecha_actualizacion) VALUES (?, ?, ?, ?, ?) RETURNING id", Long.class,
+                "Evento " + n, liga, estado, ahora, ahora);
+    }
+
+    /**
+     * Selección de un mercado nuevo del evento
+     */
+    public Long valor(Long eventoId, String etiqueta, String momio) {
+        Long mercado = jdbcTemplate.queryForObject("INSERT INTO momios (tipo_apuesta, activo, evento_deportivo_id, "
+                + "fecha_creacion, fecha_actualizacion) VALUES ('Match Winner', true, ?, ?, ?) RETURNING id",
+                Long.class, eventoId, ahora, ahora);
+        return jdbcTemplate.queryForObject("INSERT INTO valor (valor, odd, momio_id) VALUES (?, ?, ?) RETURNING id",
+                Long.class, etiqueta, Double.valueOf(momio), mercado);
+    }
+
+    /**
+     * Resultado de la selección tal como lo deja la resolución del evento
+     */
+    public void resolver(Long valorId, ResultadoSeleccion resultado) {
+        jdbcTemplate.update("UPDATE valor SET resultado = ?, is_ganador = ? WHERE id = ?", resultado.name(),
+                resultado.esGanadora(), valorId);
+    }
+
+    public Long parlay(Long usuarioId, String monto, String momioTotal, int piernas) {
+        BigDecimal montoTotal = new BigDecimal(monto);
+        BigDecimal momio = new BigDecimal(momioTotal);
+        return jdbcTemplate.queryForObject("INSERT INTO parlays (usuario_id, monto_total, momio_total, "
+                + "ganancia_potencial, numero_apuestas, apuestas_ganadas, apuestas_perdidas, apuestas_pendientes, "
+                + "estado, activo, fecha_creacion, fecha_actualizacion) "
+                + "VALUES (?, ?, ?, ?, ?, 0, 0, ?, 'ACTIVO', true, ?, ?) RETURNING id", Long.class, usuarioId,
+                montoTotal.doubleValue(), momio, montoTotal.multiply(momio), piernas, piernas, ahora, ahora);
+    }
+
+    /**
+     * Apuesta simple (parlayId null) o pierna de parlay, activa
+     */
+    public Long apuesta(Long usuarioId, Long eventoId, Long valorId, Long parlayId, String monto, String momio) {
+        return jdbcTemplate.queryForObject("INSERT INTO apuestas (usuario_id, evento_deportivo_id, valor_id, "
+                + "parlay_id, tipo_apuesta, monto, momio, estado, activa, fecha_creacion, fecha_actualizacion) "
+                + "VALUES (?, ?, ?, ?, 'Match Winner', ?, ?, 'ACTIVA', true, ?, ?) RETURNING id", Long.class,
+                usuarioId, eventoId, valorId, parlayId, Double.valueOf(monto), Double.valueOf(momio), ahora, ahora);
+    }
+}
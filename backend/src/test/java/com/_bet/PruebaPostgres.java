@@ -0,0 +1,48 @@
+package com._bet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Base de las pruebas del SQL nativo (UPDATE ... RETURNING, ANY(?), ON
+ * CONFLICT): corren contra un PostgreSQL embebido con el esquema que genera
+ * Hibernate a partir de las entidades. Los repositorios JDBC y servicios que
+ * use cada prueba se agregan con @Import.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public abstract class PruebaPostgres {
+
+    private static final EmbeddedPostgres POSTGRES = iniciar();
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    private static EmbeddedPostgres iniciar() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    // La JVM ya termina
+                }
+            }));
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo iniciar PostgreSQL embebido", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com._bet.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com._bet.DatosApuestas;
+import com._bet.PruebaPostgres;
+import com._bet.repository.AnulacionRepository.ParlayCancelado;
+import com._bet.repository.AnulacionRepository.ParlayRecalculado;
+import com._bet.repository.AnulacionRepository.PiernaAnulada;
+
+@Import(AnulacionRepository.class)
+class AnulacionRepositoryTest extends PruebaPostgres {
+
+    @Autowired
+    private AnulacionRepository anulacionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatosApuestas datos;
+    private Long usuario;
+    private Long anulado;
+    private Long vigente;
+    private final LocalDateTime ahora = LocalDateTime.now();
+
+    @BeforeEach
+    void preparar() {
+        datos = new DatosApuestas(jdbcTemplate);
+        usuario = datos.usuario("0.00");
+        anulado = datos.evento("CANC");
+        vigente = datos.evento("NS");
+    }
+
+    @Test
+    void recalculaElParlayConLasPiernasRestantes() {
+        // 2.00 x 1.85 x 2.10 = 7.770; sin la pierna anulada queda 1.85 x 2.10 = 3.885
+        Long parlay = datos.parlay(usuario, "10.00", "7.770", 3);
+        Long valorAnulado = datos.valor(anulado, "Home", "2.00");
+        Long valorUno = datos.valor(vigente, "Home", "1.85");
+        Long valorDos = datos.valor(datos.evento("NS"), "Away", "2.10");
+        datos.apuesta(usuario, anulado, valorAnulado, parlay, "10.00", "2.00");
+        datos.apuesta(usuario, vigente, valorUno, parlay, "10.00", "1.85");
+        Long ganada = datos.apuesta(usuario, vigente, valorDos, parlay, "10.00", "2.10");
+        jdbcTemplate.update("UPDATE apuestas SET estado = 'LIQUIDADA', activa = false WHERE id = ?", ganada);
+
+        List<PiernaAnulada> piernas = anulacionRepository.anularPiernas(anulado, List.of(usuario), ahora);
+        assertThat(piernas).singleElement().satisfies(p -> {
+            assertThat(p.getValorId()).isEqualTo(valorAnulado);
+            assertThat(p.getPagoParlay()).isEqualByComparingTo("77.70");
+        });
+
+        List<ParlayRecalculado> recalculados = anulacionRepository.recalcularParlays(Set.of(parlay), ahora);
+
+        assertThat(recalculados).singleElement().satisfies(r -> {
+            assertThat(r.getPagoAnterior()).isEqualByComparingTo("77.70");
+            assertThat(r.getPagoNuevo()).isEqualByComparingTo("38.85");
+            // Solo la pierna pendiente tiene exposición reservada
+            assertThat(r.getValoresPendientes()).containsExactly(valorUno);
+        });
+        Map<String, Object> fila = jdbcTemplate.queryForMap("SELECT momio_total, ganancia_potencial, "
+                + "numero_apuestas, apuestas_pendientes, estado FROM parlays WHERE id = ?", parlay);
+        assertThat((BigDecimal) fila.get("momio_total")).isEqualByComparingTo("3.885");
+        assertThat((BigDecimal) fila.get("ganancia_potencial")).isEqualByComparingTo("38.85");
+        assertThat(fila.get("numero_apuestas")).isEqualTo(2);
+        assertThat(fila.get("apuestas_pendientes")).isEqualTo(1);
+        assertThat(fila.get("estado")).isEqualTo("ACTIVO");
+
+        assertThat(anulacionRepository.cancelarParlaysSinPiernas(Set.of(parlay), ahora)).isEmpty();
+    }
+
+    @Test
+    void cancelaElParlayConTodasSusPiernasAnuladas() {
+        Long parlay = datos.parlay(usuario, "25.00", "3.000", 2);
+        datos.apuesta(usuario, anulado, datos.valor(anulado, "Home", "1.50"), parlay, "25.00", "1.50");
+        datos.apuesta(usuario, anulado, datos.valor(anulado, "Over 2.5", "2.00"), parlay, "25.00", "2.00");
+
+        assertThat(anulacionRepository.anularPiernas(anulado, List.of(usuario), ahora)).hasSize(2);
+        // Sin piernas válidas no hay nada que recalcular
+        assertThat(anulacionRepository.recalcularParlays(Set.of(parlay), ahora)).isEmpty();
+
+        List<ParlayCancelado> cancelados = anulacionRepository.cancelarParlaysSinPiernas(Set.of(parlay), ahora);
+
+        assertThat(cancelados).singleElement().satisfies(c -> {
+            assertThat(c.getParlayId()).isEqualTo(parlay);
+            assertThat(c.getUsuarioId()).isEqualTo(usuario);
+            assertThat(c.getMonto()).isEqualByComparingTo("25.00");
+        });
+        Map<String, Object> fila = jdbcTemplate.queryForMap(
+                "SELECT estado, resultado_final, activo, apuestas_pendientes FROM parlays WHERE id = ?", parlay);
+        assertThat(fila.get("estado")).isEqualTo("CANCELADO");
+        assertThat(fila.get("resultado_final")).isEqualTo("CANCELADO");
+        assertThat(fila.get("activo")).isEqualTo(false);
+        assertThat(fila.get("apuestas_pendientes")).isEqualTo(0);
+
+        // Repetir la anulación no vuelve a cancelar ni a reembolsar
+        assertThat(anulacionRepository.cancelarParlaysSinPiernas(Set.of(parlay), ahora)).isEmpty();
+    }
+}
@@ -0,0 +1,154 @@
+package com._bet.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com._bet.DatosApuestas;
+import com._bet.PruebaPostgres;
+import com._bet.entity.eventoEntity.ResultadoSeleccion;
+import com._bet.repository.LiquidacionRepository.ParlayFinalizado;
+import com._bet.repository.LiquidacionRepository.PiernaLiquidada;
+
+@Import(LiquidacionRepository.class)
+class LiquidacionRepositoryTest extends PruebaPostgres {
+
+    @Autowired
+    private LiquidacionRepository liquidacionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatosApuestas datos;
+    private Long usuario;
+    private final LocalDateTime ahora = LocalDateTime.now();
+
+    @BeforeEach
+    void preparar() {
+        datos = new DatosApuestas(jdbcTemplate);
+        usuario = datos.usuario("0.00");
+    }
+
+    @Test
+    void laPrimeraPiernaPerdidaCierraElParlayYSusPiernasAbiertas() {
+        Long eventoUno = datos.evento("FT");
+        Long eventoDos = datos.evento("NS");
+        Long eventoTres = datos.evento("NS");
+        Long perdida = datos.valor(eventoUno, "Home", "2.00");
+        Long abiertaUno = datos.valor(eventoDos, "Away", "1.50");
+        Long abiertaDos = datos.valor(eventoTres, "Draw", "3.00");
+        Long parlay = datos.parlay(usuario, "10.00", "9.000", 3);
+        datos.apuesta(usuario, eventoUno, perdida, parlay, "10.00", "2.00");
+        datos.apuesta(usuario, eventoDos, abiertaUno, parlay, "10.00", "1.50");
+        datos.apuesta(usuario, eventoTres, abiertaDos, parlay, "10.00", "3.00");
+        datos.resolver(perdida, ResultadoSeleccion.PIERDE);
+
+        List<ParlayFinalizado> finalizados = liquidarPiernas(eventoUno);
+
+        assertThat(finalizados).singleElement().satisfies(f -> {
+            assertThat(f.getParlayId()).isEqualTo(parlay);
+            assertThat(f.isGanado()).isFalse();
+        });
+        Map<String, Object> fila = parlay(parlay);
+        assertThat(fila.get("estado")).isEqualTo("LIQUIDADO");
+        assertThat(fila.get("resultado_final")).isEqualTo("PERDIDO");
+        assertThat((BigDecimal) fila.get("ganancia_real")).isEqualByComparingTo("0");
+        assertThat(fila.get("apuestas_pendientes")).isEqualTo(0);
+        assertThat((BigDecimal) fila.get("momio_liquidado")).isEqualByComparingTo("0");
+
+        List<PiernaLiquidada> cerradas = liquidacionRepository.cerrarPiernasRestantes(List.of(parlay), ahora);
+
+        // Devuelven el pago reservado del parlay para liberar la exposición de su selección
+        assertThat(cerradas).extracting(PiernaLiquidada::getValorId).containsExactlyInAnyOrder(abiertaUno,
+                abiertaDos);
+        assertThat(cerradas).allSatisfy(p -> assertThat(p.getPagoParlay()).isEqualByComparingTo("90.00"));
+        assertThat(jdbcTemplate.queryForList("SELECT estado FROM apuestas WHERE parlay_id = ? AND valor_id <> ?",
+                String.class, parlay, perdida)).containsOnly("CANCELADA");
+
+        // Resolver después los otros eventos ya no toca el parlay
+        datos.resolver(abiertaUno, ResultadoSeleccion.GANA);
+        assertThat(liquidacionRepository.liquidarPiernas(eventoDos, List.of(usuario), ahora)).isEmpty();
+        assertThat(liquidacionRepository.cerrarPiernasRestantes(List.of(parlay), ahora)).isEmpty();
+    }
+
+    @Test
+    void elParlayPagaElProductoDeLosFactoresDeSusPiernas() {
+        Long medioGana = datos.evento("FT");
+        Long medioPierde = datos.evento("FT");
+        Long nula = datos.evento("FT");
+        Long valorMedioGana = datos.valor(medioGana, "Home -0.25", "1.90");
+        Long valorMedioPierde = datos.valor(medioPierde, "Over 2.75", "2.00");
+        Long valorNulo = datos.valor(nula, "Away 0", "1.80");
+        // 1.90 x 2.00 x 1.80 = 6.840
+        Long parlay = datos.parlay(usuario, "100.00", "6.840", 3);
+        datos.apuesta(usuario, medioGana, valorMedioGana, parlay, "100.00", "1.90");
+        datos.apuesta(usuario, medioPierde, valorMedioPierde, parlay, "100.00", "2.00");
+        datos.apuesta(usuario, nula, valorNulo, parlay, "100.00", "1.80");
+        datos.resolver(valorMedioGana, ResultadoSeleccion.MEDIO_GANA);
+        datos.resolver(valorMedioPierde, ResultadoSeleccion.MEDIO_PIERDE);
+        datos.resolver(valorNulo, ResultadoSeleccion.NULA);
+
+        // Medio ganada: (1.90 + 1) / 2 = 1.45
+        assertThat(liquidarPiernas(medioGana)).isEmpty();
+        assertThat((BigDecimal) parlay(parlay).get("momio_liquidado")).isEqualByComparingTo("1.45");
+
+        // Medio perdida devuelve la mitad: 1.45 x 0.5 = 0.725, y no cierra el parlay
+        assertThat(liquidarPiernas(medioPierde)).isEmpty();
+        Map<String, Object> parcial = parlay(parlay);
+        assertThat((BigDecimal) parcial.get("momio_liquidado")).isEqualByComparingTo("0.725");
+        assertThat(parcial.get("estado")).isEqualTo("ACTIVO");
+        assertThat(parcial.get("apuestas_perdidas")).isEqualTo(0);
+
+        // Nula multiplica por 1
+        List<ParlayFinalizado> finalizados = liquidarPiernas(nula);
+
+        assertThat(finalizados).singleElement().satisfies(f -> {
+            assertThat(f.isGanado()).isTrue();
+            assertThat(f.getPago()).isEqualByComparingTo("72.50");
+        });
+        Map<String, Object> fila = parlay(parlay);
+        assertThat((BigDecimal) fila.get("momio_liquidado")).isEqualByComparingTo("0.725");
+        assertThat(fila.get("resultado_final")).isEqualTo("GANADO");
+        assertThat(fila.get("apuestas_pendientes")).isEqualTo(0);
+        // Paga menos que el monto: no hay ganancia
+        assertThat((BigDecimal) fila.get("ganancia_real")).isEqualByComparingTo("0");
+        assertThat(jdbcTemplate.queryForList("SELECT resultado_final FROM apuestas WHERE parlay_id = ? ORDER BY id",
+                String.class, parlay)).containsExactly("GANADA", "PERDIDA", "EMPATE_PUSH");
+    }
+
+    /**
+     * Misma secuencia que LiquidacionService para las piernas de un evento
+     */
+    private List<ParlayFinalizado> liquidarPiernas(Long eventoId) {
+        Map<Long, int[]> conteo = new LinkedHashMap<>();
+        Map<Long, BigDecimal> factores = new LinkedHashMap<>();
+        for (PiernaLiquidada pierna : liquidacionRepository.liquidarPiernas(eventoId, List.of(usuario), ahora)) {
+            conteo.computeIfAbsent(pierna.getParlayId(), id -> new int[2])[pierna.isPerdida() ? 1 : 0]++;
+            factores.merge(pierna.getParlayId(), pierna.getFactor(), BigDecimal::multiply);
+        }
+        if (conteo.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(conteo.keySet());
+        liquidacionRepository.actualizarContadoresParlay(ids.toArray(Long[]::new),
+                ids.stream().map(id -> conteo.get(id)[0]).toArray(Integer[]::new),
+                ids.stream().map(id -> conteo.get(id)[1]).toArray(Integer[]::new),
+                ids.stream().map(factores::get).toArray(BigDecimal[]::new), ahora);
+        return liquidacionRepository.finalizarParlays(ids, ahora);
+    }
+
+    private Map<String, Object> parlay(Long id) {
+        return jdbcTemplate.queryForMap("SELECT estado, resultado_final, ganancia_real, momio_liquidado, "
+                + "apuestas_pendientes, apuestas_perdidas FROM parlays WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,89 @@
+package com._bet.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class SaldoBatchRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private Connection con;
+    @Mock
+    private PreparedStatement bloqueo;
+    @Mock
+    private PreparedStatement actualizacion;
+
+    private SaldoBatchRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void preparar() throws Exception {
+        repository = new SaldoBatchRepository(jdbcTemplate);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> ((ConnectionCallback<?>) inv.getArgument(0)).doInConnection(con));
+        when(con.createArrayOf(any(), any())).thenAnswer(inv -> mock(Array.class));
+        when(con.prepareStatement(startsWith("SELECT"))).thenReturn(bloqueo);
+        when(con.prepareStatement(startsWith("UPDATE"))).thenReturn(actualizacion);
+        when(bloqueo.executeQuery()).thenReturn(mock(ResultSet.class));
+    }
+
+    @Test
+    void bloqueaEnOrdenDeIdAntesDeActualizar() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getLong(1)).thenReturn(3L, 8L, 15L);
+        when(rs.getBigDecimal(2)).thenReturn(new BigDecimal("30.00"), new BigDecimal("80.00"),
+                new BigDecimal("150.00"));
+        when(actualizacion.executeQuery()).thenReturn(rs);
+
+        Map<Long, BigDecimal> montos = new LinkedHashMap<>();
+        montos.put(15L, new BigDecimal("15.00"));
+        montos.put(3L, new BigDecimal("3.00"));
+        montos.put(8L, new BigDecimal("8.00"));
+
+        Map<Long, BigDecimal> saldos = repository.acreditar(montos);
+
+        ArgumentCaptor<Object[]> ids = ArgumentCaptor.forClass(Object[].class);
+        ArgumentCaptor<Object[]> valores = ArgumentCaptor.forClass(Object[].class);
+        verify(con).createArrayOf(eq("bigint"), ids.capture());
+        verify(con).createArrayOf(eq("numeric"), valores.capture());
+        assertThat(ids.getValue()).containsExactly(3L, 8L, 15L);
+        assertThat(valores.getValue()).containsExactly(new BigDecimal("3.00"), new BigDecimal("8.00"),
+                new BigDecimal("15.00"));
+
+        InOrder orden = inOrder(bloqueo, actualizacion);
+        orden.verify(bloqueo).executeQuery();
+        orden.verify(actualizacion).executeQuery();
+        verify(con).prepareStatement("SELECT id FROM usuarios WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+
+        assertThat(saldos).containsEntry(3L, new BigDecimal("30.00"))
+                .containsEntry(8L, new BigDecimal("80.00"))
+                .containsEntry(15L, new BigDecimal("150.00"));
+    }
+}
@@ -0,0 +1,213 @@
+package com._bet.service.Transaccion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com._bet.PruebaPostgres;
+import com._bet.entity.transacciones.SolicitudDeposito;
+import com._bet.entity.transacciones.SolicitudRetiro;
+import com._bet.entity.user.Usuario;
+import com._bet.repository.AperturaLedgerRepository;
+import com._bet.repository.SaldoBatchRepository;
+import com._bet.repository.SolicitudDepositoRepository;
+import com._bet.repository.SolicitudLoteRepository;
+import com._bet.repository.SolicitudRetiroRepository;
+import com._bet.repository.UsuarioRepository;
+import com._bet.service.Transaccion.SolicitudLoteService.Decision;
+import com._bet.service.Transaccion.SolicitudLoteService.ResultadoLoteDto;
+import com._bet.service.Transaccion.SolicitudLoteService.ResultadoSolicitud;
+import com._bet.service.Transaccion.SolicitudLoteService.ResultadoSolicitudDto;
+import com._bet.service.ledger.LedgerService;
+import com._bet.service.saldo.SaldoService;
+
+/**
+ * Cada operación confirma su propia transacción (como en producción) para que
+ * el lote y la operación individual puedan competir por la misma solicitud
+ */
+@Import({ SolicitudLoteService.class, SolicitudTransaccionService.class, SolicitudLoteRepository.class,
+        DashboardSolicitudesService.class, SaldoService.class, SaldoBatchRepository.class, LedgerService.class,
+        AperturaLedgerRepository.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SolicitudLoteServiceTest extends PruebaPostgres {
+
+    @Autowired
+    private SolicitudLoteService solicitudLoteService;
+    @Autowired
+    private SolicitudTransaccionService solicitudTransaccionService;
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private SolicitudDepositoRepository solicitudDepositoRepository;
+    @Autowired
+    private SolicitudRetiroRepository solicitudRetiroRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void limpiar() {
+        jdbcTemplate.execute("TRUNCATE solicitudes_deposito, solicitudes_retiro, ledger_movimientos, "
+                + "ledger_aperturas, agregados_solicitudes, agregados_diarios_solicitudes, usuarios CASCADE");
+    }
+
+    @Test
+    void aprobarLoteAcreditaSoloLasPendientesYReportaLasDemas() {
+        Usuario admin = usuario("admin", BigDecimal.ZERO);
+        Usuario usuario = usuario("cliente", new BigDecimal("10.00"));
+        Long primera = deposito(usuario, "100.00", SolicitudDeposito.EstadoSolicitud.PENDIENTE);
+        Long segunda = deposito(usuario, "50.00", SolicitudDeposito.EstadoSolicitud.PENDIENTE);
+        Long completada = deposito(usuario, "70.00", SolicitudDeposito.EstadoSolicitud.COMPLETADA);
+
+        ResultadoLoteDto resultado = solicitudLoteService.procesarDepositos(
+                List.of(primera, segunda, completada, 999_999L), Decision.APROBAR, admin.getId(), "ok");
+
+        assertThat(resultado.getProcesadas()).isEqualTo(2);
+        assertThat(resultado.getFallidas()).isEqualTo(2);
+        assertThat(resultado.getResultados()).extracting(ResultadoSolicitudDto::getResultado).containsExactly(
+                ResultadoSolicitud.PROCESADA, ResultadoSolicitud.PROCESADA, ResultadoSolicitud.YA_PROCESADA,
+                ResultadoSolicitud.NO_ENCONTRADA);
+        assertThat(resultado.getResultados().get(1).getSaldoUsuario()).isEqualByComparingTo("160.00");
+        assertThat(saldo(usuario)).isEqualByComparingTo("160.00");
+        assertThat(estadoDeposito(primera)).isEqualTo("COMPLETADA");
+        assertThat(movimientosUsuario("DEPOSITO")).isEqualTo(2);
+
+        // Repetir el lote no vuelve a acreditar
+        ResultadoLoteDto repetido = solicitudLoteService.procesarDepositos(List.of(primera, segunda),
+                Decision.APROBAR, admin.getId(), "ok");
+        assertThat(repetido.getProcesadas()).isZero();
+        assertThat(saldo(usuario)).isEqualByComparingTo("160.00");
+    }
+
+    @Test
+    void rechazarLoteDeRetirosDevuelveLosFondosBloqueados() {
+        Usuario admin = usuario("admin", BigDecimal.ZERO);
+        Usuario usuario = usuario("cliente", new BigDecimal("100.00"));
+        SolicitudTransaccionService.SolicitudRetiroDto dto = new SolicitudTransaccionService.SolicitudRetiroDto();
+        dto.setMonto(new BigDecimal("40.00"));
+        dto.setMetodoRetiro(SolicitudRetiro.MetodoRetiro.TRANSFERENCIA_BANCARIA);
+        Long retiro = solicitudTransaccionService.crearSolicitudRetiro(usuario.getId(), dto).getId();
+        assertThat(saldo(usuario)).isEqualByComparingTo("60.00");
+
+        ResultadoLoteDto resultado = solicitudLoteService.procesarRetiros(List.of(retiro), Decision.RECHAZAR,
+                admin.getId(), "datos incorrectos", null);
+
+        assertThat(resultado.getProcesadas()).isEqualTo(1);
+        assertThat(saldo(usuario)).isEqualByComparingTo("100.00");
+        assertThat(solicitudRetiroRepository.findById(retiro).orElseThrow().getEstado())
+                .isEqualTo(SolicitudRetiro.EstadoSolicitud.RECHAZADA);
+        assertThat(movimientosUsuario("REEMBOLSO_RETIRO")).isEqualTo(1);
+
+        // La cancelación del usuario ya no la encuentra pendiente ni devuelve de nuevo
+        assertThatThrownBy(() -> solicitudTransaccionService.cancelarSolicitudRetiro(retiro, usuario.getId()))
+                .hasMessage("Solo se pueden cancelar solicitudes pendientes");
+        assertThat(saldo(usuario)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void aprobacionIndividualYLoteSobreLaMismaSolicitudAcreditanUnaVez() throws Exception {
+        Usuario admin = usuario("admin", BigDecimal.ZERO);
+        Usuario usuario = usuario("cliente", BigDecimal.ZERO);
+        int rondas = 20;
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < rondas; i++) {
+                Long solicitud = deposito(usuario, "10.00", SolicitudDeposito.EstadoSolicitud.PENDIENTE);
+                CyclicBarrier salida = new CyclicBarrier(2);
+
+                CompletableFuture<Boolean> individual = CompletableFuture.supplyAsync(() -> {
+                    esperar(salida);
+                    try {
+                        solicitudTransaccionService.aprobarSolicitudDeposito(solicitud, admin.getId(), "individual");
+                        return true;
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasMessage("La solicitud ya fue procesada");
+                        return false;
+                    }
+                }, hilos);
+                CompletableFuture<Boolean> lote = CompletableFuture.supplyAsync(() -> {
+                    esperar(salida);
+                    return solicitudLoteService.procesarDepositos(List.of(solicitud), Decision.APROBAR,
+                            admin.getId(), "lote").getProcesadas() == 1;
+                }, hilos);
+
+                assertThat(individual.get() ^ lote.get()).as("ronda %d: solo una aplica", i).isTrue();
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        assertThat(saldo(usuario)).isEqualByComparingTo("200.00");
+        assertThat(movimientosUsuario("DEPOSITO")).isEqualTo(rondas);
+    }
+
+    @Test
+    void rechazoIndividualNoPisaUnaAprobacionPorLote() {
+        Usuario admin = usuario("admin", BigDecimal.ZERO);
+        Usuario usuario = usuario("cliente", BigDecimal.ZERO);
+        Long solicitud = deposito(usuario, "25.00", SolicitudDeposito.EstadoSolicitud.PENDIENTE);
+
+        solicitudLoteService.procesarDepositos(List.of(solicitud), Decision.APROBAR, admin.getId(), "lote");
+
+        assertThatThrownBy(() -> solicitudTransaccionService.rechazarSolicitudDeposito(solicitud, admin.getId(),
+                "tarde")).hasMessage("La solicitud ya fue procesada");
+        assertThat(estadoDeposito(solicitud)).isEqualTo("COMPLETADA");
+        assertThat(saldo(usuario)).isEqualByComparingTo("25.00");
+    }
+
+    private Usuario usuario(String nombre, BigDecimal saldo) {
+        Usuario usuario = new Usuario();
+        usuario.setUsername(nombre);
+        usuario.setEmail(nombre + "@24bet.test");
+        usuario.setPassword("secreto");
+        usuario.setSaldoUsd(saldo);
+        return usuarioRepository.save(usuario);
+    }
+
+    private Long deposito(Usuario usuario, String monto, SolicitudDeposito.EstadoSolicitud estado) {
+        return solicitudDepositoRepository.save(SolicitudDeposito.builder()
+                .usuario(usuario)
+                .monto(new BigDecimal(monto))
+                .metodoPago(SolicitudDeposito.MetodoPago.TRANSFERENCIA_BANCARIA)
+                .estado(estado)
+                .fechaSolicitud(LocalDateTime.now())
+                .fechaActualizacion(LocalDateTime.now())
+                .build()).getId();
+    }
+
+    private BigDecimal saldo(Usuario usuario) {
+        return jdbcTemplate.queryForObject("SELECT saldo_usd FROM usuarios WHERE id = ?", BigDecimal.class,
+                usuario.getId());
+    }
+
+    private String estadoDeposito(Long id) {
+        return jdbcTemplate.queryForObject("SELECT estado FROM solicitudes_deposito WHERE id = ?", String.class, id);
+    }
+
+    private long movimientosUsuario(String tipo) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM ledger_movimientos WHERE cuenta = 'USUARIO' AND tipo = ?", Long.class, tipo);
+    }
+
+    private static void esperar(CyclicBarrier salida) {
+        try {
+            salida.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com._bet.service.apuesta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com._bet.entity.eventoEntity.ResultadoSeleccion;
+import com._bet.service.apuesta.CatalogoMercados.DefinicionMercado;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.ResultadoEvento;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.Team;
+
+class CatalogoMercadosTest {
+
+    private final CatalogoMercados catalogo = new CatalogoMercados();
+
+    /**
+     * Marcadores como "2-1"; medio tiempo y equipos que anotan son opcionales.
+     * Sin resultado esperado, la selección queda sin resolver (null)
+     */
+    @ParameterizedTest(name = "{0} / {1} con {2} (HT {3}) -> {6}")
+    @CsvSource({
+            // mercado, etiqueta, final, medio tiempo, primero en anotar, último en anotar, esperado
+            "Match Winner, Home, 2-1, , , , GANA",
+            "Match Winner, Draw, 1-1, , , , GANA",
+            "Match Winner, Away, 2-1, , , , PIERDE",
+            "Match Winner, Foo, 2-1, , , , ",
+
+            "Home/Away, Home, 2-1, , , , GANA",
+            "Home/Away, Away, 2-1, , , , PIERDE",
+            "Home/Away, Home, 1-1, , , , NULA",
+            "Home/Away, Away, 0-0, , , , NULA",
+
+            "First Half Winner, Home, 1-2, 1-0, , , GANA",
+            "First Half Winner, Draw, 2-2, 0-0, , , GANA",
+            "First Half Winner, Home, 1-0, , , , ",
+            "Second Half Winner, Away, 1-2, 1-0, , , GANA",
+            "Second Half Winner, Home, 1-2, 1-0, , , PIERDE",
+
+            "Goals Over/Under, Over 2.5, 2-1, , , , GANA",
+            "Goals Over/Under, Under 2.5, 2-1, , , , PIERDE",
+            "Goals Over/Under, Over 3, 2-1, , , , NULA",
+            "Goals Over/Under, Over 2.25, 2-0, , , , MEDIO_PIERDE",
+            "Goals Over/Under, Under 2.25, 2-0, , , , MEDIO_GANA",
+            "Goals Over/Under, Over 2.75, 2-1, , , , MEDIO_GANA",
+            "Goals Over/Under, Under 2.75, 2-1, , , , MEDIO_PIERDE",
+            "Goal Line, Over 1.75, 2-0, , , , MEDIO_GANA",
+            "Goals Over/Under First Half, Over 0.5, 1-1, 1-0, , , GANA",
+            "Goal Line (1st Half), Under 1, 1-1, 1-0, , , NULA",
+            "Goals Over/Under - Second Half, Over 2.5, 3-1, 1-0, , , GANA",
+            "Total - Home, Over 1.5, 2-0, , , , GANA",
+            "Total - Away, Under 0.5, 2-0, , , , GANA",
+
+            "Asian Handicap, Home -0.25, 1-1, , , , MEDIO_PIERDE",
+            "Asian Handicap, Away +0.25, 1-1, , , , MEDIO_GANA",
+            "Asian Handicap, Home -0.75, 1-0, , , , MEDIO_GANA",
+            "Asian Handicap, Away +0.75, 1-0, , , , MEDIO_PIERDE",
+            "Asian Handicap, Home -1, 2-1, , , , NULA",
+            "Asian Handicap, Home -1.5, 2-1, , , , PIERDE",
+            "Asian Handicap, Draw -1, 2-1, , , , ",
+            "Asian Handicap First Half, Home +0.5, 0-1, 0-0, , , GANA",
+            "Handicap Result, Home -1, 2-1, , , , PIERDE",
+            "Handicap Result, Draw -1, 2-1, , , , GANA",
+            "Handicap Result, Away -1, 1-1, , , , GANA",
+
+            "Both Teams Score, Yes, 1-1, , , , GANA",
+            "Both Teams Score, No, 1-1, , , , PIERDE",
+            "Clean Sheet - Home, Yes, 1-0, , , , GANA",
+            "Clean Sheet – Away, Yes, 1-0, , , , PIERDE",
+            "Win to Nil - Home, Yes, 2-0, , , , GANA",
+            "Win to Nil - Away, Yes, 0-0, , , , PIERDE",
+
+            "Exact Score, 2:1, 2-1, , , , GANA",
+            "Exact Score, 1-2, 2-1, , , , PIERDE",
+            "Correct Score - First Half, 1-0, 1-1, 1-0, , , GANA",
+            "Correct Score - Second Half, 0-1, 1-1, 1-0, , , GANA",
+
+            "Double Chance, Home/Draw, 1-1, , , , GANA",
+            "Double Chance, Home/Away, 1-1, , , , PIERDE",
+            "Double Chance, Draw/Away, 2-1, , , , PIERDE",
+            "Double Chance - First Half, Draw/Away, 1-0, 0-0, , , GANA",
+
+            "Odd/Even, Odd, 2-1, , , , GANA",
+            "Odd/Even - First Half, Even, 2-1, 1-0, , , PIERDE",
+            "Odd/Even - Second Half, Odd, 2-1, 1-0, , , PIERDE",
+
+            "HT/FT Double, Draw/Home, 1-0, 0-0, , , GANA",
+            "HT/FT Double, Home/Home, 1-0, 0-0, , , PIERDE",
+            "Highest Scoring Half, 2nd Half, 2-1, 1-0, , , GANA",
+            "Highest Scoring Half, Draw, 2-0, 1-0, , , GANA",
+            "Win Both Halves, Home, 2-0, 1-0, , , GANA",
+            "Win Both Halves, Away, 0-2, 0-0, , , PIERDE",
+            "Win Both Halves, Draw, 0-0, 0-0, , , ",
+
+            "Team To Score First, Home, 2-1, , HOME, AWAY, GANA",
+            "Team To Score First, Draw, 0-0, , , , GANA",
+            "Team To Score First, Away, 1-0, , , , ",
+            "Team To Score Last, Away, 2-1, , HOME, AWAY, GANA",
+            "Team To Score Last, Home, 2-1, , HOME, AWAY, PIERDE"
+    })
+    void resuelveCadaMercado(String mercado, String etiqueta, String marcador, String medioTiempo,
+            Team primerAnota, Team ultimoAnota, ResultadoSeleccion esperado) {
+        DefinicionMercado definicion = catalogo.obtener(mercado);
+        assertThat(definicion).as("mercado %s registrado", mercado).isNotNull();
+
+        ResultadoEvento resultado = new ResultadoEvento();
+        int[] fin = goles(marcador);
+        resultado.golesHomeFT = fin[0];
+        resultado.golesAwayFT = fin[1];
+        if (medioTiempo != null) {
+            int[] medio = goles(medioTiempo);
+            resultado.golesHomeHT = medio[0];
+            resultado.golesAwayHT = medio[1];
+        }
+        resultado.primerAnota = primerAnota;
+        resultado.ultimoAnota = ultimoAnota;
+
+        assertThat(definicion.evaluar(definicion.parsear(etiqueta), resultado)).isEqualTo(esperado);
+    }
+
+    @Test
+    void mercadoNoSoportadoNoSeObtiene() {
+        assertThat(catalogo.obtener("Corners Over Under")).isNull();
+        assertThat(catalogo.obtener(null)).isNull();
+    }
+
+    private static int[] goles(String marcador) {
+        String[] partes = marcador.split("-");
+        return new int[] { Integer.parseInt(partes[0]), Integer.parseInt(partes[1]) };
+    }
+}
@@ -0,0 +1,60 @@
+package com._bet.service.apuesta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com._bet.entity.eventoEntity.Valor;
+import com._bet.repository.ApuestaBatchRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ContadoresValorServiceTest {
+
+    @Mock
+    private ApuestaBatchRepository apuestaBatchRepository;
+
+    private ContadoresValorService contadores;
+    private Valor valor;
+
+    @BeforeEach
+    void preparar() {
+        contadores = new ContadoresValorService(apuestaBatchRepository);
+        valor = Valor.builder().id(7L).numeroApuestas(40).montoTotalApostado(new BigDecimal("1200.00")).build();
+    }
+
+    @Test
+    void sumaLoPendienteAlValorDeLaBaseDeDatos() {
+        contadores.registrar(7L, 2, new BigDecimal("15.50"));
+        contadores.registrar(7L, 1, new BigDecimal("4.50"));
+
+        assertThat(contadores.numeroApuestas(valor)).isEqualTo(43);
+        assertThat(contadores.montoTotalApostado(valor)).isEqualByComparingTo("1220.00");
+
+        // Tras el volcado la fila recargada ya trae los deltas y no quedan pendientes
+        assertThat(contadores.volcar()).isEqualTo(1);
+        Valor recargado = Valor.builder().id(7L).numeroApuestas(43).montoTotalApostado(new BigDecimal("1220.00"))
+                .build();
+        assertThat(contadores.numeroApuestas(recargado)).isEqualTo(43);
+        assertThat(contadores.montoTotalApostado(recargado)).isEqualByComparingTo("1220.00");
+    }
+
+    @Test
+    void unVolcadoFallidoConservaLosPendientes() {
+        contadores.registrar(7L, 1, new BigDecimal("10.00"));
+        doThrow(new RuntimeException("sin conexión")).when(apuestaBatchRepository)
+                .acumularContadoresValor(anyMap(), anyMap());
+
+        assertThat(contadores.volcar()).isZero();
+
+        assertThat(contadores.numeroApuestas(valor)).isEqualTo(41);
+        assertThat(contadores.montoTotalApostado(valor)).isEqualByComparingTo("1210.00");
+    }
+}
@@ -0,0 +1,66 @@
+package com._bet.service.apuesta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com._bet.entity.eventoEntity.Estado;
+import com._bet.entity.eventoEntity.EventoDeportivo;
+import com._bet.entity.eventoEntity.Momio;
+import com._bet.entity.eventoEntity.Valor;
+import com._bet.repository.ValorRepository;
+
+@ExtendWith(MockitoExtension.class)
+class LibroPreciosServiceTest {
+
+    @Mock
+    private ValorRepository valorRepository;
+
+    private LibroPreciosService libro;
+    private EventoDeportivo evento;
+    private Momio momio;
+    private Valor valor;
+
+    @BeforeEach
+    void preparar() {
+        libro = new LibroPreciosService(valorRepository);
+        evento = EventoDeportivo.builder().id(1L).fechaEvento(LocalDateTime.now().plusHours(2)).enVivo(false)
+                .estado(Estado.builder().corto("NS").build()).build();
+        valor = Valor.builder().id(10L).valor("Home").odd(2.0).build();
+        momio = Momio.builder().id(5L).activo(true).eventoDeportivo(evento).valores(List.of(valor)).build();
+        valor.setMomio(momio);
+        // Fuera de una transacción se publica de inmediato
+        libro.publicar(evento, List.of(momio));
+    }
+
+    @Test
+    void mandaElMomioDeLaEntidadCuandoElLibroQuedoAtras() {
+        // Otra instancia cambió el momio después de la última recarga
+        valor.setOdd(2.5);
+
+        assertThat(libro.validar(valor, 2.5)).isNull();
+        assertThat(libro.validar(valor, 2.0)).contains("cambió: actual 2.5");
+    }
+
+    @Test
+    void rechazaElMercadoSuspendidoAunqueElLibroLoTengaActivo() {
+        momio.setActivo(false);
+
+        assertThat(libro.validar(valor, 2.0)).contains("no está activo");
+    }
+
+    @Test
+    void rechazaElEventoQueYaComenzoSegunLaEntidad() {
+        evento.setEnVivo(true);
+        evento.getEstado().setCorto("1H");
+
+        assertThat(libro.validar(valor, 2.0)).contains("ya comenzó o terminó");
+    }
+}
@@ -0,0 +1,217 @@
+package com._bet.service.apuesta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com._bet.DatosApuestas;
+import com._bet.PruebaPostgres;
+import com._bet.entity.eventoEntity.ResultadoSeleccion;
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.repository.AperturaLedgerRepository;
+import com._bet.repository.LiquidacionRepository;
+import com._bet.repository.SaldoBatchRepository;
+import com._bet.service.apuesta.LiquidacionService.ResultadoLiquidacion;
+import com._bet.service.ledger.LedgerService;
+import com._bet.service.ledger.MovimientoSaldo;
+import com._bet.service.saldo.SaldoService;
+
+/**
+ * Liquidación completa contra PostgreSQL: el SQL por conjuntos de
+ * LiquidacionRepository y el crédito en lote de SaldoService
+ */
+@Import({ LiquidacionService.class, LiquidacionRepository.class, SaldoService.class, SaldoBatchRepository.class,
+        LedgerService.class, AperturaLedgerRepository.class })
+class LiquidacionServiceTest extends PruebaPostgres {
+
+    @Autowired
+    private LiquidacionService liquidacionService;
+    @Autowired
+    private SaldoService saldoService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TestEntityManager entityManager;
+    @MockitoBean
+    private ExposicionService exposicionService;
+
+    private DatosApuestas datos;
+
+    @BeforeEach
+    void preparar() {
+        datos = new DatosApuestas(jdbcTemplate);
+    }
+
+    @Test
+    void pagaCadaApuestaSimpleSegunElResultadoDeSuSeleccion() {
+        Long usuario = datos.usuario("0.00");
+        Long evento = datos.evento("FT");
+        Long gana = simple(usuario, evento, "2.50", ResultadoSeleccion.GANA);
+        Long medioGana = simple(usuario, evento, "1.90", ResultadoSeleccion.MEDIO_GANA);
+        Long nula = simple(usuario, evento, "1.80", ResultadoSeleccion.NULA);
+        Long medioPierde = simple(usuario, evento, "2.00", ResultadoSeleccion.MEDIO_PIERDE);
+        Long pierde = simple(usuario, evento, "3.00", ResultadoSeleccion.PIERDE);
+
+        ResultadoLiquidacion resultado = liquidacionService.liquidarEvento(evento);
+
+        // 25.00 + 10 x (1.90 + 1) / 2 + 10.00 + 5.00 + 0
+        assertThat(resultado.getApuestasLiquidadas()).isEqualTo(5);
+        assertThat(resultado.getTotalPagado()).isEqualByComparingTo("54.50");
+        assertThat(saldo(usuario)).isEqualByComparingTo("54.50");
+        assertApuesta(gana, "GANADA", "15.00");
+        assertApuesta(medioGana, "GANADA", "4.50");
+        assertApuesta(nula, "EMPATE_PUSH", "0.00");
+        assertApuesta(medioPierde, "PERDIDA", "0.00");
+        assertApuesta(pierde, "PERDIDA", "0.00");
+        // La perdida completa no genera asiento
+        entityManager.flush();
+        assertThat(jdbcTemplate.queryForList("SELECT monto FROM ledger_movimientos WHERE usuario_id = ? "
+                + "AND cuenta = 'USUARIO' AND tipo = 'PAGO_APUESTA' ORDER BY referencia_id", BigDecimal.class,
+                usuario)).usingElementComparator(BigDecimal::compareTo).containsExactly(new BigDecimal("25.00"),
+                        new BigDecimal("14.50"), new BigDecimal("10.00"), new BigDecimal("5.00"));
+
+        // Liquidar de nuevo no vuelve a pagar
+        assertThat(liquidacionService.liquidarEvento(evento).getApuestasLiquidadas()).isZero();
+        assertThat(saldo(usuario)).isEqualByComparingTo("54.50");
+    }
+
+    @Test
+    void pagaElParlayAlLiquidarSuUltimaPiernaYCierraElPerdidoAlPrimerFallo() {
+        Long ganador = datos.usuario("0.00");
+        Long perdedor = datos.usuario("0.00");
+        Long primero = datos.evento("FT");
+        Long segundo = datos.evento("FT");
+        Long medioGana = datos.valor(primero, "Home -0.25", "1.90");
+        Long pierde = datos.valor(primero, "Away", "4.00");
+        Long gana = datos.valor(segundo, "Home", "2.00");
+        datos.resolver(medioGana, ResultadoSeleccion.MEDIO_GANA);
+        datos.resolver(pierde, ResultadoSeleccion.PIERDE);
+
+        // 1.90 x 2.00 = 3.800; liquidado 1.45 x 2.00 = 2.90
+        Long parlayGanado = datos.parlay(ganador, "20.00", "3.800", 2);
+        datos.apuesta(ganador, primero, medioGana, parlayGanado, "20.00", "1.90");
+        datos.apuesta(ganador, segundo, gana, parlayGanado, "20.00", "2.00");
+        Long parlayPerdido = datos.parlay(perdedor, "20.00", "8.000", 2);
+        datos.apuesta(perdedor, primero, pierde, parlayPerdido, "20.00", "4.00");
+        Long piernaAbierta = datos.apuesta(perdedor, segundo, gana, parlayPerdido, "20.00", "2.00");
+
+        ResultadoLiquidacion primeraLiquidacion = liquidacionService.liquidarEvento(primero);
+
+        assertThat(primeraLiquidacion.getPiernasLiquidadas()).isEqualTo(2);
+        assertThat(primeraLiquidacion.getParlaysFinalizados()).isEqualTo(1);
+        assertThat(primeraLiquidacion.getTotalPagado()).isEqualByComparingTo("0");
+        assertParlay(parlayGanado, "ACTIVO", null, null);
+        assertParlay(parlayPerdido, "LIQUIDADO", "PERDIDO", "0.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT estado FROM apuestas WHERE id = ?", String.class,
+                piernaAbierta)).isEqualTo("CANCELADA");
+
+        datos.resolver(gana, ResultadoSeleccion.GANA);
+        ResultadoLiquidacion segundaLiquidacion = liquidacionService.liquidarEvento(segundo);
+
+        // La pierna cancelada del parlay perdido ya no se liquida
+        assertThat(segundaLiquidacion.getPiernasLiquidadas()).isEqualTo(1);
+        assertThat(segundaLiquidacion.getTotalPagado()).isEqualByComparingTo("58.00");
+        assertParlay(parlayGanado, "LIQUIDADO", "GANADO", "38.00");
+        assertThat(saldo(ganador)).isEqualByComparingTo("58.00");
+        assertThat(saldo(perdedor)).isEqualByComparingTo("0.00");
+        entityManager.flush();
+        assertThat(jdbcTemplate.queryForObject("SELECT monto FROM ledger_movimientos WHERE usuario_id = ? "
+                + "AND cuenta = 'USUARIO' AND tipo = 'PAGO_PARLAY' AND referencia_id = ?", BigDecimal.class,
+                ganador, parlayGanado)).isEqualByComparingTo("58.00");
+    }
+
+    /**
+     * Lotes concurrentes con los mismos usuarios en distinto orden: el bloqueo
+     * por id evita interbloqueos y ningún crédito se pierde
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void creditosEnLoteConcurrentesNoSeInterbloqueanNiSePierden() throws Exception {
+        int hilos = 6;
+        int rondas = 15;
+        List<Long> usuarios = new ArrayList<>();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            for (int i = 0; i < 5; i++) {
+                usuarios.add(datos.usuario("0.00"));
+            }
+            List<CompletableFuture<Void>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                long hilo = h;
+                tareas.add(CompletableFuture.runAsync(() -> {
+                    for (int r = 0; r < rondas; r++) {
+                        List<Long> orden = new ArrayList<>(usuarios);
+                        Collections.shuffle(orden);
+                        Map<Long, List<MovimientoSaldo>> pagos = new LinkedHashMap<>();
+                        for (Long usuario : orden) {
+                            pagos.put(usuario, List.of(MovimientoSaldo.de(TipoMovimiento.PAGO_APUESTA,
+                                    TipoReferencia.APUESTA, hilo * rondas + r, new BigDecimal("1.00"))));
+                        }
+                        transactionTemplate.executeWithoutResult(status -> saldoService.acreditarEnLote(pagos));
+                    }
+                }, ejecutor));
+            }
+            CompletableFuture.allOf(tareas.toArray(CompletableFuture[]::new)).get();
+
+            for (Long usuario : usuarios) {
+                assertThat(saldo(usuario)).isEqualByComparingTo(String.valueOf(hilos * rondas));
+            }
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_movimientos "
+                    + "WHERE cuenta = 'USUARIO' AND tipo = 'PAGO_APUESTA'", Long.class))
+                    .isEqualTo((long) hilos * rondas * usuarios.size());
+        } finally {
+            ejecutor.shutdownNow();
+            jdbcTemplate.execute("TRUNCATE ledger_movimientos, ledger_aperturas, usuarios CASCADE");
+        }
+    }
+
+    private Long simple(Long usuario, Long evento, String momio, ResultadoSeleccion resultado) {
+        Long valor = datos.valor(evento, resultado.name(), momio);
+        datos.resolver(valor, resultado);
+        return datos.apuesta(usuario, evento, valor, null, "10.00", momio);
+    }
+
+    private BigDecimal saldo(Long usuario) {
+        return jdbcTemplate.queryForObject("SELECT saldo_usd FROM usuarios WHERE id = ?", BigDecimal.class, usuario);
+    }
+
+    private void assertApuesta(Long id, String resultadoFinal, String ganancia) {
+        Map<String, Object> fila = jdbcTemplate.queryForMap(
+                "SELECT estado, resultado_final, ganancia_real FROM apuestas WHERE id = ?", id);
+        assertThat(fila.get("estado")).isEqualTo("LIQUIDADA");
+        assertThat(fila.get("resultado_final")).isEqualTo(resultadoFinal);
+        assertThat(new BigDecimal(fila.get("ganancia_real").toString())).isEqualByComparingTo(ganancia);
+    }
+
+    private void assertParlay(Long id, String estado, String resultadoFinal, String ganancia) {
+        Map<String, Object> fila = jdbcTemplate.queryForMap(
+                "SELECT estado, resultado_final, ganancia_real FROM parlays WHERE id = ?", id);
+        assertThat(fila.get("estado")).isEqualTo(estado);
+        assertThat(fila.get("resultado_final")).isEqualTo(resultadoFinal);
+        if (ganancia != null) {
+            assertThat(new BigDecimal(fila.get("ganancia_real").toString())).isEqualByComparingTo(ganancia);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com._bet.service.evento;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com._bet.entity.datosMaestros.Equipo;
+import com._bet.entity.eventoEntity.EventoDeportivo;
+import com._bet.entity.eventoEntity.Score;
+import com._bet.repository.EventoDeportivoRepository;
+import com._bet.service.apuesta.AnulacionService;
+import com._bet.service.apuesta.AnulacionService.ResultadoAnulacion;
+import com._bet.service.apuesta.DeterminarResultadoApuesta;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.ResultadoEvento;
+import com._bet.service.apuesta.DeterminarResultadoApuesta.Team;
+import com._bet.service.apuesta.LiquidacionMasivaService;
+
+@ExtendWith(MockitoExtension.class)
+class CicloVidaEventoServiceTest {
+
+    @Mock
+    private EventoDeportivoRepository eventoDeportivoRepository;
+    @Mock
+    private DeterminarResultadoApuesta determinarResultadoApuesta;
+    @Mock
+    private LiquidacionMasivaService liquidacionMasivaService;
+    @Mock
+    private AnulacionService anulacionService;
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private CicloVidaEventoService cicloVidaEventoService;
+
+    @Test
+    void resolverCapturaMarcadorYEquiposYEncolaLiquidacion() {
+        when(eventoDeportivoRepository.findByIdParaResolver(7L)).thenReturn(Optional.of(eventoFinalizado()));
+
+        cicloVidaEventoService.resolver(7L);
+
+        ArgumentCaptor<ResultadoEvento> captor = ArgumentCaptor.forClass(ResultadoEvento.class);
+        verify(determinarResultadoApuesta).resolverResultadosDeEvento(eq(7L), captor.capture());
+        ResultadoEvento resultado = captor.getValue();
+        assertThat(resultado.equipoHome).isEqualTo("Local FC");
+        assertThat(resultado.equipoAway).isEqualTo("Visitante FC");
+        assertThat(resultado.golesHomeFT).isEqualTo(2);
+        assertThat(resultado.golesAwayFT).isEqualTo(1);
+        assertThat(resultado.golesHomeHT).isEqualTo(1);
+        assertThat(resultado.golesAwayHT).isEqualTo(0);
+        assertThat(resultado.primerAnota).isEqualTo(Team.HOME);
+        verify(liquidacionMasivaService).encolar(7L);
+        verify(eventoDeportivoRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void resolverSinMarcadorFallaYNoEncola() {
+        EventoDeportivo evento = eventoFinalizado();
+        evento.setPuntuaciones(null);
+        when(eventoDeportivoRepository.findByIdParaResolver(7L)).thenReturn(Optional.of(evento));
+
+        assertThatThrownBy(() -> cicloVidaEventoService.resolver(7L))
+                .isInstanceOf(IllegalStateException.class);
+        verify(determinarResultadoApuesta, never()).resolverResultadosDeEvento(anyLong(), any(ResultadoEvento.class));
+        verify(liquidacionMasivaService, never()).encolar(anyLong());
+    }
+
+    @Test
+    void adjudicadoSeAnulaEnVezDeLiquidarse() {
+        when(anulacionService.anularEvento(7L)).thenReturn(new ResultadoAnulacion(7L, 1, 2, 0, 0, 0, 0,
+                BigDecimal.TEN, BigDecimal.ZERO, 0));
+
+        cicloVidaEventoService.registrarTransicion(7L, "1H", "AWD");
+
+        ArgumentCaptor<Runnable> tarea = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(tarea.capture(), any(Instant.class));
+        tarea.getValue().run();
+        verify(anulacionService).anularEvento(7L);
+        verify(determinarResultadoApuesta, never()).resolverResultadosDeEvento(anyLong(), any(ResultadoEvento.class));
+        assertThat(CicloVidaEventoService.esEnJuego("WO")).isFalse();
+    }
+
+    @Test
+    void detenidoSinReanudarQuedaParaElAdministrador() {
+        ReflectionTestUtils.setField(cicloVidaEventoService, "maxRevisiones", 2);
+        when(eventoDeportivoRepository.findEstadoCorto(7L)).thenReturn(Optional.of("SUSP"));
+
+        cicloVidaEventoService.registrarTransicion(7L, "2H", "SUSP");
+        ArgumentCaptor<Runnable> revision = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(revision.capture(), any(Instant.class));
+        revision.getValue().run();
+        assertThat(cicloVidaEventoService.eventosPorRevisar()).isEmpty();
+
+        cicloVidaEventoService.revisarDetenido(7L, 2);
+        assertThat(cicloVidaEventoService.eventosPorRevisar()).containsExactly(7L);
+
+        // Al reanudarse sale de la lista
+        cicloVidaEventoService.registrarTransicion(7L, "SUSP", "2H");
+        assertThat(cicloVidaEventoService.eventosPorRevisar()).isEmpty();
+    }
+
+    @Test
+    void detenidoQueSeReanudaNoSeVuelveARevisar() {
+        when(eventoDeportivoRepository.findEstadoCorto(7L)).thenReturn(Optional.of("2H"));
+
+        cicloVidaEventoService.revisarDetenido(7L, 1);
+
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+        assertThat(cicloVidaEventoService.eventosPorRevisar()).isEmpty();
+    }
+
+    private static EventoDeportivo eventoFinalizado() {
+        Score score = new Score();
+        score.setFulltimeHome(2);
+        score.setFulltimeAway(1);
+        score.setHalftimeHome(1);
+        score.setHalftimeAway(0);
+        score.setPrimerAnota("HOME");
+
+        EventoDeportivo evento = new EventoDeportivo();
+        evento.setId(7L);
+        evento.setEquipoLocal(Equipo.builder().nombre("Local FC").build());
+        evento.setEquipoVisitante(Equipo.builder().nombre("Visitante FC").build());
+        evento.setPuntuaciones(score);
+        return evento;
+    }
+}
@@ -0,0 +1,138 @@
+package com._bet.service.saldo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com._bet.entity.ledger.MovimientoLedger;
+import com._bet.entity.ledger.MovimientoLedger.CuentaLedger;
+import com._bet.entity.ledger.MovimientoLedger.TipoMovimiento;
+import com._bet.entity.ledger.MovimientoLedger.TipoReferencia;
+import com._bet.repository.AperturaLedgerRepository;
+import com._bet.repository.MovimientoLedgerRepository;
+import com._bet.repository.SaldoBatchRepository;
+import com._bet.repository.SnapshotSaldoRepository;
+import com._bet.repository.UsuarioRepository;
+import com._bet.service.ledger.LedgerService;
+import com._bet.service.ledger.MovimientoSaldo;
+
+@ExtendWith(MockitoExtension.class)
+class SaldoServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+    @Mock
+    private SaldoBatchRepository saldoBatchRepository;
+    @Mock
+    private MovimientoLedgerRepository movimientoLedgerRepository;
+    @Mock
+    private SnapshotSaldoRepository snapshotSaldoRepository;
+    @Mock
+    private AperturaLedgerRepository aperturaLedgerRepository;
+
+    private SaldoService saldoService;
+
+    @BeforeEach
+    void preparar() {
+        LedgerService ledgerService = new LedgerService(movimientoLedgerRepository, snapshotSaldoRepository,
+                aperturaLedgerRepository);
+        saldoService = new SaldoService(usuarioRepository, ledgerService, saldoBatchRepository);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void limpiar() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acreditarEnLoteAcreditaTotalesYRegistraAsientosPorUsuario() {
+        Map<Long, List<MovimientoSaldo>> movimientos = new HashMap<>();
+        movimientos.put(5L, List.of(pago(101L, "10.00"), pago(102L, "15.00")));
+        movimientos.put(2L, List.of(pago(103L, "40.00")));
+        movimientos.put(9L, List.of(pago(104L, "5.00")));
+
+        // Saldos previos: 5 -> 100, 2 -> 0, 9 -> 50
+        when(saldoBatchRepository.acreditar(any())).thenReturn(Map.of(
+                5L, new BigDecimal("125.00"),
+                2L, new BigDecimal("40.00"),
+                9L, new BigDecimal("55.00")));
+        // 5 ya tenía cuenta; 2 y 9 se abren en este lote
+        when(aperturaLedgerRepository.abrir(any())).thenReturn(Set.of(2L, 9L));
+
+        Map<Long, BigDecimal> saldos = saldoService.acreditarEnLote(movimientos);
+
+        ArgumentCaptor<Map<Long, BigDecimal>> totales = ArgumentCaptor.forClass(Map.class);
+        verify(saldoBatchRepository).acreditar(totales.capture());
+        assertThat(totales.getValue()).containsOnly(
+                Map.entry(5L, new BigDecimal("25.00")),
+                Map.entry(2L, new BigDecimal("40.00")),
+                Map.entry(9L, new BigDecimal("5.00")));
+        assertThat(saldos).containsEntry(5L, new BigDecimal("125.00"))
+                .containsEntry(2L, new BigDecimal("40.00"))
+                .containsEntry(9L, new BigDecimal("55.00"));
+
+        ArgumentCaptor<List<MovimientoLedger>> filas = ArgumentCaptor.forClass(List.class);
+        verify(movimientoLedgerRepository).saveAll(filas.capture());
+        List<MovimientoLedger> asientos = filas.getValue();
+
+        // 4 pagos + 1 apertura (solo el usuario 9: el 2 abre con saldo cero), dos patas cada uno
+        assertThat(asientos).hasSize(10);
+        assertThat(asientos).filteredOn(m -> m.getTipo() == TipoMovimiento.APERTURA)
+                .extracting(MovimientoLedger::getUsuarioId).containsOnly(9L);
+
+        Map<Long, BigDecimal> saldoLedgerPorUsuario = asientos.stream()
+                .filter(m -> m.getCuenta() == CuentaLedger.USUARIO)
+                .collect(Collectors.groupingBy(MovimientoLedger::getUsuarioId,
+                        Collectors.reducing(BigDecimal.ZERO, MovimientoLedger::getMonto, BigDecimal::add)));
+        assertThat(saldoLedgerPorUsuario).containsOnly(
+                Map.entry(5L, new BigDecimal("25.00")),
+                Map.entry(2L, new BigDecimal("40.00")),
+                Map.entry(9L, new BigDecimal("55.00")));
+
+        Map<String, BigDecimal> sumaPorAsiento = asientos.stream()
+                .collect(Collectors.groupingBy(MovimientoLedger::getAsiento,
+                        Collectors.reducing(BigDecimal.ZERO, MovimientoLedger::getMonto, BigDecimal::add)));
+        assertThat(sumaPorAsiento).hasSize(5);
+        assertThat(sumaPorAsiento.values()).allMatch(suma -> suma.signum() == 0);
+    }
+
+    @Test
+    void acreditarEnLoteFallaSiFaltaUnUsuario() {
+        Map<Long, List<MovimientoSaldo>> movimientos = Map.of(
+                5L, List.of(pago(101L, "10.00")),
+                6L, List.of(pago(102L, "20.00")));
+        when(saldoBatchRepository.acreditar(any())).thenReturn(Map.of(5L, new BigDecimal("10.00")));
+
+        assertThatThrownBy(() -> saldoService.acreditarEnLote(movimientos))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Usuario no encontrado");
+        verify(movimientoLedgerRepository, never()).saveAll(anyList());
+    }
+
+    private static MovimientoSaldo pago(Long apuestaId, String monto) {
+        return MovimientoSaldo.de(TipoMovimiento.PAGO_APUESTA, TipoReferencia.APUESTA, apuestaId,
+                new BigDecimal(monto));
+    }
+}